@@ -10,8 +10,11 @@ import com.apocscode.logiclink.network.SaveBlockProfilePayload;
 import com.apocscode.logiclink.network.SaveControlProfilePayload;
 import com.apocscode.logiclink.network.HubNetwork;
 import com.apocscode.logiclink.network.LinkNetwork;
+import com.apocscode.logiclink.network.MapResyncRequestPayload;
+import com.apocscode.logiclink.network.MapSyncPayload;
 import com.apocscode.logiclink.network.MotorAxisPayload;
 import com.apocscode.logiclink.network.OpenFreqConfigPayload;
+import com.apocscode.logiclink.network.PlayerSpatialIndex;
 import com.apocscode.logiclink.network.NetworkHighlightPayload;
 import com.apocscode.logiclink.network.RemoteAxisPayload;
 import com.apocscode.logiclink.network.RemoteBindPayload;
@@ -20,6 +23,11 @@ import com.apocscode.logiclink.network.RemoteControlPayload;
 import com.apocscode.logiclink.network.SeatInputPayload;
 import com.apocscode.logiclink.network.SensorNetwork;
 import com.apocscode.logiclink.network.SignalHardResetPayload;
+import com.apocscode.logiclink.network.TopologyPayload;
+import com.apocscode.logiclink.network.TopologyRequestPayload;
+import com.apocscode.logiclink.network.TrainStatePayload;
+import com.apocscode.logiclink.peripheral.NetworkDiagnosticsWorker;
+import com.apocscode.logiclink.peripheral.TrainNetworkSnapshotService;
 import com.mojang.logging.LogUtils;
 
 import net.minecraft.server.level.ServerPlayer;
@@ -30,10 +38,12 @@ import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.neoforged.neoforge.event.server.ServerStartingEvent;
 import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.neoforged.neoforge.event.tick.LevelTickEvent;
 import net.neoforged.neoforge.event.tick.PlayerTickEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
 import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 
@@ -86,6 +96,31 @@ public class LogicLink {
                 NetworkHighlightPayload.STREAM_CODEC,
                 NetworkHighlightPayload::handle
         );
+        registrar.playToClient(
+                TrainStatePayload.TYPE,
+                TrainStatePayload.STREAM_CODEC,
+                TrainStatePayload::handle
+        );
+        registrar.playToClient(
+                MapSyncPayload.TYPE,
+                MapSyncPayload.STREAM_CODEC,
+                MapSyncPayload::handle
+        );
+        registrar.playToServer(
+                MapResyncRequestPayload.TYPE,
+                MapResyncRequestPayload.STREAM_CODEC,
+                MapResyncRequestPayload::handle
+        );
+        registrar.playToClient(
+                TopologyPayload.TYPE,
+                TopologyPayload.STREAM_CODEC,
+                TopologyPayload::handle
+        );
+        registrar.playToServer(
+                TopologyRequestPayload.TYPE,
+                TopologyRequestPayload.STREAM_CODEC,
+                TopologyRequestPayload::handle
+        );
         registrar.playToServer(
                 RemoteControlPayload.TYPE,
                 RemoteControlPayload.STREAM_CODEC,
@@ -182,6 +217,11 @@ public class LogicLink {
         return null;
     }
 
+    @SubscribeEvent
+    public void onRegisterCommands(RegisterCommandsEvent event) {
+        LogicLinkCommands.register(event.getDispatcher());
+    }
+
     @SubscribeEvent
     public void onServerStarting(ServerStartingEvent event) {
         LOGGER.info("{} ready on server.", MOD_NAME);
@@ -197,12 +237,23 @@ public class LogicLink {
         RemoteServerHandler.tick(event.getLevel());
     }
 
+    /**
+     * Server tick end: publishes train network diagnostics finished on the
+     * background worker since the last tick.
+     */
+    @SubscribeEvent
+    public void onServerTick(ServerTickEvent.Post event) {
+        NetworkDiagnosticsWorker.drain();
+    }
+
     @SubscribeEvent
     public void onServerStopping(ServerStoppingEvent event) {
         try {
             SensorNetwork.clear();
             LinkNetwork.clear();
             HubNetwork.clear();
+            TrainNetworkSnapshotService.clear();
+            PlayerSpatialIndex.clear();
             LOGGER.info("{} networks cleared.", MOD_NAME);
         } catch (Throwable t) {
             LOGGER.warn("{} failed to clear networks on shutdown: {}", MOD_NAME, t.getMessage());
@@ -0,0 +1,71 @@
+package com.apocscode.logiclink;
+
+import com.apocscode.logiclink.peripheral.MapDataCodec;
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+import com.apocscode.logiclink.peripheral.TrainAccessBenchmark;
+import com.apocscode.logiclink.peripheral.TrainNetworkSnapshot;
+import com.apocscode.logiclink.peripheral.TrainNetworkSnapshotService;
+import com.mojang.brigadier.CommandDispatcher;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.chat.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operator debug commands under {@code /logiclink}.
+ * <ul>
+ *   <li>{@code /logiclink bench accessors} — time Create train reads (reflection vs handles)</li>
+ *   <li>{@code /logiclink mapsize} — wire size of this dimension's map data (NBT vs compact codec)</li>
+ * </ul>
+ */
+public class LogicLinkCommands {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal(LogicLink.MOD_ID)
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("bench")
+                        .then(Commands.literal("accessors")
+                                .executes(ctx -> benchAccessors(ctx.getSource()))))
+                .then(Commands.literal("mapsize")
+                        .executes(ctx -> mapSize(ctx.getSource()))));
+    }
+
+    private static int benchAccessors(CommandSourceStack source) {
+        for (String line : TrainAccessBenchmark.run()) {
+            source.sendSuccess(() -> Component.literal(line), false);
+            LogicLink.LOGGER.info("LogicLinkCommands: {}", line);
+        }
+        return 1;
+    }
+
+    private static int mapSize(CommandSourceStack source) {
+        TrainNetworkSnapshot snapshot = TrainNetworkSnapshotService.getSnapshot(source.getLevel(), Integer.MAX_VALUE);
+        if (snapshot.isEmpty()) {
+            source.sendFailure(Component.literal("No train network in " + snapshot.dimension()));
+            return 0;
+        }
+        CompoundTag mapData = snapshot.mapData();
+        List<String> lines = new ArrayList<>();
+        lines.add(sizeLine("Map data", MapDataCodec.measure(mapData)));
+        lines.add(sizeLine("Map data (layout by hash)",
+                MapDataCodec.measure(NetworkTopology.withTopologyReference(mapData, snapshot.topology()))));
+        if (mapData.contains(NetworkTopology.TAG)) {
+            lines.add(sizeLine("Track layout",
+                    MapDataCodec.measure(NetworkTopology.layoutOf(mapData.getCompound(NetworkTopology.TAG)))));
+        }
+        for (String line : lines) {
+            source.sendSuccess(() -> Component.literal(line), false);
+            LogicLink.LOGGER.info("LogicLinkCommands: {}", line);
+        }
+        return 1;
+    }
+
+    private static String sizeLine(String label, MapDataCodec.SizeReport report) {
+        return String.format("%s: NBT %,d B, compact %,d B, sent %,d B (%.1fx smaller)",
+                label, report.nbtBytes(), report.compactBytes(), report.frameBytes(), report.ratio());
+    }
+}
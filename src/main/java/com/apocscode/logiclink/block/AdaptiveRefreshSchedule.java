@@ -0,0 +1,93 @@
+package com.apocscode.logiclink.block;
+
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * Refresh cadence for block entities that poll the train network.
+ * <p>
+ * The interval starts at the floor. Every refresh reports whether it saw
+ * activity (trains moving, signals flipping, data changed): activity snaps the
+ * interval back to the floor, an identical scan doubles it up to the ceiling.
+ * An idle network therefore settles at one scan per ceiling interval, while a
+ * busy one is refreshed as often as the floor allows.
+ * </p>
+ */
+public final class AdaptiveRefreshSchedule {
+
+    private final int defaultFloor;
+    private final int defaultCeiling;
+    private int floor;
+    private int ceiling;
+    private int interval;
+    private int timer;
+
+    public AdaptiveRefreshSchedule(int floor, int ceiling) {
+        this.defaultFloor = floor;
+        this.defaultCeiling = ceiling;
+        setBounds(floor, ceiling);
+    }
+
+    /** Advance one tick. @return True if a refresh is due now. */
+    public boolean tick() {
+        if (++timer < interval) return false;
+        timer = 0;
+        return true;
+    }
+
+    /** Report the outcome of a refresh: activity speeds up, an identical scan backs off. */
+    public void report(boolean active) {
+        interval = active ? floor : Math.min(ceiling, interval * 2);
+    }
+
+    /** A refresh happened outside the schedule: count the next interval from now. */
+    public void restart() {
+        timer = 0;
+    }
+
+    /** Make the next {@link #tick} due, at the fastest rate (e.g. a viewer arrived). */
+    public void expedite() {
+        interval = floor;
+        timer = interval;
+    }
+
+    /** Ticks since the last refresh. */
+    public int elapsed() {
+        return timer;
+    }
+
+    /** Current interval in ticks between refreshes. */
+    public int interval() {
+        return interval;
+    }
+
+    /** Current refresh rate in refreshes per second. */
+    public float rate() {
+        return 20f / interval;
+    }
+
+    public int floor() {
+        return floor;
+    }
+
+    public int ceiling() {
+        return ceiling;
+    }
+
+    /** Set the fastest and slowest interval; the ceiling is raised to the floor if needed. */
+    public void setBounds(int floor, int ceiling) {
+        this.floor = Math.max(1, floor);
+        this.ceiling = Math.max(this.floor, ceiling);
+        this.interval = Math.max(this.floor, Math.min(this.ceiling, interval));
+    }
+
+    /** Store the bounds under {@code prefix + "Floor"/"Ceiling"}, if not the defaults. */
+    public void save(CompoundTag tag, String prefix) {
+        if (floor != defaultFloor) tag.putInt(prefix + "Floor", floor);
+        if (ceiling != defaultCeiling) tag.putInt(prefix + "Ceiling", ceiling);
+    }
+
+    public void load(CompoundTag tag, String prefix) {
+        setBounds(tag.contains(prefix + "Floor") ? tag.getInt(prefix + "Floor") : defaultFloor,
+                tag.contains(prefix + "Ceiling") ? tag.getInt(prefix + "Ceiling") : defaultCeiling);
+    }
+}
@@ -94,29 +94,34 @@ public class SignalTabletItem extends Item {
                     && !wrapper.getList(TAG_PENDING, CompoundTag.TAG_COMPOUND).isEmpty();
 
             if (player.isShiftKeyDown() || !hasPending) {
-                // Shift-right-click OR no pending queue: scan and reset queue
-                CompoundTag scanData = TrainNetworkDataReader.scanDiagnosticsOnly(serverLevel);
-                if (scanData != null) {
-                    scanData.putDouble("playerX", player.getX());
-                    scanData.putDouble("playerY", player.getY());
-                    scanData.putDouble("playerZ", player.getZ());
-
-                    ListTag queue = buildPendingQueue(scanData);
-                    wrapper = new CompoundTag();
-                    wrapper.put(TAG_SCAN_DATA, scanData);
-                    wrapper.putLong(TAG_SCAN_TIME, level.getGameTime());
-                    wrapper.put(TAG_PENDING, queue);
-                    wrapper.putInt(TAG_TOTAL, queue.size());
-                    stack.set(DataComponents.CUSTOM_DATA, CustomData.of(wrapper));
-                    player.setItemInHand(hand, stack);
-
-                    player.sendSystemMessage(Component.literal(
-                            "\u00A7a[Signal Tablet]\u00A7r Scan: " + scanData.getInt("issueCount")
-                            + " issue(s). " + queue.size() + " signal(s) queued — right-click again to place"));
-                } else {
-                    player.sendSystemMessage(Component.literal(
-                            "\u00A7c[Signal Tablet]\u00A7r No train network found"));
-                }
+                // Shift-right-click OR no pending queue: scan and reset queue.
+                // Analysis runs off-thread; the result may arrive a few ticks later.
+                TrainNetworkDataReader.scanDiagnostics(serverLevel, scanData -> {
+                    if (player.isRemoved()) return;
+                    ItemStack current = player.getItemInHand(hand);
+                    if (!(current.getItem() instanceof SignalTabletItem)) return;
+                    if (scanData != null) {
+                        scanData.putDouble("playerX", player.getX());
+                        scanData.putDouble("playerY", player.getY());
+                        scanData.putDouble("playerZ", player.getZ());
+
+                        ListTag queue = buildPendingQueue(scanData);
+                        CompoundTag scanned = new CompoundTag();
+                        scanned.put(TAG_SCAN_DATA, scanData);
+                        scanned.putLong(TAG_SCAN_TIME, level.getGameTime());
+                        scanned.put(TAG_PENDING, queue);
+                        scanned.putInt(TAG_TOTAL, queue.size());
+                        current.set(DataComponents.CUSTOM_DATA, CustomData.of(scanned));
+                        player.setItemInHand(hand, current);
+
+                        player.sendSystemMessage(Component.literal(
+                                "\u00A7a[Signal Tablet]\u00A7r Scan: " + scanData.getInt("issueCount")
+                                + " issue(s). " + queue.size() + " signal(s) queued — right-click again to place"));
+                    } else {
+                        player.sendSystemMessage(Component.literal(
+                                "\u00A7c[Signal Tablet]\u00A7r No train network found"));
+                    }
+                });
             } else {
                 // Right-click with pending queue: place next wave
                 if (!player.hasPermissions(2)) {
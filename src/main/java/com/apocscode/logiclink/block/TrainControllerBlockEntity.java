@@ -2,6 +2,8 @@ package com.apocscode.logiclink.block;
 
 import com.apocscode.logiclink.LogicLink;
 import com.apocscode.logiclink.ModRegistry;
+import com.apocscode.logiclink.peripheral.TrainNetworkSnapshotService;
+import com.apocscode.logiclink.peripheral.TrainStates;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
@@ -17,7 +19,9 @@ import java.util.*;
 /**
  * Block entity for the Train Controller.
  * Caches train network data server-side to avoid querying Create's data structures every tick.
- * Data is refreshed at a configurable interval (default: 20 ticks = 1 second).
+ * Data is refreshed on an {@link AdaptiveRefreshSchedule}: every floor interval (default
+ * 20 ticks = 1 second) while trains move, backing off to the ceiling (default 200 ticks)
+ * while the live train states stay the same.
  */
 public class TrainControllerBlockEntity extends BlockEntity {
 
@@ -28,9 +32,11 @@ public class TrainControllerBlockEntity extends BlockEntity {
     /** Cached signal data — list of maps, one per signal boundary */
     @Nullable private List<Map<String, Object>> cachedSignals = null;
 
-    private int refreshTimer = 0;
-    private int refreshInterval = 20; // ticks between cache refreshes (1 second default)
+    private final AdaptiveRefreshSchedule refresh = new AdaptiveRefreshSchedule(20, 200);
+    private boolean refreshDue = false;
     private long lastRefreshTime = 0;
+    /** Train states seen at the last refresh, to tell an active network from an idle one */
+    private TrainStates lastStates = TrainStates.EMPTY;
 
     public TrainControllerBlockEntity(BlockPos pos, BlockState blockState) {
         super(ModRegistry.TRAIN_CONTROLLER_BE.get(), pos, blockState);
@@ -50,35 +56,49 @@ public class TrainControllerBlockEntity extends BlockEntity {
 
     // --- Refresh Interval ---
 
-    public int getRefreshInterval() { return refreshInterval; }
+    public AdaptiveRefreshSchedule getRefreshSchedule() { return refresh; }
+
+    /** Effective interval in ticks between cache refreshes right now. */
+    public int getRefreshInterval() { return refresh.interval(); }
+
+    /** Set the fastest refresh interval (the floor), keeping the ceiling at or above it. */
     public void setRefreshInterval(int ticks) {
-        this.refreshInterval = Math.max(1, Math.min(200, ticks)); // 1-200 ticks (0.05s - 10s)
+        setRefreshBounds(ticks, refresh.ceiling());
+    }
+
+    /** Set the fastest and slowest refresh interval, each 1-1200 ticks (0.05s - 60s). */
+    public void setRefreshBounds(int floor, int ceiling) {
+        refresh.setBounds(Math.max(1, Math.min(1200, floor)), Math.max(1, Math.min(1200, ceiling)));
         setChanged();
     }
 
     // --- Server Tick ---
 
     public static void serverTick(Level level, BlockPos pos, BlockState state, TrainControllerBlockEntity be) {
-        be.refreshTimer++;
-        if (be.refreshTimer >= be.refreshInterval) {
-            be.refreshTimer = 0;
+        be.refreshDue = be.refresh.tick();
+        if (be.refreshDue) {
             be.lastRefreshTime = level.getGameTime();
             // Actual data refresh happens lazily in the peripheral when queried,
             // or can be triggered by the peripheral's refresh method.
-            // We just track timing here.
+            // Here we only pace it: the shared live states (one scan per tick per
+            // dimension) tell whether anything moved since the last refresh.
+            TrainStates states = TrainNetworkSnapshotService.getTrainStates(level);
+            be.refresh.report(!states.sameStateAs(be.lastStates));
+            be.lastStates = states;
         }
     }
 
-    /** Check if a cache refresh is due based on the timer */
+    /** Check if a cache refresh is due based on the schedule */
     public boolean isRefreshDue() {
-        return refreshTimer == 0;
+        return refreshDue;
     }
 
-    /** Force invalidation of all caches */
+    /** Force invalidation of all caches; the next refreshes run at the fastest rate */
     public void invalidateCaches() {
         cachedTrains = null;
         cachedStations = null;
         cachedSignals = null;
+        refresh.expedite();
     }
 
     // --- NBT ---
@@ -86,15 +106,17 @@ public class TrainControllerBlockEntity extends BlockEntity {
     @Override
     protected void saveAdditional(CompoundTag tag, HolderLookup.Provider registries) {
         super.saveAdditional(tag, registries);
-        if (refreshInterval != 20) {
-            tag.putInt("RefreshInterval", refreshInterval);
-        }
+        refresh.save(tag, "Refresh");
     }
 
     @Override
     protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
         super.loadAdditional(tag, registries);
-        refreshInterval = tag.contains("RefreshInterval") ? tag.getInt("RefreshInterval") : 20;
+        refresh.load(tag, "Refresh");
+        // Older saves stored a fixed interval: keep it as the floor
+        if (tag.contains("RefreshInterval") && !tag.contains("RefreshFloor")) {
+            refresh.setBounds(tag.getInt("RefreshInterval"), refresh.ceiling());
+        }
         invalidateCaches();
     }
 }
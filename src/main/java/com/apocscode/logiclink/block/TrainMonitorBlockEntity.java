@@ -2,29 +2,50 @@ package com.apocscode.logiclink.block;
 
 import com.apocscode.logiclink.LogicLink;
 import com.apocscode.logiclink.ModRegistry;
-import com.apocscode.logiclink.peripheral.TrainNetworkDataReader;
+import com.apocscode.logiclink.network.MapResyncRequestPayload;
+import com.apocscode.logiclink.network.MapSyncPayload;
+import com.apocscode.logiclink.network.PlayerSpatialIndex;
+import com.apocscode.logiclink.network.TopologyPayload;
+import com.apocscode.logiclink.network.TopologyRequestPayload;
+import com.apocscode.logiclink.network.TrainStatePayload;
+import com.apocscode.logiclink.peripheral.MapDataDelta;
+import com.apocscode.logiclink.peripheral.MapEntityHashes;
+import com.apocscode.logiclink.peripheral.CreateTrainAccess;
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+import com.apocscode.logiclink.peripheral.TrackChangeTracker;
+import com.apocscode.logiclink.peripheral.TrainDeadlockDetector;
+import com.apocscode.logiclink.peripheral.TrainNetworkSnapshot;
+import com.apocscode.logiclink.peripheral.TrainNetworkSnapshotService;
+import com.apocscode.logiclink.peripheral.TrainStates;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.HorizontalDirectionalBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.Vec3;
+
+import net.neoforged.neoforge.network.PacketDistributor;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
 
 /**
@@ -59,6 +80,7 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
     private int trainsMoving = 0;
     private int trainsStopped = 0;
     private int trainsDerailed = 0;
+    private int trainsDeadlocked = 0;
 
     // Train summaries (compact NBT for sync)
     public static final int MAX_DISPLAY_TRAINS = 64;
@@ -69,82 +91,104 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
     private final List<CompoundTag> stationDataList = new ArrayList<>();
 
     // ==================== Map Data (CTC topology) ====================
-    /** Full network topology data generated by TrainNetworkDataReader */
+    /** Full network topology data, shared from TrainNetworkSnapshotService (read-only) */
     private CompoundTag mapData = new CompoundTag();
-    /** Map data refresh is slower — topology doesn't change every tick */
-    private int mapRefreshTimer = 599; // start near interval so first refresh fires immediately
-    private int mapRefreshInterval = 600; // 30 seconds (topology changes rarely)
+    /** True while {@link #mapData} is a snapshot's tag; it is copied before any change */
+    private boolean mapDataShared = false;
+    /** Server: content hashes of {@link #mapData}, from the snapshot it came from */
+    private MapEntityHashes mapHashes = MapEntityHashes.EMPTY;
+    /** Columnar track layout of {@link #mapData}, decoded at most once per map data instance */
+    private NetworkTopology topology = NetworkTopology.EMPTY;
+    /** The map data instance {@link #topology} belongs to */
+    private CompoundTag topologySource = mapData;
+    /** Client: content hash of a track layout requested from the server (0 = none) */
+    private long pendingTopologyHash = 0;
+    /**
+     * Map data refresh is slower — topology doesn't change every tick. 5 seconds
+     * while the map keeps changing, backing off to 60 seconds on an idle network
+     */
+    private final AdaptiveRefreshSchedule mapRefresh = new AdaptiveRefreshSchedule(100, 1200);
+    /** Epoch of the last shared snapshot applied to this monitor (-1 = none) */
+    private int mapSnapshotEpoch = -1;
+    /** Diagnostics epoch of the last applied snapshot (diagnostics are published after the capture) */
+    private int mapDiagnosticsEpoch = -1;
+    /** Track change stamp of the last applied snapshot; a newer global stamp triggers an early refresh */
+    private long mapTrackStamp = -1;
+
+    // ==================== Live Train States ====================
+    /**
+     * Live train positions are sent separately from map data. Checked every few
+     * ticks, but only sent when clients' dead reckoning would drift too far
+     */
+    private static final int TRAIN_STATE_INTERVAL = 5;
+    private int trainStateTimer = 0;
+    /** Server: last states sent to clients. Client: last states received (re-applied over new map data) */
+    private TrainStates trainStates = TrainStates.EMPTY;
+    /** Client: incremented on map changes that don't bump the map version (track layouts) */
+    private int mapRenderRevision = 0;
+    /** Client: incremented whenever live train states are patched into the map data */
+    private int trainStateRevision = 0;
 
     // ==================== Refresh ====================
-    private int refreshTimer = 59; // start near interval so first refresh fires quickly
-    private int refreshInterval = 60; // 3 seconds for train/station list
-
-    // ==================== Player Proximity ====================
-    /** Only refresh data when a player is within this distance (blocks) */
-    private static final double PLAYER_RANGE_SQ = 48.0 * 48.0;
+    /** Train/station list: every second while trains move, backing off to 20 seconds when idle */
+    private final AdaptiveRefreshSchedule refresh = new AdaptiveRefreshSchedule(20, 400);
+    /** Longest refresh bound that can be configured, in ticks (60 seconds) */
+    public static final int MAX_REFRESH_TICKS = 1200;
+    /** Client: effective list and map refresh intervals, as last synced from the server */
+    private int syncedRefreshInterval = 20;
+    private int syncedMapRefreshInterval = 100;
+
+    // ==================== Player Interest ====================
+    /** Refresh the overview counters while a player is within this distance (blocks) */
+    private static final double PLAYER_RANGE = 48.0;
+    /** Players up to this distance (the renderer's view distance) can be viewers */
+    private static final double VIEW_RANGE = 128.0;
+    /** Cosine of the half-angle of the view cone counted as "on screen" (generous: wide FOVs, big screens) */
+    private static final double VIEW_CONE_COS = 0.3;
+    /** A viewer stays subscribed this long after last facing the screen, so glancing away costs no resync */
+    private static final int VIEWER_GRACE_TICKS = 200;
     private int proximityCheckTimer = 0;
     private static final int PROXIMITY_CHECK_INTERVAL = 20; // check every 1 second
     private boolean playerNearby = false;
+    /**
+     * Server: players with the screen in view or the GUI open, with the game time
+     * they last qualified. Only viewers get the train/station lists, map updates
+     * and live train states; other players tracking the chunk get the counters.
+     */
+    private final Map<UUID, Long> viewers = new HashMap<>();
 
     // ==================== Dirty Tracking (avoid redundant syncs) ====================
     private boolean dataDirty = false;
-    private boolean mapDataDirty = false;
-    /** Incremented when map data changes; cheaper than CompoundTag.hashCode() */
+    /**
+     * Incremented when map data changes; cheaper than CompoundTag.hashCode().
+     * Map changes reach viewers as {@link MapSyncPayload} deltas against the
+     * previous version; the full map only goes out when a player starts viewing
+     * the monitor or a client reports a version gap.
+     */
     private int mapDataVersion = 0;
+    /** Client: a full resync was requested and has not arrived yet */
+    private boolean resyncRequested = false;
+    /** Minimum ticks between two full maps answering a player's resync requests */
+    private static final int RESYNC_COOLDOWN_TICKS = 40;
+    /** Server: game time of the last full map sent to each player, while within the cooldown */
+    private final Map<UUID, Long> lastFullSync = new HashMap<>();
+    /** Server: players whose resync request is held back until their cooldown ends */
+    private final Set<UUID> pendingResyncs = new HashSet<>();
+    /** Server: game time of the last track layout sent to each player, while within the cooldown */
+    private final Map<UUID, Long> lastTopologySync = new HashMap<>();
+    /** Server: layout hash each player asked for within its cooldown, answered when it ends */
+    private final Map<UUID, Long> pendingTopologyRequests = new HashMap<>();
     /** Incremented when train/station data changes */
     private int trainDataVersion = 0;
 
-    // ==================== Reflection Cache ====================
-    private static boolean reflectionInit = false;
-    private static boolean reflectionOK = false;
-
-    // Create.RAILWAYS
-    private static Field railwaysField;
-
-    // GlobalRailwayManager
-    private static Field gmTrainsField;
-    private static Field gmTrackNetworksField;
-    private static Field gmSignalGroupsField;
-
-    // Train
-    private static Field trainNameField;
-    private static Field trainSpeedField;
-    private static Field trainTargetSpeedField;
-    private static Field trainDerailedField;
-    private static Field trainCarriagesField;
-    private static Field trainNavigationField;
-    private static Field trainRuntimeField;
-    private static Field trainCurrentStationField;
-    private static Field trainFuelTicksField;
-    private static Field trainIdField;
-    private static Method trainMaxSpeedMethod;
-    private static Method trainGetPresentDimensionsMethod;
-
-    // Navigation
-    private static Field navDestinationField;
-    private static Field navDistanceField;
-    private static Method navIsActiveMethod;
-
-    // GlobalStation
-    private static Field stationNameField;
-    private static Method stationGetPresentTrainMethod;
-    private static Method stationGetImminentTrainMethod;
-    private static Method stationGetBlockEntityPosMethod;
-    private static Method stationGetBlockEntityDimensionMethod;
-
-    // ScheduleRuntime
-    private static Field runtimeScheduleField;
-    private static Field runtimePausedField;
-    private static Method runtimeGetScheduleMethod;
-
-    // Component.getString
-    private static Method componentGetStringMethod;
-
     // ==================== Constructor ====================
 
     public TrainMonitorBlockEntity(BlockPos pos, BlockState state) {
         super(ModRegistry.TRAIN_MONITOR_BE.get(), pos, state);
         this.masterPos = pos;
+        // First refreshes fire right away
+        refresh.expedite();
+        mapRefresh.expedite();
     }
 
     // ==================== Multi-block Accessors ====================
@@ -184,6 +228,7 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
     public int getTrainsMoving() { return trainsMoving; }
     public int getTrainsStopped() { return trainsStopped; }
     public int getTrainsDerailed() { return trainsDerailed; }
+    public int getTrainsDeadlocked() { return trainsDeadlocked; }
     public List<CompoundTag> getTrainDataList() { return trainDataList; }
     public List<CompoundTag> getStationDataList() { return stationDataList; }
 
@@ -210,8 +255,67 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
     // ==================== Map Data Accessors ====================
 
     public CompoundTag getMapData() { return mapData; }
+
+    /** Columnar track layout of the current map data. Decoded lazily once per map data update. */
+    public NetworkTopology getTopology() {
+        if (topologySource != mapData) {
+            topology = NetworkTopology.readFrom(mapData);
+            topologySource = mapData;
+        }
+        return topology;
+    }
     public int getMapDataVersion() { return mapDataVersion; }
+    /** Changes whenever the drawn map data changes (map redraw key); train markers are drawn per frame */
+    public int getMapRenderVersion() { return mapDataVersion + mapRenderRevision; }
+
+    /** Client: the last live train states received (server: the last sent) */
+    public TrainStates getTrainStates() { return trainStates; }
     public int getTrainDataVersion() { return trainDataVersion; }
+    /** Client: changes whenever live train states were applied to the map data */
+    public int getTrainStateRevision() { return trainStateRevision; }
+
+    // ==================== Refresh Schedules ====================
+
+    /** Train/station list refresh cadence (bounds are saved with the block and synced to clients). */
+    public AdaptiveRefreshSchedule getRefreshSchedule() { return refresh; }
+    /** Map data refresh cadence (bounds are saved with the block and synced to clients). */
+    public AdaptiveRefreshSchedule getMapRefreshSchedule() { return mapRefresh; }
+
+    /** Effective interval in ticks between list refreshes right now (client: as last synced). */
+    public int getRefreshInterval() {
+        return level != null && level.isClientSide ? syncedRefreshInterval : refresh.interval();
+    }
+
+    /** Effective interval in ticks between map refreshes right now (client: as last synced). */
+    public int getMapRefreshInterval() {
+        return level != null && level.isClientSide ? syncedMapRefreshInterval : mapRefresh.interval();
+    }
+
+    /** Set the fastest and slowest list refresh interval, each 1-{@value #MAX_REFRESH_TICKS} ticks. */
+    public void setRefreshBounds(int floor, int ceiling) {
+        refresh.setBounds(clampRefresh(floor), clampRefresh(ceiling));
+        refresh.expedite();
+        onRefreshBoundsChanged();
+    }
+
+    /** Set the fastest and slowest map refresh interval, each 1-{@value #MAX_REFRESH_TICKS} ticks. */
+    public void setMapRefreshBounds(int floor, int ceiling) {
+        mapRefresh.setBounds(clampRefresh(floor), clampRefresh(ceiling));
+        mapRefresh.expedite();
+        onRefreshBoundsChanged();
+    }
+
+    private static int clampRefresh(int ticks) {
+        return Math.max(1, Math.min(MAX_REFRESH_TICKS, ticks));
+    }
+
+    private void onRefreshBoundsChanged() {
+        setChanged();
+        if (level != null && !level.isClientSide) {
+            BlockState state = getBlockState();
+            level.sendBlockUpdated(worldPosition, state, state, 3);
+        }
+    }
 
     // ==================== MenuProvider ====================
 
@@ -232,47 +336,126 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
                                    TrainMonitorBlockEntity be) {
         if (!be.isMaster()) return;
 
-        // Periodically check if any player is within render distance
+        // Periodically re-check who is near and who is watching the screen
         be.proximityCheckTimer++;
         if (be.proximityCheckTimer >= PROXIMITY_CHECK_INTERVAL) {
             be.proximityCheckTimer = 0;
-            be.playerNearby = level.players().stream().anyMatch(p ->
-                    p.blockPosition().distSqr(pos) < PLAYER_RANGE_SQ);
+            be.updateInterest((ServerLevel) level);
         }
 
-        // Skip data refresh entirely when no player is nearby — biggest TPS saver
-        if (!be.playerNearby) return;
+        if (!be.pendingResyncs.isEmpty()) be.sendPendingResyncs((ServerLevel) level);
+        if (!be.pendingTopologyRequests.isEmpty()) be.sendPendingTopologies((ServerLevel) level);
+
+        // Skip data refresh entirely when no player is nearby or watching — biggest TPS saver
+        if (!be.playerNearby && be.viewers.isEmpty()) return;
 
-        // Train/station list refresh (every ~3 seconds)
-        be.refreshTimer++;
-        if (be.refreshTimer >= be.refreshInterval) {
-            be.refreshTimer = 0;
+        // Train/station list refresh, faster while anything moves or changes
+        if (be.refresh.tick()) {
             be.refreshData();
+            be.refresh.report(be.dataDirty || be.trainsMoving > 0);
         }
 
-        // Map topology refresh (every ~30 seconds — topology changes are rare)
-        be.mapRefreshTimer++;
-        if (be.mapRefreshTimer >= be.mapRefreshInterval) {
-            be.mapRefreshTimer = 0;
-            be.refreshMapData();
+        // Only sync to client when data actually changed (map data goes via MapSyncPayload)
+        if (be.dataDirty) {
+            be.dataDirty = false;
+            be.sendDisplayUpdate((ServerLevel) level);
         }
 
-        // Only sync to client when data actually changed
-        if (be.dataDirty || be.mapDataDirty) {
-            be.dataDirty = false;
-            be.mapDataDirty = false;
-            level.sendBlockUpdated(pos, state, state, 3);
+        // The map and live trains only matter to players who can see them
+        if (be.viewers.isEmpty()) return;
+
+        // Map topology refresh: right after Create reports a track change,
+        // otherwise an adaptive poll as fallback
+        boolean due = be.mapRefresh.tick();
+        boolean trackChanged = TrackChangeTracker.stamp(level.dimension().location().toString()) != be.mapTrackStamp
+                && be.mapRefresh.elapsed() >= TrainNetworkSnapshotService.CHANGE_DEBOUNCE_TICKS;
+        // Diagnostics for the applied capture are published a few ticks after it
+        TrainNetworkSnapshot latest = TrainNetworkSnapshotService.peek(level);
+        boolean analysisPublished = latest != null && latest.epoch() == be.mapSnapshotEpoch
+                && latest.diagnosticsEpoch() != be.mapDiagnosticsEpoch;
+        if (due || trackChanged || analysisPublished) {
+            be.mapRefresh.restart();
+            be.mapRefresh.report(be.refreshMapData());
+        }
+
+        // Live train positions: own channel, only sent when something moved
+        be.trainStateTimer++;
+        if (be.trainStateTimer >= TRAIN_STATE_INTERVAL && !be.mapData.isEmpty()) {
+            be.trainStateTimer = 0;
+            be.sendTrainStates((ServerLevel) level);
+        }
+    }
+
+    // ==================== Player Interest ====================
+
+    /**
+     * Recompute the viewer set from the shared {@link PlayerSpatialIndex}. New
+     * viewers are brought up to date with the full display data, the map and
+     * the live train states.
+     */
+    private void updateInterest(ServerLevel serverLevel) {
+        long now = serverLevel.getGameTime();
+        boolean wasIdle = viewers.isEmpty();
+        playerNearby = false;
+        Vec3 center = Vec3.atCenterOf(worldPosition);
+        for (ServerPlayer player : PlayerSpatialIndex.playersNear(serverLevel, worldPosition, VIEW_RANGE)) {
+            if (player.distanceToSqr(center) < PLAYER_RANGE * PLAYER_RANGE) playerNearby = true;
+            if (!isViewing(player, center)) continue;
+            if (viewers.put(player.getUUID(), now) == null) {
+                player.connection.send(getViewerUpdatePacket());
+                sendFullMapSync(player);
+                if (trainStates.count() > 0) {
+                    PacketDistributor.sendToPlayer(player, new TrainStatePayload(worldPosition, trainStates));
+                }
+            }
         }
+        viewers.values().removeIf(last -> now - last > VIEWER_GRACE_TICKS);
+        lastFullSync.values().removeIf(last -> now - last >= RESYNC_COOLDOWN_TICKS);
+        lastTopologySync.values().removeIf(last -> now - last >= RESYNC_COOLDOWN_TICKS);
+        // The map may have gone stale while nobody watched
+        if (wasIdle && !viewers.isEmpty()) mapRefresh.expedite();
     }
 
-    // ==================== Data Reading (Reflection) ====================
+    /** GUI open, or in front of the screen and looking roughly towards it. */
+    private boolean isViewing(ServerPlayer player, Vec3 center) {
+        if (player.containerMenu instanceof TrainMonitorMenu menu && menu.getMasterPos().equals(worldPosition)) {
+            return true;
+        }
+        Vec3 toMonitor = center.subtract(player.getEyePosition());
+        BlockState state = getBlockState();
+        if (state.hasProperty(HorizontalDirectionalBlock.FACING)) {
+            // The screen faces FACING; players behind its plane can't see it
+            Direction facing = state.getValue(HorizontalDirectionalBlock.FACING);
+            if (toMonitor.x * facing.getStepX() + toMonitor.z * facing.getStepZ() > 0.5) return false;
+        }
+        double dist = toMonitor.length();
+        return dist < 4.0 || player.getLookAngle().dot(toMonitor) > dist * VIEW_CONE_COS;
+    }
+
+    /** Viewers get the full display data, everyone else tracking the chunk the counters. */
+    private void sendDisplayUpdate(ServerLevel serverLevel) {
+        Packet<ClientGamePacketListener> full = getViewerUpdatePacket();
+        Packet<ClientGamePacketListener> counters = getUpdatePacket();
+        for (ServerPlayer player : serverLevel.getChunkSource().chunkMap.getPlayers(new ChunkPos(worldPosition), false)) {
+            player.connection.send(viewers.containsKey(player.getUUID()) ? full : counters);
+        }
+    }
+
+    private void sendToViewers(ServerLevel serverLevel, CustomPacketPayload payload) {
+        for (UUID id : viewers.keySet()) {
+            if (serverLevel.getPlayerByUUID(id) instanceof ServerPlayer player) {
+                PacketDistributor.sendToPlayer(player, payload);
+            }
+        }
+    }
+
+    // ==================== Data Reading (CreateTrainAccess) ====================
 
     private void refreshData() {
-        if (!reflectionInit) initReflection();
-        if (!reflectionOK) return;
+        if (!CreateTrainAccess.isAvailable()) return;
 
         try {
-            Object manager = railwaysField.get(null);
+            Object manager = CreateTrainAccess.railways();
             if (manager == null) return;
 
             readTrainData(manager);
@@ -283,62 +466,258 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
         }
     }
 
-    /** Refresh full network topology for CTC map display */
-    private void refreshMapData() {
+    /**
+     * Refresh full network topology for CTC map display.
+     * Reads the shared per-dimension snapshot so that many monitors in one
+     * dimension cost a single scan per refresh interval.
+     *
+     * @return True if the map changed.
+     */
+    private boolean refreshMapData() {
+        if (level == null) return false;
         try {
-            CompoundTag newData = TrainNetworkDataReader.readNetworkMap(level);
+            TrainNetworkSnapshot snapshot = TrainNetworkSnapshotService.getSnapshot(level, mapRefresh.interval());
+            if (snapshot.epoch() == mapSnapshotEpoch
+                    && snapshot.diagnosticsEpoch() == mapDiagnosticsEpoch) return false; // already applied this scan
+            mapSnapshotEpoch = snapshot.epoch();
+            mapDiagnosticsEpoch = snapshot.diagnosticsEpoch();
+            mapTrackStamp = snapshot.trackStamp();
+
+            CompoundTag newData = snapshot.mapData();
             if (newData != null && !newData.isEmpty()) {
-                // Quick size check before expensive comparison — if key counts differ, definitely changed
-                boolean changed = mapData.isEmpty()
-                        || newData.getAllKeys().size() != mapData.getAllKeys().size();
-                if (!changed) {
-                    // Compare node/edge/train counts as a fast proxy for change detection
-                    changed = getListSize(newData, "Nodes") != getListSize(mapData, "Nodes")
-                           || getListSize(newData, "Trains") != getListSize(mapData, "Trains")
-                           || getListSize(newData, "Signals") != getListSize(mapData, "Signals");
-                }
-                if (!changed) {
-                    // Check if any train position/speed changed (most frequent change)
-                    changed = trainDataChanged(newData);
-                }
-                if (changed) {
+                // Hashes were computed with the snapshot: one comparison per top-level key
+                MapEntityHashes hashes = snapshot.hashes();
+                if (!hashes.sameAs(mapHashes)) {
+                    CompoundTag delta = MapDataDelta.diff(mapData, mapHashes, newData, hashes);
                     mapData = newData;
-                    mapDataVersion++;
-                    mapDataDirty = true;
-                    LogicLink.LOGGER.debug("TrainMonitor: Map data updated v{} — {} keys",
-                            mapDataVersion, newData.getAllKeys().size());
+                    mapDataShared = true;
+                    mapHashes = hashes;
+                    topology = snapshot.topology();
+                    topologySource = newData;
+                    if (delta != null) {
+                        mapDataVersion++;
+                        sendMapDelta(delta);
+                        LogicLink.LOGGER.debug("TrainMonitor: Map data updated v{} — {} keys, delta {}",
+                                mapDataVersion, newData.getAllKeys().size(), delta.getAllKeys());
+                        return true;
+                    }
                 }
             } else {
-                LogicLink.LOGGER.debug("TrainMonitor: readNetworkMap returned empty/null data");
+                LogicLink.LOGGER.debug("TrainMonitor: Network snapshot epoch {} is empty", snapshot.epoch());
             }
         } catch (Exception e) {
             LogicLink.LOGGER.debug("TrainMonitor: Failed to read map data: {}", e.getMessage());
         }
+        return false;
+    }
+
+    // ==================== Map Sync ====================
+
+    /** Send the change from the previous map version to every viewer of this monitor. */
+    private void sendMapDelta(CompoundTag delta) {
+        if (!(level instanceof ServerLevel serverLevel)) return;
+        sendToViewers(serverLevel, new MapSyncPayload(worldPosition, mapDataVersion - 1, mapDataVersion, false, delta));
     }
 
-    /** Fast check if train positions/speeds changed between old and new map data */
-    private boolean trainDataChanged(CompoundTag newData) {
-        if (!newData.contains("Trains") || !mapData.contains("Trains")) return true;
-        ListTag newTrains = newData.getList("Trains", 10);
-        ListTag oldTrains = mapData.getList("Trains", 10);
-        if (newTrains.size() != oldTrains.size()) return true;
-        for (int i = 0; i < newTrains.size(); i++) {
-            CompoundTag nt = newTrains.getCompound(i);
-            CompoundTag ot = oldTrains.getCompound(i);
-            if (Math.abs(nt.getFloat("x") - ot.getFloat("x")) > 0.5f) return true;
-            if (Math.abs(nt.getFloat("z") - ot.getFloat("z")) > 0.5f) return true;
-            if (Math.abs(nt.getDouble("speed") - ot.getDouble("speed")) > 0.01) return true;
+    /** Send the full map to one player (new viewer, or answer to a {@link MapResyncRequestPayload}). */
+    public void sendFullMapSync(ServerPlayer player) {
+        if (!isMaster() || !(level instanceof ServerLevel serverLevel)) return;
+        // Only players that can actually see this monitor
+        if (!serverLevel.getChunkSource().chunkMap.getPlayers(new ChunkPos(worldPosition), false).contains(player)) {
+            return;
         }
-        return false;
+        PacketDistributor.sendToPlayer(player, new MapSyncPayload(worldPosition, mapDataVersion, mapDataVersion,
+                true, NetworkTopology.withTopologyReference(mapData, getTopology())));
+        lastFullSync.put(player.getUUID(), serverLevel.getGameTime());
+    }
+
+    /**
+     * Answer a {@link MapResyncRequestPayload}: at most one full map per player
+     * every {@link #RESYNC_COOLDOWN_TICKS}. A request within the cooldown is
+     * held back, not dropped, since the client waits for an answer before it
+     * asks again; the full map sent when the cooldown ends covers every
+     * request made meanwhile.
+     */
+    public void requestFullMapSync(ServerPlayer player) {
+        if (!isMaster() || level == null) return;
+        Long last = lastFullSync.get(player.getUUID());
+        if (last != null && level.getGameTime() - last < RESYNC_COOLDOWN_TICKS) {
+            pendingResyncs.add(player.getUUID());
+            return;
+        }
+        sendFullMapSync(player);
     }
 
-    private static int getListSize(CompoundTag tag, String key) {
-        return tag.contains(key) ? tag.getList(key, 10).size() : 0;
+    private void sendPendingResyncs(ServerLevel serverLevel) {
+        long now = serverLevel.getGameTime();
+        pendingResyncs.removeIf(id -> {
+            Long last = lastFullSync.get(id);
+            if (last != null && now - last < RESYNC_COOLDOWN_TICKS) return false;
+            if (serverLevel.getPlayerByUUID(id) instanceof ServerPlayer player) sendFullMapSync(player);
+            return true;
+        });
+    }
+
+    /**
+     * Answer a {@link TopologyRequestPayload}: at most one track layout per
+     * player every {@link #RESYNC_COOLDOWN_TICKS}, like full map resyncs. A
+     * request within the cooldown is held back (the latest hash wins) and
+     * answered when the cooldown ends.
+     */
+    public void requestTopology(ServerPlayer player, long hash) {
+        if (!isMaster() || level == null) return;
+        Long last = lastTopologySync.get(player.getUUID());
+        if (last != null && level.getGameTime() - last < RESYNC_COOLDOWN_TICKS) {
+            pendingTopologyRequests.put(player.getUUID(), hash);
+            return;
+        }
+        sendTopology(player, hash);
+    }
+
+    private void sendPendingTopologies(ServerLevel serverLevel) {
+        long now = serverLevel.getGameTime();
+        pendingTopologyRequests.entrySet().removeIf(request -> {
+            Long last = lastTopologySync.get(request.getKey());
+            if (last != null && now - last < RESYNC_COOLDOWN_TICKS) return false;
+            if (serverLevel.getPlayerByUUID(request.getKey()) instanceof ServerPlayer player) {
+                sendTopology(player, request.getValue());
+            }
+            return true;
+        });
+    }
+
+    /** Send the current track layout to one player, if it still has the requested hash. */
+    private void sendTopology(ServerPlayer player, long hash) {
+        if (!isMaster() || !(level instanceof ServerLevel serverLevel)) return;
+        if (!serverLevel.getChunkSource().chunkMap.getPlayers(new ChunkPos(worldPosition), false).contains(player)) {
+            return;
+        }
+        NetworkTopology current = getTopology();
+        // Stale request: the layout changed since; the client gets the new one with the next map update
+        if (current.isEmpty() || current.contentHash() != hash) return;
+        PacketDistributor.sendToPlayer(player, new TopologyPayload(worldPosition, hash,
+                NetworkTopology.layoutOf(mapData.getCompound(NetworkTopology.TAG))));
+        lastTopologySync.put(player.getUUID(), serverLevel.getGameTime());
+    }
+
+    /**
+     * Client: apply a map update; a delta for another base version triggers a resync request.
+     *
+     * @param layouts The client's track layout cache
+     */
+    public void applyMapSync(MapSyncPayload payload, NetworkTopology.LayoutCache layouts) {
+        if (payload.full()) {
+            mapDataVersion = payload.version();
+            resyncRequested = false;
+            acceptFullMapData(payload.body().copy(), layouts);
+            return;
+        } else if (payload.baseVersion() == mapDataVersion) {
+            // Copy: tags in the delta may be shared with the server's snapshot in singleplayer
+            CompoundTag delta = payload.body().copy();
+            MapDataDelta.apply(ownMapData(), delta);
+            if (delta.contains("Occupancy") || delta.getCompound("Set").contains(NetworkTopology.TAG)) {
+                topologySource = null; // patched in place, decode again
+            }
+            if (delta.getCompound("Set").contains(NetworkTopology.TAG)) {
+                // A new layout arrived whole: it replaces any pending one and goes into the cache
+                mapData.remove(NetworkTopology.FLAGS_TAG);
+                pendingTopologyHash = 0;
+                NetworkTopology current = getTopology();
+                if (!current.isEmpty()) {
+                    layouts.put(current.contentHash(),
+                            NetworkTopology.layoutOf(mapData.getCompound(NetworkTopology.TAG)));
+                }
+            }
+        } else {
+            if (!resyncRequested) {
+                resyncRequested = true;
+                PacketDistributor.sendToServer(new MapResyncRequestPayload(worldPosition));
+            }
+            return;
+        }
+        mapDataVersion = payload.version();
+        // Live states are newer than the snapshot positions in the map data
+        trainStates.applyTo(ownMapData());
+    }
+
+    /**
+     * Client: take a full map (already a private copy). A track layout sent by
+     * reference is restored from the layout cache, or requested from the server
+     * if this client has not seen it yet.
+     */
+    private void acceptFullMapData(CompoundTag data, NetworkTopology.LayoutCache layouts) {
+        mapData = data;
+        mapDataShared = false;
+        pendingTopologyHash = 0;
+        if (data.contains(NetworkTopology.HASH_TAG)) {
+            long hash = data.getLong(NetworkTopology.HASH_TAG);
+            data.remove(NetworkTopology.HASH_TAG);
+            CompoundTag layout = layouts.get(hash);
+            if (layout != null) {
+                NetworkTopology.restoreLayout(data, layout);
+            } else {
+                pendingTopologyHash = hash;
+                PacketDistributor.sendToServer(new TopologyRequestPayload(worldPosition, hash));
+            }
+        }
+        // Live states are newer than the snapshot positions in the map data
+        trainStates.applyTo(mapData);
+    }
+
+    /** Client: a requested track layout arrived. Verified against its hash before it is cached. */
+    public void acceptTopology(long hash, CompoundTag layout, NetworkTopology.LayoutCache layouts) {
+        if (hash == 0 || hash != pendingTopologyHash) return;
+        CompoundTag check = new CompoundTag();
+        check.put(NetworkTopology.TAG, layout);
+        if (NetworkTopology.readFrom(check).contentHash() != hash) {
+            LogicLink.LOGGER.warn("TrainMonitor: Topology at {} does not match hash {}", worldPosition,
+                    Long.toHexString(hash));
+            return;
+        }
+        pendingTopologyHash = 0;
+        // Copy: the layout may be shared with the server's snapshot in singleplayer
+        CompoundTag own = layout.copy();
+        layouts.put(hash, own);
+        NetworkTopology.restoreLayout(ownMapData(), own);
+        topologySource = null;
+        mapRenderRevision++;
+    }
+
+    /**
+     * Map data that may be modified in place. Snapshot tags are shared with every
+     * consumer in the dimension, so one still held here is copied first.
+     */
+    private CompoundTag ownMapData() {
+        if (mapDataShared) {
+            CompoundTag own = mapData.copy();
+            if (topologySource == mapData) topologySource = own;
+            mapData = own;
+            mapDataShared = false;
+        }
+        return mapData;
+    }
+
+    private void sendTrainStates(ServerLevel serverLevel) {
+        try {
+            TrainStates states = TrainNetworkSnapshotService.getTrainStates(serverLevel);
+            if (!states.divergesFrom(trainStates)) return;
+            trainStates = states;
+            sendToViewers(serverLevel, new TrainStatePayload(worldPosition, states));
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("TrainMonitor: Failed to send train states: {}", e.getMessage());
+        }
+    }
+
+    /** Client: apply live train states received from the server to the map data. */
+    public void applyTrainStates(TrainStates states) {
+        trainStates = states;
+        states.applyTo(ownMapData());
+        trainStateRevision++;
     }
 
     private void readTrainData(Object manager) throws Exception {
         @SuppressWarnings("unchecked")
-        Map<UUID, Object> trains = (Map<UUID, Object>) gmTrainsField.get(manager);
+        Map<UUID, Object> trains = (Map<UUID, Object>) CreateTrainAccess.trains(manager);
         if (trains == null) return;
 
         trainDataList.clear();
@@ -349,69 +728,69 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
                 CompoundTag tag = new CompoundTag();
 
                 // Name
-                Object nameComp = trainNameField.get(train);
-                String name = nameComp != null ? (String) componentGetStringMethod.invoke(nameComp) : "Unknown";
+                Object nameComp = CreateTrainAccess.trainName(train);
+                String name = nameComp != null ? ((Component) nameComp).getString() : "Unknown";
                 tag.putString("name", name);
 
                 // Speed
-                double speed = trainSpeedField.getDouble(train);
+                double speed = CreateTrainAccess.trainSpeed(train);
                 tag.putDouble("speed", speed);
 
                 // Derailed
-                boolean isDerailed = trainDerailedField.getBoolean(train);
+                boolean isDerailed = CreateTrainAccess.trainDerailed(train);
                 tag.putBoolean("derailed", isDerailed);
 
                 // Carriages count
-                List<?> carriages = (List<?>) trainCarriagesField.get(train);
+                List<?> carriages = (List<?>) CreateTrainAccess.trainCarriages(train);
                 tag.putInt("carriages", carriages != null ? carriages.size() : 0);
 
                 // Current station — may be UUID or GlobalStation in Create 1.21.1
                 try {
-                    Object currentStation = trainCurrentStationField.get(train);
+                    Object currentStation = CreateTrainAccess.trainCurrentStation(train);
                     if (currentStation != null) {
                         if (currentStation instanceof UUID) {
                             tag.putString("currentStationId", currentStation.toString().substring(0, 8));
                         } else {
-                            String stName = (String) stationNameField.get(currentStation);
+                            String stName = CreateTrainAccess.stationName(currentStation);
                             if (stName != null) tag.putString("currentStation", stName);
                         }
                     }
                 } catch (Exception ignored) {}
 
                 // Navigation
-                Object nav = trainNavigationField.get(train);
+                Object nav = CreateTrainAccess.trainNavigation(train);
                 boolean navigating = false;
                 if (nav != null) {
-                    navigating = (boolean) navIsActiveMethod.invoke(nav);
+                    navigating = CreateTrainAccess.navIsActive(nav);
                     tag.putBoolean("navigating", navigating);
                     if (navigating) {
                         try {
-                            Object dest = navDestinationField.get(nav);
+                            Object dest = CreateTrainAccess.navDestination(nav);
                             if (dest != null) {
                                 if (dest instanceof UUID) {
                                     tag.putString("destinationId", dest.toString().substring(0, 8));
                                 } else {
-                                    String destName = (String) stationNameField.get(dest);
+                                    String destName = CreateTrainAccess.stationName(dest);
                                     if (destName != null) tag.putString("destination", destName);
                                 }
                             }
                         } catch (Exception ignored) {}
-                        double dist = navDistanceField.getDouble(nav);
+                        double dist = CreateTrainAccess.navDistance(nav);
                         tag.putDouble("distance", dist);
                     }
                 }
 
                 // Schedule
-                Object runtime = trainRuntimeField.get(train);
+                Object runtime = CreateTrainAccess.trainRuntime(train);
                 boolean hasSchedule = false;
                 if (runtime != null) {
-                    Object schedule = runtimeGetScheduleMethod.invoke(runtime);
+                    Object schedule = CreateTrainAccess.runtimeSchedule(runtime);
                     hasSchedule = schedule != null;
                     tag.putBoolean("hasSchedule", hasSchedule);
                 }
 
                 // UUID (truncated for display)
-                UUID id = (UUID) trainIdField.get(train);
+                UUID id = (UUID) CreateTrainAccess.trainId(train);
                 if (id != null) tag.putString("id", id.toString().substring(0, 8));
 
                 trainDataList.add(tag);
@@ -428,6 +807,12 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
             if (trainDataList.size() >= MAX_DISPLAY_TRAINS) break;
         }
 
+        // Deadlock cycles over ALL trains, not just the listed ones
+        Set<String> deadlockedIds = readDeadlocks(trains);
+        for (CompoundTag tag : trainDataList) {
+            if (deadlockedIds.contains(tag.getString("id"))) tag.putBoolean("deadlocked", true);
+        }
+
         // Sort: derailed first, then moving, then stopped
         trainDataList.sort((a, b) -> {
             int aDerailed = a.getBoolean("derailed") ? 0 : 1;
@@ -440,46 +825,70 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
 
         // Check if data actually changed before marking dirty
         boolean changed = (trainCount != trains.size()) ||
-                (trainsMoving != moving) || (trainsStopped != stopped) || (trainsDerailed != derailed);
+                (trainsMoving != moving) || (trainsStopped != stopped) || (trainsDerailed != derailed) ||
+                (trainsDeadlocked != deadlockedIds.size());
         trainCount = trains.size();
         trainsMoving = moving;
         trainsStopped = stopped;
         trainsDerailed = derailed;
+        trainsDeadlocked = deadlockedIds.size();
         if (changed) {
             dataDirty = true;
             trainDataVersion++;
         }
     }
 
-    // ==================== Station Reflection Cache ====================
-    private static Object cachedStationType = null;
-    private static Method cachedGetPointsMethod = null;
-    private static Class<?> cachedEdgePointTypeClass = null;
+    /**
+     * Run deadlock detection on the live wait-for graph. Only reads each train's
+     * waiting signal group and occupied groups, so it is cheap enough for every
+     * list refresh. Returns the truncated ids (as in the train list) of trains
+     * caught in a cycle.
+     */
+    private Set<String> readDeadlocks(Map<UUID, Object> trains) {
+        TrainDeadlockDetector detector = new TrainDeadlockDetector();
+        List<String> occupied = new ArrayList<>();
+        for (Object train : trains.values()) {
+            try {
+                UUID id = (UUID) CreateTrainAccess.trainId(train);
+                if (id == null) continue;
+
+                String waitingGroup = null;
+                Object nav = CreateTrainAccess.trainNavigation(train);
+                Object waitingCouple = nav != null ? CreateTrainAccess.navWaitingForSignal(nav) : null;
+                if (waitingCouple != null) {
+                    Object waitGroup = CreateTrainAccess.first(waitingCouple);
+                    if (waitGroup != null) waitingGroup = waitGroup.toString();
+                }
+
+                occupied.clear();
+                Map<?, ?> blocks = (Map<?, ?>) CreateTrainAccess.trainOccupiedSignalBlocks(train);
+                if (blocks != null) {
+                    for (Object key : blocks.keySet()) occupied.add(key.toString());
+                }
+                detector.addTrain(id.toString().substring(0, 8), waitingGroup, occupied);
+            } catch (Exception ignored) {}
+        }
+
+        Set<String> deadlocked = new HashSet<>();
+        for (List<String> cycle : detector.findDeadlocks()) {
+            deadlocked.addAll(cycle);
+        }
+        return deadlocked;
+    }
 
     private void readStationData(Object manager) throws Exception {
         stationDataList.clear();
 
         // Get track networks and iterate their station edge points
         @SuppressWarnings("unchecked")
-        Map<UUID, Object> networks = (Map<UUID, Object>) gmTrackNetworksField.get(manager);
+        Map<UUID, Object> networks = (Map<UUID, Object>) CreateTrainAccess.trackNetworks(manager);
         if (networks == null) return;
 
         // Collect all stations from all track graphs
         try {
-            // Cache the EdgePointType reflection — avoid re-discovering every refresh
-            if (cachedStationType == null) {
-                cachedEdgePointTypeClass = Class.forName("com.simibubi.create.content.trains.graph.EdgePointType");
-                Field stationTypeField = cachedEdgePointTypeClass.getDeclaredField("STATION");
-                stationTypeField.setAccessible(true);
-                cachedStationType = stationTypeField.get(null);
-            }
-
             for (Object graph : networks.values()) {
                 try {
-                    if (cachedGetPointsMethod == null) {
-                        cachedGetPointsMethod = graph.getClass().getMethod("getPoints", cachedEdgePointTypeClass);
-                    }
-                    Collection<?> points = (Collection<?>) cachedGetPointsMethod.invoke(graph, cachedStationType);
+                    Collection<?> points = (Collection<?>) CreateTrainAccess.graphPoints(graph, CreateTrainAccess.POINT_STATION);
                     if (points == null) continue;
 
                     for (Object station : points) {
@@ -487,11 +896,11 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
 
                         try {
                             CompoundTag tag = new CompoundTag();
-                            String name = (String) stationNameField.get(station);
+                            String name = CreateTrainAccess.stationName(station);
                             tag.putString("name", name != null ? name : "Unknown");
 
                             // Position
-                            BlockPos sPos = (BlockPos) stationGetBlockEntityPosMethod.invoke(station);
+                            BlockPos sPos = (BlockPos) CreateTrainAccess.blockEntityPos(station);
                             if (sPos != null) {
                                 tag.putInt("x", sPos.getX());
                                 tag.putInt("y", sPos.getY());
@@ -499,12 +908,11 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
                             }
 
                             // Present train
-                            Object presentTrain = stationGetPresentTrainMethod.invoke(station);
+                            Object presentTrain = CreateTrainAccess.stationPresentTrain(station);
                             if (presentTrain != null) {
-                                Object trainName = trainNameField.get(presentTrain);
+                                Object trainName = CreateTrainAccess.trainName(presentTrain);
                                 if (trainName != null) {
-                                    tag.putString("trainPresent",
-                                            (String) componentGetStringMethod.invoke(trainName));
+                                    tag.putString("trainPresent", ((Component) trainName).getString());
                                 }
                             }
 
@@ -529,97 +937,10 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
 
     private void readSignalCount(Object manager) throws Exception {
         @SuppressWarnings("unchecked")
-        Map<?, ?> signalGroups = (Map<?, ?>) gmSignalGroupsField.get(manager);
+        Map<?, ?> signalGroups = (Map<?, ?>) CreateTrainAccess.signalEdgeGroups(manager);
         signalCount = signalGroups != null ? signalGroups.size() : 0;
     }
 
-    // ==================== Reflection Initialization ====================
-
-    private static synchronized void initReflection() {
-        if (reflectionInit) return;
-        reflectionInit = true;
-
-        try {
-            // Create.RAILWAYS
-            Class<?> createClass = Class.forName("com.simibubi.create.Create");
-            railwaysField = createClass.getDeclaredField("RAILWAYS");
-            railwaysField.setAccessible(true);
-
-            // GlobalRailwayManager fields
-            Object testManager = railwaysField.get(null);
-            if (testManager == null) {
-                LogicLink.LOGGER.warn("TrainMonitor: Create.RAILWAYS is null, will retry later");
-                reflectionInit = false;
-                return;
-            }
-            Class<?> gmClass = testManager.getClass();
-            gmTrainsField = gmClass.getDeclaredField("trains");
-            gmTrainsField.setAccessible(true);
-            gmTrackNetworksField = gmClass.getDeclaredField("trackNetworks");
-            gmTrackNetworksField.setAccessible(true);
-            gmSignalGroupsField = gmClass.getDeclaredField("signalEdgeGroups");
-            gmSignalGroupsField.setAccessible(true);
-
-            // Train class fields
-            Class<?> trainClass = Class.forName("com.simibubi.create.content.trains.entity.Train");
-            trainNameField = trainClass.getDeclaredField("name");
-            trainNameField.setAccessible(true);
-            trainSpeedField = trainClass.getDeclaredField("speed");
-            trainSpeedField.setAccessible(true);
-            trainTargetSpeedField = trainClass.getDeclaredField("targetSpeed");
-            trainTargetSpeedField.setAccessible(true);
-            trainDerailedField = trainClass.getDeclaredField("derailed");
-            trainDerailedField.setAccessible(true);
-            trainCarriagesField = trainClass.getDeclaredField("carriages");
-            trainCarriagesField.setAccessible(true);
-            trainNavigationField = trainClass.getDeclaredField("navigation");
-            trainNavigationField.setAccessible(true);
-            trainRuntimeField = trainClass.getDeclaredField("runtime");
-            trainRuntimeField.setAccessible(true);
-            trainCurrentStationField = trainClass.getDeclaredField("currentStation");
-            trainCurrentStationField.setAccessible(true);
-            trainFuelTicksField = trainClass.getDeclaredField("fuelTicks");
-            trainFuelTicksField.setAccessible(true);
-            trainIdField = trainClass.getDeclaredField("id");
-            trainIdField.setAccessible(true);
-
-            // Navigation
-            Class<?> navClass = Class.forName("com.simibubi.create.content.trains.entity.Navigation");
-            navDestinationField = navClass.getDeclaredField("destination");
-            navDestinationField.setAccessible(true);
-            navDistanceField = navClass.getDeclaredField("distanceToDestination");
-            navDistanceField.setAccessible(true);
-            navIsActiveMethod = navClass.getMethod("isActive");
-
-            // GlobalStation
-            Class<?> stationClass = Class.forName("com.simibubi.create.content.trains.station.GlobalStation");
-            stationNameField = stationClass.getDeclaredField("name");
-            stationNameField.setAccessible(true);
-            stationGetPresentTrainMethod = stationClass.getMethod("getPresentTrain");
-            stationGetImminentTrainMethod = stationClass.getMethod("getImminentTrain");
-            stationGetBlockEntityPosMethod = stationClass.getMethod("getBlockEntityPos");
-            stationGetBlockEntityDimensionMethod = stationClass.getMethod("getBlockEntityDimension");
-
-            // ScheduleRuntime
-            Class<?> runtimeClass = Class.forName("com.simibubi.create.content.trains.schedule.ScheduleRuntime");
-            runtimeScheduleField = runtimeClass.getDeclaredField("schedule");
-            runtimeScheduleField.setAccessible(true);
-            runtimePausedField = runtimeClass.getDeclaredField("paused");
-            runtimePausedField.setAccessible(true);
-            runtimeGetScheduleMethod = runtimeClass.getMethod("getSchedule");
-
-            // Component
-            componentGetStringMethod = Component.class.getMethod("getString");
-
-            reflectionOK = true;
-            LogicLink.LOGGER.info("TrainMonitor: Create railway reflection initialized successfully");
-
-        } catch (Exception e) {
-            LogicLink.LOGGER.error("TrainMonitor: Failed to initialize reflection", e);
-            reflectionOK = false;
-        }
-    }
-
     // ==================== NBT Persistence ====================
 
     @Override
@@ -632,9 +953,8 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
         tag.putInt("MonitorWidth", monitorWidth);
         tag.putInt("MonitorHeight", monitorHeight);
         tag.putInt("DisplayMode", displayMode);
-        if (refreshInterval != 20) {
-            tag.putInt("RefreshInterval", refreshInterval);
-        }
+        refresh.save(tag, "Refresh");
+        mapRefresh.save(tag, "MapRefresh");
     }
 
     @Override
@@ -648,21 +968,15 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
         monitorWidth = tag.contains("MonitorWidth") ? tag.getInt("MonitorWidth") : 1;
         monitorHeight = tag.contains("MonitorHeight") ? tag.getInt("MonitorHeight") : 1;
         displayMode = tag.contains("DisplayMode") ? tag.getInt("DisplayMode") : MODE_MAP;
-        refreshInterval = tag.contains("RefreshInterval") ? tag.getInt("RefreshInterval") : 20;
+        refresh.load(tag, "Refresh");
+        mapRefresh.load(tag, "MapRefresh");
 
         // Also load display data — needed for client-side block update packets
         // (onDataPacket -> loadWithComponents -> loadAdditional)
         loadDisplayData(tag);
 
-        // Load map topology data — CRITICAL: sendBlockUpdated() packets
-        // go through loadAdditional (not handleUpdateTag), so MapData
-        // MUST be loaded here for the client to receive topology updates.
-        if (tag.contains("MapData")) {
-            mapData = tag.getCompound("MapData").copy();
-        }
-        if (tag.contains("MapDataVersion")) {
-            mapDataVersion = tag.getInt("MapDataVersion");
-        }
+        // Map data is not part of block updates or chunk data: viewers get it
+        // as MapSyncPayloads (full on first view, then deltas).
         if (tag.contains("TrainDataVersion")) {
             trainDataVersion = tag.getInt("TrainDataVersion");
         }
@@ -670,8 +984,16 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
 
     // ==================== Client Sync ====================
 
+    /**
+     * Chunk data and block updates for every tracking player: multi-block state
+     * and the overview counters. Lists and the map go to viewers only.
+     */
     @Override
     public CompoundTag getUpdateTag(HolderLookup.Provider registries) {
+        return getDisplayUpdateTag(registries, false);
+    }
+
+    private CompoundTag getDisplayUpdateTag(HolderLookup.Provider registries, boolean withLists) {
         CompoundTag tag = super.getUpdateTag(registries);
         // Multi-block state — MUST be included so client knows about grouping
         tag.putInt("MasterX", masterPos.getX());
@@ -682,13 +1004,10 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
         tag.putInt("DisplayMode", displayMode);
         // Display data (only master sends this)
         if (isMaster()) {
-            saveDisplayData(tag);
-            // Include map topology data + version for client-side dirty check
-            tag.putInt("MapDataVersion", mapDataVersion);
-            tag.putInt("TrainDataVersion", trainDataVersion);
-            if (!mapData.isEmpty()) {
-                tag.put("MapData", mapData.copy());
-            }
+            refresh.save(tag, "Refresh");
+            mapRefresh.save(tag, "MapRefresh");
+            saveDisplayData(tag, withLists);
+            if (withLists) tag.putInt("TrainDataVersion", trainDataVersion);
         }
         return tag;
     }
@@ -699,31 +1018,36 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
         if (tag.contains("DisplayMode")) {
             displayMode = tag.getInt("DisplayMode");
         }
-        if (tag.contains("MapDataVersion")) {
-            mapDataVersion = tag.getInt("MapDataVersion");
-        }
         if (tag.contains("TrainDataVersion")) {
             trainDataVersion = tag.getInt("TrainDataVersion");
         }
         loadDisplayData(tag);
-        if (tag.contains("MapData")) {
-            mapData = tag.getCompound("MapData").copy();
-        }
     }
 
     @Nullable
     @Override
     public Packet<ClientGamePacketListener> getUpdatePacket() {
+        // Block updates carry the counters only; see getViewerUpdatePacket
         return ClientboundBlockEntityDataPacket.create(this);
     }
 
-    private void saveDisplayData(CompoundTag tag) {
+    /** Block update with the full display data (train/station lists), for viewers. */
+    private Packet<ClientGamePacketListener> getViewerUpdatePacket() {
+        return ClientboundBlockEntityDataPacket.create(this,
+                (be, registries) -> ((TrainMonitorBlockEntity) be).getDisplayUpdateTag(registries, true));
+    }
+
+    private void saveDisplayData(CompoundTag tag, boolean withLists) {
         tag.putInt("DTrainCount", trainCount);
         tag.putInt("DStationCount", stationCount);
         tag.putInt("DSignalCount", signalCount);
         tag.putInt("DMoving", trainsMoving);
         tag.putInt("DStopped", trainsStopped);
         tag.putInt("DDerailed", trainsDerailed);
+        tag.putInt("DDeadlocked", trainsDeadlocked);
+        tag.putInt("DRefresh", refresh.interval());
+        tag.putInt("DMapRefresh", mapRefresh.interval());
+        if (!withLists) return;
 
         // Train list
         ListTag trainList = new ListTag();
@@ -748,18 +1072,24 @@ public class TrainMonitorBlockEntity extends BlockEntity implements MenuProvider
             trainsMoving = tag.getInt("DMoving");
             trainsStopped = tag.getInt("DStopped");
             trainsDerailed = tag.getInt("DDerailed");
+            trainsDeadlocked = tag.getInt("DDeadlocked");
+        }
+        if (tag.contains("DRefresh")) {
+            syncedRefreshInterval = tag.getInt("DRefresh");
+            syncedMapRefreshInterval = tag.getInt("DMapRefresh");
         }
 
-        trainDataList.clear();
+        // Counter-only updates (not viewing) keep the last lists
         if (tag.contains("DTrains")) {
+            trainDataList.clear();
             ListTag list = tag.getList("DTrains", Tag.TAG_COMPOUND);
             for (int i = 0; i < list.size(); i++) {
                 trainDataList.add(list.getCompound(i));
             }
         }
 
-        stationDataList.clear();
         if (tag.contains("DStations")) {
+            stationDataList.clear();
             ListTag list = tag.getList("DStations", Tag.TAG_COMPOUND);
             for (int i = 0; i < list.size(); i++) {
                 stationDataList.add(list.getCompound(i));
@@ -12,10 +12,17 @@ import net.minecraft.world.item.ItemStack;
 /**
  * Menu container for the Train Network Monitor GUI.
  * Has no inventory slots — purely a data display interface.
- * Carries the master block position for the screen to read from.
+ * Carries the master block position for the screen to read from, and applies
+ * the screen's refresh rate buttons (sent as menu button clicks) on the server.
  */
 public class TrainMonitorMenu extends AbstractContainerMenu {
 
+    /** Menu button ids: halve or double the floor of the list / map refresh schedule */
+    public static final int BUTTON_LIST_FASTER = 0;
+    public static final int BUTTON_LIST_SLOWER = 1;
+    public static final int BUTTON_MAP_FASTER = 2;
+    public static final int BUTTON_MAP_SLOWER = 3;
+
     private final BlockPos masterPos;
 
     /** Server-side constructor */
@@ -33,6 +40,25 @@ public class TrainMonitorMenu extends AbstractContainerMenu {
         return masterPos;
     }
 
+    @Override
+    public boolean clickMenuButton(Player player, int id) {
+        if (id < BUTTON_LIST_FASTER || id > BUTTON_MAP_SLOWER) return false;
+        if (!(player.level().getBlockEntity(masterPos) instanceof TrainMonitorBlockEntity monitor)) return false;
+
+        boolean map = id >= BUTTON_MAP_FASTER;
+        boolean faster = id == BUTTON_LIST_FASTER || id == BUTTON_MAP_FASTER;
+        AdaptiveRefreshSchedule schedule = map ? monitor.getMapRefreshSchedule() : monitor.getRefreshSchedule();
+        int floor = faster ? schedule.floor() / 2 : schedule.floor() * 2;
+        // The ceiling follows the floor up, keeping the schedule's back-off range
+        int ceiling = Math.max(schedule.ceiling(), floor);
+        if (map) {
+            monitor.setMapRefreshBounds(floor, ceiling);
+        } else {
+            monitor.setRefreshBounds(floor, ceiling);
+        }
+        return true;
+    }
+
     @Override
     public ItemStack quickMoveStack(Player player, int index) {
         return ItemStack.EMPTY;
@@ -0,0 +1,194 @@
+package com.apocscode.logiclink.client;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import net.minecraft.client.gui.Font;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Station label placement, computed once per station list, label style and
+ * zoom bucket.
+ * <p>
+ * Each label tries four spots around its station (above, below, right, left)
+ * and takes the first that overlaps no label placed before it; a label with no
+ * free spot is hidden, the station itself stays visible. Placed boxes are kept
+ * in a uniform grid spatial hash, so a try only tests the labels in the cells
+ * it covers instead of every label placed so far.
+ * </p>
+ * <p>
+ * Offsets are in pixels relative to each station's screen position, so panning
+ * reuses the layout. Scales are bucketed in eighths of an octave and laid out
+ * at the bucket's lower bound. Render thread only.
+ * </p>
+ */
+final class LabelLayout {
+
+    /** Grid cell side in pixels; about one short label wide. */
+    private static final float CELL = 32.0f;
+    private static final int BUCKETS_PER_OCTAVE = 8;
+    /** Layouts kept per station list (zoom buckets and styles), least recently used dropped first. */
+    private static final int LAYOUTS_PER_LIST = 8;
+
+    private static final Map<MapDrawList.Stations, Map<Key, LabelLayout>> CACHE = new WeakHashMap<>();
+
+    /**
+     * Text size and candidate spots of one renderer's labels, as gaps in pixels
+     * between the station position and the label box.
+     *
+     * @param wide      Use {@link MapDrawList.Stations#wideLabel} instead of {@code label}
+     * @param textScale Scale the label text is drawn at
+     */
+    record Style(boolean wide, float textScale, float gapAbove, float gapBelow, float gapSide) {}
+
+    private record Key(Style style, int bucketX, int bucketZ) {}
+
+    private final float[] offsetX;
+    private final float[] offsetY;
+    private final float[] width;
+    private final float height;
+
+    private LabelLayout(float[] offsetX, float[] offsetY, float[] width, float height) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Label placement for stations drawn at {@code x * scaleX, z * scaleZ} plus
+     * any offset.
+     *
+     * @param scaleX Screen pixels per block along X
+     * @param scaleZ Screen pixels per block along Z
+     */
+    static LabelLayout of(MapDrawList.Stations stations, Font font, Style style, float scaleX, float scaleZ) {
+        Key key = new Key(style, bucket(scaleX), bucket(scaleZ));
+        Map<Key, LabelLayout> layouts = CACHE.computeIfAbsent(stations,
+                s -> new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Key, LabelLayout> eldest) {
+                        return size() > LAYOUTS_PER_LIST;
+                    }
+                });
+        LabelLayout layout = layouts.get(key);
+        if (layout == null) {
+            layout = compute(stations, font, style, bucketScale(key.bucketX()), bucketScale(key.bucketZ()));
+            layouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    boolean isPlaced(int station) {
+        return !Float.isNaN(offsetX[station]);
+    }
+
+    /** Left edge of the label box, relative to the station's screen X. */
+    float x(int station) {
+        return offsetX[station];
+    }
+
+    /** Top edge of the label box, relative to the station's screen Y. */
+    float y(int station) {
+        return offsetY[station];
+    }
+
+    /** Label box width in screen pixels. */
+    float width(int station) {
+        return width[station];
+    }
+
+    float height() {
+        return height;
+    }
+
+    private static int bucket(float scale) {
+        double log2 = Math.log(Math.max(scale, 1.0e-6f)) / Math.log(2);
+        return (int) Math.floor(log2 * BUCKETS_PER_OCTAVE);
+    }
+
+    private static float bucketScale(int bucket) {
+        return (float) Math.pow(2, bucket / (double) BUCKETS_PER_OCTAVE);
+    }
+
+    private static LabelLayout compute(MapDrawList.Stations stations, Font font, Style style,
+                                       float scaleX, float scaleZ) {
+        String[] labels = style.wide() ? stations.wideLabel() : stations.label();
+        int n = stations.count();
+        float h = font.lineHeight * style.textScale();
+        float[] offsetX = new float[n], offsetY = new float[n], width = new float[n];
+
+        // Placed boxes {x, y, w, h}, indexed from the grid cells they cover
+        float[] boxes = new float[n * 4];
+        int placed = 0;
+        Long2ObjectOpenHashMap<IntArrayList> grid = new Long2ObjectOpenHashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            float w = font.width(labels[i]) * style.textScale();
+            float sx = stations.x()[i] * scaleX;
+            float sz = stations.z()[i] * scaleZ;
+            width[i] = w;
+            offsetX[i] = Float.NaN;
+
+            // Try positions: above, below, right, left
+            for (int spot = 0; spot < 4; spot++) {
+                float dx = switch (spot) {
+                    case 0, 1 -> -w / 2f;
+                    case 2 -> style.gapSide();
+                    default -> -style.gapSide() - w;
+                };
+                float dy = switch (spot) {
+                    case 0 -> -style.gapAbove() - h;
+                    case 1 -> style.gapBelow();
+                    default -> -h / 2f;
+                };
+                float lx = sx + dx, ly = sz + dy;
+                if (overlapsAny(grid, boxes, lx, ly, w, h)) continue;
+
+                boxes[placed * 4] = lx;
+                boxes[placed * 4 + 1] = ly;
+                boxes[placed * 4 + 2] = w;
+                boxes[placed * 4 + 3] = h;
+                for (int cy = cell(ly); cy <= cell(ly + h); cy++) {
+                    for (int cx = cell(lx); cx <= cell(lx + w); cx++) {
+                        grid.computeIfAbsent(cellKey(cx, cy), k -> new IntArrayList()).add(placed);
+                    }
+                }
+                placed++;
+                offsetX[i] = dx;
+                offsetY[i] = dy;
+                break;
+            }
+        }
+        return new LabelLayout(offsetX, offsetY, width, h);
+    }
+
+    private static boolean overlapsAny(Long2ObjectOpenHashMap<IntArrayList> grid, float[] boxes,
+                                       float x, float y, float w, float h) {
+        for (int cy = cell(y); cy <= cell(y + h); cy++) {
+            for (int cx = cell(x); cx <= cell(x + w); cx++) {
+                IntArrayList inCell = grid.get(cellKey(cx, cy));
+                if (inCell == null) continue;
+                for (int k = 0; k < inCell.size(); k++) {
+                    int b = inCell.getInt(k) * 4;
+                    if (x < boxes[b] + boxes[b + 2] && x + w > boxes[b] &&
+                        y < boxes[b + 1] + boxes[b + 3] && y + h > boxes[b + 1]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int cell(float v) {
+        return (int) Math.floor(v / CELL);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,361 @@
+package com.apocscode.logiclink.client;
+
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Map data compiled for drawing, shared by the map screen and the in-world
+ * monitor.
+ * <p>
+ * Track segments, stations, signals, observers, routes and diagnostics are
+ * read from the map {@link CompoundTag} and its {@link NetworkTopology} once per
+ * map render version into primitive columns (world coordinates, final ARGB
+ * colors, trimmed labels), so a frame is a tight loop over arrays instead of tag
+ * lookups. Trains are compiled the same way,
+ * and again whenever live train states are patched into the map data; their
+ * drawn positions are still predicted per frame.
+ * </p>
+ * <p>
+ * Lists are immutable; one is cached per monitor and replaced when its source
+ * changes. Render thread only.
+ * </p>
+ */
+final class MapDrawList {
+
+    private static final Map<TrainMonitorBlockEntity, MapDrawList> CACHE = new WeakHashMap<>();
+
+    /**
+     * Track as straight segments (curves as their sampled polyline),
+     * {@code x0, z0, x1, z1} each, with the color and occupancy of their edge.
+     */
+    record Track(int count, float[] segments, int[] color, boolean[] occupied) {}
+
+    /** Stations at {@code mapX/mapZ} (else {@code x/z}), with berth color and labels. */
+    record Stations(int count, float[] x, float[] z, int[] color,
+                    String[] label, String[] wideLabel, String[] tooltip) {}
+
+    /** Signals with their forward direction and forward aspect color. */
+    record Signals(int count, float[] x, float[] z, float[] dirX, float[] dirZ, int[] color) {}
+
+    record Observers(int count, float[] x, float[] z, int[] color) {}
+
+    /** Trains with a snapshot position; {@code info} is the hover text. */
+    record Trains(int count, String[] id, float[] x, float[] z, int[] color, boolean[] derailed,
+                  String[] label, String[] wideLabel, String[] info) {}
+
+    /**
+     * Diagnostic markers. {@code color} is RGB only, the alpha pulses per frame.
+     * Suggestions of marker {@code d} are {@code [suggestionStart[d], suggestionStart[d + 1])}.
+     */
+    record Diagnostics(int count, float[] x, float[] z, int[] color, boolean[] critical,
+                       String[] desc, String[] suggestionText, int[] suggestionTextColor,
+                       int[] suggestionStart, float[] suggestionX, float[] suggestionZ,
+                       int[] suggestionColor, boolean[] suggestionConflict) {}
+
+    private final CompoundTag source;
+    private final int version;
+    private final int trainVersion;
+
+    final boolean empty;
+    final Track track;
+    final Stations stations;
+    final Signals signals;
+    final Observers observers;
+    final Trains trains;
+    /** Route segments of all trains, {@code ax, az, bx, bz} each */
+    final float[] routes;
+    final Diagnostics diagnostics;
+
+    private MapDrawList(CompoundTag source, int version, int trainVersion, Track track, Stations stations,
+                        Signals signals, Observers observers, Trains trains, float[] routes,
+                        Diagnostics diagnostics) {
+        this.source = source;
+        this.version = version;
+        this.trainVersion = trainVersion;
+        this.empty = source.isEmpty();
+        this.track = track;
+        this.stations = stations;
+        this.signals = signals;
+        this.observers = observers;
+        this.trains = trains;
+        this.routes = routes;
+        this.diagnostics = diagnostics;
+    }
+
+    /** The draw list of a monitor's current map data, compiled if it changed since the last call. */
+    static MapDrawList of(TrainMonitorBlockEntity be) {
+        CompoundTag mapData = be.getMapData();
+        int version = be.getMapRenderVersion();
+        int trainVersion = be.getTrainStateRevision();
+
+        MapDrawList list = CACHE.get(be);
+        if (list == null || list.source != mapData || list.version != version) {
+            list = compile(mapData, be.getTopology(), version, trainVersion);
+            CACHE.put(be, list);
+        } else if (list.trainVersion != trainVersion) {
+            list = new MapDrawList(mapData, version, trainVersion, list.track, list.stations, list.signals,
+                    list.observers, compileTrains(mapData.getList("Trains", 10)), list.routes, list.diagnostics);
+            CACHE.put(be, list);
+        }
+        return list;
+    }
+
+    static MapDrawList compile(CompoundTag mapData, NetworkTopology topology, int version, int trainVersion) {
+        ListTag trains = mapData.getList("Trains", 10);
+        return new MapDrawList(mapData, version, trainVersion, compileTrack(topology),
+                compileStations(mapData.getList("Stations", 10)),
+                compileSignals(mapData.getList("Signals", 10)),
+                compileObservers(mapData.getList("Observers", 10)),
+                compileTrains(trains), compileRoutes(trains),
+                compileDiagnostics(mapData.getList("Diagnostics", 10)));
+    }
+
+    // ==================== Compilation ====================
+
+    private static Track compileTrack(NetworkTopology topology) {
+        int count = 0;
+        for (int e = 0; e < topology.edgeCount; e++) {
+            count += 1 + (topology.isCurved(e) ? topology.curvePointCount(e) : 0);
+        }
+        float[] segments = new float[count * 4];
+        int[] color = new int[count];
+        boolean[] occupied = new boolean[count];
+
+        int n = 0;
+        for (int e = 0; e < topology.edgeCount; e++) {
+            boolean occ = topology.isOccupied(e);
+            int edgeColor = occ ? TrainMapRenderer.TRACK_OCCUPIED
+                    : topology.isInterDimensional(e) ? TrainMapRenderer.TRACK_INTERDIM
+                    : TrainMapRenderer.TRACK_CLEAR;
+            int a = topology.edgeA[e], b = topology.edgeB[e];
+            float prevX = topology.nodeX[a], prevZ = topology.nodeZ[a];
+            int points = topology.isCurved(e) ? topology.curvePointCount(e) : 0;
+            // Segments: A -> point 0 -> ... -> point n-1 -> B
+            for (int i = 0; i <= points; i++) {
+                float x = i < points ? topology.curveX(e, i) : topology.nodeX[b];
+                float z = i < points ? topology.curveZ(e, i) : topology.nodeZ[b];
+                segments[n * 4] = prevX;
+                segments[n * 4 + 1] = prevZ;
+                segments[n * 4 + 2] = x;
+                segments[n * 4 + 3] = z;
+                color[n] = edgeColor;
+                occupied[n] = occ;
+                n++;
+                prevX = x;
+                prevZ = z;
+            }
+        }
+        return new Track(n, segments, color, occupied);
+    }
+
+    private static Stations compileStations(ListTag list) {
+        int n = 0;
+        float[] x = new float[list.size()], z = new float[list.size()];
+        int[] color = new int[list.size()];
+        String[] label = new String[list.size()], wideLabel = new String[list.size()];
+        String[] tooltip = new String[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag station = list.getCompound(i);
+            if (station.contains("mapX")) {
+                x[n] = station.getFloat("mapX");
+                z[n] = station.getFloat("mapZ");
+            } else if (station.contains("x")) {
+                x[n] = station.getFloat("x");
+                z[n] = station.getFloat("z");
+            } else continue;
+
+            String name = station.getString("name");
+            String tip = name;
+            if (station.contains("trainPresent")) {
+                color[n] = TrainMapRenderer.STATION_PRESENT;
+                tip += " - " + station.getString("trainPresent");
+            } else if (station.contains("trainImminent")) {
+                color[n] = TrainMapRenderer.STATION_IMMINENT;
+                tip += " -> " + station.getString("trainImminent");
+            } else {
+                color[n] = TrainMapRenderer.STATION_EMPTY;
+            }
+            label[n] = trim(name, 10, 9);
+            wideLabel[n] = trim(name, 14, 12);
+            tooltip[n] = tip;
+            n++;
+        }
+        return new Stations(n, x, z, color, label, wideLabel, tooltip);
+    }
+
+    private static Signals compileSignals(ListTag list) {
+        int n = 0;
+        float[] x = new float[list.size()], z = new float[list.size()];
+        float[] dirX = new float[list.size()], dirZ = new float[list.size()];
+        int[] color = new int[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag signal = list.getCompound(i);
+            if (signal.contains("mapX")) {
+                x[n] = signal.getFloat("mapX");
+                z[n] = signal.getFloat("mapZ");
+            } else if (signal.contains("x")) {
+                x[n] = signal.getFloat("x");
+                z[n] = signal.getFloat("z");
+            } else continue;
+
+            dirX[n] = signal.contains("dirX") ? signal.getFloat("dirX") : 0;
+            dirZ[n] = signal.contains("dirZ") ? signal.getFloat("dirZ") : 0;
+            color[n] = switch (signal.getString("stateF")) {
+                case "green" -> TrainMapRenderer.SIGNAL_GREEN;
+                case "red" -> TrainMapRenderer.SIGNAL_RED;
+                case "yellow" -> TrainMapRenderer.SIGNAL_YELLOW;
+                default -> TrainMapRenderer.SIGNAL_OFF;
+            };
+            n++;
+        }
+        return new Signals(n, x, z, dirX, dirZ, color);
+    }
+
+    private static Observers compileObservers(ListTag list) {
+        int n = 0;
+        float[] x = new float[list.size()], z = new float[list.size()];
+        int[] color = new int[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag obs = list.getCompound(i);
+            if (!obs.contains("x")) continue;
+            x[n] = obs.getFloat("x");
+            z[n] = obs.getFloat("z");
+            color[n] = obs.getBoolean("activated") ? TrainMapRenderer.TRAIN_NAV : TrainMapRenderer.TEXT_DIM;
+            n++;
+        }
+        return new Observers(n, x, z, color);
+    }
+
+    private static Trains compileTrains(ListTag list) {
+        int n = 0;
+        String[] id = new String[list.size()];
+        float[] x = new float[list.size()], z = new float[list.size()];
+        int[] color = new int[list.size()];
+        boolean[] derailed = new boolean[list.size()];
+        String[] label = new String[list.size()], wideLabel = new String[list.size()];
+        String[] info = new String[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag train = list.getCompound(i);
+            if (!train.contains("x")) continue;
+
+            id[n] = train.getString("id");
+            x[n] = train.getFloat("x");
+            z[n] = train.getFloat("z");
+            derailed[n] = train.getBoolean("derailed");
+            double speed = Math.abs(train.getDouble("speed"));
+            if (derailed[n]) color[n] = TrainMapRenderer.TRAIN_DERAIL;
+            else if (speed > 0.01) color[n] = TrainMapRenderer.TRAIN_MOVING;
+            else if (train.getBoolean("navigating")) color[n] = TrainMapRenderer.TRAIN_NAV;
+            else color[n] = TrainMapRenderer.TRAIN_STOPPED;
+
+            String name = train.getString("name");
+            label[n] = trim(name, 6, 5);
+            wideLabel[n] = trim(name, 8, 7);
+
+            String text = name;
+            if (derailed[n]) text += " - DERAILED";
+            else if (speed > 0.01) text += String.format(" - %.1f m/t", speed);
+            else text += " - stopped";
+            if (train.contains("destination")) text += " \u2192 " + train.getString("destination");
+            info[n] = text;
+            n++;
+        }
+        return new Trains(n, id, x, z, color, derailed, label, wideLabel, info);
+    }
+
+    private static float[] compileRoutes(ListTag trains) {
+        int segments = 0;
+        for (int i = 0; i < trains.size(); i++) {
+            segments += trains.getCompound(i).getList("path", 10).size();
+        }
+        float[] routes = new float[segments * 4];
+        int k = 0;
+        for (int i = 0; i < trains.size(); i++) {
+            ListTag path = trains.getCompound(i).getList("path", 10);
+            for (int p = 0; p < path.size(); p++) {
+                CompoundTag seg = path.getCompound(p);
+                routes[k++] = seg.getFloat("ax");
+                routes[k++] = seg.getFloat("az");
+                routes[k++] = seg.getFloat("bx");
+                routes[k++] = seg.getFloat("bz");
+            }
+        }
+        return routes;
+    }
+
+    private static Diagnostics compileDiagnostics(ListTag list) {
+        int n = 0;
+        float[] x = new float[list.size()], z = new float[list.size()];
+        int[] color = new int[list.size()];
+        boolean[] critical = new boolean[list.size()];
+        String[] desc = new String[list.size()], suggestionText = new String[list.size()];
+        int[] suggestionTextColor = new int[list.size()];
+        int[] suggestionStart = new int[list.size() + 1];
+
+        int suggestions = 0;
+        for (int i = 0; i < list.size(); i++) {
+            suggestions += list.getCompound(i).getList("suggestions", 10).size();
+        }
+        float[] sx = new float[suggestions], sz = new float[suggestions];
+        int[] sColor = new int[suggestions];
+        boolean[] sConflict = new boolean[suggestions];
+
+        int s = 0;
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag diag = list.getCompound(i);
+            if (!diag.contains("x")) continue;
+
+            x[n] = diag.getFloat("x");
+            z[n] = diag.getFloat("z");
+            critical[n] = diag.getString("severity").equals("CRIT");
+            color[n] = critical[n] ? 0xFF4242 : 0xFF9900;
+            desc[n] = diag.getString("desc");
+            suggestionTextColor[n] = diag.getString("type").equals("SIGNAL_CONFLICT")
+                    ? 0xFFFF4444 : TrainMapRenderer.SIGNAL_GREEN;
+            suggestionStart[n] = s;
+
+            ListTag sug = diag.getList("suggestions", 10);
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < sug.size(); j++, s++) {
+                CompoundTag sp = sug.getCompound(j);
+                String sigType = sp.contains("signalType") ? sp.getString("signalType") : "signal";
+                if (j > 0) sb.append("  ");
+                sb.append(switch (sigType) {
+                    case "chain" -> "\u26D3 Chain";     // Chain link emoji
+                    case "conflict" -> "\u2716 Conflict"; // X mark
+                    default -> "\u2691 Signal";          // Flag
+                });
+                sb.append(" [").append(sp.getInt("sx")).append(" ")
+                  .append(sp.getInt("sy")).append(" ")
+                  .append(sp.getInt("sz")).append("]");
+                if (sp.contains("dir")) sb.append(" ").append(sp.getString("dir"));
+
+                sx[s] = sp.getInt("sx");
+                sz[s] = sp.getInt("sz");
+                // Color by signal type: green=signal, cyan=chain, red=conflict
+                sColor[s] = switch (sigType) {
+                    case "chain" -> 0xFF00DDEF;
+                    case "conflict" -> 0xFFFF2222;
+                    default -> TrainMapRenderer.SIGNAL_GREEN;
+                };
+                sConflict[s] = sigType.equals("conflict");
+            }
+            suggestionText[n] = sug.isEmpty() ? null : sb.toString();
+            n++;
+        }
+        suggestionStart[n] = s;
+        return new Diagnostics(n, x, z, color, critical, desc, suggestionText, suggestionTextColor,
+                suggestionStart, sx, sz, sColor, sConflict);
+    }
+
+    /** Names longer than {@code max} keep their first {@code keep} characters plus "..". */
+    private static String trim(String name, int max, int keep) {
+        return name.length() > max ? name.substring(0, keep) + ".." : name;
+    }
+}
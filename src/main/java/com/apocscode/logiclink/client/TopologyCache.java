@@ -0,0 +1,125 @@
+package com.apocscode.logiclink.client;
+
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client-side cache of Train Monitor track layouts, keyed by
+ * {@link com.apocscode.logiclink.peripheral.NetworkTopology#contentHash content hash}.
+ * <p>
+ * The server sends map data with a hash reference instead of the encoded
+ * topology; a monitor only requests the layout when it is in neither the memory
+ * cache nor on disk. Layouts are stored as compressed NBT under
+ * {@code logiclink/topology/} in the game directory, so they survive relogs and
+ * are shared by every monitor on the same network — including monitors on
+ * other servers with an identical layout. A file read from disk is only used if
+ * its layout still hashes to its name.
+ * </p>
+ */
+public final class TopologyCache {
+
+    private static final int MEMORY_ENTRIES = 8;
+    private static final int DISK_ENTRIES = 32;
+
+    private static final Map<Long, CompoundTag> MEMORY =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CompoundTag> eldest) {
+                    return size() > MEMORY_ENTRIES;
+                }
+            };
+
+    /** This cache as the {@link NetworkTopology.LayoutCache} that monitors take from the client payload handlers. */
+    public static final NetworkTopology.LayoutCache SHARED = new NetworkTopology.LayoutCache() {
+        @Override
+        public @Nullable CompoundTag get(long hash) {
+            return TopologyCache.get(hash);
+        }
+
+        @Override
+        public void put(long hash, CompoundTag layout) {
+            TopologyCache.put(hash, layout);
+        }
+    };
+
+    private TopologyCache() {}
+
+    /** Cached layout for the hash, or null. The returned tag must not be modified. */
+    @Nullable
+    public static synchronized CompoundTag get(long hash) {
+        CompoundTag layout = MEMORY.get(hash);
+        if (layout != null) return layout;
+
+        Path file = fileFor(hash);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            layout = NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap());
+            // A truncated, edited or foreign file must not stand in for the requested layout
+            if (NetworkTopology.layoutHash(layout) != hash) {
+                LogicLink.LOGGER.warn("TopologyCache: {} does not match its hash, dropping it", file.getFileName());
+                Files.deleteIfExists(file);
+                return null;
+            }
+            MEMORY.put(hash, layout);
+            // Touch so pruning keeps recently used layouts
+            file.toFile().setLastModified(System.currentTimeMillis());
+            return layout;
+        } catch (IOException e) {
+            LogicLink.LOGGER.warn("TopologyCache: Failed to read {}: {}", file.getFileName(), e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    /** Store a layout under its hash, in memory and on disk. */
+    public static synchronized void put(long hash, CompoundTag layout) {
+        if (MEMORY.containsKey(hash)) return;
+        MEMORY.put(hash, layout);
+
+        Path file = fileFor(hash);
+        if (Files.isRegularFile(file)) return;
+        try {
+            Files.createDirectories(file.getParent());
+            NbtIo.writeCompressed(layout, file);
+            prune(file.getParent());
+        } catch (IOException e) {
+            LogicLink.LOGGER.warn("TopologyCache: Failed to write {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    /** Keep only the most recently used layouts on disk. */
+    private static void prune(Path dir) {
+        File[] files = dir.toFile().listFiles((d, name) -> name.endsWith(".nbt"));
+        if (files == null || files.length <= DISK_ENTRIES) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = DISK_ENTRIES; i < files.length; i++) {
+            if (!files[i].delete()) {
+                LogicLink.LOGGER.debug("TopologyCache: Could not delete {}", files[i].getName());
+            }
+        }
+    }
+
+    private static Path fileFor(long hash) {
+        return Minecraft.getInstance().gameDirectory.toPath()
+                .resolve(LogicLink.MOD_ID).resolve("topology").resolve(String.format("%016x.nbt", hash));
+    }
+}
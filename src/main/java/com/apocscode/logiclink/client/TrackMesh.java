@@ -0,0 +1,183 @@
+package com.apocscode.logiclink.client;
+
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.MeshData;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexBuffer;
+import com.mojang.blaze3d.vertex.VertexFormat;
+
+import net.minecraft.client.renderer.GameRenderer;
+
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Track geometry of the map screen, baked into GPU vertex buffers.
+ * <p>
+ * Every edge (curves as their sampled polyline) is stored once as line
+ * segments in map space, relative to the topology's minimum corner, and drawn
+ * with the vanilla lines shader, which expands lines to a fixed width in screen
+ * pixels. Pan and zoom are only a model-view matrix, so the track stays crisp at
+ * any scale and costs one draw call per frame.
+ * </p>
+ * <p>
+ * The layout buffer is rebuilt only when the layout changes (content hash and
+ * curved / inter-dimensional flags); occupied edges live in a second, small
+ * buffer rebuilt when occupancy changes. The map screen shows one network at a
+ * time, so a single mesh is cached.
+ * </p>
+ */
+final class TrackMesh {
+
+    private static final int TRACK_CLEAR = 0xFFAAAAAA;
+    private static final int TRACK_OCCUPIED = 0xFFFF4242;
+    private static final int TRACK_INTERDIM = 0xFF8844FF;
+
+    private static final float LINE_WIDTH = 2.0f;
+    private static final float LINE_WIDTH_OCCUPIED = 3.0f;
+
+    @Nullable
+    private static TrackMesh current;
+
+    private final long layoutKey;
+    private final float originX, originZ;
+    @Nullable
+    private VertexBuffer layout;
+    @Nullable
+    private VertexBuffer occupied;
+    private long[] occupancy = new long[0];
+    /** Topology instance the buffers were last checked against */
+    private NetworkTopology source;
+
+    private TrackMesh(NetworkTopology topology, long layoutKey) {
+        this.layoutKey = layoutKey;
+        this.originX = topology.minX;
+        this.originZ = topology.minZ;
+        this.layout = bake(topology, e -> true, false);
+    }
+
+    /** The mesh for a topology, rebuilding buffers whose part of it changed. Render thread only. */
+    static TrackMesh of(NetworkTopology topology) {
+        TrackMesh mesh = current;
+        if (mesh != null && mesh.source == topology) return mesh;
+
+        long key = layoutKey(topology);
+        if (mesh == null || mesh.layoutKey != key) {
+            if (mesh != null) mesh.close();
+            mesh = new TrackMesh(topology, key);
+            current = mesh;
+        }
+        mesh.updateOccupancy(topology);
+        mesh.source = topology;
+        return mesh;
+    }
+
+    /** Free the cached buffers (map screen closed). */
+    static void release() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    /**
+     * Draw the track. Anything batched in {@code GuiGraphics} must be flushed
+     * first so it stays below.
+     *
+     * @param pose  Current GUI pose
+     * @param offX  Screen X of world {@code topology.minX}
+     * @param offZ  Screen Y of world {@code topology.minZ}
+     * @param scale Screen pixels per block
+     */
+    void draw(Matrix4f pose, float offX, float offZ, float scale) {
+        if (layout == null && occupied == null) return;
+        Matrix4f modelView = new Matrix4f(RenderSystem.getModelViewMatrix()).mul(pose)
+                .translate(offX, offZ, 0).scale(scale, scale, 1);
+        Matrix4f projection = RenderSystem.getProjectionMatrix();
+
+        if (layout != null) {
+            RenderSystem.lineWidth(LINE_WIDTH);
+            layout.bind();
+            layout.drawWithShader(modelView, projection, GameRenderer.getRendertypeLinesShader());
+        }
+        if (occupied != null) {
+            RenderSystem.lineWidth(LINE_WIDTH_OCCUPIED);
+            occupied.bind();
+            occupied.drawWithShader(modelView, projection, GameRenderer.getRendertypeLinesShader());
+        }
+        VertexBuffer.unbind();
+        RenderSystem.lineWidth(1.0f);
+    }
+
+    private void updateOccupancy(NetworkTopology topology) {
+        long[] bits = new long[(topology.edgeCount + 63) >> 6];
+        for (int e = 0; e < topology.edgeCount; e++) {
+            if (topology.isOccupied(e)) bits[e >> 6] |= 1L << e;
+        }
+        if (Arrays.equals(bits, occupancy)) return;
+        occupancy = bits;
+        if (occupied != null) occupied.close();
+        occupied = bake(topology, topology::isOccupied, true);
+    }
+
+    private void close() {
+        if (layout != null) layout.close();
+        if (occupied != null) occupied.close();
+        layout = null;
+        occupied = null;
+    }
+
+    /** Key of what the layout buffer depends on: geometry plus the edge kind flags. */
+    private static long layoutKey(NetworkTopology topology) {
+        long key = topology.contentHash();
+        for (int e = 0; e < topology.edgeCount; e++) {
+            key = key * 31 + (topology.isCurved(e) ? 1 : 0) + (topology.isInterDimensional(e) ? 2 : 0);
+        }
+        return key;
+    }
+
+    @Nullable
+    private VertexBuffer bake(NetworkTopology topology, IntPredicate include, boolean occupiedColor) {
+        BufferBuilder builder = Tesselator.getInstance().begin(VertexFormat.Mode.LINES,
+                DefaultVertexFormat.POSITION_COLOR_NORMAL);
+        for (int e = 0; e < topology.edgeCount; e++) {
+            if (!include.test(e)) continue;
+            int color = occupiedColor ? TRACK_OCCUPIED
+                    : topology.isInterDimensional(e) ? TRACK_INTERDIM : TRACK_CLEAR;
+            int a = topology.edgeA[e], b = topology.edgeB[e];
+            float prevX = topology.nodeX[a] - originX, prevZ = topology.nodeZ[a] - originZ;
+            int points = topology.isCurved(e) ? topology.curvePointCount(e) : 0;
+            for (int i = 0; i < points; i++) {
+                float px = topology.curveX(e, i) - originX, pz = topology.curveZ(e, i) - originZ;
+                addSegment(builder, prevX, prevZ, px, pz, color);
+                prevX = px;
+                prevZ = pz;
+            }
+            addSegment(builder, prevX, prevZ, topology.nodeX[b] - originX, topology.nodeZ[b] - originZ, color);
+        }
+
+        MeshData mesh = builder.build();
+        if (mesh == null) return null;
+        VertexBuffer buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+        buffer.bind();
+        buffer.upload(mesh);
+        VertexBuffer.unbind();
+        return buffer;
+    }
+
+    private static void addSegment(BufferBuilder builder, float x0, float z0, float x1, float z1, int color) {
+        float dx = x1 - x0, dz = z1 - z0;
+        float len = (float) Math.sqrt(dx * dx + dz * dz);
+        if (len < 1.0e-4f) return;
+        // The lines shader widens each segment along the screen-space perpendicular of its normal
+        float nx = dx / len, nz = dz / len;
+        builder.addVertex(x0, z0, 0).setColor(color).setNormal(nx, nz, 0);
+        builder.addVertex(x1, z1, 0).setColor(color).setNormal(nx, nz, 0);
+    }
+}
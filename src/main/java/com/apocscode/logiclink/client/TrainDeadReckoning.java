@@ -0,0 +1,353 @@
+package com.apocscode.logiclink.client;
+
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+import com.apocscode.logiclink.peripheral.TrainStates;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Client-side prediction of train marker positions between {@link TrainStates}
+ * updates, so markers move every frame while states are only resent when a
+ * train {@link TrainStates#divergesFrom diverges} from this prediction.
+ * <p>
+ * Each state update anchors every located train at its reported position.
+ * Trains whose state names a topology edge are projected onto that edge's
+ * polyline (node A, bezier samples, node B) and advanced along the track by
+ * |speed| × elapsed ticks, continuing through nodes along the train's route
+ * from the map data when it has one, otherwise onto the best-aligned branch.
+ * Trains without a usable edge move in a straight line along their heading.
+ * </p>
+ * <p>
+ * Extrapolation stops {@value #MAX_EXTRAPOLATION_TICKS} ticks after the last
+ * update, and the jump to each corrected anchor is blended out over
+ * {@value #BLEND_TICKS} ticks so markers never visibly snap back.
+ * </p>
+ * <p>
+ * One predictor is kept per monitor, created on first use by the render
+ * paths. Render thread only.
+ * </p>
+ */
+public final class TrainDeadReckoning {
+
+    private static final double MAX_EXTRAPOLATION_TICKS = 60;
+    private static final double BLEND_TICKS = 5;
+    /** Corrections larger than this (blocks) are applied at once, e.g. a new route. */
+    private static final float MAX_BLEND = 16f;
+    /** An anchor further than this (blocks) from its named edge falls back to a straight line. */
+    private static final float MAX_EDGE_DISTANCE = 3f;
+    /** Nodes passed per prediction at most; bounds the walk on tiny edges. */
+    private static final int MAX_HOPS = 32;
+
+    private static final Map<TrainMonitorBlockEntity, TrainDeadReckoning> CACHE = new WeakHashMap<>();
+
+    private final Map<String, Anchor> anchors = new HashMap<>();
+    private NetworkTopology topology = NetworkTopology.EMPTY;
+    /** Polyline length per edge, computed lazily; NaN = not computed yet. */
+    private float[] polyLength = new float[0];
+    @Nullable private TrainStates lastStates;
+
+    private final float[] scratch = new float[2];
+
+    private static final class Anchor {
+        double time;
+        float x, z;
+        float speed;
+        float headingX, headingZ;
+        boolean moving;
+        /** Edge under the train, or -1 for straight-line prediction. */
+        int edge = -1;
+        boolean forward;
+        /** Arc length along {@link #edge} from its A node. */
+        float s;
+        /** Route as node → next node, or null. */
+        @Nullable Int2IntOpenHashMap route;
+        float blendX, blendZ;
+        double blendStart;
+    }
+
+    /**
+     * The predictor of a monitor, synced to its latest train states and layout.
+     *
+     * @param now Client game time plus partial tick
+     */
+    public static TrainDeadReckoning of(TrainMonitorBlockEntity monitor, double now) {
+        TrainDeadReckoning motion = CACHE.computeIfAbsent(monitor, m -> new TrainDeadReckoning());
+        motion.sync(monitor.getTrainStates(), monitor.getTopology(), monitor.getMapData(), now);
+        return motion;
+    }
+
+    /**
+     * Re-anchor on new states or a new layout; a no-op when neither changed.
+     *
+     * @param states   The latest train states
+     * @param topology The layout the states' edge indices refer to
+     * @param mapData  Map data holding the trains' routes
+     * @param now      Current client time in ticks (game time plus partial tick)
+     */
+    public void sync(TrainStates states, NetworkTopology topology, CompoundTag mapData, double now) {
+        if (states == lastStates && topology == this.topology) return;
+        lastStates = states;
+        if (topology != this.topology) {
+            this.topology = topology;
+            polyLength = new float[topology.edgeCount];
+            Arrays.fill(polyLength, Float.NaN);
+        }
+
+        Map<String, Int2IntOpenHashMap> routes = readRoutes(mapData);
+        Map<String, Anchor> previous = new HashMap<>(anchors);
+        anchors.clear();
+
+        for (int t = 0; t < states.count(); t++) {
+            if (!states.hasPosition(t)) continue;
+            String id = states.ids()[t];
+            Anchor anchor = new Anchor();
+            // Stale states (e.g. resent to a new viewer) are extrapolated from when they
+            // were sampled; fresh ones from arrival, so clock skew never runs them ahead
+            anchor.time = Math.min(now, states.gameTime());
+            anchor.x = states.x(t);
+            anchor.z = states.z(t);
+            anchor.speed = Math.abs(states.speed(t));
+            anchor.moving = states.hasHeading(t) && !states.isDerailed(t) && anchor.speed > 1e-4f;
+            if (states.hasHeading(t)) {
+                anchor.headingX = (float) Math.cos(states.heading(t));
+                anchor.headingZ = (float) Math.sin(states.heading(t));
+            }
+            anchor.route = routes.get(id);
+            attachToEdge(anchor, states.edge(t), states.edgeForward(t));
+
+            Anchor old = previous.get(id);
+            if (old != null) {
+                predict(old, now, scratch);
+                float shownX = scratch[0], shownZ = scratch[1];
+                predict(anchor, now, scratch);
+                float dx = shownX - scratch[0], dz = shownZ - scratch[1];
+                if (dx * dx + dz * dz < MAX_BLEND * MAX_BLEND) {
+                    anchor.blendX = dx;
+                    anchor.blendZ = dz;
+                    anchor.blendStart = now;
+                }
+            }
+            anchors.put(id, anchor);
+        }
+    }
+
+    /**
+     * Predicted position of a train.
+     *
+     * @param out Receives x at [0] and z at [1]
+     * @return False if the train is unknown or has no position.
+     */
+    public boolean position(String trainId, double now, float[] out) {
+        Anchor anchor = anchors.get(trainId);
+        if (anchor == null) return false;
+        predict(anchor, now, out);
+        return true;
+    }
+
+    public void clear() {
+        anchors.clear();
+        lastStates = null;
+    }
+
+    // ==================== Prediction ====================
+
+    private void predict(Anchor a, double now, float[] out) {
+        double elapsed = Math.max(0, Math.min(now - a.time, MAX_EXTRAPOLATION_TICKS));
+        float dist = a.moving ? (float) (a.speed * elapsed) : 0;
+
+        if (a.edge >= 0 && dist > 0) {
+            walk(a, dist, out);
+        } else {
+            out[0] = a.x + a.headingX * dist;
+            out[1] = a.z + a.headingZ * dist;
+        }
+
+        double blend = 1 - (now - a.blendStart) / BLEND_TICKS;
+        if (blend > 0 && blend <= 1) {
+            out[0] += (float) (a.blendX * blend);
+            out[1] += (float) (a.blendZ * blend);
+        }
+    }
+
+    /** Advance {@code dist} blocks along the track from the anchor's edge position. */
+    private void walk(Anchor a, float dist, float[] out) {
+        int edge = a.edge;
+        boolean forward = a.forward;
+        float s = a.s;
+
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            float len = polyLength(edge);
+            float remaining = forward ? len - s : s;
+            if (dist <= remaining) {
+                s += forward ? dist : -dist;
+                break;
+            }
+            dist -= remaining;
+            int node = forward ? topology.edgeB[edge] : topology.edgeA[edge];
+            int next = nextEdge(node, edge, forward, a.route);
+            if (next < 0) {
+                // Dead end: hold at the buffer stop
+                s = forward ? len : 0;
+                break;
+            }
+            edge = next;
+            forward = topology.edgeA[next] == node;
+            s = forward ? 0 : polyLength(next);
+        }
+        pointAt(edge, s, out);
+    }
+
+    /** Edge to continue on after arriving at {@code node}: the route's, else the straightest. */
+    private int nextEdge(int node, int from, boolean forward, @Nullable Int2IntOpenHashMap route) {
+        if (route != null && route.containsKey(node)) {
+            int routed = topology.edgeBetween(node, route.get(node));
+            if (routed >= 0 && routed != from) return routed;
+        }
+
+        // Direction of travel when arriving at the node
+        int last = pointCount(from) - 1;
+        float inX, inZ;
+        if (forward) {
+            inX = px(from, last) - px(from, last - 1);
+            inZ = pz(from, last) - pz(from, last - 1);
+        } else {
+            inX = px(from, 0) - px(from, 1);
+            inZ = pz(from, 0) - pz(from, 1);
+        }
+
+        int best = -1;
+        float bestDot = -Float.MAX_VALUE;
+        for (int i = 0, degree = topology.degree(node); i < degree; i++) {
+            int e = topology.edgeAt(node, i);
+            if (e == from) continue;
+            float outX, outZ;
+            if (topology.edgeA[e] == node) {
+                outX = px(e, 1) - px(e, 0);
+                outZ = pz(e, 1) - pz(e, 0);
+            } else {
+                int l = pointCount(e) - 1;
+                outX = px(e, l - 1) - px(e, l);
+                outZ = pz(e, l - 1) - pz(e, l);
+            }
+            float norm = (float) Math.sqrt((outX * outX + outZ * outZ) * (inX * inX + inZ * inZ));
+            float dot = norm > 0 ? (inX * outX + inZ * outZ) / norm : 0;
+            if (dot > bestDot) {
+                bestDot = dot;
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    // ==================== Edge Geometry ====================
+
+    /** Place the anchor on its edge, or leave it on a straight line if the edge doesn't fit. */
+    private void attachToEdge(Anchor a, int edge, boolean forward) {
+        if (edge < 0 || edge >= topology.edgeCount || !a.moving) return;
+
+        int count = pointCount(edge);
+        float bestDistSq = Float.MAX_VALUE;
+        float bestS = 0;
+        float along = 0;
+        for (int i = 0; i + 1 < count; i++) {
+            float ax = px(edge, i), az = pz(edge, i);
+            float dx = px(edge, i + 1) - ax, dz = pz(edge, i + 1) - az;
+            float segLenSq = dx * dx + dz * dz;
+            float f = segLenSq > 0 ? ((a.x - ax) * dx + (a.z - az) * dz) / segLenSq : 0;
+            f = Math.max(0, Math.min(1, f));
+            float cx = ax + dx * f - a.x, cz = az + dz * f - a.z;
+            float distSq = cx * cx + cz * cz;
+            float segLen = (float) Math.sqrt(segLenSq);
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                bestS = along + segLen * f;
+            }
+            along += segLen;
+        }
+        // Edge indices can briefly refer to a newer layout than this client has
+        if (bestDistSq > MAX_EDGE_DISTANCE * MAX_EDGE_DISTANCE) return;
+
+        a.edge = edge;
+        a.forward = forward;
+        a.s = bestS;
+    }
+
+    private void pointAt(int edge, float s, float[] out) {
+        int count = pointCount(edge);
+        float along = 0;
+        for (int i = 0; i + 1 < count; i++) {
+            float ax = px(edge, i), az = pz(edge, i);
+            float dx = px(edge, i + 1) - ax, dz = pz(edge, i + 1) - az;
+            float segLen = (float) Math.sqrt(dx * dx + dz * dz);
+            if (along + segLen >= s || i + 2 == count) {
+                float f = segLen > 0 ? Math.max(0, Math.min(1, (s - along) / segLen)) : 0;
+                out[0] = ax + dx * f;
+                out[1] = az + dz * f;
+                return;
+            }
+            along += segLen;
+        }
+        out[0] = px(edge, 0);
+        out[1] = pz(edge, 0);
+    }
+
+    private float polyLength(int edge) {
+        float len = polyLength[edge];
+        if (Float.isNaN(len)) {
+            len = 0;
+            for (int i = 0, count = pointCount(edge); i + 1 < count; i++) {
+                float dx = px(edge, i + 1) - px(edge, i), dz = pz(edge, i + 1) - pz(edge, i);
+                len += (float) Math.sqrt(dx * dx + dz * dz);
+            }
+            polyLength[edge] = len;
+        }
+        return len;
+    }
+
+    /** Polyline points of an edge: node A, its curve samples, node B. */
+    private int pointCount(int edge) {
+        return topology.curvePointCount(edge) + 2;
+    }
+
+    private float px(int edge, int i) {
+        if (i <= 0) return topology.nodeX[topology.edgeA[edge]];
+        int curve = topology.curvePointCount(edge);
+        return i > curve ? topology.nodeX[topology.edgeB[edge]] : topology.curveX(edge, i - 1);
+    }
+
+    private float pz(int edge, int i) {
+        if (i <= 0) return topology.nodeZ[topology.edgeA[edge]];
+        int curve = topology.curvePointCount(edge);
+        return i > curve ? topology.nodeZ[topology.edgeB[edge]] : topology.curveZ(edge, i - 1);
+    }
+
+    // ==================== Routes ====================
+
+    private static Map<String, Int2IntOpenHashMap> readRoutes(CompoundTag mapData) {
+        Map<String, Int2IntOpenHashMap> routes = new HashMap<>();
+        ListTag trains = mapData.getList("Trains", 10);
+        for (int i = 0; i < trains.size(); i++) {
+            CompoundTag train = trains.getCompound(i);
+            if (!train.getBoolean("navigating") || !train.contains("path")) continue;
+            ListTag path = train.getList("path", 10);
+            Int2IntOpenHashMap next = new Int2IntOpenHashMap(path.size());
+            for (int p = 0; p < path.size(); p++) {
+                CompoundTag seg = path.getCompound(p);
+                if (seg.contains("aId") && seg.contains("bId")) next.put(seg.getInt("aId"), seg.getInt("bId"));
+            }
+            if (!next.isEmpty()) routes.put(train.getString("id"), next);
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,633 @@
+package com.apocscode.logiclink.client;
+
+import com.apocscode.logiclink.peripheral.NetworkTopology;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * CPU rasterizer behind {@link TrainMapTexture}. Draws into a plain ABGR
+ * {@code int[]} canvas and never touches GL or NativeImage memory, so it runs on
+ * the texture's background worker; one instance is only ever used by one thread
+ * at a time.
+ * <p>
+ * The canvas is composed of two layers. The static layer (background, grid,
+ * unoccupied track, empty station berths) is rasterized once per layout and kept
+ * as a pixel array. The dynamic overlay (occupancy, routes, station state,
+ * signals, observers) is drawn on top as keyed items.
+ * </p>
+ * <p>
+ * Overlay redraws are incremental: items whose key appeared or disappeared mark
+ * the {@value #TILE}-pixel tiles they cover dirty, only those tiles are restored
+ * from the static layer and redrawn, and only those tiles are handed back for
+ * upload.
+ * </p>
+ */
+final class TrainMapRaster {
+
+    /** Dirty tracking / partial upload granularity in pixels */
+    static final int TILE = 64;
+    /** Heap per pixel once rendered: the canvas plus the static layer, one int each */
+    static final int BYTES_PER_PIXEL = 8;
+
+    // ==================== Color Palette (ARGB) ====================
+    private static final int BG        = 0xFF2A2A2A;
+    private static final int GRID      = 0xFF333333;
+
+    private static final int TRK_CLEAR = 0xFFBBBBBB;
+    private static final int TRK_OCC   = 0xFFFF4242;
+    private static final int TRK_ROUTE = 0xFF33DD77;
+    private static final int TRK_INTER = 0xFF8844FF;
+
+    private static final int STA_EMPTY = 0xFF606060;
+    private static final int STA_PRES  = 0xFF1AEA5F;
+    private static final int STA_IMM   = 0xFFFF9900;
+    private static final int STA_BDR   = 0xFF909090;
+
+    private static final int SIG_G     = 0xFF1AEA5F;
+    private static final int SIG_R     = 0xFFFF4242;
+    private static final int SIG_Y     = 0xFFFF9900;
+    private static final int SIG_OFF   = 0xFF555555;
+
+    private static final int OBS_ON    = 0xFFFF9900;
+    private static final int OBS_OFF   = 0xFF555555;
+
+    /** World → pixel mapping of a rasterized map. */
+    record Mapping(float minX, float minZ, float scale, float offX, float offZ) {}
+
+    /**
+     * Result of one {@link #render}: either the whole canvas changed ({@code full},
+     * read it with {@link #pixels}) or the listed tiles did, with their pixels
+     * packed tile after tile, {@value #TILE} x {@value #TILE} each.
+     */
+    record Frame(int version, @Nullable Mapping mapping, boolean full, BitSet tiles, int[] tilePixels,
+                 String debug) {}
+
+    // ==================== State ====================
+    private final int width, height;
+    private final int tilesX, tilesY;
+    /** Composited map (ABGR, row-major) */
+    private final int[] canvas;
+    /** Static layer pixels, or null before the first render */
+    private int[] staticLayer;
+    private long staticKey;
+    /** Overlay items currently on the canvas, in draw order */
+    private List<OverlayItem> overlay = List.of();
+    /** Non-null while measuring an overlay item: primitives record rectangles instead of drawing */
+    private IntArrayList damage;
+
+    @Nullable
+    private Mapping mapping;
+    private float mapMinX, mapMinZ, mapScale, mapOffX, mapOffZ;
+
+    // Debug counters — what was actually drawn
+    private int drawnNodes, drawnEdges, drawnStations, drawnSignals;
+
+    TrainMapRaster(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilesX = (width + TILE - 1) / TILE;
+        this.tilesY = (height + TILE - 1) / TILE;
+        this.canvas = new int[width * height];
+    }
+
+    /** The composited canvas; valid until the next {@link #render}. */
+    int[] pixels() {
+        return canvas;
+    }
+
+    int tilesX() {
+        return tilesX;
+    }
+
+    int tilesY() {
+        return tilesY;
+    }
+
+    /**
+     * Bring the canvas up to date with the map data. The static layer is only
+     * re-rasterized when the layout or the stations moved; otherwise only the
+     * tiles under changed overlay items are redrawn.
+     */
+    Frame render(CompoundTag mapData, NetworkTopology topology, int version) {
+        boolean hasMap = !mapData.isEmpty() && !topology.isEmpty();
+        long key = hasMap ? staticKey(mapData, topology) : 0;
+
+        if (staticLayer == null || key != staticKey) {
+            drawStaticLayer(hasMap ? mapData : null, topology);
+            staticLayer = canvas.clone();
+            staticKey = key;
+            overlay = hasMap ? collectOverlay(mapData, topology) : List.of();
+            for (OverlayItem item : overlay) item.draw.run();
+            return new Frame(version, mapping, true, new BitSet(), new int[0], debugInfo());
+        }
+
+        List<OverlayItem> items = hasMap ? collectOverlay(mapData, topology) : List.of();
+        BitSet dirty = changedTiles(overlay, items);
+        overlay = items;
+        if (dirty.isEmpty()) return new Frame(version, mapping, false, dirty, new int[0], debugInfo());
+
+        // Unchanged items overlapping dirty tiles are redrawn as well, and their
+        // tiles join the dirty set, so overlapping items keep their draw order
+        List<OverlayItem> redrawn;
+        while (true) {
+            redrawn = new ArrayList<>();
+            BitSet grown = (BitSet) dirty.clone();
+            for (OverlayItem item : items) {
+                if (!item.intersects(dirty)) continue;
+                redrawn.add(item);
+                for (int t : item.tiles) grown.set(t);
+            }
+            if (grown.equals(dirty)) break;
+            dirty = grown;
+        }
+
+        for (int t = dirty.nextSetBit(0); t >= 0; t = dirty.nextSetBit(t + 1)) restoreTile(t);
+        for (OverlayItem item : redrawn) item.draw.run();
+        return new Frame(version, mapping, false, dirty, packTiles(dirty), debugInfo());
+    }
+
+    private String debugInfo() {
+        return drawnNodes + "n " + drawnEdges + "e " + drawnStations + "s " + drawnSignals + "sig";
+    }
+
+    /** Rasterize background, grid, track and empty station berths; computes the coordinate mapping. */
+    private void drawStaticLayer(@Nullable CompoundTag mapData, NetworkTopology topology) {
+        mapping = null;
+        drawnNodes = 0; drawnEdges = 0; drawnStations = 0;
+
+        // Clear to background
+        fillRect(0, 0, width, height, BG);
+
+        // Subtle grid
+        int gridSpacing = 32;
+        for (int gx = 0; gx < width; gx += gridSpacing)
+            drawVLine(gx, 0, height - 1, GRID);
+        for (int gy = 0; gy < height; gy += gridSpacing)
+            drawHLine(0, width - 1, gy, GRID);
+
+        if (mapData == null) return;
+
+        // Map bounds
+        float minX = topology.minX;
+        float maxX = topology.maxX;
+        float minZ = topology.minZ;
+        float maxZ = topology.maxZ;
+
+        float worldW = maxX - minX;
+        float worldH = maxZ - minZ;
+        if (worldW < 1) worldW = 1;
+        if (worldH < 1) worldH = 1;
+
+        // Fit to texture with margin
+        int margin = 24;
+        int availW = width - margin * 2;
+        int availH = height - margin * 2;
+        float scale = Math.min((float) availW / worldW, (float) availH / worldH);
+
+        float offX = margin + (availW - worldW * scale) / 2f;
+        float offZ = margin + (availH - worldH * scale) / 2f;
+
+        // Store for coordinate mapping
+        this.mapMinX = minX;
+        this.mapMinZ = minZ;
+        this.mapScale = scale;
+        this.mapOffX = offX;
+        this.mapOffZ = offZ;
+        this.mapping = new Mapping(minX, minZ, scale, offX, offZ);
+
+        // === Layer 1: Track edges ===
+        drawEdges(topology);
+
+        // === Layer 2: Station berths ===
+        drawStations(mapData, minX, minZ, scale, offX, offZ);
+    }
+
+    /**
+     * Key of everything the static layer depends on: the track layout, the edge
+     * kind flags that pick its colors and the station positions.
+     */
+    private static long staticKey(CompoundTag mapData, NetworkTopology topology) {
+        long key = topology.contentHash();
+        for (int e = 0; e < topology.edgeCount; e++) {
+            key = key * 31 + (topology.isCurved(e) ? 1 : 0) + (topology.isInterDimensional(e) ? 2 : 0);
+        }
+        ListTag stations = mapData.getList("Stations", 10);
+        for (int i = 0; i < stations.size(); i++) {
+            CompoundTag station = stations.getCompound(i);
+            boolean mapped = station.contains("mapX");
+            key = key * 31 + Float.floatToIntBits(station.getFloat(mapped ? "mapX" : "x"));
+            key = key * 31 + Float.floatToIntBits(station.getFloat(mapped ? "mapZ" : "z"));
+        }
+        return key;
+    }
+
+    // ==================== Overlay Items & Dirty Tiles ====================
+
+    /** One overlay element. Equal keys draw identical pixels. */
+    private static final class OverlayItem {
+        final long key;
+        final Runnable draw;
+        /** Sorted indices of the tiles the item draws into */
+        final int[] tiles;
+
+        OverlayItem(long key, Runnable draw, int[] tiles) {
+            this.key = key;
+            this.draw = draw;
+            this.tiles = tiles;
+        }
+
+        boolean intersects(BitSet dirty) {
+            for (int t : tiles) {
+                if (dirty.get(t)) return true;
+            }
+            return false;
+        }
+    }
+
+    /** Measure an overlay item: run its drawing with primitives only recording rectangles. */
+    private OverlayItem item(long key, Runnable draw) {
+        IntArrayList rects = new IntArrayList();
+        damage = rects;
+        try {
+            draw.run();
+        } finally {
+            damage = null;
+        }
+        BitSet tiles = new BitSet();
+        for (int r = 0; r < rects.size(); r += 4) {
+            int tx0 = rects.getInt(r) / TILE, ty0 = rects.getInt(r + 1) / TILE;
+            int tx1 = (rects.getInt(r + 2) - 1) / TILE, ty1 = (rects.getInt(r + 3) - 1) / TILE;
+            for (int ty = ty0; ty <= ty1; ty++) tiles.set(ty * tilesX + tx0, ty * tilesX + tx1 + 1);
+        }
+        return new OverlayItem(key, draw, tiles.stream().toArray());
+    }
+
+    private static long itemKey(int kind, long... parts) {
+        long key = kind;
+        for (long part : parts) key = key * 0x9E3779B97F4A7C15L + part;
+        return key;
+    }
+
+    /** Tiles of items present on only one side: removed items must be erased, added ones drawn. */
+    private BitSet changedTiles(List<OverlayItem> before, List<OverlayItem> after) {
+        LongOpenHashSet beforeKeys = new LongOpenHashSet(before.size());
+        LongOpenHashSet afterKeys = new LongOpenHashSet(after.size());
+        for (OverlayItem item : before) beforeKeys.add(item.key);
+        for (OverlayItem item : after) afterKeys.add(item.key);
+        BitSet dirty = new BitSet(tilesX * tilesY);
+        for (OverlayItem item : before) {
+            if (!afterKeys.contains(item.key)) for (int t : item.tiles) dirty.set(t);
+        }
+        for (OverlayItem item : after) {
+            if (!beforeKeys.contains(item.key)) for (int t : item.tiles) dirty.set(t);
+        }
+        return dirty;
+    }
+
+    /** Put back the static pixels of one tile. */
+    private void restoreTile(int tile) {
+        int x0 = (tile % tilesX) * TILE, y0 = (tile / tilesX) * TILE;
+        int x1 = Math.min(width, x0 + TILE), y1 = Math.min(height, y0 + TILE);
+        for (int py = y0; py < y1; py++) {
+            System.arraycopy(staticLayer, py * width + x0, canvas, py * width + x0, x1 - x0);
+        }
+    }
+
+    /** Copy the dirty tiles out of the canvas, {@code TILE * TILE} ints per tile (edge tiles padded). */
+    private int[] packTiles(BitSet dirty) {
+        int[] packed = new int[dirty.cardinality() * TILE * TILE];
+        int slot = 0;
+        for (int t = dirty.nextSetBit(0); t >= 0; t = dirty.nextSetBit(t + 1), slot++) {
+            int x0 = (t % tilesX) * TILE, y0 = (t / tilesX) * TILE;
+            int w = Math.min(width, x0 + TILE) - x0, h = Math.min(height, y0 + TILE) - y0;
+            for (int row = 0; row < h; row++) {
+                System.arraycopy(canvas, (y0 + row) * width + x0, packed, slot * TILE * TILE + row * TILE, w);
+            }
+        }
+        return packed;
+    }
+
+    // ==================== Map Layer Drawing ====================
+
+    /** Static: every edge in its unoccupied color. */
+    private void drawEdges(NetworkTopology topology) {
+        drawnNodes = topology.nodeCount;
+
+        for (int i = 0; i < topology.edgeCount; i++) {
+            int color = topology.isInterDimensional(i) ? TRK_INTER : TRK_CLEAR;
+
+            drawnEdges++;
+            drawEdge(topology, i, color, 3);
+        }
+    }
+
+    private void drawEdge(NetworkTopology topology, int i, int color, int thickness) {
+        int a = topology.edgeA[i];
+        int b = topology.edgeB[i];
+        float ax = mapOffX + (topology.nodeX[a] - mapMinX) * mapScale;
+        float az = mapOffZ + (topology.nodeZ[a] - mapMinZ) * mapScale;
+        float bx = mapOffX + (topology.nodeX[b] - mapMinX) * mapScale;
+        float bz = mapOffZ + (topology.nodeZ[b] - mapMinZ) * mapScale;
+        if (topology.isCurved(i) && topology.curvePointCount(i) > 0) {
+            drawCurvedEdge(topology, i, ax, az, bx, bz,
+                    color, thickness, mapOffX, mapOffZ, mapMinX, mapMinZ, mapScale);
+        } else {
+            drawThickLine((int) ax, (int) az, (int) bx, (int) bz, color, thickness);
+        }
+    }
+
+    private void drawCurvedEdge(NetworkTopology topology, int edgeIndex,
+                                float sx, float sy, float ex, float ey,
+                                int color, int thickness,
+                                float offX, float offZ, float minX, float minZ, float scale) {
+        float prevX = sx, prevY = sy;
+        int points = topology.curvePointCount(edgeIndex);
+        for (int i = 0; i < points; i++) {
+            float px = offX + (topology.curveX(edgeIndex, i) - minX) * scale;
+            float py = offZ + (topology.curveZ(edgeIndex, i) - minZ) * scale;
+            drawThickLine((int) prevX, (int) prevY, (int) px, (int) py, color, thickness);
+            prevX = px;
+            prevY = py;
+        }
+        drawThickLine((int) prevX, (int) prevY, (int) ex, (int) ey, color, thickness);
+    }
+
+    /** Static layer: every station berth, empty. */
+    private void drawStations(CompoundTag mapData, float minX, float minZ,
+                              float scale, float offX, float offZ) {
+        if (!mapData.contains("Stations")) return;
+        ListTag stations = mapData.getList("Stations", 10);
+        for (int i = 0; i < stations.size(); i++) {
+            CompoundTag station = stations.getCompound(i);
+            if (!station.contains("mapX") && !station.contains("x")) continue;
+            int sx = (int) stationX(station, minX, scale, offX);
+            int sz = (int) stationZ(station, minZ, scale, offZ);
+            drawStationBerth(sx, sz, STA_EMPTY);
+            drawnStations++;
+        }
+    }
+
+    private static float stationX(CompoundTag station, float minX, float scale, float offX) {
+        return offX + (station.getFloat(station.contains("mapX") ? "mapX" : "x") - minX) * scale;
+    }
+
+    private static float stationZ(CompoundTag station, float minZ, float scale, float offZ) {
+        return offZ + (station.getFloat(station.contains("mapX") ? "mapZ" : "z") - minZ) * scale;
+    }
+
+    private void drawStationBerth(int sx, int sz, int fill) {
+        // Station berth rectangle (larger than TESR for visibility)
+        int hw = 10, hh = 6;
+        fillRect(sx - hw, sz - hh, hw * 2, hh * 2, fill);
+        drawRectOutline(sx - hw, sz - hh, hw * 2, hh * 2, STA_BDR, 1);
+    }
+
+    /** Build the overlay items in draw order: occupancy, routes, station state, signals, observers. */
+    private List<OverlayItem> collectOverlay(CompoundTag mapData, NetworkTopology topology) {
+        List<OverlayItem> items = new ArrayList<>();
+        float minX = mapMinX, minZ = mapMinZ, scale = mapScale, offX = mapOffX, offZ = mapOffZ;
+
+        // Occupied edges, drawn thicker over their static track
+        for (int i = 0; i < topology.edgeCount; i++) {
+            if (!topology.isOccupied(i)) continue;
+            int edge = i;
+            items.add(item(itemKey(1, edge), () -> drawEdge(topology, edge, TRK_OCC, 4)));
+        }
+
+        // Navigation routes
+        ListTag trains = mapData.getList("Trains", 10);
+        for (int i = 0; i < trains.size(); i++) {
+            CompoundTag train = trains.getCompound(i);
+            if (!train.contains("path")) continue;
+            ListTag path = train.getList("path", 10);
+            for (int p = 0; p < path.size(); p++) {
+                CompoundTag seg = path.getCompound(p);
+                int ax = (int) (offX + (seg.getFloat("ax") - minX) * scale);
+                int az = (int) (offZ + (seg.getFloat("az") - minZ) * scale);
+                int bx = (int) (offX + (seg.getFloat("bx") - minX) * scale);
+                int bz = (int) (offZ + (seg.getFloat("bz") - minZ) * scale);
+                items.add(item(itemKey(2, ax, az, bx, bz), () -> drawDashedLine(ax, az, bx, bz, TRK_ROUTE, 2)));
+            }
+        }
+
+        // Stations with a train present or imminent, over their empty berth
+        ListTag stations = mapData.getList("Stations", 10);
+        for (int i = 0; i < stations.size(); i++) {
+            CompoundTag station = stations.getCompound(i);
+            if (!station.contains("mapX") && !station.contains("x")) continue;
+            int fill;
+            if (station.contains("trainPresent")) fill = STA_PRES;
+            else if (station.contains("trainImminent")) fill = STA_IMM;
+            else continue;
+            int sx = (int) stationX(station, minX, scale, offX);
+            int sz = (int) stationZ(station, minZ, scale, offZ);
+            items.add(item(itemKey(3, sx, sz, fill), () -> drawStationBerth(sx, sz, fill)));
+        }
+
+        // Signals
+        drawnSignals = 0;
+        ListTag signals = mapData.getList("Signals", 10);
+        for (int i = 0; i < signals.size(); i++) {
+            CompoundTag signal = signals.getCompound(i);
+            float sx, sz;
+            if (signal.contains("mapX")) {
+                sx = offX + (signal.getFloat("mapX") - minX) * scale;
+                sz = offZ + (signal.getFloat("mapZ") - minZ) * scale;
+            } else if (signal.contains("x")) {
+                sx = offX + (signal.getFloat("x") - minX) * scale;
+                sz = offZ + (signal.getFloat("z") - minZ) * scale;
+            } else continue;
+
+            String stateF = signal.getString("stateF");
+            int color = switch (stateF) {
+                case "green" -> SIG_G;
+                case "red" -> SIG_R;
+                case "yellow" -> SIG_Y;
+                default -> SIG_OFF;
+            };
+
+            float dirX = signal.contains("dirX") ? signal.getFloat("dirX") : 0;
+            float dirZ = signal.contains("dirZ") ? signal.getFloat("dirZ") : 0;
+            int px = (int) (sx - dirZ * 6);
+            int pz = (int) (sz + dirX * 6);
+
+            // Small square signal indicator
+            int size = 3;
+            items.add(item(itemKey(4, px, pz, color), () -> fillRect(px - size, pz - size, size * 2, size * 2, color)));
+            drawnSignals++;
+        }
+
+        // Observers
+        ListTag observers = mapData.getList("Observers", 10);
+        for (int i = 0; i < observers.size(); i++) {
+            CompoundTag obs = observers.getCompound(i);
+            if (!obs.contains("x")) continue;
+            int ox = (int) (offX + (obs.getFloat("x") - minX) * scale);
+            int oz = (int) (offZ + (obs.getFloat("z") - minZ) * scale);
+            int color = obs.getBoolean("activated") ? OBS_ON : OBS_OFF;
+            items.add(item(itemKey(5, ox, oz, color), () -> drawDiamond(ox, oz, 5, color)));
+        }
+        return items;
+    }
+
+    // ==================== Pixel Drawing Primitives ====================
+
+    /**
+     * While an overlay item is measured, record a rectangle (inclusive corners)
+     * it would draw. @return True if measuring: the caller must not draw.
+     */
+    private boolean touch(int x0, int y0, int x1, int y1) {
+        if (damage == null) return false;
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(width, x1 + 1);
+        y1 = Math.min(height, y1 + 1);
+        if (x0 < x1 && y0 < y1) {
+            damage.add(x0); damage.add(y0); damage.add(x1); damage.add(y1);
+        }
+        return true;
+    }
+
+    /** NativeImage stores pixels as ABGR; colors are converted once per primitive. */
+    private static int argbToAbgr(int argb) {
+        int a = (argb >> 24) & 0xFF;
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        return (a << 24) | (b << 16) | (g << 8) | r;
+    }
+
+    private void fillRect(int x, int y, int w, int h, int color) {
+        int abgr = argbToAbgr(color);
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(width, x + w);
+        int y1 = Math.min(height, y + h);
+        if (touch(x0, y0, x1 - 1, y1 - 1)) return;
+        if (x0 >= x1) return;
+        for (int py = y0; py < y1; py++) {
+            Arrays.fill(canvas, py * width + x0, py * width + x1, abgr);
+        }
+    }
+
+    private void drawRectOutline(int x, int y, int w, int h, int color, int thickness) {
+        for (int t = 0; t < thickness; t++) {
+            drawHLine(x, x + w - 1, y + t, color);
+            drawHLine(x, x + w - 1, y + h - 1 - t, color);
+            drawVLine(x + t, y, y + h - 1, color);
+            drawVLine(x + w - 1 - t, y, y + h - 1, color);
+        }
+    }
+
+    private void drawHLine(int x0, int x1, int y, int color) {
+        if (y < 0 || y >= height) return;
+        int start = Math.max(0, Math.min(x0, x1));
+        int end = Math.min(width - 1, Math.max(x0, x1));
+        if (touch(start, y, end, y)) return;
+        if (start > end) return;
+        Arrays.fill(canvas, y * width + start, y * width + end + 1, argbToAbgr(color));
+    }
+
+    private void drawVLine(int x, int y0, int y1, int color) {
+        if (x < 0 || x >= width) return;
+        int start = Math.max(0, Math.min(y0, y1));
+        int end = Math.min(height - 1, Math.max(y0, y1));
+        if (touch(x, start, x, end)) return;
+        int abgr = argbToAbgr(color);
+        for (int y = start; y <= end; y++) {
+            canvas[y * width + x] = abgr;
+        }
+    }
+
+    /**
+     * Draw a thick line using Bresenham with a filled square brush.
+     * At 256px/block resolution, thickness 3-4 gives clean visible tracks.
+     */
+    private void drawThickLine(int x0, int y0, int x1, int y1, int color, int thickness) {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int sx = x0 < x1 ? 1 : -1;
+        int sy = y0 < y1 ? 1 : -1;
+        int err = dx - dy;
+        int half = thickness / 2;
+
+        int steps = Math.max(dx, dy);
+        if (steps > 200000) return; // safety limit
+        if (damage != null) {
+            // Measure in tile-sized pieces so a long diagonal does not claim its whole bounding box
+            int pieces = steps / TILE + 1;
+            for (int k = 0; k < pieces; k++) {
+                int ax = x0 + (x1 - x0) * k / pieces, ay = y0 + (y1 - y0) * k / pieces;
+                int bx = x0 + (x1 - x0) * (k + 1) / pieces, by = y0 + (y1 - y0) * (k + 1) / pieces;
+                touch(Math.min(ax, bx) - half - 1, Math.min(ay, by) - half - 1,
+                        Math.max(ax, bx) + half + 1, Math.max(ay, by) + half + 1);
+            }
+            return;
+        }
+
+        int abgr = argbToAbgr(color);
+        int x = x0, y = y0;
+        for (int i = 0; i <= steps; i++) {
+            // Filled square brush for clean thick line
+            int bx0 = Math.max(0, x - half);
+            int by0 = Math.max(0, y - half);
+            int bx1 = Math.min(width - 1, x + half);
+            int by1 = Math.min(height - 1, y + half);
+            for (int py = by0; py <= by1; py++) {
+                int row = py * width;
+                for (int px = bx0; px <= bx1; px++) {
+                    canvas[row + px] = abgr;
+                }
+            }
+            if (x == x1 && y == y1) break;
+            int e2 = 2 * err;
+            if (e2 > -dy) { err -= dy; x += sx; }
+            if (e2 < dx) { err += dx; y += sy; }
+        }
+    }
+
+    private void drawDashedLine(int x0, int y0, int x1, int y1, int color, int thickness) {
+        float dx = x1 - x0, dy = y1 - y0;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len < 1) return;
+
+        float dashLen = 8, gapLen = 5;
+        float cycle = dashLen + gapLen;
+        float t = 0;
+        while (t < len) {
+            float tEnd = Math.min(t + dashLen, len);
+            int sx = (int) (x0 + dx * (t / len));
+            int sy = (int) (y0 + dy * (t / len));
+            int ex = (int) (x0 + dx * (tEnd / len));
+            int ey = (int) (y0 + dy * (tEnd / len));
+            drawThickLine(sx, sy, ex, ey, color, thickness);
+            t += cycle;
+        }
+    }
+
+    private void drawDiamond(int cx, int cy, int size, int color) {
+        if (touch(cx - size, cy - size, cx + size, cy + size)) return;
+        int abgr = argbToAbgr(color);
+        for (int dy = -size; dy <= size; dy++) {
+            for (int dx = -size; dx <= size; dx++) {
+                if (Math.abs(dx) + Math.abs(dy) <= size) {
+                    int px = cx + dx, py = cy + dy;
+                    if (px >= 0 && px < width && py >= 0 && py < height) {
+                        canvas[py * width + px] = abgr;
+                    }
+                }
+            }
+        }
+    }
+}
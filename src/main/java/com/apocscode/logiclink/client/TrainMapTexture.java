@@ -1,15 +1,23 @@
 package com.apocscode.logiclink.client;
 
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.peripheral.NetworkTopology;
 import com.mojang.blaze3d.platform.NativeImage;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.DynamicTexture;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Render-to-texture engine for the CTC train network map.
@@ -23,73 +31,157 @@ import java.util.*;
  * This is the same approach used by Xaero's minimap and similar mods.
  *
  * Resolution: 256 pixels per block (vs ~160 for TESR vertex quads), capped at 2048.
- * Redraws only when map data changes (hash-based dirty detection).
+ * Redraws only when map data changes (hash-based dirty detection). Train markers
+ * are not part of the texture: they move every frame and are drawn on top by the
+ * TESR at their dead-reckoned positions.
+ *
+ * Rasterization ({@link TrainMapRaster}) runs on a background worker. A redraw
+ * only copies the map data the worker reads and queues it, coalesced to the
+ * newest version per texture; the render thread picks up finished frames in
+ * {@link #getOrCreate}, swaps in full images or copies the dirty tiles, and
+ * uploads them. Until then the previous map stays on screen.
+ *
+ * Detail levels: level 0 has the full 256 pixels per block, each further level
+ * halves both dimensions. The renderer asks for the level that matches how
+ * large the monitor appears on screen ({@link #requestDetail}), so a distant
+ * monitor is rasterized and stored at a fraction of the size, and a large monitor
+ * seen up close gets a finer level than its whole-map image would allow. Each
+ * level is capped at {@value #MAX_LEVEL_SIDE} pixels a side, so monitors wider
+ * than 8 blocks start at level 1.
+ * Symbols keep their pixel size at every level, which keeps stations readable
+ * from afar where a downsampled image would blur them away. A level is held on
+ * the GPU as {@value #GPU_TILE}-pixel tile textures; only the displayed level
+ * exists. Each monitor also keeps its raster's two heap layers, 8 bytes per
+ * pixel of the rendered level. When tiles and rasters together exceed
+ * {@value #MEMORY_BUDGET_MB} MB, monitors not drawn in the last few frames are
+ * dropped, least recently used first; if monitors on screen still do not fit,
+ * the largest of them are held to a coarser level until they do.
  */
 public class TrainMapTexture {
 
     // ==================== Resolution ====================
     private static final int PX_PER_BLOCK = 256;
-    private static final int MAX_TEX = 2048;
     private static final int MIN_TEX = 256;
+    /** Largest level side in pixels; bigger monitors start at a coarser level */
+    private static final int MAX_LEVEL_SIDE = 2048;
+    /** Side of one GPU tile texture in pixels */
+    private static final int GPU_TILE = 512;
+    /** Budget for GPU tiles plus raster heap layers of all monitors */
+    private static final int MEMORY_BUDGET_MB = 256;
+    private static final int TILE = TrainMapRaster.TILE;
+
+    /** Map data lists the rasterizer reads besides the topology */
+    private static final String[] RASTER_KEYS = {"Trains", "Stations", "Signals", "Observers"};
 
     // ==================== Cache ====================
     private static final Map<String, TrainMapTexture> CACHE = new HashMap<>();
     private static long frameCounter = 0;
 
-    // ==================== Color Palette (ARGB) ====================
-    private static final int BG        = 0xFF2A2A2A;
-    private static final int GRID      = 0xFF333333;
-
-    private static final int TRK_CLEAR = 0xFFBBBBBB;
-    private static final int TRK_OCC   = 0xFFFF4242;
-    private static final int TRK_ROUTE = 0xFF33DD77;
-    private static final int TRK_INTER = 0xFF8844FF;
-
-    private static final int STA_EMPTY = 0xFF606060;
-    private static final int STA_PRES  = 0xFF1AEA5F;
-    private static final int STA_IMM   = 0xFFFF9900;
-    private static final int STA_BDR   = 0xFF909090;
-
-    private static final int SIG_G     = 0xFF1AEA5F;
-    private static final int SIG_R     = 0xFFFF4242;
-    private static final int SIG_Y     = 0xFFFF9900;
-    private static final int SIG_OFF   = 0xFF555555;
-
-    private static final int TRN_MOV   = 0xFF1AEA5F;
-    private static final int TRN_STP   = 0xFF8B8B8B;
-    private static final int TRN_DER   = 0xFFFF4242;
-    private static final int TRN_NAV   = 0xFFFF9900;
+    private static final ExecutorService RASTER_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LogicLink Map Raster");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    /** Map data snapshot handed to the worker, for one detail level. */
+    private record Job(CompoundTag mapData, NetworkTopology topology, int version, int level) {}
+
+    /** A finished raster frame; {@code images} holds the GPU tiles of full frames. */
+    private record Completed(TrainMapRaster.Frame frame, int level, NativeImage[] images) {}
+
+    /** One GPU tile of the displayed level, placed in fractions of the map area. */
+    public record Tile(ResourceLocation location, float x0, float y0, float x1, float y1) {}
+
+    /** Render thread: the displayed level's tile textures. */
+    private static final class GpuLevel {
+        final int level, width, height, cols, rows;
+        final NativeImage[] images;
+        final DynamicTexture[] textures;
+        final List<Tile> tiles = new ArrayList<>();
+
+        GpuLevel(String key, int level, int width, int height, NativeImage[] images) {
+            this.level = level;
+            this.width = width;
+            this.height = height;
+            this.cols = (width + GPU_TILE - 1) / GPU_TILE;
+            this.rows = (height + GPU_TILE - 1) / GPU_TILE;
+            this.images = images;
+            this.textures = new DynamicTexture[images.length];
+            for (int i = 0; i < images.length; i++) {
+                int col = i % cols, row = i / cols;
+                textures[i] = new DynamicTexture(images[i]);
+                ResourceLocation location = ResourceLocation.fromNamespaceAndPath("logiclink",
+                        "train_map_" + key + "_l" + level + "_" + i);
+                // The DynamicTexture constructor already uploaded the image
+                Minecraft.getInstance().getTextureManager().register(location, textures[i]);
+                tiles.add(new Tile(location,
+                        (float) (col * GPU_TILE) / width, (float) (row * GPU_TILE) / height,
+                        (float) Math.min(width, (col + 1) * GPU_TILE) / width,
+                        (float) Math.min(height, (row + 1) * GPU_TILE) / height));
+            }
+        }
 
-    private static final int OBS_ON    = 0xFFFF9900;
-    private static final int OBS_OFF   = 0xFF555555;
+        void release() {
+            for (Tile tile : tiles) Minecraft.getInstance().getTextureManager().release(tile.location());
+        }
+    }
 
     // ==================== Instance State ====================
     private final int texW, texH;
-    private NativeImage image;
-    private DynamicTexture dynamicTexture;
-    private ResourceLocation resLoc;
+    private final String key;
+    private final int coarsestLevel;
+    private final int finestLevel;
+    /** Finest level the memory budget allows; raised by {@link #enforceBudget} */
+    private int budgetLevel;
     private int lastHash = 0;
     private long lastUsedFrame = 0;
-    private boolean disposed = false;
-
-    // Coordinate mapping (set during redraw, used by text overlay positioning)
-    private float mapMinX, mapMinZ;
-    private float mapScale;
-    private float mapOffX, mapOffZ; // pixel offset within texture (includes margin + centering)
-    private boolean validBounds = false;
-
-    // Debug counters — what was actually drawn last redraw
-    private int drawnNodes, drawnEdges, drawnStations, drawnSignals, drawnTrains;
+    private volatile boolean disposed = false;
+
+    /** Level the worker should render; the displayed level follows once its frame arrives */
+    private int wantedLevel;
+    @Nullable
+    private GpuLevel gpu;
+    /** Last job queued, kept so a level change can be rendered without new data */
+    @Nullable
+    private Job lastJob;
+
+    /** Worker side: only touched on the raster thread */
+    @Nullable
+    private TrainMapRaster raster;
+    private int rasterLevel = -1;
+    /** Newest redraw waiting for the worker; null when none is queued */
+    private final AtomicReference<Job> pending = new AtomicReference<>();
+    /** Finished frames in rasterization order, applied on the render thread */
+    private final Queue<Completed> completed = new ConcurrentLinkedQueue<>();
+
+    // Coordinate mapping of the frame on the GPU (used by text overlay positioning)
+    private TrainMapRaster.Mapping mapping;
+    private int mappingW, mappingH;
+    private String debugInfo = "";
+    /** Pixels uploaded for the last applied frame (debug) */
+    private int uploadedPixels;
 
     // ==================== Constructor ====================
 
     private TrainMapTexture(int w, int h, String key) {
         this.texW = w;
         this.texH = h;
-        this.image = new NativeImage(NativeImage.Format.RGBA, w, h, false);
-        this.dynamicTexture = new DynamicTexture(image);
-        this.resLoc = ResourceLocation.fromNamespaceAndPath("logiclink", "train_map_" + key);
-        Minecraft.getInstance().getTextureManager().register(resLoc, dynamicTexture);
+        this.key = key;
+        int finest = 0;
+        while (Math.max(levelSize(w, finest), levelSize(h, finest)) > MAX_LEVEL_SIDE) finest++;
+        int coarsest = finest;
+        while (Math.max(levelSize(w, coarsest), levelSize(h, coarsest)) > MIN_TEX) coarsest++;
+        this.finestLevel = finest;
+        this.coarsestLevel = coarsest;
+        this.budgetLevel = finest;
+        this.wantedLevel = finest;
+        this.mappingW = levelSize(w, finest);
+        this.mappingH = levelSize(h, finest);
+    }
+
+    private static int levelSize(int size, int level) {
+        return Math.max(1, (size + (1 << level) - 1) >> level);
     }
 
     // ==================== Public API ====================
@@ -113,10 +205,8 @@ public class TrainMapTexture {
             });
         }
 
-        int tw = Math.min(monW * PX_PER_BLOCK, MAX_TEX);
-        int th = Math.min(monH * PX_PER_BLOCK, MAX_TEX);
-        tw = Math.max(tw, MIN_TEX);
-        th = Math.max(th, MIN_TEX);
+        int tw = Math.max(monW * PX_PER_BLOCK, MIN_TEX);
+        int th = Math.max(monH * PX_PER_BLOCK, MIN_TEX);
 
         TrainMapTexture tex = CACHE.get(key);
         if (tex != null && (tex.texW != tw || tex.texH != th || tex.disposed)) {
@@ -129,493 +219,278 @@ public class TrainMapTexture {
             CACHE.put(key, tex);
         }
         tex.lastUsedFrame = frameCounter;
+        if (tex.applyCompleted()) enforceBudget();
         return tex;
     }
 
-    /** Check if the texture needs to be redrawn (data version changed). */
-    public boolean needsRedraw(int version) {
-        return version != lastHash;
-    }
-
-    /** @deprecated Use needsRedraw(int version) for O(1) check */
-    public boolean needsRedraw(CompoundTag mapData) {
-        int hash = mapData != null ? mapData.hashCode() : 0;
-        return hash != lastHash;
-    }
-
-    /** Redraw the full map to the pixel buffer and upload to GPU. */
-    public void redraw(CompoundTag mapData, int version) {
-        lastHash = version;
-        validBounds = false;
-        drawnNodes = 0; drawnEdges = 0; drawnStations = 0; drawnSignals = 0; drawnTrains = 0;
-
-        // Clear to background
-        fillRect(0, 0, texW, texH, BG);
-
-        // Subtle grid
-        int gridSpacing = 32;
-        for (int gx = 0; gx < texW; gx += gridSpacing)
-            drawVLine(gx, 0, texH - 1, GRID);
-        for (int gy = 0; gy < texH; gy += gridSpacing)
-            drawHLine(0, texW - 1, gy, GRID);
-
-        if (mapData == null || mapData.isEmpty() || !mapData.contains("Bounds")) {
-            dynamicTexture.upload();
-            return;
-        }
-
-        // Map bounds
-        CompoundTag bounds = mapData.getCompound("Bounds");
-        float minX = bounds.getFloat("minX");
-        float maxX = bounds.getFloat("maxX");
-        float minZ = bounds.getFloat("minZ");
-        float maxZ = bounds.getFloat("maxZ");
-
-        float worldW = maxX - minX;
-        float worldH = maxZ - minZ;
-        if (worldW < 1) worldW = 1;
-        if (worldH < 1) worldH = 1;
-
-        // Fit to texture with margin
-        int margin = 24;
-        int availW = texW - margin * 2;
-        int availH = texH - margin * 2;
-        float scale = Math.min((float) availW / worldW, (float) availH / worldH);
-
-        float offX = margin + (availW - worldW * scale) / 2f;
-        float offZ = margin + (availH - worldH * scale) / 2f;
-
-        // Store for coordinate mapping
-        this.mapMinX = minX;
-        this.mapMinZ = minZ;
-        this.mapScale = scale;
-        this.mapOffX = offX;
-        this.mapOffZ = offZ;
-        this.validBounds = true;
-
-        // === Layer 1: Track edges ===
-        drawEdges(mapData, minX, minZ, scale, offX, offZ);
-
-        // === Layer 2: Navigation route overlays ===
-        drawNavRoutes(mapData, minX, minZ, scale, offX, offZ);
-
-        // === Layer 3: Stations ===
-        drawStations(mapData, minX, minZ, scale, offX, offZ);
-
-        // === Layer 4: Signals ===
-        drawSignals(mapData, minX, minZ, scale, offX, offZ);
-
-        // === Layer 5: Observers ===
-        drawObservers(mapData, minX, minZ, scale, offX, offZ);
-
-        // === Layer 6: Trains ===
-        drawTrains(mapData, minX, minZ, scale, offX, offZ);
-
-        // Upload to GPU
-        dynamicTexture.upload();
-    }
-
-    /** Get the ResourceLocation for this texture (for RenderType.entitySolid). */
-    public ResourceLocation getResourceLocation() {
-        return resLoc;
-    }
-
-    /** Whether coordinate mapping is valid (bounds were computed). */
-    public boolean hasValidBounds() {
-        return validBounds;
-    }
-
     /**
-     * Map a world X coordinate to a fraction (0..1) across the texture width.
-     * Used by the TESR text overlay to position labels aligned with the texture content.
+     * Pick the detail level for how large the monitor appears: the coarsest
+     * level that still has at least one texel per screen pixel. Switches only
+     * once the ideal level is more than half a level away, so a player standing
+     * at a boundary does not flip between levels.
+     *
+     * @param screenPixelsPerBlock Screen pixels one block of the monitor spans
      */
-    public float worldToFracX(float worldX) {
-        if (!validBounds) return 0.5f;
-        return (mapOffX + (worldX - mapMinX) * mapScale) / texW;
+    public void requestDetail(float screenPixelsPerBlock) {
+        double ideal = Math.log(PX_PER_BLOCK / Math.max(1e-3f, screenPixelsPerBlock)) / Math.log(2);
+        if (Math.abs(ideal - wantedLevel) <= 0.5 + 0.25) return;
+        setWantedLevel(Math.max(finestLevel, Math.min(coarsestLevel, (int) Math.floor(ideal))));
     }
 
-    /**
-     * Map a world Z coordinate to a fraction (0..1) across the texture height.
-     */
-    public float worldToFracZ(float worldZ) {
-        if (!validBounds) return 0.5f;
-        return (mapOffZ + (worldZ - mapMinZ) * mapScale) / texH;
+    /** Render at the given level from now on, clamped to what the budget allows. */
+    private void setWantedLevel(int level) {
+        level = Math.max(level, budgetLevel);
+        if (level == wantedLevel) return;
+        wantedLevel = level;
+        if (lastJob != null) submit(new Job(lastJob.mapData(), lastJob.topology(), lastJob.version(), level));
     }
 
-    /** Debug: get summary string of what was drawn. */
-    public String getDebugInfo() {
-        return drawnNodes + "n " + drawnEdges + "e " + drawnStations + "s " + drawnSignals + "sig " + drawnTrains + "t";
+    /** Check if the texture needs to be redrawn (data version changed). */
+    public boolean needsRedraw(int version) {
+        return version != lastHash;
     }
 
-    /** Release GPU resources. */
-    public void dispose() {
-        if (!disposed) {
-            disposed = true;
-            try {
-                dynamicTexture.close();
-            } catch (Exception ignored) {
+    /**
+     * Queue a redraw of the map. The lists the rasterizer reads are copied here,
+     * on the render thread, since the client patches map data in place; the
+     * topology is immutable and shared.
+     */
+    public void redraw(CompoundTag mapData, NetworkTopology topology, int version) {
+        lastHash = version;
+        CompoundTag input = new CompoundTag();
+        if (mapData != null && !mapData.isEmpty()) {
+            for (String key : RASTER_KEYS) {
+                Tag tag = mapData.get(key);
+                if (tag != null) input.put(key, tag.copy());
             }
         }
+        lastJob = new Job(input, topology, version, wantedLevel);
+        submit(lastJob);
     }
 
-    /** Clear all cached textures (call on dimension change or level unload). */
-    public static void clearAll() {
-        for (TrainMapTexture tex : CACHE.values()) {
-            tex.dispose();
+    private void submit(Job job) {
+        if (pending.getAndSet(job) == null) {
+            RASTER_EXECUTOR.execute(this::rasterize);
         }
-        CACHE.clear();
     }
 
-    // ==================== Map Layer Drawing ====================
-
-    private void drawEdges(CompoundTag mapData, float minX, float minZ,
-                           float scale, float offX, float offZ) {
-        if (!mapData.contains("Edges")) return;
-
-        ListTag nodes = mapData.getList("Nodes", 10);
-        ListTag edges = mapData.getList("Edges", 10);
-
-        float[] nodeXArr = new float[nodes.size()];
-        float[] nodeZArr = new float[nodes.size()];
-        for (int i = 0; i < nodes.size(); i++) {
-            CompoundTag n = nodes.getCompound(i);
-            nodeXArr[i] = offX + (n.getFloat("x") - minX) * scale;
-            nodeZArr[i] = offZ + (n.getFloat("z") - minZ) * scale;
-        }
-        drawnNodes = nodes.size();
-
-        for (int i = 0; i < edges.size(); i++) {
-            CompoundTag edge = edges.getCompound(i);
-            int a = edge.getInt("a");
-            int b = edge.getInt("b");
-            if (a >= nodes.size() || b >= nodes.size()) continue;
-
-            boolean occupied = edge.getBoolean("occupied");
-            boolean interDim = edge.getBoolean("interDim");
-            boolean curved = edge.getBoolean("curved");
-
-            int color;
-            if (occupied) color = TRK_OCC;
-            else if (interDim) color = TRK_INTER;
-            else color = TRK_CLEAR;
-
-            int thickness = occupied ? 4 : 3;
-
-            drawnEdges++;
-
-            if (curved && mapData.contains("Curves")) {
-                drawCurvedEdge(mapData, i,
-                        nodeXArr[a], nodeZArr[a], nodeXArr[b], nodeZArr[b],
-                        color, thickness, offX, offZ, minX, minZ, scale);
-            } else {
-                drawThickLine((int) nodeXArr[a], (int) nodeZArr[a],
-                        (int) nodeXArr[b], (int) nodeZArr[b], color, thickness);
+    /** Worker: render the newest queued job. */
+    private void rasterize() {
+        Job job = pending.getAndSet(null);
+        if (job == null || disposed) return;
+        try {
+            int w = levelSize(texW, job.level()), h = levelSize(texH, job.level());
+            if (raster == null || rasterLevel != job.level()) {
+                raster = null; // let the old level's layers go before allocating the new ones
+                raster = new TrainMapRaster(w, h);
+                rasterLevel = job.level();
+            }
+            TrainMapRaster.Frame frame = raster.render(job.mapData(), job.topology(), job.version());
+            NativeImage[] images = null;
+            if (frame.full()) {
+                // Filled here so the render thread only wraps and uploads them
+                images = cutGpuTiles(raster.pixels(), w, h);
             }
+            completed.add(new Completed(frame, job.level(), images));
+            if (disposed) drainCompleted();
+        } catch (Exception e) {
+            LogicLink.LOGGER.error("TrainMapTexture: Rasterization failed", e);
         }
     }
 
-    private void drawCurvedEdge(CompoundTag mapData, int edgeIndex,
-                                float sx, float sy, float ex, float ey,
-                                int color, int thickness,
-                                float offX, float offZ, float minX, float minZ, float scale) {
-        ListTag curves = mapData.getList("Curves", 10);
-        ListTag points = null;
-        for (int i = 0; i < curves.size(); i++) {
-            CompoundTag c = curves.getCompound(i);
-            if (c.getInt("edge") == edgeIndex) {
-                points = c.getList("pts", 10);
-                break;
+    private static NativeImage[] cutGpuTiles(int[] pixels, int w, int h) {
+        int cols = (w + GPU_TILE - 1) / GPU_TILE, rows = (h + GPU_TILE - 1) / GPU_TILE;
+        NativeImage[] images = new NativeImage[cols * rows];
+        for (int i = 0; i < images.length; i++) {
+            int x0 = (i % cols) * GPU_TILE, y0 = (i / cols) * GPU_TILE;
+            int tw = Math.min(w, x0 + GPU_TILE) - x0, th = Math.min(h, y0 + GPU_TILE) - y0;
+            NativeImage image = new NativeImage(NativeImage.Format.RGBA, tw, th, false);
+            for (int y = 0; y < th; y++) {
+                int row = (y0 + y) * w + x0;
+                for (int x = 0; x < tw; x++) image.setPixelRGBA(x, y, pixels[row + x]);
             }
+            images[i] = image;
         }
+        return images;
+    }
 
-        if (points == null || points.isEmpty()) {
-            drawThickLine((int) sx, (int) sy, (int) ex, (int) ey, color, thickness);
-            return;
-        }
-
-        float prevX = sx, prevY = sy;
-        for (int i = 0; i < points.size(); i++) {
-            CompoundTag pt = points.getCompound(i);
-            float px = offX + (pt.getFloat("x") - minX) * scale;
-            float py = offZ + (pt.getFloat("z") - minZ) * scale;
-            drawThickLine((int) prevX, (int) prevY, (int) px, (int) py, color, thickness);
-            prevX = px;
-            prevY = py;
+    /**
+     * Render thread: apply finished frames in order and upload what they changed.
+     * @return True if a new level was put on the GPU.
+     */
+    private boolean applyCompleted() {
+        boolean replaced = false;
+        Completed done;
+        while ((done = completed.poll()) != null) {
+            TrainMapRaster.Frame frame = done.frame();
+            if (done.images() != null) {
+                if (gpu != null) gpu.release();
+                int w = levelSize(texW, done.level()), h = levelSize(texH, done.level());
+                gpu = new GpuLevel(key, done.level(), w, h, done.images());
+                uploadedPixels = w * h;
+                replaced = true;
+            } else if (gpu != null && gpu.level == done.level()) {
+                uploadTiles(frame.tiles(), frame.tilePixels());
+            } else {
+                continue; // a tile update for a level no longer shown; its full frame follows
+            }
+            mapping = frame.mapping();
+            mappingW = gpu.width;
+            mappingH = gpu.height;
+            debugInfo = frame.debug();
         }
-        drawThickLine((int) prevX, (int) prevY, (int) ex, (int) ey, color, thickness);
+        return replaced;
     }
 
-    private void drawNavRoutes(CompoundTag mapData, float minX, float minZ,
-                               float scale, float offX, float offZ) {
-        if (!mapData.contains("Trains")) return;
-        ListTag trains = mapData.getList("Trains", 10);
-        for (int i = 0; i < trains.size(); i++) {
-            CompoundTag train = trains.getCompound(i);
-            if (!train.contains("path")) continue;
-            ListTag path = train.getList("path", 10);
-            for (int p = 0; p < path.size(); p++) {
-                CompoundTag seg = path.getCompound(p);
-                int ax = (int) (offX + (seg.getFloat("ax") - minX) * scale);
-                int az = (int) (offZ + (seg.getFloat("az") - minZ) * scale);
-                int bx = (int) (offX + (seg.getFloat("bx") - minX) * scale);
-                int bz = (int) (offZ + (seg.getFloat("bz") - minZ) * scale);
-                drawDashedLine(ax, az, bx, bz, TRK_ROUTE, 2);
+    /** Copy dirty raster tiles into their GPU tile images and upload each as a sub-image. */
+    private void uploadTiles(BitSet tiles, int[] packed) {
+        uploadedPixels = 0;
+        int tilesX = (gpu.width + TILE - 1) / TILE;
+        int slot = 0;
+        for (int t = tiles.nextSetBit(0); t >= 0; t = tiles.nextSetBit(t + 1), slot++) {
+            int x0 = (t % tilesX) * TILE, y0 = (t / tilesX) * TILE;
+            int w = Math.min(gpu.width, x0 + TILE) - x0, h = Math.min(gpu.height, y0 + TILE) - y0;
+            // Raster tiles divide GPU tiles evenly, so each lies within one GPU tile
+            int gi = (y0 / GPU_TILE) * gpu.cols + x0 / GPU_TILE;
+            int lx = x0 % GPU_TILE, ly = y0 % GPU_TILE;
+            NativeImage image = gpu.images[gi];
+            int base = slot * TILE * TILE;
+            for (int row = 0; row < h; row++) {
+                for (int col = 0; col < w; col++) {
+                    image.setPixelRGBA(lx + col, ly + row, packed[base + row * TILE + col]);
+                }
             }
+            gpu.textures[gi].bind();
+            image.upload(0, lx, ly, lx, ly, w, h, false, false, false, false);
+            uploadedPixels += w * h;
         }
     }
 
-    private void drawStations(CompoundTag mapData, float minX, float minZ,
-                              float scale, float offX, float offZ) {
-        if (!mapData.contains("Stations")) return;
-        ListTag stations = mapData.getList("Stations", 10);
-        for (int i = 0; i < stations.size(); i++) {
-            CompoundTag station = stations.getCompound(i);
-            float sx, sz;
-            if (station.contains("mapX")) {
-                sx = offX + (station.getFloat("mapX") - minX) * scale;
-                sz = offZ + (station.getFloat("mapZ") - minZ) * scale;
-            } else if (station.contains("x")) {
-                sx = offX + (station.getFloat("x") - minX) * scale;
-                sz = offZ + (station.getFloat("z") - minZ) * scale;
-            } else continue;
-
-            int fill;
-            if (station.contains("trainPresent")) fill = STA_PRES;
-            else if (station.contains("trainImminent")) fill = STA_IMM;
-            else fill = STA_EMPTY;
-
-            // Station berth rectangle (larger than TESR for visibility)
-            int hw = 10, hh = 6;
-            fillRect((int) sx - hw, (int) sz - hh, hw * 2, hh * 2, fill);
-            drawRectOutline((int) sx - hw, (int) sz - hh, hw * 2, hh * 2, STA_BDR, 1);
-            drawnStations++;
+    /** Close images of frames that will never be applied. */
+    private void drainCompleted() {
+        Completed done;
+        while ((done = completed.poll()) != null) {
+            if (done.images() != null) {
+                for (NativeImage image : done.images()) image.close();
+            }
         }
     }
 
-    private void drawSignals(CompoundTag mapData, float minX, float minZ,
-                             float scale, float offX, float offZ) {
-        if (!mapData.contains("Signals")) return;
-        ListTag signals = mapData.getList("Signals", 10);
-        for (int i = 0; i < signals.size(); i++) {
-            CompoundTag signal = signals.getCompound(i);
-            float sx, sz;
-            if (signal.contains("mapX")) {
-                sx = offX + (signal.getFloat("mapX") - minX) * scale;
-                sz = offZ + (signal.getFloat("mapZ") - minZ) * scale;
-            } else if (signal.contains("x")) {
-                sx = offX + (signal.getFloat("x") - minX) * scale;
-                sz = offZ + (signal.getFloat("z") - minZ) * scale;
-            } else continue;
-
-            String stateF = signal.getString("stateF");
-            int color = switch (stateF) {
-                case "green" -> SIG_G;
-                case "red" -> SIG_R;
-                case "yellow" -> SIG_Y;
-                default -> SIG_OFF;
-            };
-
-            float dirX = signal.contains("dirX") ? signal.getFloat("dirX") : 0;
-            float dirZ = signal.contains("dirZ") ? signal.getFloat("dirZ") : 0;
-            int px = (int) (sx - dirZ * 6);
-            int pz = (int) (sz + dirX * 6);
-
-            // Small square signal indicator
-            int size = 3;
-            fillRect(px - size, pz - size, size * 2, size * 2, color);
-            drawnSignals++;
-        }
+    /** Memory this monitor settles at once its wanted level is displayed: GPU tiles plus raster layers. */
+    private long levelBytes(int level) {
+        return (long) levelSize(texW, level) * levelSize(texH, level) * (4 + TrainMapRaster.BYTES_PER_PIXEL);
     }
 
-    private void drawObservers(CompoundTag mapData, float minX, float minZ,
-                               float scale, float offX, float offZ) {
-        if (!mapData.contains("Observers")) return;
-        ListTag observers = mapData.getList("Observers", 10);
-        for (int i = 0; i < observers.size(); i++) {
-            CompoundTag obs = observers.getCompound(i);
-            if (!obs.contains("x")) continue;
-            int ox = (int) (offX + (obs.getFloat("x") - minX) * scale);
-            int oz = (int) (offZ + (obs.getFloat("z") - minZ) * scale);
-            boolean active = obs.getBoolean("activated");
-            int color = active ? OBS_ON : OBS_OFF;
-            drawDiamond(ox, oz, 5, color);
+    /**
+     * Keep tiles and rasters of all monitors within the budget. Monitors not
+     * drawn in the last few frames are dropped, least recently used first;
+     * evicting the ones on screen would only thrash, so if they alone exceed
+     * the budget the largest are moved to a coarser level instead, a quarter
+     * of the memory per step. Each monitor is counted at what its wanted level
+     * holds once displayed, so a level switch in flight counts at its target.
+     */
+    private static void enforceBudget() {
+        long total = 0;
+        for (TrainMapTexture tex : CACHE.values()) total += tex.levelBytes(tex.wantedLevel);
+        long budget = (long) MEMORY_BUDGET_MB << 20;
+        if (total <= budget) return;
+
+        List<TrainMapTexture> byAge = new ArrayList<>(CACHE.values());
+        byAge.sort(Comparator.comparingLong(tex -> tex.lastUsedFrame));
+        for (TrainMapTexture tex : byAge) {
+            if (total <= budget) return;
+            if (frameCounter - tex.lastUsedFrame < 4) continue;
+            total -= tex.levelBytes(tex.wantedLevel);
+            tex.dispose();
+            CACHE.values().remove(tex);
         }
-    }
 
-    private void drawTrains(CompoundTag mapData, float minX, float minZ,
-                            float scale, float offX, float offZ) {
-        if (!mapData.contains("Trains")) return;
-        ListTag trains = mapData.getList("Trains", 10);
-        for (int i = 0; i < trains.size(); i++) {
-            CompoundTag train = trains.getCompound(i);
-            if (!train.contains("x")) continue;
-
-            int tx = (int) (offX + (train.getFloat("x") - minX) * scale);
-            int tz = (int) (offZ + (train.getFloat("z") - minZ) * scale);
-
-            boolean derailed = train.getBoolean("derailed");
-            double speed = Math.abs(train.getDouble("speed"));
-            boolean navigating = train.getBoolean("navigating");
-
-            int color;
-            if (derailed) color = TRN_DER;
-            else if (speed > 0.01) color = TRN_MOV;
-            else if (navigating) color = TRN_NAV;
-            else color = TRN_STP;
-
-            // Train lozenge
-            int hw = 12, hh = 5;
-            fillRect(tx - hw, tz - hh, hw * 2, hh * 2, color);
-
-            // Bright outline for visibility
-            drawRectOutline(tx - hw, tz - hh, hw * 2, hh * 2, 0xFFFFFFFF, 1);
-            drawnTrains++;
-
-            // Derailed: extra warning outline
-            if (derailed) {
-                drawRectOutline(tx - hw - 3, tz - hh - 3, hw * 2 + 6, hh * 2 + 6, TRN_DER, 2);
+        while (total > budget) {
+            TrainMapTexture largest = null;
+            for (TrainMapTexture tex : CACHE.values()) {
+                if (tex.wantedLevel >= tex.coarsestLevel) continue;
+                if (largest == null || tex.levelBytes(tex.wantedLevel) > largest.levelBytes(largest.wantedLevel)) {
+                    largest = tex;
+                }
             }
+            if (largest == null) break; // every monitor is at its coarsest level
+            total -= largest.levelBytes(largest.wantedLevel);
+            largest.budgetLevel = largest.wantedLevel + 1;
+            largest.setWantedLevel(largest.budgetLevel);
+            total += largest.levelBytes(largest.wantedLevel);
         }
     }
 
-    // ==================== Pixel Drawing Primitives ====================
-
-    private void setPixel(int x, int y, int argb) {
-        if (x < 0 || x >= texW || y < 0 || y >= texH) return;
-        // NativeImage.setPixelRGBA takes ABGR format despite the method name
-        image.setPixelRGBA(x, y, argbToAbgr(argb));
-    }
-
-    private static int argbToAbgr(int argb) {
-        int a = (argb >> 24) & 0xFF;
-        int r = (argb >> 16) & 0xFF;
-        int g = (argb >> 8) & 0xFF;
-        int b = argb & 0xFF;
-        return (a << 24) | (b << 16) | (g << 8) | r;
+    /** GPU tiles of the displayed level; empty until the first frame arrives. */
+    public List<Tile> getTiles() {
+        return gpu != null ? gpu.tiles : List.of();
     }
 
-    private void fillRect(int x, int y, int w, int h, int color) {
-        int abgr = argbToAbgr(color);
-        int x0 = Math.max(0, x);
-        int y0 = Math.max(0, y);
-        int x1 = Math.min(texW, x + w);
-        int y1 = Math.min(texH, y + h);
-        for (int py = y0; py < y1; py++) {
-            for (int px = x0; px < x1; px++) {
-                image.setPixelRGBA(px, py, abgr);
-            }
-        }
+    /** Whether coordinate mapping is valid (bounds were computed). */
+    public boolean hasValidBounds() {
+        return mapping != null;
     }
 
-    private void drawRectOutline(int x, int y, int w, int h, int color, int thickness) {
-        for (int t = 0; t < thickness; t++) {
-            drawHLine(x, x + w - 1, y + t, color);
-            drawHLine(x, x + w - 1, y + h - 1 - t, color);
-            drawVLine(x + t, y, y + h - 1, color);
-            drawVLine(x + w - 1 - t, y, y + h - 1, color);
-        }
+    /**
+     * Map a world X coordinate to a fraction (0..1) across the texture width.
+     * Used by the TESR text overlay to position labels aligned with the texture content.
+     */
+    public float worldToFracX(float worldX) {
+        TrainMapRaster.Mapping m = mapping;
+        if (m == null) return 0.5f;
+        return (m.offX() + (worldX - m.minX()) * m.scale()) / mappingW;
     }
 
-    private void drawHLine(int x0, int x1, int y, int color) {
-        if (y < 0 || y >= texH) return;
-        int start = Math.max(0, Math.min(x0, x1));
-        int end = Math.min(texW - 1, Math.max(x0, x1));
-        int abgr = argbToAbgr(color);
-        for (int x = start; x <= end; x++) {
-            image.setPixelRGBA(x, y, abgr);
-        }
+    /**
+     * Map a world Z coordinate to a fraction (0..1) across the texture height.
+     */
+    public float worldToFracZ(float worldZ) {
+        TrainMapRaster.Mapping m = mapping;
+        if (m == null) return 0.5f;
+        return (m.offZ() + (worldZ - m.minZ()) * m.scale()) / mappingH;
     }
 
-    private void drawVLine(int x, int y0, int y1, int color) {
-        if (x < 0 || x >= texW) return;
-        int start = Math.max(0, Math.min(y0, y1));
-        int end = Math.min(texH - 1, Math.max(y0, y1));
-        int abgr = argbToAbgr(color);
-        for (int y = start; y <= end; y++) {
-            image.setPixelRGBA(x, y, abgr);
-        }
+    /** Texture pixels per block of the displayed level; 0 before the first frame. */
+    public float getMapScale() {
+        TrainMapRaster.Mapping m = mapping;
+        return m != null ? m.scale() : 0;
     }
 
     /**
-     * Draw a thick line using Bresenham with a filled square brush.
-     * At 256px/block resolution, thickness 3-4 gives clean visible tracks.
+     * Width in pixels of the displayed level (map geometry units for overlays,
+     * so markers scale with the symbols drawn at that level).
      */
-    private void drawThickLine(int x0, int y0, int x1, int y1, int color, int thickness) {
-        int dx = Math.abs(x1 - x0);
-        int dy = Math.abs(y1 - y0);
-        int sx = x0 < x1 ? 1 : -1;
-        int sy = y0 < y1 ? 1 : -1;
-        int err = dx - dy;
-        int half = thickness / 2;
-
-        int steps = Math.max(dx, dy);
-        if (steps > 200000) return; // safety limit
-
-        int abgr = argbToAbgr(color);
-        int x = x0, y = y0;
-        for (int i = 0; i <= steps; i++) {
-            // Filled square brush for clean thick line
-            int bx0 = Math.max(0, x - half);
-            int by0 = Math.max(0, y - half);
-            int bx1 = Math.min(texW - 1, x + half);
-            int by1 = Math.min(texH - 1, y + half);
-            for (int py = by0; py <= by1; py++) {
-                for (int px = bx0; px <= bx1; px++) {
-                    image.setPixelRGBA(px, py, abgr);
-                }
-            }
-            if (x == x1 && y == y1) break;
-            int e2 = 2 * err;
-            if (e2 > -dy) { err -= dy; x += sx; }
-            if (e2 < dx) { err += dx; y += sy; }
-        }
+    public int getTextureWidth() {
+        return mappingW;
     }
 
-    private void drawDashedLine(int x0, int y0, int x1, int y1, int color, int thickness) {
-        float dx = x1 - x0, dy = y1 - y0;
-        float len = (float) Math.sqrt(dx * dx + dy * dy);
-        if (len < 1) return;
-
-        float dashLen = 8, gapLen = 5;
-        float cycle = dashLen + gapLen;
-        float t = 0;
-        while (t < len) {
-            float tEnd = Math.min(t + dashLen, len);
-            int sx = (int) (x0 + dx * (t / len));
-            int sy = (int) (y0 + dy * (t / len));
-            int ex = (int) (x0 + dx * (tEnd / len));
-            int ey = (int) (y0 + dy * (tEnd / len));
-            drawThickLine(sx, sy, ex, ey, color, thickness);
-            t += cycle;
-        }
+    public int getTextureHeight() {
+        return mappingH;
     }
 
-    private void fillCircle(int cx, int cy, int radius, int color) {
-        int abgr = argbToAbgr(color);
-        int r2 = radius * radius;
-        for (int dy = -radius; dy <= radius; dy++) {
-            for (int dx = -radius; dx <= radius; dx++) {
-                if (dx * dx + dy * dy <= r2) {
-                    int px = cx + dx, py = cy + dy;
-                    if (px >= 0 && px < texW && py >= 0 && py < texH) {
-                        image.setPixelRGBA(px, py, abgr);
-                    }
-                }
+    /** Debug: get summary string of what was drawn. */
+    public String getDebugInfo() {
+        return debugInfo + " L" + (gpu != null ? gpu.level : -1) + " "
+                + (uploadedPixels * 100L / ((long) mappingW * mappingH)) + "%up";
+    }
+
+    /** Release GPU resources. */
+    public void dispose() {
+        if (!disposed) {
+            disposed = true;
+            drainCompleted();
+            if (gpu != null) {
+                gpu.release();
+                gpu = null;
             }
         }
     }
 
-    private void drawDiamond(int cx, int cy, int size, int color) {
-        int abgr = argbToAbgr(color);
-        for (int dy = -size; dy <= size; dy++) {
-            for (int dx = -size; dx <= size; dx++) {
-                if (Math.abs(dx) + Math.abs(dy) <= size) {
-                    int px = cx + dx, py = cy + dy;
-                    if (px >= 0 && px < texW && py >= 0 && py < texH) {
-                        image.setPixelRGBA(px, py, abgr);
-                    }
-                }
-            }
+    /** Clear all cached textures (call on dimension change or level unload). */
+    public static void clearAll() {
+        for (TrainMapTexture tex : CACHE.values()) {
+            tex.dispose();
         }
+        CACHE.clear();
     }
 }
@@ -6,6 +6,7 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.math.Axis;
 
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Font;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
@@ -15,12 +16,11 @@ import net.minecraft.client.renderer.texture.OverlayTexture;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.ListTag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.phys.Vec3;
 
 import org.joml.Matrix4f;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -61,6 +61,9 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
     private static final int HEADER_BG      = 0xFF4F4F4F; // CRN title bar
     private static final int STATION_LABEL  = 0xFFDDDDEE; // near-white station label
 
+    /** Half-scale station labels above, below, right or left of the station mark */
+    private static final LabelLayout.Style MAP_LABELS = new LabelLayout.Style(false, 0.5f, 8, 7, 8);
+
     public TrainMonitorRenderer(BlockEntityRendererProvider.Context context) {
         this.font = context.getFont();
     }
@@ -139,7 +142,7 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
             ps.scale(pixelScale, pixelScale, pixelScale);
             float screenW = totalW / pixelScale;
             float screenH = totalH / pixelScale;
-            renderMapOverlays(master, ps, buffers, screenW, screenH, totalW, totalH, pad);
+            renderMapOverlays(master, ps, buffers, screenW, screenH, totalW, totalH, pad, partialTick);
             // Mode indicator
             String modeLabel = "[MAP]";
             float modeX = screenW - 4 - font.width(modeLabel);
@@ -166,9 +169,10 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
     // ==================== MAP Mode (Render-to-Texture) ====================
 
     /**
-     * Render the map as a single textured quad using the DynamicTexture approach.
-     * All map geometry (tracks, stations, signals, trains) is pre-rendered to a
-     * high-resolution NativeImage pixel buffer, eliminating z-fighting.
+     * Render the map as textured quads using the DynamicTexture approach.
+     * All static map geometry (tracks, routes, stations, signals) is pre-rendered
+     * to high-resolution NativeImage tiles, eliminating z-fighting. The detail
+     * level follows how large the monitor appears from the camera.
      */
     private void renderMapTexture(TrainMonitorBlockEntity be, PoseStack ps,
                                    MultiBufferSource buffers,
@@ -177,37 +181,53 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
         TrainMapTexture tex = TrainMapTexture.getOrCreate(
                 be.getBlockPos(), be.getMonitorWidth(), be.getMonitorHeight());
 
-        if (tex.needsRedraw(be.getMapDataVersion())) {
-            tex.redraw(mapData, be.getMapDataVersion());
+        tex.requestDetail(screenPixelsPerBlock(be, totalW, totalH));
+        if (tex.needsRedraw(be.getMapRenderVersion())) {
+            tex.redraw(mapData, be.getTopology(), be.getMapRenderVersion());
         }
 
-        // Render texture as a single quad filling the inner panel area
-        ResourceLocation texLoc = tex.getResourceLocation();
-        VertexConsumer vc = buffers.getBuffer(RenderType.entitySolid(texLoc));
+        // One quad per GPU tile, together filling the inner panel area
         Matrix4f mat = ps.last().pose();
         int ol = OverlayTexture.NO_OVERLAY;
-
-        float x = pad, y = pad;
         float w = totalW - pad * 2;
         float h = totalH - pad * 2;
-        vc.addVertex(mat, x, y, 0).setColor(1f, 1f, 1f, 1f)
-                .setUv(0, 0).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
-        vc.addVertex(mat, x, y + h, 0).setColor(1f, 1f, 1f, 1f)
-                .setUv(0, 1).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
-        vc.addVertex(mat, x + w, y + h, 0).setColor(1f, 1f, 1f, 1f)
-                .setUv(1, 1).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
-        vc.addVertex(mat, x + w, y, 0).setColor(1f, 1f, 1f, 1f)
-                .setUv(1, 0).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
+        for (TrainMapTexture.Tile tile : tex.getTiles()) {
+            VertexConsumer vc = buffers.getBuffer(RenderType.entitySolid(tile.location()));
+            float x0 = pad + tile.x0() * w, x1 = pad + tile.x1() * w;
+            float y0 = pad + tile.y0() * h, y1 = pad + tile.y1() * h;
+            vc.addVertex(mat, x0, y0, 0).setColor(1f, 1f, 1f, 1f)
+                    .setUv(0, 0).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
+            vc.addVertex(mat, x0, y1, 0).setColor(1f, 1f, 1f, 1f)
+                    .setUv(0, 1).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
+            vc.addVertex(mat, x1, y1, 0).setColor(1f, 1f, 1f, 1f)
+                    .setUv(1, 1).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
+            vc.addVertex(mat, x1, y0, 0).setColor(1f, 1f, 1f, 1f)
+                    .setUv(1, 0).setOverlay(ol).setUv2(240, 240).setNormal(0, 0, -1);
+        }
+    }
+
+    /**
+     * Approximate screen pixels one block of the monitor spans, from the camera
+     * distance to the nearest part of the screen and the vertical field of view.
+     */
+    private static float screenPixelsPerBlock(TrainMonitorBlockEntity be, float totalW, float totalH) {
+        Minecraft mc = Minecraft.getInstance();
+        Vec3 camera = mc.gameRenderer.getMainCamera().getPosition();
+        double halfDiagonal = Math.sqrt(totalW * totalW + totalH * totalH) / 2;
+        double distance = Math.max(0.5, camera.distanceTo(Vec3.atCenterOf(be.getBlockPos())) - halfDiagonal);
+        double halfFov = Math.toRadians(mc.options.fov().get()) / 2;
+        return (float) (mc.getWindow().getHeight() / (2 * distance * Math.tan(halfFov)));
     }
 
     /**
-     * Render text overlays (title, status bar, station names) on top of the
-     * texture map. Called at pixel scale (1/160) with z slightly in front.
+     * Render overlays (title, status bar, train markers, station names) on top
+     * of the texture map. Called at pixel scale (1/160) with z slightly in front.
      */
     private void renderMapOverlays(TrainMonitorBlockEntity be, PoseStack ps,
                                     MultiBufferSource buffers,
                                     float screenW, float screenH,
-                                    float totalW, float totalH, float pad) {
+                                    float totalW, float totalH, float pad,
+                                    float partialTick) {
         // Title
         String title = "NETWORK MAP";
         float titleX = (screenW - font.width(title)) / 2;
@@ -222,6 +242,10 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
             String alert = "! " + be.getTrainsDerailed() + " DERAILED";
             float alertX = screenW - 4 - font.width(alert);
             drawText(ps, buffers, alert, alertX, y, RED);
+        } else if (be.getTrainsDeadlocked() > 0) {
+            String alert = "! " + be.getTrainsDeadlocked() + " DEADLOCKED";
+            float alertX = screenW - 4 - font.width(alert);
+            drawText(ps, buffers, alert, alertX, y, RED);
         } else if (be.getTrainsMoving() > 0) {
             String mvs = "> " + be.getTrainsMoving() + " moving";
             float mvX = screenW - 4 - font.width(mvs);
@@ -229,76 +253,39 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
         }
 
         // Station labels positioned to align with texture content
-        CompoundTag mapData = be.getMapData();
+        MapDrawList drawList = MapDrawList.of(be);
         TrainMapTexture tex = TrainMapTexture.getOrCreate(
                 be.getBlockPos(), be.getMonitorWidth(), be.getMonitorHeight());
 
-        if (tex.hasValidBounds() && mapData != null && mapData.contains("Stations")) {
+        if (tex.hasValidBounds() && drawList.trains.count() > 0) {
+            renderTrainMarkers(be, tex, drawList.trains, ps, buffers, totalW, totalH, pad, partialTick);
+        }
+
+        MapDrawList.Stations stations = drawList.stations;
+        if (tex.hasValidBounds() && stations.count() > 0) {
             float pixelScale = 1.0f / 160.0f;
             float mapPxX = pad / pixelScale;
             float mapPxY = pad / pixelScale;
             float mapPxW = (totalW - 2 * pad) / pixelScale;
             float mapPxH = (totalH - 2 * pad) / pixelScale;
 
-            List<float[]> labels = new ArrayList<>();
-            ListTag stations = mapData.getList("Stations", 10);
-            for (int i = 0; i < stations.size(); i++) {
-                CompoundTag station = stations.getCompound(i);
-                float worldX, worldZ;
-                if (station.contains("mapX")) {
-                    worldX = station.getFloat("mapX");
-                    worldZ = station.getFloat("mapZ");
-                } else if (station.contains("x")) {
-                    worldX = station.getFloat("x");
-                    worldZ = station.getFloat("z");
-                } else continue;
-
-                float fx = tex.worldToFracX(worldX);
-                float fz = tex.worldToFracZ(worldZ);
-                float sx = mapPxX + fx * mapPxW;
-                float sz = mapPxY + fz * mapPxH;
-
-                String name = station.getString("name");
-                if (name.length() > 10) name = name.substring(0, 9) + "..";
-
-                float labelW = font.width(name) * 0.5f;
-                float labelH = font.lineHeight * 0.5f;
-
-                // Collision avoidance: try above, below, right, left
-                float[][] positions = {
-                    {sx - labelW / 2f, sz - 8 - labelH},
-                    {sx - labelW / 2f, sz + 7},
-                    {sx + 8, sz - labelH / 2f},
-                    {sx - 8 - labelW, sz - labelH / 2f},
-                };
-
-                boolean placed = false;
-                float bestX = positions[0][0], bestY = positions[0][1];
-                for (float[] pos : positions) {
-                    boolean overlaps = false;
-                    for (float[] existing : labels) {
-                        if (pos[0] < existing[0] + existing[2] && pos[0] + labelW > existing[0] &&
-                            pos[1] < existing[1] + existing[3] && pos[1] + labelH > existing[1]) {
-                            overlaps = true;
-                            break;
-                        }
-                    }
-                    if (!overlaps) {
-                        bestX = pos[0]; bestY = pos[1];
-                        placed = true;
-                        break;
-                    }
-                }
-
-                if (placed) {
-                    labels.add(new float[]{bestX, bestY, labelW, labelH});
-                    ps.pushPose();
-                    ps.translate(bestX + labelW / 2f, bestY + labelH / 2f, 0);
-                    ps.scale(0.5f, 0.5f, 1.0f);
-                    drawText(ps, buffers, name,
-                            -font.width(name) / 2f, -font.lineHeight / 2f, STATION_LABEL);
-                    ps.popPose();
-                }
+            // Overlay pixels per block, for the label layout
+            float scaleX = tex.getMapScale() / tex.getTextureWidth() * mapPxW;
+            float scaleZ = tex.getMapScale() / tex.getTextureHeight() * mapPxH;
+            LabelLayout labels = LabelLayout.of(stations, font, MAP_LABELS, scaleX, scaleZ);
+            for (int i = 0; i < stations.count(); i++) {
+                if (!labels.isPlaced(i)) continue;
+                float sx = mapPxX + tex.worldToFracX(stations.x()[i]) * mapPxW;
+                float sz = mapPxY + tex.worldToFracZ(stations.z()[i]) * mapPxH;
+
+                String name = stations.label()[i];
+                float labelW = labels.width(i), labelH = labels.height();
+                ps.pushPose();
+                ps.translate(sx + labels.x(i) + labelW / 2f, sz + labels.y(i) + labelH / 2f, 0);
+                ps.scale(0.5f, 0.5f, 1.0f);
+                drawText(ps, buffers, name,
+                        -font.width(name) / 2f, -font.lineHeight / 2f, STATION_LABEL);
+                ps.popPose();
             }
         }
 
@@ -312,6 +299,54 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
         }
     }
 
+    /**
+     * Train markers at their dead-reckoned positions, redrawn every frame so
+     * trains glide along the track between state updates. Sized in texture
+     * pixels to match the static map beneath.
+     */
+    private void renderTrainMarkers(TrainMonitorBlockEntity be, TrainMapTexture tex, MapDrawList.Trains trains,
+                                    PoseStack ps, MultiBufferSource buffers,
+                                    float totalW, float totalH, float pad, float partialTick) {
+        float pixelScale = 1.0f / 160.0f;
+        float mapPxX = pad / pixelScale;
+        float mapPxY = pad / pixelScale;
+        float mapPxW = (totalW - 2 * pad) / pixelScale;
+        float mapPxH = (totalH - 2 * pad) / pixelScale;
+        // Overlay pixels per texture pixel
+        float texelX = mapPxW / tex.getTextureWidth();
+        float texelY = mapPxH / tex.getTextureHeight();
+
+        double now = be.getLevel().getGameTime() + (double) partialTick;
+        TrainDeadReckoning motion = TrainDeadReckoning.of(be, now);
+        float[] predicted = new float[2];
+
+        for (int i = 0; i < trains.count(); i++) {
+            float worldX = trains.x()[i], worldZ = trains.z()[i];
+            if (motion.position(trains.id()[i], now, predicted)) {
+                worldX = predicted[0];
+                worldZ = predicted[1];
+            }
+            float tx = mapPxX + tex.worldToFracX(worldX) * mapPxW;
+            float tz = mapPxY + tex.worldToFracZ(worldZ) * mapPxH;
+
+            boolean derailed = trains.derailed()[i];
+            int color = trains.color()[i];
+
+            // Train lozenge with a bright outline for visibility
+            float hw = 12 * texelX, hh = 5 * texelY;
+            float bx = texelX, by = texelY;
+            renderQuad(ps, buffers, tx - hw + bx, tz - hh + by, hw * 2 - bx * 2, hh * 2 - by * 2, color);
+            renderOutline(ps, buffers, tx - hw, tz - hh, hw * 2, hh * 2, bx, by, 0xFFFFFFFF);
+
+            // Derailed: extra warning outline
+            if (derailed) {
+                float gx = 3 * texelX, gy = 3 * texelY;
+                renderOutline(ps, buffers, tx - hw - gx, tz - hh - gy, hw * 2 + gx * 2, hh * 2 + gy * 2,
+                        bx * 2, by * 2, RED);
+            }
+        }
+    }
+
     // ==================== LIST Mode ====================
 
     private void renderListMode(TrainMonitorBlockEntity be,
@@ -331,6 +366,7 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
         int signals = be.getSignalCount();
         int moving = be.getTrainsMoving();
         int derailed = be.getTrainsDerailed();
+        int deadlocked = be.getTrainsDeadlocked();
 
         String overview = total + " trains";
         if (stations > 0) overview += " | " + stations + " stations";
@@ -350,6 +386,11 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
             if (derailed > 0) {
                 String dr = "\u26A0 " + derailed + " derailed";
                 drawText(ps, buffers, dr, oX, lineY, RED);
+                oX += font.width(dr) + 8;
+            }
+            if (deadlocked > 0) {
+                String dl = "\u26A0 " + deadlocked + " deadlocked";
+                drawText(ps, buffers, dl, oX, lineY, RED);
             }
             lineY += 11;
         }
@@ -398,6 +439,9 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
                 if (isDerailed) {
                     info = "DERAILED";
                     infoColor = RED;
+                } else if (train.getBoolean("deadlocked")) {
+                    info = "DEADLOCK";
+                    infoColor = RED;
                 } else if (train.contains("currentStation")) {
                     info = "@ " + train.getString("currentStation");
                     infoColor = GREEN;
@@ -518,6 +562,15 @@ public class TrainMonitorRenderer implements BlockEntityRenderer<TrainMonitorBlo
         vc.addVertex(mat, x + w, y,     0).setColor(r, g, b, a).setUv(1, 0).setOverlay(overlay).setUv2(240, 240).setNormal(0, 0, -1);
     }
 
+    /** Rectangle border of the given thickness, drawn inside the bounds without overlapping quads. */
+    private void renderOutline(PoseStack ps, MultiBufferSource buffers,
+                               float x, float y, float w, float h, float tx, float ty, int color) {
+        renderQuad(ps, buffers, x, y, w, ty, color);
+        renderQuad(ps, buffers, x, y + h - ty, w, ty, color);
+        renderQuad(ps, buffers, x, y + ty, tx, h - ty * 2, color);
+        renderQuad(ps, buffers, x + w - tx, y + ty, tx, h - ty * 2, color);
+    }
+
     /**
      * Must return true for EVERY block in the multi-block formation so that
      * any visible slave can trigger the master's display render.
@@ -73,6 +73,10 @@ public class TrainMonitorScreen extends AbstractContainerScreen<TrainMonitorMenu
     private double dragStartX, dragStartY;
     private float dragStartPanX, dragStartPanY;
 
+    // ==================== Refresh Rate Buttons ====================
+    /** Screen rects {x, y, w, h} of the refresh buttons, indexed by TrainMonitorMenu button id */
+    private final int[][] refreshButtons = new int[4][];
+
     // Cached data
     private TrainMonitorBlockEntity monitorBE = null;
 
@@ -221,7 +225,9 @@ public class TrainMonitorScreen extends AbstractContainerScreen<TrainMonitorMenu
         gfx.drawString(font, "Scroll=Zoom  Drag=Pan  R=Reset", x + w - font.width("Scroll=Zoom  Drag=Pan  R=Reset") - 4, y + h - 10, 0xFF555555, false);
 
         // Render the CTC map in the content area with zoom/pan
-        TrainMapRenderer.renderGUI(gfx, font, mapData,
+        double now = monitorBE.getLevel().getGameTime() + (double) partialTick;
+        TrainMapRenderer.renderGUI(gfx, font, MapDrawList.of(monitorBE), monitorBE.getTopology(),
+                TrainDeadReckoning.of(monitorBE, now), now,
                 x + 2, y + 2, w - 4, h - 16,
                 monitorBE.getTrainCount(), monitorBE.getStationCount(),
                 monitorBE.getSignalCount(),
@@ -294,6 +300,19 @@ public class TrainMonitorScreen extends AbstractContainerScreen<TrainMonitorMenu
         gfx.fill(x, y, x + width, y + 1, SEPARATOR);
         y += 4;
 
+        // Refresh rates: effective interval, floor adjustable with -/+
+        gfx.drawString(font, "REFRESH", x, y, HEADER_COLOR, false);
+        y += 12;
+        renderRefreshRow(gfx, x, y, width, "List", monitorBE.getRefreshInterval(),
+                monitorBE.getRefreshSchedule().floor(), TrainMonitorMenu.BUTTON_LIST_FASTER);
+        y += 11;
+        renderRefreshRow(gfx, x, y, width, "Map", monitorBE.getMapRefreshInterval(),
+                monitorBE.getMapRefreshSchedule().floor(), TrainMonitorMenu.BUTTON_MAP_FASTER);
+        y += 14;
+
+        gfx.fill(x, y, x + width, y + 1, SEPARATOR);
+        y += 4;
+
         // Selected train details
         List<CompoundTag> trains = monitorBE.getTrainDataList();
         if (selectedTrain >= 0 && selectedTrain < trains.size()) {
@@ -330,6 +349,26 @@ public class TrainMonitorScreen extends AbstractContainerScreen<TrainMonitorMenu
         }
     }
 
+    /** One refresh line: "List 1.0s" plus [-][+] buttons that halve / double the floor. */
+    private void renderRefreshRow(GuiGraphics gfx, int x, int y, int width, String label,
+                                  int interval, int floor, int fasterButton) {
+        String text = label + " " + formatTicks(interval) + " \u2265" + formatTicks(floor);
+        gfx.drawString(font, text, x, y, TEXT_COLOR, false);
+
+        int bx = x + width - 19;
+        refreshButtons[fasterButton] = new int[]{bx, y - 1, 9, 9};
+        refreshButtons[fasterButton + 1] = new int[]{bx + 10, y - 1, 9, 9};
+        gfx.fill(bx, y - 1, bx + 9, y + 8, TAB_HOVER_BG);
+        gfx.fill(bx + 10, y - 1, bx + 19, y + 8, TAB_HOVER_BG);
+        gfx.drawString(font, "-", bx + 3, y, WHITE, false);
+        gfx.drawString(font, "+", bx + 12, y, WHITE, false);
+    }
+
+    /** Whole seconds where exact, otherwise ticks ("5t"), to fit the narrow panel. */
+    private static String formatTicks(int ticks) {
+        return ticks % 20 == 0 ? (ticks / 20) + "s" : ticks + "t";
+    }
+
     private void renderTrainList(GuiGraphics gfx, int x, int y, int width, int height,
                                   int mouseX, int mouseY) {
         gfx.drawString(font, "TRAINS", x, y, HEADER_COLOR, false);
@@ -817,6 +856,17 @@ public class TrainMonitorScreen extends AbstractContainerScreen<TrainMonitorMenu
                 }
             }
 
+            // Refresh rate buttons (TRAINS tab overview); "-" is faster (lower floor)
+            if (activeTab == TAB_TRAINS && monitorBE != null && minecraft != null && minecraft.gameMode != null) {
+                for (int id = 0; id < refreshButtons.length; id++) {
+                    int[] r = refreshButtons[id];
+                    if (r != null && mouseX >= r[0] && mouseX < r[0] + r[2] && mouseY >= r[1] && mouseY < r[1] + r[3]) {
+                        minecraft.gameMode.handleInventoryButtonClick(menu.containerId, id);
+                        return true;
+                    }
+                }
+            }
+
             // Train list click (only on TRAINS tab)
             if (activeTab == TAB_TRAINS && monitorBE != null) {
                 int contentY = tabY + tabH + 1;
@@ -923,6 +973,12 @@ public class TrainMonitorScreen extends AbstractContainerScreen<TrainMonitorMenu
         // Don't render default inventory labels
     }
 
+    @Override
+    public void removed() {
+        super.removed();
+        TrackMesh.release();
+    }
+
     @Override
     public boolean isPauseScreen() {
         return false;
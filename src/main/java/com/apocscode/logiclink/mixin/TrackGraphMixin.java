@@ -0,0 +1,87 @@
+package com.apocscode.logiclink.mixin;
+
+import com.apocscode.logiclink.peripheral.TrackChangeTracker;
+import com.simibubi.create.content.trains.graph.TrackGraph;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.Set;
+
+/**
+ * Reports Create track graph mutations to {@link TrackChangeTracker} so network
+ * snapshots rebuild on change instead of on a fixed poll.
+ * <p>
+ * Injections are optional (config {@code defaultRequire: 0}) and so is the
+ * config itself ({@code required: false}): if a Create update renames one of
+ * these methods, or the class cannot be patched at all, the hook is skipped and
+ * the time-based refresh still picks the change up.
+ * </p>
+ */
+@Mixin(value = TrackGraph.class, remap = false)
+public abstract class TrackGraphMixin {
+
+    private void logiclink$changed() {
+        TrackChangeTracker.markDirty(((TrackGraph) (Object) this).id);
+    }
+
+    // ==================== Nodes ====================
+
+    @Inject(method = "createNodeIfAbsent", at = @At("RETURN"))
+    private void logiclink$nodeCreated(CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ()) logiclink$changed();
+    }
+
+    @Inject(method = "addNode", at = @At("RETURN"))
+    private void logiclink$nodeAdded(CallbackInfo ci) {
+        logiclink$changed();
+    }
+
+    @Inject(method = "removeNode", at = @At("RETURN"))
+    private void logiclink$nodeRemoved(CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ()) logiclink$changed();
+    }
+
+    // ==================== Edges ====================
+
+    @Inject(method = "putConnection", at = @At("RETURN"))
+    private void logiclink$edgeAdded(CallbackInfoReturnable<Boolean> cir) {
+        logiclink$changed();
+    }
+
+    @Inject(method = "disconnectNodes", at = @At("RETURN"))
+    private void logiclink$edgeRemoved(CallbackInfo ci) {
+        logiclink$changed();
+    }
+
+    // ==================== Edge Points ====================
+
+    @Inject(method = "addPoint", at = @At("RETURN"))
+    private void logiclink$pointAdded(CallbackInfo ci) {
+        logiclink$changed();
+    }
+
+    @Inject(method = "removePoint", at = @At("RETURN"))
+    private void logiclink$pointRemoved(CallbackInfoReturnable<Object> cir) {
+        if (cir.getReturnValue() != null) logiclink$changed();
+    }
+
+    // ==================== Merge / Split ====================
+
+    @Inject(method = "transferAll", at = @At("RETURN"))
+    private void logiclink$merged(TrackGraph toOther, CallbackInfo ci) {
+        logiclink$changed();
+        TrackChangeTracker.markDirty(toOther.id);
+    }
+
+    @Inject(method = "findDisconnectedGraphs", at = @At("RETURN"))
+    private void logiclink$split(CallbackInfoReturnable<Set<TrackGraph>> cir) {
+        Set<TrackGraph> split = cir.getReturnValue();
+        if (split == null || split.isEmpty()) return;
+        logiclink$changed();
+        for (TrackGraph graph : split) TrackChangeTracker.markDirty(graph.id);
+    }
+}
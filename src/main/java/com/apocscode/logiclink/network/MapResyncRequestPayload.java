@@ -0,0 +1,55 @@
+package com.apocscode.logiclink.network;
+
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Network packet sent from client to server when a Train Monitor map delta does
+ * not apply to the client's map version (missed update). The server answers
+ * with a full {@link MapSyncPayload}, at most once per player and monitor
+ * every few seconds.
+ */
+public record MapResyncRequestPayload(BlockPos monitorPos) implements CustomPacketPayload {
+
+    public static final Type<MapResyncRequestPayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(LogicLink.MOD_ID, "map_resync"));
+
+    public static final StreamCodec<FriendlyByteBuf, MapResyncRequestPayload> STREAM_CODEC =
+            new StreamCodec<>() {
+                @Override
+                public MapResyncRequestPayload decode(FriendlyByteBuf buf) {
+                    return new MapResyncRequestPayload(buf.readBlockPos());
+                }
+
+                @Override
+                public void encode(FriendlyByteBuf buf, MapResyncRequestPayload payload) {
+                    buf.writeBlockPos(payload.monitorPos);
+                }
+            };
+
+    /**
+     * Server-side handler — sends the full map to the requesting player, rate-limited per monitor.
+     */
+    public static void handle(MapResyncRequestPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (context.player() instanceof ServerPlayer player
+                    && player.level().isLoaded(payload.monitorPos())
+                    && player.level().getBlockEntity(payload.monitorPos()) instanceof TrainMonitorBlockEntity monitor) {
+                monitor.requestFullMapSync(player);
+            }
+        });
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
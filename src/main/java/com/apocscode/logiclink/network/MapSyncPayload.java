@@ -0,0 +1,67 @@
+package com.apocscode.logiclink.network;
+
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+import com.apocscode.logiclink.client.TopologyCache;
+import com.apocscode.logiclink.peripheral.MapDataCodec;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Network packet sent from server to client with a Train Monitor map update.
+ * Normally a {@link com.apocscode.logiclink.peripheral.MapDataDelta delta}
+ * from {@code baseVersion} to {@code version}; a full map when {@code full} is
+ * set (answer to a {@link MapResyncRequestPayload}). The body travels in the
+ * compact {@link MapDataCodec} format.
+ */
+public record MapSyncPayload(BlockPos monitorPos, int baseVersion, int version,
+                             boolean full, CompoundTag body) implements CustomPacketPayload {
+
+    public static final Type<MapSyncPayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(LogicLink.MOD_ID, "map_sync"));
+
+    public static final StreamCodec<FriendlyByteBuf, MapSyncPayload> STREAM_CODEC =
+            new StreamCodec<>() {
+                @Override
+                public MapSyncPayload decode(FriendlyByteBuf buf) {
+                    BlockPos pos = buf.readBlockPos();
+                    int baseVersion = buf.readVarInt();
+                    int version = buf.readVarInt();
+                    boolean full = buf.readBoolean();
+                    CompoundTag body = MapDataCodec.STREAM_CODEC.decode(buf);
+                    return new MapSyncPayload(pos, baseVersion, version, full, body);
+                }
+
+                @Override
+                public void encode(FriendlyByteBuf buf, MapSyncPayload payload) {
+                    buf.writeBlockPos(payload.monitorPos);
+                    buf.writeVarInt(payload.baseVersion);
+                    buf.writeVarInt(payload.version);
+                    buf.writeBoolean(payload.full);
+                    MapDataCodec.STREAM_CODEC.encode(buf, payload.body);
+                }
+            };
+
+    /**
+     * Client-side handler — applies the update to the monitor's map data.
+     */
+    public static void handle(MapSyncPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (context.player().level().getBlockEntity(payload.monitorPos())
+                    instanceof TrainMonitorBlockEntity monitor) {
+                monitor.applyMapSync(payload, TopologyCache.SHARED);
+            }
+        });
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,94 @@
+package com.apocscode.logiclink.network;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared per-level grid of player positions for proximity checks.
+ * <p>
+ * Built at most once per tick per level, on first use, by bucketing the
+ * level's players into {@value #CELL_SIZE}-block cells. Every block entity that
+ * asks "who is near me" in that tick reads the same grid and only visits the
+ * cells around its position, instead of streaming over all players itself.
+ * </p>
+ */
+public final class PlayerSpatialIndex {
+
+    private static final int CELL_SIZE = 64;
+    private static final int CELL_SHIFT = Integer.numberOfTrailingZeros(CELL_SIZE);
+
+    private static final Map<ResourceKey<Level>, PlayerSpatialIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final long gameTime;
+    private final Long2ObjectOpenHashMap<List<ServerPlayer>> cells = new Long2ObjectOpenHashMap<>();
+
+    private PlayerSpatialIndex(ServerLevel level) {
+        gameTime = level.getGameTime();
+        for (ServerPlayer player : level.players()) {
+            long key = cellKey((int) Math.floor(player.getX()) >> CELL_SHIFT, (int) Math.floor(player.getZ()) >> CELL_SHIFT);
+            cells.computeIfAbsent(key, k -> new ArrayList<>(2)).add(player);
+        }
+    }
+
+    private static PlayerSpatialIndex of(ServerLevel level) {
+        PlayerSpatialIndex index = INDEXES.get(level.dimension());
+        if (index == null || index.gameTime != level.getGameTime()) {
+            index = new PlayerSpatialIndex(level);
+            INDEXES.put(level.dimension(), index);
+        }
+        return index;
+    }
+
+    /** Players within {@code range} blocks (3D distance) of the block center. */
+    public static List<ServerPlayer> playersNear(ServerLevel level, BlockPos pos, double range) {
+        List<ServerPlayer> out = new ArrayList<>();
+        of(level).collect(pos, range, out, false);
+        return out;
+    }
+
+    /** True if any player is within {@code range} blocks (3D distance) of the block center. */
+    public static boolean anyPlayerNear(ServerLevel level, BlockPos pos, double range) {
+        return of(level).collect(pos, range, null, true);
+    }
+
+    private boolean collect(BlockPos pos, double range, List<ServerPlayer> out, boolean stopAtFirst) {
+        if (cells.isEmpty()) return false;
+        double cx = pos.getX() + 0.5, cy = pos.getY() + 0.5, cz = pos.getZ() + 0.5;
+        double rangeSq = range * range;
+        int minX = (int) Math.floor(cx - range) >> CELL_SHIFT, maxX = (int) Math.floor(cx + range) >> CELL_SHIFT;
+        int minZ = (int) Math.floor(cz - range) >> CELL_SHIFT, maxZ = (int) Math.floor(cz + range) >> CELL_SHIFT;
+        boolean found = false;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                List<ServerPlayer> cell = cells.get(cellKey(x, z));
+                if (cell == null) continue;
+                for (ServerPlayer player : cell) {
+                    if (player.distanceToSqr(cx, cy, cz) >= rangeSq) continue;
+                    if (stopAtFirst) return true;
+                    out.add(player);
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /** Drop all indexes (server stopping). */
+    public static void clear() {
+        INDEXES.clear();
+    }
+}
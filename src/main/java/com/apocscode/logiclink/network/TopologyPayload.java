@@ -0,0 +1,61 @@
+package com.apocscode.logiclink.network;
+
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+import com.apocscode.logiclink.client.TopologyCache;
+import com.apocscode.logiclink.peripheral.MapDataCodec;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Network packet sent from server to client with a Train Monitor track layout
+ * (encoded topology without edge flags), in answer to a
+ * {@link TopologyRequestPayload}, in the compact {@link MapDataCodec} format.
+ * The client stores it in its topology cache.
+ */
+public record TopologyPayload(BlockPos monitorPos, long hash, CompoundTag layout) implements CustomPacketPayload {
+
+    public static final Type<TopologyPayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(LogicLink.MOD_ID, "topology"));
+
+    public static final StreamCodec<FriendlyByteBuf, TopologyPayload> STREAM_CODEC =
+            new StreamCodec<>() {
+                @Override
+                public TopologyPayload decode(FriendlyByteBuf buf) {
+                    BlockPos pos = buf.readBlockPos();
+                    long hash = buf.readLong();
+                    CompoundTag layout = MapDataCodec.STREAM_CODEC.decode(buf);
+                    return new TopologyPayload(pos, hash, layout);
+                }
+
+                @Override
+                public void encode(FriendlyByteBuf buf, TopologyPayload payload) {
+                    buf.writeBlockPos(payload.monitorPos);
+                    buf.writeLong(payload.hash);
+                    MapDataCodec.STREAM_CODEC.encode(buf, payload.layout);
+                }
+            };
+
+    /**
+     * Client-side handler — hands the layout to the monitor waiting for it.
+     */
+    public static void handle(TopologyPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (context.player().level().getBlockEntity(payload.monitorPos())
+                    instanceof TrainMonitorBlockEntity monitor) {
+                monitor.acceptTopology(payload.hash(), payload.layout(), TopologyCache.SHARED);
+            }
+        });
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
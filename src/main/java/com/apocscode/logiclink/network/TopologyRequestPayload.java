@@ -0,0 +1,56 @@
+package com.apocscode.logiclink.network;
+
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Network packet sent from client to server when a Train Monitor map refers to
+ * a track layout (by content hash) that is not in the client's topology cache.
+ * The server answers with a {@link TopologyPayload}.
+ */
+public record TopologyRequestPayload(BlockPos monitorPos, long hash) implements CustomPacketPayload {
+
+    public static final Type<TopologyRequestPayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(LogicLink.MOD_ID, "topology_request"));
+
+    public static final StreamCodec<FriendlyByteBuf, TopologyRequestPayload> STREAM_CODEC =
+            new StreamCodec<>() {
+                @Override
+                public TopologyRequestPayload decode(FriendlyByteBuf buf) {
+                    return new TopologyRequestPayload(buf.readBlockPos(), buf.readLong());
+                }
+
+                @Override
+                public void encode(FriendlyByteBuf buf, TopologyRequestPayload payload) {
+                    buf.writeBlockPos(payload.monitorPos);
+                    buf.writeLong(payload.hash);
+                }
+            };
+
+    /**
+     * Server-side handler — sends the layout to the requesting player, rate-limited
+     * per player by the monitor.
+     */
+    public static void handle(TopologyRequestPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (context.player() instanceof ServerPlayer player
+                    && player.level().isLoaded(payload.monitorPos())
+                    && player.level().getBlockEntity(payload.monitorPos()) instanceof TrainMonitorBlockEntity monitor) {
+                monitor.requestTopology(player, payload.hash());
+            }
+        });
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,78 @@
+package com.apocscode.logiclink.network;
+
+import com.apocscode.logiclink.LogicLink;
+import com.apocscode.logiclink.block.TrainMonitorBlockEntity;
+import com.apocscode.logiclink.peripheral.TrainStates;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Network packet sent from server to client with the live train states for a
+ * Train Monitor, separately from the map data. Clients dead-reckon trains
+ * between packets, so it is only sent when a train strays from that prediction.
+ */
+public record TrainStatePayload(BlockPos monitorPos, TrainStates states) implements CustomPacketPayload {
+
+    public static final Type<TrainStatePayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(LogicLink.MOD_ID, "train_states"));
+
+    public static final StreamCodec<FriendlyByteBuf, TrainStatePayload> STREAM_CODEC =
+            new StreamCodec<>() {
+                @Override
+                public TrainStatePayload decode(FriendlyByteBuf buf) {
+                    BlockPos pos = buf.readBlockPos();
+                    long gameTime = buf.readVarLong();
+                    String[] ids = readStrings(buf);
+                    String[] groups = readStrings(buf);
+                    int[] data = buf.readVarIntArray();
+                    return new TrainStatePayload(pos, new TrainStates(gameTime, ids, groups, data));
+                }
+
+                @Override
+                public void encode(FriendlyByteBuf buf, TrainStatePayload payload) {
+                    TrainStates states = payload.states;
+                    buf.writeBlockPos(payload.monitorPos);
+                    buf.writeVarLong(states.gameTime());
+                    writeStrings(buf, states.ids());
+                    writeStrings(buf, states.groups());
+                    buf.writeVarIntArray(states.data());
+                }
+            };
+
+    private static String[] readStrings(FriendlyByteBuf buf) {
+        String[] strings = new String[buf.readVarInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = buf.readUtf();
+        }
+        return strings;
+    }
+
+    private static void writeStrings(FriendlyByteBuf buf, String[] strings) {
+        buf.writeVarInt(strings.length);
+        for (String s : strings) {
+            buf.writeUtf(s);
+        }
+    }
+
+    /**
+     * Client-side handler — applies the states to the monitor's map data.
+     */
+    public static void handle(TrainStatePayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (context.player().level().getBlockEntity(payload.monitorPos())
+                    instanceof TrainMonitorBlockEntity monitor) {
+                monitor.applyTrainStates(payload.states());
+            }
+        });
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -89,12 +89,6 @@ public class CreateBlockReader {
     private static Method observerGetFilterMethod = null;
     private static Field observerPassingTrainField = null;
     private static Method observerIsBlockPoweredMethod = null;
-    // Train entity
-    private static Class<?> trainClass = null;
-    private static Field trainNameField = null;
-    private static Field trainScheduleField = null;
-    private static Field trainIdField = null;
-    private static Field trainSpeedField = null;
 
     // Cached reflection for Steam 'n' Rails train blocks
     private static boolean railwaysReflectionInit = false;
@@ -360,25 +354,18 @@ public class CreateBlockReader {
      */
     private static void readTrainInfo(Object train, Map<String, Object> data, String prefix) {
         try {
-            if (trainNameField != null) {
-                Object nameComp = trainNameField.get(train);
-                if (nameComp instanceof net.minecraft.network.chat.Component comp) {
-                    data.put(prefix + "TrainName", comp.getString());
-                }
-            }
-            if (trainIdField != null) {
-                Object id = trainIdField.get(train);
-                if (id != null) {
-                    data.put(prefix + "TrainId", id.toString());
-                }
+            if (!CreateTrainAccess.isAvailable()) return;
+            Object nameComp = CreateTrainAccess.trainName(train);
+            if (nameComp instanceof net.minecraft.network.chat.Component comp) {
+                data.put(prefix + "TrainName", comp.getString());
             }
-            if (trainSpeedField != null) {
-                data.put(prefix + "TrainSpeed", trainSpeedField.getDouble(train));
-            }
-            if (trainScheduleField != null) {
-                Object schedule = trainScheduleField.get(train);
-                data.put("hasSchedule", schedule != null);
+            Object id = CreateTrainAccess.trainId(train);
+            if (id != null) {
+                data.put(prefix + "TrainId", id.toString());
             }
+            data.put(prefix + "TrainSpeed", CreateTrainAccess.trainSpeed(train));
+            Object schedule = CreateTrainAccess.trainRuntime(train);
+            data.put("hasSchedule", schedule != null);
         } catch (Exception e) {
             LogicLink.LOGGER.debug("Failed to read train info: {}", e.getMessage());
         }
@@ -836,14 +823,6 @@ public class CreateBlockReader {
             observerPassingTrainField = observerBEClass.getField("passingTrainUUID");
             observerIsBlockPoweredMethod = observerBEClass.getMethod("isBlockPowered");
 
-            // Train entity (for reading train info from station)
-            trainClass = Class.forName(
-                    "com.simibubi.create.content.trains.entity.Train");
-            trainNameField = trainClass.getField("name");
-            trainIdField = trainClass.getField("id");
-            trainSpeedField = trainClass.getField("speed");
-            trainScheduleField = trainClass.getField("runtime");
-
             LogicLink.LOGGER.info("CreateBlockReader: Train block reflection initialized");
         } catch (ClassNotFoundException e) {
             LogicLink.LOGGER.debug("CreateBlockReader: Train classes not found: {}", e.getMessage());
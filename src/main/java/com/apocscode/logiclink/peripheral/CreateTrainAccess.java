@@ -0,0 +1,850 @@
+package com.apocscode.logiclink.peripheral;
+
+import com.apocscode.logiclink.LogicLink;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.phys.Vec3;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Shared accessor layer for Create's train internals.
+ * <p>
+ * Every Create member the train readers touch is resolved exactly once, when this
+ * class initializes, into a {@code static final} {@link MethodHandle}. Because the
+ * handles are constants the JIT can inline them like a direct field read, with no
+ * per-call access checks or argument boxing. The hottest getters (edge length/turn
+ * and node location, read once per edge per scan) are additionally spun into real
+ * lambdas through {@link LambdaMetafactory}, falling back to the plain handle if the
+ * metafactory refuses the target or the lambda fails when called.
+ * </p>
+ * <p>
+ * Accessors take and return erased types ({@code Object}, primitives, vanilla types)
+ * so callers never need Create on the compile classpath. Failures are rethrown
+ * unchecked, so existing {@code catch (Exception)} blocks keep working unchanged.
+ * Optional members and classes that only exist in some Create versions return null /
+ * a default when missing and do not count against {@link #isAvailable()}; check it
+ * before scanning.
+ * </p>
+ */
+public final class CreateTrainAccess {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** Required members that failed to resolve (logged once at init). */
+    private static final List<String> MISSING = new ArrayList<>();
+
+    // ==================== Classes ====================
+
+    private static final Class<?> CREATE = type("com.simibubi.create.Create");
+    private static final Class<?> MANAGER = type("com.simibubi.create.content.trains.GlobalRailwayManager");
+    private static final Class<?> GRAPH = type("com.simibubi.create.content.trains.graph.TrackGraph");
+    private static final Class<?> EDGE_POINT_TYPE = type("com.simibubi.create.content.trains.graph.EdgePointType");
+    private static final Class<?> NODE = type("com.simibubi.create.content.trains.graph.TrackNode");
+    private static final Class<?> NODE_LOC = type("com.simibubi.create.content.trains.graph.TrackNodeLocation");
+    private static final Class<?> EDGE = type("com.simibubi.create.content.trains.graph.TrackEdge");
+    private static final Class<?> EDGE_DATA = type("com.simibubi.create.content.trains.graph.EdgeData");
+    private static final Class<?> EDGE_POINT = type("com.simibubi.create.content.trains.signal.TrackEdgePoint");
+    private static final Class<?> SINGLE_BE_POINT = type("com.simibubi.create.content.trains.signal.SingleBlockEntityEdgePoint");
+    private static final Class<?> STATION = type("com.simibubi.create.content.trains.station.GlobalStation");
+    private static final Class<?> SIGNAL = type("com.simibubi.create.content.trains.signal.SignalBoundary");
+    private static final Class<?> SIGNAL_GROUP = type("com.simibubi.create.content.trains.signal.SignalEdgeGroup");
+    private static final Class<?> OBSERVER = optionalType("com.simibubi.create.content.trains.observer.TrackObserver");
+    private static final Class<?> COUPLE = type("net.createmod.catnip.data.Couple");
+    private static final Class<?> TRAIN = type("com.simibubi.create.content.trains.entity.Train");
+    private static final Class<?> CARRIAGE = optionalType("com.simibubi.create.content.trains.entity.Carriage");
+    private static final Class<?> TRAVELLING_POINT = optionalType("com.simibubi.create.content.trains.entity.TravellingPoint");
+    private static final Class<?> NAVIGATION = type("com.simibubi.create.content.trains.entity.Navigation");
+    private static final Class<?> RUNTIME = type("com.simibubi.create.content.trains.schedule.ScheduleRuntime");
+    private static final Class<?> SCHEDULE = type("com.simibubi.create.content.trains.schedule.Schedule");
+    private static final Class<?> SCHEDULE_ENTRY = optionalType("com.simibubi.create.content.trains.schedule.ScheduleEntry");
+    private static final Class<?> INSTRUCTION = optionalType("com.simibubi.create.content.trains.schedule.ScheduleInstruction");
+
+    // ==================== Create / GlobalRailwayManager ====================
+
+    private static final MethodHandle RAILWAYS = staticGetter(CREATE, "RAILWAYS");
+    private static final MethodHandle MANAGER_TRAINS = getter(MANAGER, "trains", Object.class, true);
+    private static final MethodHandle MANAGER_GRAPHS = getter(MANAGER, "trackNetworks", Object.class, true);
+    private static final MethodHandle MANAGER_SIGNAL_GROUPS = getter(MANAGER, "signalEdgeGroups", Object.class, true);
+
+    // ==================== TrackGraph / EdgePointType ====================
+
+    private static final MethodHandle GRAPH_NODES = getter(GRAPH, "nodes", Object.class, true);
+    private static final MethodHandle GRAPH_CONNECTIONS = getter(GRAPH, "connectionsByNode", Object.class, true);
+    private static final MethodHandle GRAPH_GET_POINTS = invoker(GRAPH, "getPoints", Object.class, true, EDGE_POINT_TYPE);
+    private static final MethodHandle GRAPH_CHECKSUM = invoker(GRAPH, "getChecksum", int.class, false);
+
+    /** EdgePointType.STATION / SIGNAL / OBSERVER constants (observer is optional). */
+    public static final Object POINT_STATION = constant(EDGE_POINT_TYPE, "STATION", true);
+    public static final Object POINT_SIGNAL = constant(EDGE_POINT_TYPE, "SIGNAL", true);
+    public static final Object POINT_OBSERVER = constant(EDGE_POINT_TYPE, "OBSERVER", false);
+
+    // ==================== TrackNode / TrackNodeLocation ====================
+
+    private static final Function<Object, Object> NODE_LOCATION = function(NODE, "getLocation");
+    private static final MethodHandle NODE_NET_ID = invoker(NODE, "getNetId", int.class, false);
+    private static final Function<Object, Object> NODE_LOC_POSITION = function(NODE_LOC, "getLocation");
+    private static final MethodHandle NODE_LOC_DIMENSION = invoker(NODE_LOC, "getDimension", Object.class, true);
+
+    // ==================== TrackEdge / EdgeData ====================
+
+    private static final ToDoubleFunction<Object> EDGE_LENGTH = doubleFunction(EDGE, "getLength");
+    private static final Predicate<Object> EDGE_IS_TURN = predicate(EDGE, "isTurn");
+    private static final MethodHandle EDGE_TURN = getter(EDGE, "turn", Object.class, false);
+    private static final MethodHandle EDGE_INTER_DIM = getter(EDGE, "interDimensional", boolean.class, true);
+    private static final MethodHandle EDGE_DATA_FIELD = getter(EDGE, "edgeData", Object.class, true);
+    private static final MethodHandle EDGE_GET_POSITION = invoker(EDGE, "getPosition", Object.class, false, GRAPH, double.class);
+    private static final MethodHandle EDGE_DATA_SIGNAL_GROUP = getter(EDGE_DATA, "singleSignalGroup", Object.class, true);
+
+    // ==================== Edge points ====================
+
+    private static final MethodHandle POINT_ID = getter(EDGE_POINT, "id", Object.class, true);
+    private static final MethodHandle POINT_EDGE_LOCATION = getter(EDGE_POINT, "edgeLocation", Object.class, true);
+    private static final MethodHandle POINT_POSITION = getter(EDGE_POINT, "position", double.class, true);
+    private static final MethodHandle BE_POINT_POS = invoker(SINGLE_BE_POINT, "getBlockEntityPos", Object.class, true);
+    private static final MethodHandle BE_POINT_DIMENSION = invoker(SINGLE_BE_POINT, "getBlockEntityDimension", Object.class, false);
+
+    private static final MethodHandle STATION_NAME = getter(STATION, "name", Object.class, true);
+    private static final MethodHandle STATION_ASSEMBLING = getter(STATION, "assembling", boolean.class, false);
+    private static final MethodHandle STATION_PRESENT_TRAIN = invoker(STATION, "getPresentTrain", Object.class, true);
+    private static final MethodHandle STATION_IMMINENT_TRAIN = invoker(STATION, "getImminentTrain", Object.class, true);
+
+    private static final MethodHandle SIGNAL_CACHED_STATES = getter(SIGNAL, "cachedStates", Object.class, true);
+    private static final MethodHandle SIGNAL_TYPES = getter(SIGNAL, "types", Object.class, true);
+    private static final MethodHandle SIGNAL_BLOCK_ENTITIES = getter(SIGNAL, "blockEntities", Object.class, true);
+    private static final MethodHandle SIGNAL_GROUPS = getter(SIGNAL, "groups", Object.class, false);
+
+    private static final MethodHandle SIGNAL_GROUP_TRAINS = getter(SIGNAL_GROUP, "trains", Object.class, true);
+    private static final MethodHandle SIGNAL_GROUP_COLOR = getter(SIGNAL_GROUP, "color", Object.class, false);
+
+    private static final MethodHandle OBSERVER_ACTIVATED = invoker(OBSERVER, "isActivated", boolean.class, true);
+    private static final MethodHandle OBSERVER_CURRENT_TRAIN = invoker(OBSERVER, "getCurrentTrain", Object.class, false);
+    private static final MethodHandle OBSERVER_FILTER = invoker(OBSERVER, "getFilter", Object.class, false);
+
+    private static final MethodHandle COUPLE_FIRST = invoker(COUPLE, "getFirst", Object.class, true);
+    private static final MethodHandle COUPLE_SECOND = invoker(COUPLE, "getSecond", Object.class, true);
+
+    // ==================== Train / Carriage ====================
+
+    private static final MethodHandle TRAIN_NAME = getter(TRAIN, "name", Object.class, true);
+    private static final MethodHandle TRAIN_ID = getter(TRAIN, "id", Object.class, true);
+    private static final MethodHandle TRAIN_SPEED = getter(TRAIN, "speed", double.class, true);
+    private static final MethodHandle TRAIN_TARGET_SPEED = getter(TRAIN, "targetSpeed", double.class, false);
+    private static final MethodHandle TRAIN_THROTTLE = getter(TRAIN, "throttle", double.class, false);
+    private static final MethodHandle TRAIN_OWNER = getter(TRAIN, "owner", Object.class, false);
+    private static final MethodHandle TRAIN_MAX_SPEED = invoker(TRAIN, "maxSpeed", Object.class, false);
+    private static final MethodHandle TRAIN_GET_CURRENT_STATION = invoker(TRAIN, "getCurrentStation", Object.class, false);
+    private static final MethodHandle TRAIN_DERAILED = getter(TRAIN, "derailed", boolean.class, true);
+    private static final MethodHandle TRAIN_CARRIAGES = getter(TRAIN, "carriages", Object.class, true);
+    private static final MethodHandle TRAIN_NAVIGATION = getter(TRAIN, "navigation", Object.class, true);
+    private static final MethodHandle TRAIN_CURRENT_STATION = getter(TRAIN, "currentStation", Object.class, true);
+    private static final MethodHandle TRAIN_RUNTIME = getter(TRAIN, "runtime", Object.class, true);
+    private static final MethodHandle TRAIN_GRAPH = getter(TRAIN, "graph", Object.class, false);
+    private static final MethodHandle TRAIN_FUEL_TICKS = getter(TRAIN, "fuelTicks", int.class, false);
+    private static final MethodHandle TRAIN_OCCUPIED_BLOCKS = getter(TRAIN, "occupiedSignalBlocks", Object.class, false);
+    private static final MethodHandle TRAIN_PRESENT_DIMENSIONS = invoker(TRAIN, "getPresentDimensions", Object.class, false);
+    private static final MethodHandle TRAIN_POSITION_IN_DIM = firstNonNull(
+            invoker(TRAIN, "getPositionInDimension", Object.class, false, ResourceKey.class),
+            invoker(TRAIN, "getBlockPosInDimension", Object.class, false, ResourceKey.class));
+
+    private static final MethodHandle CARRIAGE_BOGEY_SPACING = getter(CARRIAGE, "bogeySpacing", int.class, false);
+    private static final MethodHandle CARRIAGE_LEADING_POINT = invoker(CARRIAGE, "getLeadingPoint", Object.class, false);
+
+    private static final MethodHandle POINT_NODE1 = getter(TRAVELLING_POINT, "node1", Object.class, false);
+    private static final MethodHandle POINT_NODE2 = getter(TRAVELLING_POINT, "node2", Object.class, false);
+    private static final MethodHandle POINT_GET_POSITION = invoker(TRAVELLING_POINT, "getPosition", Object.class, false, GRAPH);
+
+    // ==================== Navigation ====================
+
+    private static final MethodHandle NAV_DESTINATION = getter(NAVIGATION, "destination", Object.class, true);
+    private static final MethodHandle NAV_DISTANCE = getter(NAVIGATION, "distanceToDestination", double.class, true);
+    private static final MethodHandle NAV_CURRENT_PATH = getter(NAVIGATION, "currentPath", Object.class, true);
+    private static final MethodHandle NAV_IS_ACTIVE = invoker(NAVIGATION, "isActive", boolean.class, true);
+    private static final MethodHandle NAV_WAITING_FOR_SIGNAL = getter(NAVIGATION, "waitingForSignal", Object.class, false);
+    private static final MethodHandle NAV_TICKS_WAITING = getter(NAVIGATION, "ticksWaitingForSignal", int.class, false);
+
+    // ==================== Schedules ====================
+
+    private static final MethodHandle RUNTIME_GET_SCHEDULE = invoker(RUNTIME, "getSchedule", Object.class, true);
+    private static final MethodHandle RUNTIME_PAUSED = getter(RUNTIME, "paused", boolean.class, true);
+    private static final MethodHandle RUNTIME_COMPLETED = getter(RUNTIME, "completed", boolean.class, true);
+    private static final MethodHandle RUNTIME_CURRENT_ENTRY = getter(RUNTIME, "currentEntry", int.class, true);
+    private static final MethodHandle RUNTIME_CURRENT_TITLE = getter(RUNTIME, "currentTitle", Object.class, true);
+    private static final MethodHandle RUNTIME_STATE = getter(RUNTIME, "state", Object.class, true);
+    private static final MethodHandle SCHEDULE_ENTRIES = getter(SCHEDULE, "entries", Object.class, true);
+    private static final MethodHandle SCHEDULE_CYCLIC = getter(SCHEDULE, "cyclic", boolean.class, true);
+    private static final MethodHandle ENTRY_INSTRUCTION = getter(SCHEDULE_ENTRY, "instruction", Object.class, false);
+    private static final MethodHandle INSTRUCTION_DATA = getter(INSTRUCTION, "data", Object.class, false);
+
+    private static final boolean AVAILABLE;
+
+    static {
+        AVAILABLE = MISSING.isEmpty();
+        if (AVAILABLE) {
+            LogicLink.LOGGER.info("CreateTrainAccess: Resolved Create train accessors");
+        } else {
+            LogicLink.LOGGER.warn("CreateTrainAccess: Missing Create members {}", MISSING);
+        }
+    }
+
+    private CreateTrainAccess() {}
+
+    /** True if every required Create member resolved. */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    // ==================== Create / GlobalRailwayManager ====================
+
+    /** Create.RAILWAYS (GlobalRailwayManager), or null before the server has loaded it. */
+    @Nullable
+    public static Object railways() {
+        if (RAILWAYS == null) return null;
+        try {
+            return (Object) RAILWAYS.invokeExact();
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    /** Map&lt;UUID, Train&gt; */
+    public static Object trains(Object manager) { return get(MANAGER_TRAINS, manager); }
+
+    /** Map&lt;UUID, TrackGraph&gt; */
+    public static Object trackNetworks(Object manager) { return get(MANAGER_GRAPHS, manager); }
+
+    /** Map&lt;UUID, SignalEdgeGroup&gt; */
+    public static Object signalEdgeGroups(Object manager) { return get(MANAGER_SIGNAL_GROUPS, manager); }
+
+    // ==================== TrackGraph ====================
+
+    /** Map&lt;TrackNodeLocation, TrackNode&gt; */
+    public static Object graphNodes(Object graph) { return get(GRAPH_NODES, graph); }
+
+    /** Map&lt;TrackNode, Map&lt;TrackNode, TrackEdge&gt;&gt; */
+    public static Object graphConnections(Object graph) { return get(GRAPH_CONNECTIONS, graph); }
+
+    /** TrackGraph.getPoints(type) → Collection of edge points. */
+    public static Object graphPoints(Object graph, Object pointType) {
+        try {
+            return (Object) GRAPH_GET_POINTS.invokeExact(graph, pointType);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    /**
+     * Cheap layout checksum for a graph: Create's own TrackGraph.getChecksum() when
+     * present, otherwise the sum of node net IDs (which change whenever nodes are
+     * replaced).
+     */
+    public static int graphChecksum(Object graph) {
+        if (GRAPH_CHECKSUM != null) {
+            try {
+                return (int) GRAPH_CHECKSUM.invokeExact(graph);
+            } catch (Throwable t) {
+                throw fail(t);
+            }
+        }
+        int sum = 0;
+        Object nodes = graphNodes(graph);
+        if (nodes instanceof Map<?, ?> map) {
+            for (Object node : map.values()) sum += nodeNetId(node);
+        }
+        return sum;
+    }
+
+    // ==================== TrackNode / TrackNodeLocation ====================
+
+    /** TrackNode.getLocation() → TrackNodeLocation */
+    public static Object nodeLocation(Object node) { return NODE_LOCATION.apply(node); }
+
+    /** TrackNode.getNetId(), or -1 if unavailable. */
+    public static int nodeNetId(Object node) {
+        if (NODE_NET_ID == null) return -1;
+        try {
+            return (int) NODE_NET_ID.invokeExact(node);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    /** TrackNodeLocation.getLocation() → world position. */
+    public static Vec3 locationPosition(Object nodeLocation) { return (Vec3) NODE_LOC_POSITION.apply(nodeLocation); }
+
+    /** TrackNodeLocation.getDimension() → ResourceKey&lt;Level&gt; */
+    public static Object locationDimension(Object nodeLocation) {
+        try {
+            return (Object) NODE_LOC_DIMENSION.invokeExact(nodeLocation);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    // ==================== TrackEdge / EdgeData ====================
+
+    public static double edgeLength(Object edge) { return EDGE_LENGTH.applyAsDouble(edge); }
+
+    public static boolean edgeIsTurn(Object edge) { return EDGE_IS_TURN.test(edge); }
+
+    /** BezierConnection of a curved edge, or null. */
+    @Nullable
+    public static Object edgeTurn(Object edge) { return EDGE_TURN != null ? get(EDGE_TURN, edge) : null; }
+
+    public static boolean edgeInterDimensional(Object edge) { return getBoolean(EDGE_INTER_DIM, edge); }
+
+    public static Object edgeData(Object edge) { return get(EDGE_DATA_FIELD, edge); }
+
+    /** UUID of the single signal group covering this edge's data, or null. */
+    public static Object edgeDataSignalGroup(Object edgeData) { return get(EDGE_DATA_SIGNAL_GROUP, edgeData); }
+
+    /** True if curved edges can be sampled with {@link #edgePosition}. */
+    public static boolean canSampleEdges() {
+        return EDGE_GET_POSITION != null;
+    }
+
+    /** TrackEdge.getPosition(graph, t) — world position along the edge. */
+    public static Vec3 edgePosition(Object edge, Object graph, double t) {
+        try {
+            return (Vec3) (Object) EDGE_GET_POSITION.invokeExact(edge, graph, t);
+        } catch (Throwable t2) {
+            throw fail(t2);
+        }
+    }
+
+    // ==================== Edge points ====================
+
+    /** TrackEdgePoint.id (a UUID). */
+    public static Object pointId(Object point) { return get(POINT_ID, point); }
+
+    /** Couple&lt;TrackNodeLocation&gt; the point sits on. */
+    public static Object pointEdgeLocation(Object point) { return get(POINT_EDGE_LOCATION, point); }
+
+    /** Distance of the point along its edge. */
+    public static double pointPosition(Object point) { return getDouble(POINT_POSITION, point); }
+
+    /** SingleBlockEntityEdgePoint.getBlockEntityPos() (stations, observers). */
+    public static Object blockEntityPos(Object point) {
+        try {
+            return (Object) BE_POINT_POS.invokeExact(point);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    /** SingleBlockEntityEdgePoint.getBlockEntityDimension(), or null if unavailable. */
+    @Nullable
+    public static Object blockEntityDimension(Object point) {
+        if (BE_POINT_DIMENSION == null) return null;
+        try {
+            return (Object) BE_POINT_DIMENSION.invokeExact(point);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    public static String stationName(Object station) { return (String) get(STATION_NAME, station); }
+
+    public static boolean stationAssembling(Object station) {
+        return STATION_ASSEMBLING != null && getBoolean(STATION_ASSEMBLING, station);
+    }
+
+    public static Object stationPresentTrain(Object station) { return call(STATION_PRESENT_TRAIN, station); }
+
+    public static Object stationImminentTrain(Object station) { return call(STATION_IMMINENT_TRAIN, station); }
+
+    /** Couple&lt;SignalState&gt; */
+    public static Object signalCachedStates(Object signal) { return get(SIGNAL_CACHED_STATES, signal); }
+
+    /** Couple&lt;SignalType&gt; */
+    public static Object signalTypes(Object signal) { return get(SIGNAL_TYPES, signal); }
+
+    /** Couple&lt;Map&lt;BlockPos, Boolean&gt;&gt; */
+    public static Object signalBlockEntities(Object signal) { return get(SIGNAL_BLOCK_ENTITIES, signal); }
+
+    /** Couple&lt;UUID&gt; per-side signal groups, or null if unavailable. */
+    @Nullable
+    public static Object signalGroups(Object signal) { return SIGNAL_GROUPS != null ? get(SIGNAL_GROUPS, signal) : null; }
+
+    /** Set&lt;Train&gt; currently inside the group. */
+    public static Object signalGroupTrains(Object group) { return get(SIGNAL_GROUP_TRAINS, group); }
+
+    @Nullable
+    public static Object signalGroupColor(Object group) { return SIGNAL_GROUP_COLOR != null ? get(SIGNAL_GROUP_COLOR, group) : null; }
+
+    /** TrackObserver.isActivated(), or false on Create versions without observers. */
+    public static boolean observerActivated(Object observer) {
+        if (OBSERVER_ACTIVATED == null) return false;
+        try {
+            return (boolean) OBSERVER_ACTIVATED.invokeExact(observer);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    /** UUID of the train currently passing the observer, or null. */
+    @Nullable
+    public static Object observerCurrentTrain(Object observer) {
+        return OBSERVER_CURRENT_TRAIN != null ? call(OBSERVER_CURRENT_TRAIN, observer) : null;
+    }
+
+    @Nullable
+    public static Object observerFilter(Object observer) { return OBSERVER_FILTER != null ? call(OBSERVER_FILTER, observer) : null; }
+
+    public static Object first(Object couple) { return call(COUPLE_FIRST, couple); }
+
+    public static Object second(Object couple) { return call(COUPLE_SECOND, couple); }
+
+    // ==================== Train / Carriage ====================
+
+    /** Train.name (a Component). */
+    public static Object trainName(Object train) { return get(TRAIN_NAME, train); }
+
+    /** Train.id (a UUID). */
+    public static Object trainId(Object train) { return get(TRAIN_ID, train); }
+
+    public static double trainSpeed(Object train) { return getDouble(TRAIN_SPEED, train); }
+
+    public static double trainTargetSpeed(Object train) { return TRAIN_TARGET_SPEED != null ? getDouble(TRAIN_TARGET_SPEED, train) : 0; }
+
+    public static double trainThrottle(Object train) { return TRAIN_THROTTLE != null ? getDouble(TRAIN_THROTTLE, train) : 1; }
+
+    /** Train.owner (a UUID), or null. */
+    @Nullable
+    public static Object trainOwner(Object train) { return TRAIN_OWNER != null ? get(TRAIN_OWNER, train) : null; }
+
+    public static boolean hasMaxSpeed() {
+        return TRAIN_MAX_SPEED != null;
+    }
+
+    public static float trainMaxSpeed(Object train) { return ((Number) call(TRAIN_MAX_SPEED, train)).floatValue(); }
+
+    /** Train.getCurrentStation() → GlobalStation the train is parked at, or null. */
+    @Nullable
+    public static Object trainStation(Object train) {
+        return TRAIN_GET_CURRENT_STATION != null ? call(TRAIN_GET_CURRENT_STATION, train) : null;
+    }
+
+    public static boolean trainDerailed(Object train) { return getBoolean(TRAIN_DERAILED, train); }
+
+    /** List&lt;Carriage&gt; */
+    public static Object trainCarriages(Object train) { return get(TRAIN_CARRIAGES, train); }
+
+    public static Object trainNavigation(Object train) { return get(TRAIN_NAVIGATION, train); }
+
+    /** GlobalStation or UUID depending on Create version. */
+    public static Object trainCurrentStation(Object train) { return get(TRAIN_CURRENT_STATION, train); }
+
+    public static Object trainRuntime(Object train) { return get(TRAIN_RUNTIME, train); }
+
+    @Nullable
+    public static Object trainGraph(Object train) { return TRAIN_GRAPH != null ? get(TRAIN_GRAPH, train) : null; }
+
+    public static int trainFuelTicks(Object train) { return TRAIN_FUEL_TICKS != null ? getInt(TRAIN_FUEL_TICKS, train) : 0; }
+
+    /** Map&lt;UUID, Boolean&gt; of occupied signal groups, or null if unavailable. */
+    @Nullable
+    public static Object trainOccupiedSignalBlocks(Object train) {
+        return TRAIN_OCCUPIED_BLOCKS != null ? get(TRAIN_OCCUPIED_BLOCKS, train) : null;
+    }
+
+    /** List&lt;ResourceKey&lt;Level&gt;&gt;, or null if unavailable. */
+    @Nullable
+    public static Object trainPresentDimensions(Object train) {
+        return TRAIN_PRESENT_DIMENSIONS != null ? call(TRAIN_PRESENT_DIMENSIONS, train) : null;
+    }
+
+    public static boolean canLocateTrains() {
+        return TRAIN_POSITION_IN_DIM != null && TRAIN_PRESENT_DIMENSIONS != null;
+    }
+
+    /** Train.getPositionInDimension(dim) → Optional&lt;BlockPos&gt; */
+    public static Object trainPositionInDimension(Object train, ResourceKey<?> dimension) {
+        try {
+            return (Object) TRAIN_POSITION_IN_DIM.invokeExact(train, (Object) dimension);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    public static boolean hasBogeySpacing() {
+        return CARRIAGE_BOGEY_SPACING != null;
+    }
+
+    public static int carriageBogeySpacing(Object carriage) { return getInt(CARRIAGE_BOGEY_SPACING, carriage); }
+
+    // ==================== Travelling points ====================
+
+    /** True if a carriage's leading bogey can be placed on its track edge. */
+    public static boolean canTrackLeadingPoints() {
+        return CARRIAGE_LEADING_POINT != null && POINT_NODE1 != null && POINT_NODE2 != null;
+    }
+
+    /** Carriage.getLeadingPoint() → TravellingPoint */
+    public static Object carriageLeadingPoint(Object carriage) { return call(CARRIAGE_LEADING_POINT, carriage); }
+
+    /** TrackNode the point travels away from at positive speed. */
+    public static Object travellingNode1(Object point) { return get(POINT_NODE1, point); }
+
+    /** TrackNode the point travels towards at positive speed. */
+    public static Object travellingNode2(Object point) { return get(POINT_NODE2, point); }
+
+    /** TravellingPoint.getPosition(graph) — exact world position, or null if unavailable. */
+    @Nullable
+    public static Vec3 travellingPosition(Object point, Object graph) {
+        if (POINT_GET_POSITION == null) return null;
+        try {
+            return (Vec3) (Object) POINT_GET_POSITION.invokeExact(point, graph);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    // ==================== Navigation ====================
+
+    /** GlobalStation or UUID depending on Create version. */
+    public static Object navDestination(Object nav) { return get(NAV_DESTINATION, nav); }
+
+    public static double navDistance(Object nav) { return getDouble(NAV_DISTANCE, nav); }
+
+    /** List&lt;Couple&lt;TrackNode&gt;&gt; */
+    public static Object navCurrentPath(Object nav) { return get(NAV_CURRENT_PATH, nav); }
+
+    public static boolean navIsActive(Object nav) {
+        try {
+            return (boolean) NAV_IS_ACTIVE.invokeExact(nav);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    /** Couple&lt;UUID&gt; the train is held on, or null. */
+    @Nullable
+    public static Object navWaitingForSignal(Object nav) {
+        return NAV_WAITING_FOR_SIGNAL != null ? get(NAV_WAITING_FOR_SIGNAL, nav) : null;
+    }
+
+    public static int navTicksWaiting(Object nav) { return NAV_TICKS_WAITING != null ? getInt(NAV_TICKS_WAITING, nav) : 0; }
+
+    // ==================== Schedules ====================
+
+    public static Object runtimeSchedule(Object runtime) { return call(RUNTIME_GET_SCHEDULE, runtime); }
+
+    public static boolean runtimePaused(Object runtime) { return getBoolean(RUNTIME_PAUSED, runtime); }
+
+    public static boolean runtimeCompleted(Object runtime) { return getBoolean(RUNTIME_COMPLETED, runtime); }
+
+    public static int runtimeCurrentEntry(Object runtime) { return getInt(RUNTIME_CURRENT_ENTRY, runtime); }
+
+    public static String runtimeCurrentTitle(Object runtime) { return (String) get(RUNTIME_CURRENT_TITLE, runtime); }
+
+    public static Object runtimeState(Object runtime) { return get(RUNTIME_STATE, runtime); }
+
+    /** List&lt;ScheduleEntry&gt; */
+    public static Object scheduleEntries(Object schedule) { return get(SCHEDULE_ENTRIES, schedule); }
+
+    public static boolean scheduleCyclic(Object schedule) { return getBoolean(SCHEDULE_CYCLIC, schedule); }
+
+    public static boolean canReadInstructions() {
+        return ENTRY_INSTRUCTION != null && INSTRUCTION_DATA != null;
+    }
+
+    public static Object entryInstruction(Object entry) { return get(ENTRY_INSTRUCTION, entry); }
+
+    /** ScheduleInstruction.data (a CompoundTag). */
+    public static Object instructionData(Object instruction) { return get(INSTRUCTION_DATA, instruction); }
+
+    // ==================== Invocation helpers ====================
+
+    private static Object get(MethodHandle handle, Object target) {
+        try {
+            return (Object) handle.invokeExact(target);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    private static Object call(MethodHandle handle, Object target) {
+        return get(handle, target);
+    }
+
+    private static double getDouble(MethodHandle handle, Object target) {
+        try {
+            return (double) handle.invokeExact(target);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    private static int getInt(MethodHandle handle, Object target) {
+        try {
+            return (int) handle.invokeExact(target);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    private static boolean getBoolean(MethodHandle handle, Object target) {
+        try {
+            return (boolean) handle.invokeExact(target);
+        } catch (Throwable t) {
+            throw fail(t);
+        }
+    }
+
+    private static RuntimeException fail(Throwable t) {
+        if (t instanceof RuntimeException re) return re;
+        if (t instanceof Error e) throw e;
+        return new IllegalStateException(t);
+    }
+
+    // ==================== Resolution helpers ====================
+
+    @Nullable
+    private static Class<?> type(String name) {
+        Class<?> cls = optionalType(name);
+        if (cls == null) MISSING.add(name);
+        return cls;
+    }
+
+    /** Class that only some Create versions ship; its absence does not affect {@link #isAvailable()}. */
+    @Nullable
+    private static Class<?> optionalType(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException | LinkageError e) {
+            LogicLink.LOGGER.debug("CreateTrainAccess: Class {} not present: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Field findField(Class<?> owner, String name) {
+        try {
+            return owner.getField(name);
+        } catch (NoSuchFieldException e) {
+            for (Class<?> c = owner; c != null; c = c.getSuperclass()) {
+                try {
+                    Field f = c.getDeclaredField(name);
+                    f.setAccessible(true);
+                    return f;
+                } catch (NoSuchFieldException ignored) {}
+            }
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Method findMethod(Class<?> owner, String name, Class<?>... params) {
+        try {
+            return owner.getMethod(name, params);
+        } catch (NoSuchMethodException e) {
+            for (Class<?> c = owner; c != null; c = c.getSuperclass()) {
+                try {
+                    Method m = c.getDeclaredMethod(name, params);
+                    m.setAccessible(true);
+                    return m;
+                } catch (NoSuchMethodException ignored) {}
+            }
+            return null;
+        }
+    }
+
+    /** Instance field getter adapted to {@code (Object) -> as}. */
+    @Nullable
+    private static MethodHandle getter(@Nullable Class<?> owner, String name, Class<?> as, boolean required) {
+        if (owner == null) return null;
+        try {
+            Field f = findField(owner, name);
+            if (f != null) {
+                return LOOKUP.unreflectGetter(f).asType(MethodType.methodType(as, Object.class));
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("CreateTrainAccess: Could not adapt {}.{}: {}", owner.getSimpleName(), name, e.getMessage());
+        }
+        if (required) MISSING.add(owner.getSimpleName() + "." + name);
+        return null;
+    }
+
+    /** Static field getter adapted to {@code () -> Object}. */
+    @Nullable
+    private static MethodHandle staticGetter(@Nullable Class<?> owner, String name) {
+        if (owner == null) return null;
+        try {
+            Field f = findField(owner, name);
+            if (f != null) {
+                return LOOKUP.unreflectGetter(f).asType(MethodType.methodType(Object.class));
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("CreateTrainAccess: Could not adapt {}.{}: {}", owner.getSimpleName(), name, e.getMessage());
+        }
+        MISSING.add(owner.getSimpleName() + "." + name);
+        return null;
+    }
+
+    /**
+     * Instance method adapted to {@code (Object, params...) -> as}, with reference
+     * parameters erased to Object.
+     */
+    @Nullable
+    private static MethodHandle invoker(@Nullable Class<?> owner, String name, Class<?> as,
+                                        boolean required, Class<?>... params) {
+        if (owner == null) return null;
+        for (Class<?> p : params) {
+            if (p == null) return null;
+        }
+        try {
+            Method m = findMethod(owner, name, params);
+            if (m != null) {
+                Class<?>[] erased = new Class<?>[params.length + 1];
+                erased[0] = Object.class;
+                for (int i = 0; i < params.length; i++) {
+                    erased[i + 1] = params[i].isPrimitive() ? params[i] : Object.class;
+                }
+                return LOOKUP.unreflect(m).asType(MethodType.methodType(as, erased));
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("CreateTrainAccess: Could not adapt {}.{}(): {}", owner.getSimpleName(), name, e.getMessage());
+        }
+        if (required) MISSING.add(owner.getSimpleName() + "." + name + "()");
+        return null;
+    }
+
+    @Nullable
+    private static Object constant(@Nullable Class<?> owner, String name, boolean required) {
+        if (owner == null) return null;
+        try {
+            Field f = findField(owner, name);
+            if (f != null) return f.get(null);
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("CreateTrainAccess: Could not read {}.{}: {}", owner.getSimpleName(), name, e.getMessage());
+        }
+        if (required) MISSING.add(owner.getSimpleName() + "." + name);
+        return null;
+    }
+
+    @Nullable
+    private static MethodHandle firstNonNull(@Nullable MethodHandle a, @Nullable MethodHandle b) {
+        return a != null ? a : b;
+    }
+
+    // ---- LambdaMetafactory getters for the per-edge / per-node hot path ----
+    //
+    // A spun lambda can still fail when it is first called (e.g. an access or
+    // class-loading error across mod class loaders). Each accessor catches any
+    // failure of its lambda, logs it once and switches to the plain handle for
+    // good; an exception thrown by Create itself then resurfaces from the handle.
+
+    @SuppressWarnings("unchecked")
+    private static ToDoubleFunction<Object> doubleFunction(@Nullable Class<?> owner, String name) {
+        MethodHandle fallback = invoker(owner, name, double.class, true);
+        ToDoubleFunction<Object> lambda = (ToDoubleFunction<Object>) metafactory(owner, name,
+                ToDoubleFunction.class, "applyAsDouble", MethodType.methodType(double.class, Object.class));
+        if (lambda == null) return target -> getDouble(fallback, target);
+        return new ToDoubleFunction<>() {
+            private boolean declined;
+
+            @Override
+            public double applyAsDouble(Object target) {
+                if (!declined) {
+                    try {
+                        return lambda.applyAsDouble(target);
+                    } catch (Throwable t) {
+                        declined = decline(owner, name, t);
+                    }
+                }
+                return getDouble(fallback, target);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> predicate(@Nullable Class<?> owner, String name) {
+        MethodHandle fallback = invoker(owner, name, boolean.class, true);
+        Predicate<Object> lambda = (Predicate<Object>) metafactory(owner, name,
+                Predicate.class, "test", MethodType.methodType(boolean.class, Object.class));
+        if (lambda == null) return target -> getBoolean(fallback, target);
+        return new Predicate<>() {
+            private boolean declined;
+
+            @Override
+            public boolean test(Object target) {
+                if (!declined) {
+                    try {
+                        return lambda.test(target);
+                    } catch (Throwable t) {
+                        declined = decline(owner, name, t);
+                    }
+                }
+                return getBoolean(fallback, target);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> function(@Nullable Class<?> owner, String name) {
+        MethodHandle fallback = invoker(owner, name, Object.class, true);
+        Function<Object, Object> lambda = (Function<Object, Object>) metafactory(owner, name,
+                Function.class, "apply", MethodType.methodType(Object.class, Object.class));
+        if (lambda == null) return target -> get(fallback, target);
+        return new Function<>() {
+            private boolean declined;
+
+            @Override
+            public Object apply(Object target) {
+                if (!declined) {
+                    try {
+                        return lambda.apply(target);
+                    } catch (Throwable t) {
+                        declined = decline(owner, name, t);
+                    }
+                }
+                return get(fallback, target);
+            }
+        };
+    }
+
+    /** Log that a spun lambda failed at call time; always true, the caller stops using it. */
+    private static boolean decline(@Nullable Class<?> owner, String name, Throwable t) {
+        LogicLink.LOGGER.warn("CreateTrainAccess: Lambda for {}.{}() failed, using handle: {}",
+                owner != null ? owner.getSimpleName() : "?", name, t.toString());
+        return true;
+    }
+
+    /**
+     * Spin a functional-interface instance that calls {@code owner.name()} directly.
+     * Only public no-arg methods on public classes qualify; anything else (or a
+     * metafactory linkage failure) returns null so the caller uses its handle.
+     */
+    @Nullable
+    private static Object metafactory(@Nullable Class<?> owner, String name, Class<?> iface,
+                                      String samName, MethodType samType) {
+        if (owner == null || !Modifier.isPublic(owner.getModifiers())) return null;
+        try {
+            Method m = owner.getMethod(name);
+            MethodHandle impl = LOOKUP.unreflect(m);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, samName,
+                    MethodType.methodType(iface), samType, impl, impl.type());
+            return site.getTarget().invoke();
+        } catch (Throwable t) {
+            LogicLink.LOGGER.debug("CreateTrainAccess: Metafactory declined {}.{}(), using handle: {}",
+                    owner.getSimpleName(), name, t.getMessage());
+            return null;
+        }
+    }
+}
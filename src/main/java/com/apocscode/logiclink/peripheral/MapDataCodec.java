@@ -0,0 +1,533 @@
+package com.apocscode.logiclink.peripheral;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.FloatTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.ShortTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary wire format for Train Monitor map data, used instead of plain
+ * NBT for map syncs and track layouts.
+ * <p>
+ * The encoding is lossless — a decoded tag equals the original, so map deltas
+ * and {@link NetworkTopology#contentHash content hashes} work unchanged — but
+ * exploits what map data looks like:
+ * </p>
+ * <ul>
+ *   <li>Keys and string values go through two string tables, so each key,
+ *       station name, train name and signal group id is sent once per frame
+ *       and referenced by index after that.</li>
+ *   <li>Key reference and tag type share one varint; booleans are types of
+ *       their own and cost no value byte.</li>
+ *   <li>Float fields are sent as varints in 1/{@link #SCALE} blocks, relative
+ *       to the map {@code Bounds} for X/Z coordinates, whenever that is exact;
+ *       otherwise as raw bits.</li>
+ *   <li>Topology float columns ({@code nx}, {@code el}, {@code cp}, ...) are
+ *       quantized the same way and delta-encoded between neighbours; int arrays
+ *       (edge node pairs, curve offsets, group indices) are delta-encoded
+ *       zigzag varints.</li>
+ *   <li>Frames above {@link #DEFLATE_THRESHOLD} bytes are deflated when that
+ *       makes them smaller.</li>
+ * </ul>
+ */
+public final class MapDataCodec {
+
+    /** Quantization steps per block for float fields. */
+    public static final int SCALE = 16;
+    private static final int DEFLATE_THRESHOLD = 512;
+    /** Upper bound for an inflated frame; larger frames are rejected. */
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private static final int FRAME_DEFLATED = 1;
+
+    // Tag types on the wire (5 bits, packed with the key index)
+    private static final int T_END = 0;
+    private static final int T_BYTE = 1;
+    private static final int T_SHORT = 2;
+    private static final int T_INT = 3;
+    private static final int T_LONG = 4;
+    private static final int T_FLOAT = 5;
+    private static final int T_DOUBLE = 6;
+    private static final int T_BYTE_ARRAY = 7;
+    private static final int T_STRING = 8;
+    private static final int T_LIST = 9;
+    private static final int T_COMPOUND = 10;
+    private static final int T_INT_ARRAY = 11;
+    private static final int T_LONG_ARRAY = 12;
+    private static final int T_FALSE = 13;
+    private static final int T_TRUE = 14;
+    /** Float as a quantized varint (exact) */
+    private static final int T_FLOAT_Q = 15;
+    /** Int array holding float bits, as a quantized delta column (or raw bits) */
+    private static final int T_FLOAT_COLUMN = 16;
+    private static final int TYPE_BITS = 5;
+
+    private static final Set<String> X_KEYS = Set.of("x", "mapX", "ax", "bx", "sx", "minX", "maxX");
+    private static final Set<String> Z_KEYS = Set.of("z", "mapZ", "az", "bz", "sz", "minZ", "maxZ");
+    /** Int arrays that hold float bits ({@link NetworkTopology} columns) */
+    private static final Set<String> FLOAT_COLUMNS = Set.of("nx", "ny", "nz", "el", "cp");
+
+    public static final StreamCodec<FriendlyByteBuf, CompoundTag> STREAM_CODEC =
+            new StreamCodec<>() {
+                @Override
+                public CompoundTag decode(FriendlyByteBuf buf) {
+                    return MapDataCodec.decode(buf.readByteArray(MAX_FRAME_BYTES));
+                }
+
+                @Override
+                public void encode(FriendlyByteBuf buf, CompoundTag tag) {
+                    buf.writeByteArray(MapDataCodec.encode(tag));
+                }
+            };
+
+    private MapDataCodec() {}
+
+    // ==================== Frame ====================
+
+    /** Encode map data (or a map delta / track layout) into a frame. */
+    public static byte[] encode(CompoundTag tag) {
+        return encode(tag, true);
+    }
+
+    /**
+     * Encode map data into a frame.
+     *
+     * @param allowDeflate Deflate the frame body if that makes it smaller.
+     */
+    public static byte[] encode(CompoundTag tag, boolean allowDeflate) {
+        FriendlyByteBuf body = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            new Writer(body, tag).writeRoot(tag);
+            byte[] raw = new byte[body.readableBytes()];
+            body.readBytes(raw);
+
+            byte[] deflated = allowDeflate && raw.length > DEFLATE_THRESHOLD ? deflate(raw) : null;
+            boolean useDeflate = deflated != null && deflated.length < raw.length;
+
+            FriendlyByteBuf frame = new FriendlyByteBuf(Unpooled.buffer(raw.length + 8));
+            try {
+                frame.writeByte(useDeflate ? FRAME_DEFLATED : 0);
+                frame.writeVarInt(raw.length);
+                frame.writeBytes(useDeflate ? deflated : raw);
+                byte[] out = new byte[frame.readableBytes()];
+                frame.readBytes(out);
+                return out;
+            } finally {
+                frame.release();
+            }
+        } finally {
+            body.release();
+        }
+    }
+
+    /**
+     * Decode a frame produced by {@link #encode}.
+     *
+     * @throws IllegalArgumentException If the frame is malformed.
+     */
+    public static CompoundTag decode(byte[] frameBytes) {
+        FriendlyByteBuf frame = new FriendlyByteBuf(Unpooled.wrappedBuffer(frameBytes));
+        int flags = frame.readByte();
+        int rawLength = frame.readVarInt();
+        if (rawLength < 0 || rawLength > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("Map data frame too large: " + rawLength);
+        }
+        byte[] rest = new byte[frame.readableBytes()];
+        frame.readBytes(rest);
+        byte[] raw = (flags & FRAME_DEFLATED) != 0 ? inflate(rest, rawLength) : rest;
+
+        FriendlyByteBuf body = new FriendlyByteBuf(Unpooled.wrappedBuffer(raw));
+        try {
+            return new Reader(body).readRoot();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated map data frame", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] out = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(out, n, rawLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != rawLength) throw new IllegalArgumentException("Map data frame length mismatch");
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt map data frame", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // ==================== Quantization ====================
+
+    /** Origin of X or Z float fields: the floored map bounds minimum, or 0. */
+    private static int origin(CompoundTag root, String boundsKey) {
+        CompoundTag bounds = root.getCompound("Bounds");
+        if (!bounds.contains(boundsKey)) return 0;
+        float min = bounds.getFloat(boundsKey);
+        return Float.isFinite(min) ? (int) Math.max(-3.0e7, Math.min(3.0e7, Math.floor(min))) : 0;
+    }
+
+    private static float dequantize(int origin, long q) {
+        return (float) (origin + q / (double) SCALE);
+    }
+
+    /** Quantized value if it decodes to exactly {@code value}, else {@link Long#MIN_VALUE}. */
+    private static long quantize(int origin, float value) {
+        if (!Float.isFinite(value)) return Long.MIN_VALUE;
+        long q = Math.round(((double) value - origin) * SCALE);
+        return Float.floatToRawIntBits(dequantize(origin, q)) == Float.floatToRawIntBits(value)
+                ? q : Long.MIN_VALUE;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // ==================== Writer ====================
+
+    private static final class Writer {
+        final FriendlyByteBuf buf;
+        final Object2IntOpenHashMap<String> keys = new Object2IntOpenHashMap<>();
+        final Object2IntOpenHashMap<String> strings = new Object2IntOpenHashMap<>();
+        final int originX;
+        final int originZ;
+
+        Writer(FriendlyByteBuf buf, CompoundTag root) {
+            this.buf = buf;
+            keys.defaultReturnValue(-1);
+            strings.defaultReturnValue(-1);
+            originX = origin(root, "minX");
+            originZ = origin(root, "minZ");
+        }
+
+        void writeRoot(CompoundTag root) {
+            buf.writeVarLong(zigzag(originX));
+            buf.writeVarLong(zigzag(originZ));
+            writeCompound(root);
+        }
+
+        void writeCompound(CompoundTag tag) {
+            for (String key : tag.getAllKeys()) {
+                Tag value = tag.get(key);
+                int type = wireType(key, value);
+                writeRef(keys, key, type);
+                writePayload(key, value, type);
+            }
+            buf.writeVarInt(T_END);
+        }
+
+        /** Key index and type in one varint; a new key is followed by its name. */
+        void writeRef(Object2IntOpenHashMap<String> table, String s, int type) {
+            int index = table.getInt(s);
+            if (index >= 0) {
+                buf.writeVarInt(((index + 1) << TYPE_BITS) | type);
+            } else {
+                table.put(s, table.size());
+                buf.writeVarInt(type); // index 0 = new entry
+                buf.writeUtf(s);
+            }
+        }
+
+        void writeString(String s) {
+            int index = strings.getInt(s);
+            if (index >= 0) {
+                buf.writeVarInt(index + 1);
+            } else {
+                strings.put(s, strings.size());
+                buf.writeVarInt(0);
+                buf.writeUtf(s);
+            }
+        }
+
+        int wireType(String key, Tag value) {
+            return switch (value.getId()) {
+                case Tag.TAG_BYTE -> {
+                    byte b = ((ByteTag) value).getAsByte();
+                    yield b == 0 ? T_FALSE : b == 1 ? T_TRUE : T_BYTE;
+                }
+                case Tag.TAG_FLOAT -> quantize(originFor(key), ((FloatTag) value).getAsFloat()) != Long.MIN_VALUE
+                        ? T_FLOAT_Q : T_FLOAT;
+                case Tag.TAG_INT_ARRAY -> FLOAT_COLUMNS.contains(key) ? T_FLOAT_COLUMN : T_INT_ARRAY;
+                default -> baseType(value);
+            };
+        }
+
+        int originFor(String key) {
+            return X_KEYS.contains(key) ? originX : Z_KEYS.contains(key) ? originZ : 0;
+        }
+
+        void writePayload(String key, Tag value, int type) {
+            switch (type) {
+                case T_FALSE, T_TRUE -> { }
+                case T_FLOAT_Q -> buf.writeVarLong(zigzag(quantize(originFor(key), ((FloatTag) value).getAsFloat())));
+                case T_FLOAT_COLUMN -> writeFloatColumn(((IntArrayTag) value).getAsIntArray(), "cp".equals(key) ? 2 : 1);
+                default -> writeValue(value, type);
+            }
+        }
+
+        void writeValue(Tag value, int type) {
+            switch (type) {
+                case T_BYTE -> buf.writeByte(((ByteTag) value).getAsByte());
+                case T_SHORT -> buf.writeShort(((ShortTag) value).getAsShort());
+                case T_INT -> buf.writeVarLong(zigzag(((IntTag) value).getAsInt()));
+                case T_LONG -> buf.writeVarLong(zigzag(((LongTag) value).getAsLong()));
+                case T_FLOAT -> buf.writeFloat(((FloatTag) value).getAsFloat());
+                case T_DOUBLE -> buf.writeDouble(((DoubleTag) value).getAsDouble());
+                case T_BYTE_ARRAY -> buf.writeByteArray(((ByteArrayTag) value).getAsByteArray());
+                case T_STRING -> writeString(value.getAsString());
+                case T_LIST -> writeList((ListTag) value);
+                case T_COMPOUND -> writeCompound((CompoundTag) value);
+                case T_INT_ARRAY -> writeDeltaInts(((IntArrayTag) value).getAsIntArray());
+                case T_LONG_ARRAY -> {
+                    long[] longs = ((LongArrayTag) value).getAsLongArray();
+                    buf.writeVarInt(longs.length);
+                    for (long l : longs) buf.writeLong(l);
+                }
+                default -> throw new IllegalStateException("Unexpected wire type " + type);
+            }
+        }
+
+        void writeList(ListTag list) {
+            buf.writeVarInt(list.size());
+            if (list.isEmpty()) return;
+            int type = baseType(list.get(0));
+            buf.writeByte(type);
+            for (Tag element : list) writeValue(element, type);
+        }
+
+        void writeDeltaInts(int[] values) {
+            buf.writeVarInt(values.length);
+            int prev = 0;
+            for (int v : values) {
+                buf.writeVarLong(zigzag((long) v - prev));
+                prev = v;
+            }
+        }
+
+        /** Float bits as quantized deltas to the value {@code stride} back, or raw if any value is inexact. */
+        void writeFloatColumn(int[] bits, int stride) {
+            long[] q = new long[bits.length];
+            boolean exact = true;
+            for (int i = 0; i < bits.length && exact; i++) {
+                q[i] = quantize(0, Float.intBitsToFloat(bits[i]));
+                exact = q[i] != Long.MIN_VALUE;
+            }
+            buf.writeVarInt(bits.length);
+            buf.writeBoolean(exact);
+            for (int i = 0; i < bits.length; i++) {
+                if (exact) buf.writeVarLong(zigzag(q[i] - (i >= stride ? q[i - stride] : 0)));
+                else buf.writeInt(bits[i]);
+            }
+        }
+    }
+
+    /** Wire type of a tag without the key-dependent encodings. */
+    private static int baseType(Tag value) {
+        return switch (value.getId()) {
+            case Tag.TAG_BYTE -> T_BYTE;
+            case Tag.TAG_SHORT -> T_SHORT;
+            case Tag.TAG_INT -> T_INT;
+            case Tag.TAG_LONG -> T_LONG;
+            case Tag.TAG_FLOAT -> T_FLOAT;
+            case Tag.TAG_DOUBLE -> T_DOUBLE;
+            case Tag.TAG_BYTE_ARRAY -> T_BYTE_ARRAY;
+            case Tag.TAG_STRING -> T_STRING;
+            case Tag.TAG_LIST -> T_LIST;
+            case Tag.TAG_COMPOUND -> T_COMPOUND;
+            case Tag.TAG_INT_ARRAY -> T_INT_ARRAY;
+            case Tag.TAG_LONG_ARRAY -> T_LONG_ARRAY;
+            default -> throw new IllegalArgumentException("Unsupported tag type " + value.getId());
+        };
+    }
+
+    // ==================== Reader ====================
+
+    private static final class Reader {
+        final FriendlyByteBuf buf;
+        final List<String> keys = new ArrayList<>();
+        final List<String> strings = new ArrayList<>();
+        int originX;
+        int originZ;
+
+        Reader(FriendlyByteBuf buf) {
+            this.buf = buf;
+        }
+
+        CompoundTag readRoot() {
+            originX = (int) unzigzag(buf.readVarLong());
+            originZ = (int) unzigzag(buf.readVarLong());
+            return readCompound();
+        }
+
+        CompoundTag readCompound() {
+            CompoundTag tag = new CompoundTag();
+            while (true) {
+                int ref = buf.readVarInt();
+                int type = ref & ((1 << TYPE_BITS) - 1);
+                if (type == T_END) return tag;
+                String key = lookup(keys, ref >>> TYPE_BITS);
+                tag.put(key, readPayload(key, type));
+            }
+        }
+
+        String lookup(List<String> table, int index) {
+            if (index == 0) {
+                String s = buf.readUtf();
+                table.add(s);
+                return s;
+            }
+            if (index > table.size()) throw new IllegalArgumentException("Bad string table index " + index);
+            return table.get(index - 1);
+        }
+
+        int originFor(String key) {
+            return X_KEYS.contains(key) ? originX : Z_KEYS.contains(key) ? originZ : 0;
+        }
+
+        Tag readPayload(String key, int type) {
+            return switch (type) {
+                case T_FALSE -> ByteTag.valueOf((byte) 0);
+                case T_TRUE -> ByteTag.valueOf((byte) 1);
+                case T_FLOAT_Q -> FloatTag.valueOf(dequantize(originFor(key), unzigzag(buf.readVarLong())));
+                case T_FLOAT_COLUMN -> readFloatColumn("cp".equals(key) ? 2 : 1);
+                default -> readValue(type);
+            };
+        }
+
+        Tag readValue(int type) {
+            return switch (type) {
+                case T_BYTE -> ByteTag.valueOf(buf.readByte());
+                case T_SHORT -> ShortTag.valueOf(buf.readShort());
+                case T_INT -> IntTag.valueOf((int) unzigzag(buf.readVarLong()));
+                case T_LONG -> LongTag.valueOf(unzigzag(buf.readVarLong()));
+                case T_FLOAT -> FloatTag.valueOf(buf.readFloat());
+                case T_DOUBLE -> DoubleTag.valueOf(buf.readDouble());
+                case T_BYTE_ARRAY -> new ByteArrayTag(buf.readByteArray(buf.readableBytes()));
+                case T_STRING -> StringTag.valueOf(lookup(strings, buf.readVarInt()));
+                case T_LIST -> readList();
+                case T_COMPOUND -> readCompound();
+                case T_INT_ARRAY -> readDeltaInts();
+                case T_LONG_ARRAY -> {
+                    long[] longs = new long[checkedLength(8)];
+                    for (int i = 0; i < longs.length; i++) longs[i] = buf.readLong();
+                    yield new LongArrayTag(longs);
+                }
+                default -> throw new IllegalArgumentException("Unknown wire type " + type);
+            };
+        }
+
+        ListTag readList() {
+            ListTag list = new ListTag();
+            int size = checkedLength(1);
+            if (size == 0) return list;
+            int type = buf.readByte();
+            for (int i = 0; i < size; i++) list.add(readValue(type));
+            return list;
+        }
+
+        IntArrayTag readDeltaInts() {
+            int[] values = new int[checkedLength(1)];
+            int prev = 0;
+            for (int i = 0; i < values.length; i++) {
+                prev = (int) (prev + unzigzag(buf.readVarLong()));
+                values[i] = prev;
+            }
+            return new IntArrayTag(values);
+        }
+
+        IntArrayTag readFloatColumn(int stride) {
+            int[] bits = new int[checkedLength(1)];
+            boolean exact = buf.readBoolean();
+            long[] q = exact ? new long[bits.length] : null;
+            for (int i = 0; i < bits.length; i++) {
+                if (exact) {
+                    q[i] = unzigzag(buf.readVarLong()) + (i >= stride ? q[i - stride] : 0);
+                    bits[i] = Float.floatToRawIntBits(dequantize(0, q[i]));
+                } else {
+                    bits[i] = buf.readInt();
+                }
+            }
+            return new IntArrayTag(bits);
+        }
+
+        /** Element count, rejected if the remaining bytes cannot hold it. */
+        int checkedLength(int minBytesPerElement) {
+            int n = buf.readVarInt();
+            if (n < 0 || (long) n * minBytesPerElement > buf.readableBytes()) {
+                throw new IllegalArgumentException("Bad array length " + n);
+            }
+            return n;
+        }
+    }
+
+    // ==================== Size Report ====================
+
+    /**
+     * Sizes of map data on the wire, in bytes: plain NBT as sent before, the
+     * compact frame without deflate, and the frame as actually sent.
+     */
+    public record SizeReport(int nbtBytes, int compactBytes, int frameBytes) {
+        public double ratio() {
+            return frameBytes > 0 ? nbtBytes / (double) frameBytes : 0;
+        }
+    }
+
+    public static SizeReport measure(CompoundTag tag) {
+        FriendlyByteBuf nbt = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            nbt.writeNbt(tag);
+            return new SizeReport(nbt.readableBytes(), encode(tag, false).length, encode(tag, true).length);
+        } finally {
+            nbt.release();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.apocscode.logiclink.peripheral;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Delta encoding of Train Monitor map data between two versions, so a map
+ * update only ships what changed instead of the whole map.
+ * <p>
+ * The delta is a CompoundTag with up to four parts:
+ * </p>
+ * <ul>
+ *   <li>{@code "Lists"}: per {@link MapEntityHashes#ENTITY_LISTS entity list}
+ *       (Trains, Signals, Stations, Observers), only the entities whose hash
+ *       changed — e.g. the trains that moved or the signals that changed state.
+ *       If the list kept its order and length, the patch holds the changed
+ *       indices ({@code "i"}) and new elements ({@code "v"}); otherwise, per new
+ *       element, the old index it is taken from or -1 for the next new element
+ *       ({@code "o"}), so reordered lists still ship only real changes.</li>
+ *   <li>{@code "Occupancy"}: edges whose occupied flag flipped, when nothing
+ *       else in the {@link NetworkTopology#TAG topology} changed.</li>
+ *   <li>{@code "Set"}: any other changed top-level key, replaced whole.</li>
+ *   <li>{@code "Removed"}: top-level keys that no longer exist.</li>
+ * </ul>
+ * Tags in a delta may be shared with the source map data; receivers copy the
+ * delta before {@link #apply applying} it.
+ */
+public final class MapDataDelta {
+
+    private MapDataDelta() {}
+
+    /**
+     * Encode the changes from {@code before} to {@code after}, comparing their
+     * precomputed hashes instead of the tags.
+     *
+     * @return The delta, or null if the two are equal.
+     */
+    @Nullable
+    public static CompoundTag diff(CompoundTag before, MapEntityHashes beforeHashes,
+                                   CompoundTag after, MapEntityHashes afterHashes) {
+        CompoundTag set = new CompoundTag();
+        CompoundTag lists = new CompoundTag();
+        int[] occupancy = null;
+
+        for (String key : after.getAllKeys()) {
+            Tag now = after.get(key);
+            Tag old = before.get(key);
+            if (old != null && beforeHashes.contains(key)
+                    && beforeHashes.section(key) == afterHashes.section(key)) {
+                continue;
+            }
+
+            MapEntityHashes.ListHashes oldHashes = beforeHashes.list(key);
+            MapEntityHashes.ListHashes newHashes = afterHashes.list(key);
+            if (old instanceof ListTag oldList && now instanceof ListTag newList
+                    && oldHashes != null && newHashes != null) {
+                CompoundTag patch = diffList(oldList, oldHashes, newList, newHashes);
+                if (patch != null) {
+                    if (!patch.isEmpty()) lists.put(key, patch);
+                    continue;
+                }
+            } else if (key.equals(NetworkTopology.TAG) && old != null) {
+                occupancy = afterHashes.occupancyChanges(beforeHashes);
+                if (occupancy != null) continue;
+            }
+            set.put(key, now);
+        }
+
+        ListTag removed = new ListTag();
+        for (String key : before.getAllKeys()) {
+            if (!after.contains(key)) removed.add(StringTag.valueOf(key));
+        }
+
+        if (set.isEmpty() && lists.isEmpty() && removed.isEmpty()
+                && (occupancy == null || occupancy.length == 0)) {
+            return null;
+        }
+        CompoundTag delta = new CompoundTag();
+        if (!set.isEmpty()) delta.put("Set", set);
+        if (!lists.isEmpty()) delta.put("Lists", lists);
+        if (occupancy != null && occupancy.length > 0) delta.put("Occupancy", new IntArrayTag(occupancy));
+        if (!removed.isEmpty()) delta.put("Removed", removed);
+        return delta;
+    }
+
+    /**
+     * Patch of an entity list, matching entities by key: empty if only
+     * quantized jitter changed, null if the list is cheaper to resend whole.
+     */
+    @Nullable
+    private static CompoundTag diffList(ListTag before, MapEntityHashes.ListHashes beforeHashes,
+                                       ListTag after, MapEntityHashes.ListHashes afterHashes) {
+        if (!before.isEmpty() && !after.isEmpty() && before.getElementType() != after.getElementType()) {
+            return null;
+        }
+        Object2IntOpenHashMap<String> oldIndex = new Object2IntOpenHashMap<>(before.size());
+        oldIndex.defaultReturnValue(-1);
+        String[] oldKeys = beforeHashes.keys();
+        for (int i = 0; i < oldKeys.length; i++) oldIndex.put(oldKeys[i], i);
+
+        int[] order = new int[after.size()];
+        IntList indices = new IntArrayList();
+        ListTag values = new ListTag();
+        boolean inPlace = before.size() == after.size();
+        for (int j = 0; j < order.length; j++) {
+            int i = oldIndex.getInt(afterHashes.keys()[j]);
+            if (i >= 0 && beforeHashes.hashes()[i] == afterHashes.hashes()[j]) {
+                order[j] = i;
+                if (i != j) inPlace = false;
+            } else {
+                order[j] = -1;
+                indices.add(j);
+                values.add(after.get(j));
+            }
+        }
+        // Mostly changed: cheaper to resend the list
+        if (values.size() * 2 > after.size()) return null;
+
+        CompoundTag patch = new CompoundTag();
+        if (inPlace) {
+            if (indices.isEmpty()) return patch;
+            patch.putIntArray("i", indices.toIntArray());
+        } else {
+            patch.putIntArray("o", order);
+        }
+        patch.put("v", values);
+        return patch;
+    }
+
+    /** Apply a delta produced by {@link #diff} to map data, in place. */
+    public static void apply(CompoundTag mapData, CompoundTag delta) {
+        if (delta.contains("Removed")) {
+            ListTag removed = delta.getList("Removed", Tag.TAG_STRING);
+            for (int i = 0; i < removed.size(); i++) mapData.remove(removed.getString(i));
+        }
+
+        CompoundTag set = delta.getCompound("Set");
+        for (String key : set.getAllKeys()) {
+            mapData.put(key, set.get(key));
+        }
+
+        CompoundTag lists = delta.getCompound("Lists");
+        for (String key : lists.getAllKeys()) {
+            Tag target = mapData.get(key);
+            if (!(target instanceof ListTag list)) continue;
+            CompoundTag patch = lists.getCompound(key);
+            ListTag values = (ListTag) patch.get("v");
+            if (values == null) continue;
+            if (patch.contains("o")) {
+                ListTag rebuilt = new ListTag();
+                int next = 0;
+                for (int i : patch.getIntArray("o")) {
+                    if (i >= 0 && i < list.size()) rebuilt.add(list.get(i));
+                    else if (next < values.size()) rebuilt.add(values.get(next++));
+                }
+                mapData.put(key, rebuilt);
+                continue;
+            }
+            int[] indices = patch.getIntArray("i");
+            for (int n = 0; n < indices.length && n < values.size(); n++) {
+                if (indices[n] >= 0 && indices[n] < list.size()) list.set(indices[n], values.get(n));
+            }
+        }
+
+        if (delta.contains("Occupancy")) {
+            NetworkTopology.applyOccupancyChanges(mapData, delta.getIntArray("Occupancy"));
+        }
+    }
+}
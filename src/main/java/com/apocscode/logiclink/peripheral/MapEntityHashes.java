@@ -0,0 +1,228 @@
+package com.apocscode.logiclink.peripheral;
+
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.FloatTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.NumericTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 64-bit content hashes of one map data instance, computed once when a
+ * snapshot is built and used for change detection and {@link MapDataDelta}s.
+ * <p>
+ * Every entity in the {@link #ENTITY_LISTS} (trains, stations, signals,
+ * observers) gets its own hash, keyed by its {@code "id"} (a UUID prefix) so a
+ * reordered list is still matched entity by entity. Edge occupancy is kept as
+ * a bitset next to the layout's {@link NetworkTopology#contentHash}. Every
+ * top-level key then has one section hash, so "did anything change" is a
+ * single comparison of the section arrays.
+ * </p>
+ * <p>
+ * Positions and speeds are hashed quantized ({@link #QUANTA}), so sub-block
+ * jitter between scans does not count as a change; live train motion travels
+ * on the {@link TrainStates} channel anyway.
+ * </p>
+ */
+public final class MapEntityHashes {
+
+    /** Lists whose elements are hashed and matched individually. */
+    public static final String[] ENTITY_LISTS = {"Trains", "Stations", "Signals", "Observers"};
+
+    /** Steps per unit for numeric fields hashed quantized: 0.5 blocks, 0.01 blocks/tick. */
+    private static final Map<String, Double> QUANTA = Map.of(
+            "x", 2.0, "y", 2.0, "z", 2.0, "speed", 100.0, "distance", 1.0);
+
+    public static final MapEntityHashes EMPTY = of(new CompoundTag(), NetworkTopology.EMPTY);
+
+    /** Hashes of one entity list, in list order. */
+    public record ListHashes(String[] keys, long[] hashes) {}
+
+    private final String[] sectionKeys;
+    private final long[] sectionHashes;
+    private final Map<String, ListHashes> lists;
+    private final long layoutHash;
+    private final long[] occupancy;
+
+    private MapEntityHashes(String[] sectionKeys, long[] sectionHashes, Map<String, ListHashes> lists,
+                            long layoutHash, long[] occupancy) {
+        this.sectionKeys = sectionKeys;
+        this.sectionHashes = sectionHashes;
+        this.lists = lists;
+        this.layoutHash = layoutHash;
+        this.occupancy = occupancy;
+    }
+
+    /**
+     * Hash map data and its decoded topology.
+     *
+     * @param topology The layout stored under {@link NetworkTopology#TAG}; hashed
+     *                 from its columns instead of the encoded tag.
+     */
+    public static MapEntityHashes of(CompoundTag mapData, NetworkTopology topology) {
+        String[] keys = mapData.getAllKeys().toArray(new String[0]);
+        Arrays.sort(keys);
+        long[] sections = new long[keys.length];
+        Map<String, ListHashes> lists = new HashMap<>();
+
+        // The content hash leaves out edge flags; curved / inter-dimensional are
+        // part of the layout here, occupancy is tracked per edge
+        long layout = topology.isEmpty() ? 0 : topology.contentHash();
+        long[] occupancy = new long[(topology.edgeCount + 63) >> 6];
+        for (int e = 0; e < topology.edgeCount; e++) {
+            if (topology.isOccupied(e)) occupancy[e >> 6] |= 1L << e;
+            if (topology.isCurved(e)) layout = mix(layout, e);
+            if (topology.isInterDimensional(e)) layout = mix(layout, ~e);
+        }
+
+        for (int k = 0; k < keys.length; k++) {
+            String key = keys[k];
+            Tag tag = mapData.get(key);
+            if (key.equals(NetworkTopology.TAG)) {
+                long h = mix(SEED, layout);
+                for (long word : occupancy) h = mix(h, word);
+                sections[k] = finish(h);
+            } else if (isEntityList(key) && tag instanceof ListTag list) {
+                ListHashes entities = hashEntities(list);
+                lists.put(key, entities);
+                long h = mix(SEED, list.size());
+                for (long entity : entities.hashes()) h = mix(h, entity);
+                sections[k] = finish(h);
+            } else {
+                sections[k] = hash(tag, null);
+            }
+        }
+        return new MapEntityHashes(keys, sections, lists, layout, occupancy);
+    }
+
+    /** True if both describe the same content, as far as the hashes can tell. */
+    public boolean sameAs(MapEntityHashes other) {
+        return Arrays.equals(sectionHashes, other.sectionHashes) && Arrays.equals(sectionKeys, other.sectionKeys);
+    }
+
+    /** Section hash of a top-level key; 0 if absent. */
+    public long section(String key) {
+        int i = Arrays.binarySearch(sectionKeys, key);
+        return i >= 0 ? sectionHashes[i] : 0;
+    }
+
+    public boolean contains(String key) {
+        return Arrays.binarySearch(sectionKeys, key) >= 0;
+    }
+
+    @Nullable
+    public ListHashes list(String key) {
+        return lists.get(key);
+    }
+
+    /**
+     * Edges whose occupied flag differs from {@code before}, or null if the
+     * track layout itself changed.
+     */
+    @Nullable
+    public int[] occupancyChanges(MapEntityHashes before) {
+        if (layoutHash != before.layoutHash || occupancy.length != before.occupancy.length) return null;
+        IntArrayList flipped = new IntArrayList();
+        for (int w = 0; w < occupancy.length; w++) {
+            long diff = occupancy[w] ^ before.occupancy[w];
+            while (diff != 0) {
+                flipped.add((w << 6) + Long.numberOfTrailingZeros(diff));
+                diff &= diff - 1;
+            }
+        }
+        return flipped.toIntArray();
+    }
+
+    public static boolean isEntityList(String key) {
+        for (String list : ENTITY_LISTS) {
+            if (list.equals(key)) return true;
+        }
+        return false;
+    }
+
+    private static ListHashes hashEntities(ListTag list) {
+        String[] keys = new String[list.size()];
+        long[] hashes = new long[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            Tag element = list.get(i);
+            String id = element instanceof CompoundTag c && c.contains("id") ? c.getString("id") : null;
+            // Entities without an id fall back to their position in the list
+            keys[i] = id != null ? id : "#" + i;
+            hashes[i] = hash(element, null);
+        }
+        return new ListHashes(keys, hashes);
+    }
+
+    // ==================== Tag Hashing ====================
+
+    private static final long SEED = 0x4C4C_4D41_5048_5348L;
+
+    /**
+     * Content hash of a tag. Compound entries are combined order-independently
+     * (NBT compounds are unordered); numeric leaves named in {@link #QUANTA} are
+     * rounded first.
+     */
+    static long hash(@Nullable Tag tag, @Nullable String name) {
+        if (tag == null) return 0;
+        long h = mix(SEED, tag.getId());
+        if (tag instanceof CompoundTag compound) {
+            long sum = 0;
+            for (String key : compound.getAllKeys()) {
+                sum += finish(mix(hashString(key), hash(compound.get(key), key)));
+            }
+            h = mix(h, sum);
+        } else if (tag instanceof ListTag list) {
+            for (Tag element : list) h = mix(h, hash(element, name));
+        } else if (tag instanceof FloatTag || tag instanceof DoubleTag) {
+            double value = ((NumericTag) tag).getAsDouble();
+            Double quantum = name != null ? QUANTA.get(name) : null;
+            h = mix(h, quantum != null ? Math.round(value * quantum) : Double.doubleToLongBits(value));
+        } else if (tag instanceof NumericTag numeric) {
+            h = mix(h, numeric.getAsLong());
+        } else if (tag instanceof StringTag) {
+            h = mix(h, hashString(tag.getAsString()));
+        } else if (tag instanceof IntArrayTag array) {
+            for (int v : array.getAsIntArray()) h = mix(h, v);
+        } else if (tag instanceof LongArrayTag array) {
+            for (long v : array.getAsLongArray()) h = mix(h, v);
+        } else if (tag instanceof ByteArrayTag array) {
+            for (byte v : array.getAsByteArray()) h = mix(h, v);
+        } else {
+            h = mix(h, tag.hashCode());
+        }
+        return finish(h);
+    }
+
+    private static long hashString(String s) {
+        long h = mix(SEED, s.length());
+        for (int i = 0; i < s.length(); i++) h = mix(h, s.charAt(i));
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        h ^= v * 0x9E37_79B9_7F4A_7C15L;
+        return Long.rotateLeft(h, 27) * 0xC2B2_AE3D_27D4_EB4FL;
+    }
+
+    /** MurmurHash3 fmix64 finalizer. */
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51_AFD7_ED55_8CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CE_B9FE_1A85_EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,122 @@
+package com.apocscode.logiclink.peripheral;
+
+import com.apocscode.logiclink.LogicLink;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background stage of the network scan: runs
+ * {@link TrainNetworkDataReader#analyzeNetwork} (junction coverage, branch walks,
+ * chain signal checks, schedule validation, deadlock detection) off the server
+ * thread.
+ * <p>
+ * {@link TrainNetworkSnapshotService} captures a snapshot on the server thread and
+ * {@link #submit submits} it here. Work is coalesced per dimension: if several
+ * captures arrive while one is being analyzed, only the newest is analyzed next.
+ * Finished results are queued and {@link #drain published} back on the server
+ * thread at the end of a later tick.
+ * </p>
+ * <p>
+ * The network counts each analysis returns are kept per dimension and handed to
+ * the next analysis of that dimension for its change detection. Only the single
+ * worker thread touches them.
+ * </p>
+ * <p>
+ * Each job is tagged with the server session it was submitted in. {@link #clear}
+ * starts a new session, so an analysis still running when a server stops cannot
+ * publish into the next one, where snapshot epochs restart from zero and could
+ * match it.
+ * </p>
+ */
+public class NetworkDiagnosticsWorker {
+
+    /** Diagnostics computed for the snapshot captured at {@code epoch}. */
+    public record Result(String dimension, int epoch, CompoundTag diagnostics, int session) {}
+
+    /** A capture waiting for analysis, tagged with the session it was submitted in. */
+    private record Job(TrainNetworkSnapshot snapshot, int session) {}
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LogicLink Network Diagnostics");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    /** Newest capture waiting for analysis, per dimension. */
+    private static final Map<String, Job> PENDING = new ConcurrentHashMap<>();
+
+    private static final Queue<Result> COMPLETED = new ConcurrentLinkedQueue<>();
+
+    /** Network counts of the last analysis, per dimension. */
+    private static final Map<String, TrainNetworkDataReader.NetworkCounts> COUNTS = new ConcurrentHashMap<>();
+
+    /** Current server session; incremented by {@link #clear}. */
+    private static final AtomicInteger SESSION = new AtomicInteger();
+
+    /** Queue a captured snapshot for analysis, replacing any older capture still waiting. */
+    static void submit(TrainNetworkSnapshot snapshot) {
+        if (PENDING.put(snapshot.dimension(), new Job(snapshot, SESSION.get())) == null) {
+            EXECUTOR.execute(() -> analyze(snapshot.dimension()));
+        }
+    }
+
+    private static void analyze(String dimension) {
+        Job job = PENDING.remove(dimension);
+        if (job == null) return;
+        TrainNetworkSnapshot snapshot = job.snapshot();
+
+        long start = System.nanoTime();
+        CompoundTag diagnostics = null;
+        try {
+            TrainNetworkDataReader.Analysis analysis = TrainNetworkDataReader.analyzeNetwork(
+                    snapshot.mapData(), snapshot.topology(), COUNTS.get(dimension));
+            diagnostics = analysis.diagnostics();
+            if (analysis.counts() != null && job.session() == SESSION.get()) {
+                COUNTS.put(dimension, analysis.counts());
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.warn("NetworkDiagnosticsWorker: Analysis of {} epoch {} failed: {}",
+                    dimension, snapshot.epoch(), e.getMessage(), e);
+        } finally {
+            // Always publish, even after an error, so waiting consumers are not left hanging
+            if (diagnostics == null) {
+                diagnostics = new CompoundTag();
+                diagnostics.put("Diagnostics", new ListTag());
+            }
+            COMPLETED.add(new Result(dimension, snapshot.epoch(), diagnostics, job.session()));
+        }
+        LogicLink.LOGGER.debug("NetworkDiagnosticsWorker: Analyzed {} epoch {} in {} ms",
+                dimension, snapshot.epoch(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Publish finished analyses of the current session. Called on the server thread once per tick. */
+    public static void drain() {
+        int session = SESSION.get();
+        Result result;
+        while ((result = COMPLETED.poll()) != null) {
+            if (result.session() != session) continue; // finished after its server stopped
+            TrainNetworkSnapshotService.publishDiagnostics(result);
+        }
+    }
+
+    /**
+     * Drop queued work and unpublished results and start a new session, so an
+     * analysis still running is discarded when it finishes. Called on server shutdown.
+     */
+    static void clear() {
+        SESSION.incrementAndGet();
+        PENDING.clear();
+        COMPLETED.clear();
+        COUNTS.clear();
+    }
+}
@@ -0,0 +1,530 @@
+package com.apocscode.logiclink.peripheral;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.phys.Vec3;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar track layout of one dimension's train network map.
+ * <p>
+ * Nodes and edges are stored as parallel primitive arrays indexed by global
+ * node / edge ID, edge flags (curved, occupied, inter-dimensional) are packed
+ * three bits per edge in a {@link BitSet}, and bezier samples for all curved
+ * edges share one packed x,z float array. This replaces the per-node and
+ * per-edge CompoundTags the map used to be built from; NBT is only produced at
+ * the wire boundary via {@link #writeTo} / {@link #readFrom}, stored under the
+ * {@code "Topology"} key of the map data.
+ * </p>
+ * <p>
+ * Instances are immutable once built and safe to share between threads.
+ * </p>
+ */
+public class NetworkTopology {
+
+    public static final String TAG = "Topology";
+    /** Map data key replacing {@link #TAG} when only a reference is sent: the {@link #contentHash}. */
+    public static final String HASH_TAG = "TopologyHash";
+    /** Map data key carrying the current edge flags alongside {@link #HASH_TAG}. */
+    public static final String FLAGS_TAG = "TopologyFlags";
+
+    private static final int FLAG_CURVED = 0;
+    private static final int FLAG_OCCUPIED = 1;
+    private static final int FLAG_INTER_DIM = 2;
+    private static final int FLAG_BITS = 3;
+
+    public static final NetworkTopology EMPTY = new Builder().build();
+
+    // ==================== Nodes ====================
+    public final int nodeCount;
+    public final float[] nodeX;
+    public final float[] nodeY;
+    public final float[] nodeZ;
+
+    // ==================== Edges ====================
+    public final int edgeCount;
+    public final int[] edgeA;
+    public final int[] edgeB;
+    public final float[] edgeLen;
+    private final BitSet edgeFlags;
+    /** Index into {@link #signalGroups} per edge, or -1 when the edge has no signal group. */
+    private final int[] edgeGroup;
+    private final String[] signalGroups;
+
+    // ==================== Curves ====================
+    /** Start offset (in floats) of each edge's samples in {@link #curveXZ}; edge e spans [off[e], off[e+1]). */
+    private final int[] curveOffset;
+    private final float[] curveXZ;
+
+    // ==================== Bounds ====================
+    public final float minX, maxX, minZ, maxZ;
+
+    /** Lazily computed {@link #contentHash}; 0 = not computed yet. */
+    private long contentHash;
+    /** Lazily built lookups for {@link #nodeAt} and {@link #adjacency}. */
+    private volatile Long2IntOpenHashMap nodeIndex;
+    private volatile TrackAdjacency adjacency;
+
+    private NetworkTopology(int nodeCount, float[] nodeX, float[] nodeY, float[] nodeZ,
+                            int edgeCount, int[] edgeA, int[] edgeB, float[] edgeLen,
+                            BitSet edgeFlags, int[] edgeGroup, String[] signalGroups,
+                            int[] curveOffset, float[] curveXZ) {
+        this.nodeCount = nodeCount;
+        this.nodeX = nodeX;
+        this.nodeY = nodeY;
+        this.nodeZ = nodeZ;
+        this.edgeCount = edgeCount;
+        this.edgeA = edgeA;
+        this.edgeB = edgeB;
+        this.edgeLen = edgeLen;
+        this.edgeFlags = edgeFlags;
+        this.edgeGroup = edgeGroup;
+        this.signalGroups = signalGroups;
+        this.curveOffset = curveOffset;
+        this.curveXZ = curveXZ;
+
+        float x0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE;
+        float z0 = Float.MAX_VALUE, z1 = -Float.MAX_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            float x = nodeX[i], z = nodeZ[i];
+            if (x < x0) x0 = x;
+            if (x > x1) x1 = x;
+            if (z < z0) z0 = z;
+            if (z > z1) z1 = z;
+        }
+        this.minX = x0;
+        this.maxX = x1;
+        this.minZ = z0;
+        this.maxZ = z1;
+    }
+
+    public boolean isEmpty() {
+        return nodeCount == 0;
+    }
+
+    public boolean isCurved(int edge) {
+        return edgeFlags.get(edge * FLAG_BITS + FLAG_CURVED);
+    }
+
+    public boolean isOccupied(int edge) {
+        return edgeFlags.get(edge * FLAG_BITS + FLAG_OCCUPIED);
+    }
+
+    public boolean isInterDimensional(int edge) {
+        return edgeFlags.get(edge * FLAG_BITS + FLAG_INTER_DIM);
+    }
+
+    /** Signal group UUID string of an edge, or null if the edge is not in a group. */
+    @Nullable
+    public String signalGroup(int edge) {
+        int g = edgeGroup[edge];
+        return g < 0 ? null : signalGroups[g];
+    }
+
+    /** Number of sampled bezier points for an edge (0 for straight edges). */
+    public int curvePointCount(int edge) {
+        return (curveOffset[edge + 1] - curveOffset[edge]) >> 1;
+    }
+
+    public float curveX(int edge, int point) {
+        return curveXZ[curveOffset[edge] + point * 2];
+    }
+
+    public float curveZ(int edge, int point) {
+        return curveXZ[curveOffset[edge] + point * 2 + 1];
+    }
+
+    /** Index of the node at a world position (half-block grid), or -1. */
+    public int nodeAt(Vec3 pos) {
+        Long2IntOpenHashMap index = nodeIndex;
+        if (index == null) {
+            index = new Long2IntOpenHashMap(nodeCount);
+            index.defaultReturnValue(-1);
+            for (int i = 0; i < nodeCount; i++) {
+                index.put(TrainNetworkDataReader.nodeKey(new Vec3(nodeX[i], nodeY[i], nodeZ[i])), i);
+            }
+            nodeIndex = index;
+        }
+        return TrainNetworkDataReader.hasNodeKey(pos) ? index.get(TrainNetworkDataReader.nodeKey(pos)) : -1;
+    }
+
+    /**
+     * Index of the edge joining two nodes, or -1 if they are not adjacent. For
+     * parallel edges this is the last of them.
+     */
+    public int edgeBetween(int a, int b) {
+        return adjacency().edgeBetween(a, b);
+    }
+
+    /** Number of edges at a node; 0 for ids outside the topology. */
+    public int degree(int node) {
+        return adjacency().degree(node);
+    }
+
+    /**
+     * The {@code i}-th edge at a node, for {@code 0 <= i < degree(node)}, in edge
+     * order. Parallel edges report the last of them, as {@link #edgeBetween} does.
+     */
+    public int edgeAt(int node, int i) {
+        TrackAdjacency adj = adjacency();
+        return adj.edgeIds[adj.offsets[node] + i];
+    }
+
+    TrackAdjacency adjacency() {
+        TrackAdjacency adj = adjacency;
+        if (adj == null) {
+            adj = new TrackAdjacency(this);
+            adjacency = adj;
+        }
+        return adj;
+    }
+
+    // ==================== Wire Format ====================
+
+    /** Write the topology plus the legacy {@code "Bounds"} compound into map data. */
+    public void writeTo(CompoundTag mapData) {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("nodes", nodeCount);
+        tag.put("nx", floatBits(nodeX, nodeCount));
+        tag.put("ny", floatBits(nodeY, nodeCount));
+        tag.put("nz", floatBits(nodeZ, nodeCount));
+        tag.putInt("edges", edgeCount);
+        tag.putIntArray("ea", Arrays.copyOf(edgeA, edgeCount));
+        tag.putIntArray("eb", Arrays.copyOf(edgeB, edgeCount));
+        tag.put("el", floatBits(edgeLen, edgeCount));
+        tag.put("ef", new LongArrayTag(edgeFlags.toLongArray()));
+        tag.putIntArray("eg", Arrays.copyOf(edgeGroup, edgeCount));
+        ListTag groups = new ListTag();
+        for (String g : signalGroups) groups.add(StringTag.valueOf(g));
+        tag.put("groups", groups);
+        tag.putIntArray("co", Arrays.copyOf(curveOffset, edgeCount + 1));
+        tag.put("cp", floatBits(curveXZ, curveOffset[edgeCount]));
+        mapData.put(TAG, tag);
+
+        if (nodeCount > 0) {
+            CompoundTag bounds = new CompoundTag();
+            bounds.putFloat("minX", minX);
+            bounds.putFloat("maxX", maxX);
+            bounds.putFloat("minZ", minZ);
+            bounds.putFloat("maxZ", maxZ);
+            mapData.put("Bounds", bounds);
+        }
+    }
+
+    /**
+     * Decode the topology from map data. Malformed or missing data yields
+     * {@link #EMPTY}; array lengths are clamped to the declared counts, and a
+     * curve offset table that is negative, decreasing or longer than the curve
+     * points is dropped so every edge draws straight.
+     */
+    public static NetworkTopology readFrom(@Nullable CompoundTag mapData) {
+        if (mapData == null || !mapData.contains(TAG, Tag.TAG_COMPOUND)) return EMPTY;
+        CompoundTag tag = mapData.getCompound(TAG);
+
+        int nodes = tag.getInt("nodes");
+        float[] nx = floats(tag.getIntArray("nx"));
+        float[] ny = floats(tag.getIntArray("ny"));
+        float[] nz = floats(tag.getIntArray("nz"));
+        nodes = Math.min(nodes, Math.min(nx.length, Math.min(ny.length, nz.length)));
+
+        int edges = tag.getInt("edges");
+        int[] ea = tag.getIntArray("ea");
+        int[] eb = tag.getIntArray("eb");
+        float[] el = floats(tag.getIntArray("el"));
+        int[] eg = tag.getIntArray("eg");
+        int[] co = tag.getIntArray("co");
+        float[] cp = floats(tag.getIntArray("cp"));
+        edges = Math.min(edges, Math.min(ea.length, Math.min(eb.length, Math.min(el.length, eg.length))));
+        edges = Math.min(edges, co.length - 1);
+        if (edges <= 0) {
+            edges = 0;
+            co = new int[]{0};
+        } else if (!validCurveOffsets(co, edges, cp.length)) {
+            co = new int[edges + 1]; // curve table inconsistent — draw edges straight
+        }
+
+        ListTag groupList = tag.getList("groups", Tag.TAG_STRING);
+        String[] groups = new String[groupList.size()];
+        for (int i = 0; i < groups.length; i++) groups[i] = groupList.getString(i);
+
+        // Edges pointing outside the node or group tables force a filtered rebuild
+        boolean valid = true;
+        for (int e = 0; e < edges && valid; e++) {
+            valid = ea[e] >= 0 && eb[e] >= 0 && ea[e] < nodes && eb[e] < nodes && eg[e] < groups.length;
+        }
+        BitSet flags = BitSet.valueOf(tag.getLongArray("ef"));
+        if (!valid) {
+            return rebuildValid(nodes, nx, ny, nz, edges, ea, eb, el, flags, eg, groups, co, cp);
+        }
+        return new NetworkTopology(nodes, nx, ny, nz, edges, ea, eb, el, flags, eg, groups, co, cp);
+    }
+
+    /** Offsets start at 0, never decrease and end within the curve point array. */
+    private static boolean validCurveOffsets(int[] co, int edges, int pointCount) {
+        if (co[0] != 0 || co[edges] > pointCount) return false;
+        for (int e = 0; e < edges; e++) {
+            if (co[e + 1] < co[e]) return false;
+        }
+        return true;
+    }
+
+    // ==================== Content Hash / References ====================
+
+    /**
+     * 64-bit hash of the track layout: nodes, edges, signal groups and curves.
+     * Edge flags are not included — occupancy changes constantly and the flags
+     * always travel with the map data ({@link #FLAGS_TAG}), so a layout cached
+     * under this hash stays valid until track is actually built or removed.
+     */
+    public long contentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            h = mix(0x4C4C_5450_4F4CL, nodeCount);
+            for (int i = 0; i < nodeCount; i++) {
+                h = mix(h, Float.floatToRawIntBits(nodeX[i]));
+                h = mix(h, Float.floatToRawIntBits(nodeY[i]));
+                h = mix(h, Float.floatToRawIntBits(nodeZ[i]));
+            }
+            h = mix(h, edgeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                h = mix(h, edgeA[e]);
+                h = mix(h, edgeB[e]);
+                h = mix(h, Float.floatToRawIntBits(edgeLen[e]));
+                h = mix(h, edgeGroup[e]);
+                h = mix(h, curveOffset[e + 1]);
+            }
+            for (String g : signalGroups) h = mix(h, g.hashCode());
+            for (int i = 0; i < curveOffset[edgeCount]; i++) h = mix(h, Float.floatToRawIntBits(curveXZ[i]));
+            h = finish(h);
+            if (h == 0) h = 1;
+            contentHash = h;
+        }
+        return h;
+    }
+
+    private static long mix(long h, int v) {
+        return (h ^ (v & 0xFFFFFFFFL)) * 0x9E37_79B9_7F4A_7C15L;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51_AFD7_ED55_8CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CE_B9FE_1A85_EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Map data with the encoded topology replaced by a reference: its
+     * {@link #contentHash} and current edge flags. Clients restore the layout from
+     * their topology cache or ask for it. Shallow — shares all other tags with
+     * {@code mapData}.
+     */
+    public static CompoundTag withTopologyReference(CompoundTag mapData, NetworkTopology topology) {
+        if (!mapData.contains(TAG, Tag.TAG_COMPOUND) || topology.isEmpty()) return mapData;
+        CompoundTag out = new CompoundTag();
+        for (String key : mapData.getAllKeys()) {
+            if (!key.equals(TAG)) out.put(key, mapData.get(key));
+        }
+        out.putLong(HASH_TAG, topology.contentHash());
+        Tag flags = mapData.getCompound(TAG).get("ef");
+        if (flags != null) out.put(FLAGS_TAG, flags);
+        return out;
+    }
+
+    /** The cacheable part of an encoded topology: everything except the edge flags. */
+    public static CompoundTag layoutOf(CompoundTag topologyTag) {
+        CompoundTag layout = new CompoundTag();
+        for (String key : topologyTag.getAllKeys()) {
+            if (!key.equals("ef")) layout.put(key, topologyTag.get(key));
+        }
+        return layout;
+    }
+
+    /**
+     * Client-side store of layouts from {@link #layoutOf} by {@link #contentHash}.
+     * Common code only sees this interface; the client passes its disk-backed cache.
+     */
+    public interface LayoutCache {
+        /** Cached layout for the hash, or null. The returned tag must not be modified. */
+        @Nullable CompoundTag get(long hash);
+
+        /** Store a layout under its hash. */
+        void put(long hash, CompoundTag layout);
+    }
+
+    /** {@link #contentHash} of a layout from {@link #layoutOf}, e.g. to check a cached copy. */
+    public static long layoutHash(CompoundTag layout) {
+        CompoundTag mapData = new CompoundTag();
+        mapData.put(TAG, layout);
+        return readFrom(mapData).contentHash();
+    }
+
+    /**
+     * Put a cached layout back into map data that carries a topology reference,
+     * combined with the map data's current edge flags. Modifies {@code mapData}.
+     */
+    public static void restoreLayout(CompoundTag mapData, CompoundTag layout) {
+        CompoundTag topology = layout.copy();
+        Tag flags = mapData.get(FLAGS_TAG);
+        if (flags != null) topology.put("ef", flags);
+        mapData.remove(FLAGS_TAG);
+        mapData.put(TAG, topology);
+    }
+
+    /**
+     * Toggle the occupied flag of the given edges in map data, in place — in the
+     * encoded topology, or in {@link #FLAGS_TAG} while the layout is still a reference.
+     */
+    static void applyOccupancyChanges(CompoundTag mapData, int[] edges) {
+        CompoundTag target;
+        String key;
+        if (mapData.contains(TAG, Tag.TAG_COMPOUND)) {
+            target = mapData.getCompound(TAG);
+            key = "ef";
+        } else if (mapData.contains(FLAGS_TAG)) {
+            target = mapData;
+            key = FLAGS_TAG;
+        } else {
+            return;
+        }
+        BitSet flags = BitSet.valueOf(target.getLongArray(key));
+        for (int e : edges) flags.flip(e * FLAG_BITS + FLAG_OCCUPIED);
+        target.put(key, new LongArrayTag(flags.toLongArray()));
+    }
+
+    private static NetworkTopology rebuildValid(int nodes, float[] nx, float[] ny, float[] nz,
+                                                int edges, int[] ea, int[] eb, float[] el, BitSet flags,
+                                                int[] eg, String[] groups, int[] co, float[] cp) {
+        Builder b = new Builder();
+        for (int i = 0; i < nodes; i++) b.addNode(nx[i], ny[i], nz[i]);
+        for (int e = 0; e < edges; e++) {
+            if (ea[e] < 0 || eb[e] < 0 || ea[e] >= nodes || eb[e] >= nodes) continue;
+            float[] pts = co[e + 1] > co[e] ? Arrays.copyOfRange(cp, co[e], co[e + 1]) : null;
+            b.addEdge(ea[e], eb[e], el[e],
+                    flags.get(e * FLAG_BITS + FLAG_CURVED),
+                    flags.get(e * FLAG_BITS + FLAG_INTER_DIM),
+                    flags.get(e * FLAG_BITS + FLAG_OCCUPIED),
+                    eg[e] >= 0 && eg[e] < groups.length ? groups[eg[e]] : null, pts);
+        }
+        return b.build();
+    }
+
+    private static IntArrayTag floatBits(float[] values, int count) {
+        int[] bits = new int[count];
+        for (int i = 0; i < count; i++) bits[i] = Float.floatToRawIntBits(values[i]);
+        return new IntArrayTag(bits);
+    }
+
+    private static float[] floats(int[] bits) {
+        float[] out = new float[bits.length];
+        for (int i = 0; i < bits.length; i++) out[i] = Float.intBitsToFloat(bits[i]);
+        return out;
+    }
+
+    // ==================== Builder ====================
+
+    /** Growable column buffers filled by the network scan. Not thread-safe. */
+    public static class Builder {
+        private int nodeCount;
+        private float[] nodeX = new float[64];
+        private float[] nodeY = new float[64];
+        private float[] nodeZ = new float[64];
+
+        private int edgeCount;
+        private int[] edgeA = new int[64];
+        private int[] edgeB = new int[64];
+        private float[] edgeLen = new float[64];
+        private int[] edgeGroup = new int[64];
+        private final BitSet edgeFlags = new BitSet();
+        private final Map<String, Integer> groupIndex = new HashMap<>();
+
+        private int[] curveOffset = new int[65];
+        private float[] curveXZ = new float[64];
+
+        public int nodeCount() {
+            return nodeCount;
+        }
+
+        public int edgeCount() {
+            return edgeCount;
+        }
+
+        /** @return The new node's ID. */
+        public int addNode(float x, float y, float z) {
+            if (nodeCount == nodeX.length) {
+                int cap = nodeCount * 2;
+                nodeX = Arrays.copyOf(nodeX, cap);
+                nodeY = Arrays.copyOf(nodeY, cap);
+                nodeZ = Arrays.copyOf(nodeZ, cap);
+            }
+            nodeX[nodeCount] = x;
+            nodeY[nodeCount] = y;
+            nodeZ[nodeCount] = z;
+            return nodeCount++;
+        }
+
+        /**
+         * @param curvePoints Packed x,z bezier samples, or null for a straight edge.
+         * @return The new edge's ID.
+         */
+        public int addEdge(int a, int b, float length, boolean curved, boolean interDim,
+                           boolean occupied, @Nullable String signalGroup,
+                           @Nullable float[] curvePoints) {
+            if (edgeCount == edgeA.length) {
+                int cap = edgeCount * 2;
+                edgeA = Arrays.copyOf(edgeA, cap);
+                edgeB = Arrays.copyOf(edgeB, cap);
+                edgeLen = Arrays.copyOf(edgeLen, cap);
+                edgeGroup = Arrays.copyOf(edgeGroup, cap);
+                curveOffset = Arrays.copyOf(curveOffset, cap + 1);
+            }
+            int e = edgeCount;
+            edgeA[e] = a;
+            edgeB[e] = b;
+            edgeLen[e] = length;
+            edgeGroup[e] = signalGroup == null ? -1
+                    : groupIndex.computeIfAbsent(signalGroup, k -> groupIndex.size());
+            int bit = e * FLAG_BITS;
+            if (curved) edgeFlags.set(bit + FLAG_CURVED);
+            if (occupied) edgeFlags.set(bit + FLAG_OCCUPIED);
+            if (interDim) edgeFlags.set(bit + FLAG_INTER_DIM);
+
+            int start = curveOffset[e];
+            int n = curvePoints != null ? curvePoints.length & ~1 : 0;
+            if (start + n > curveXZ.length) {
+                curveXZ = Arrays.copyOf(curveXZ, Math.max(curveXZ.length * 2, start + n));
+            }
+            if (n > 0) System.arraycopy(curvePoints, 0, curveXZ, start, n);
+            curveOffset[e + 1] = start + n;
+            return edgeCount++;
+        }
+
+        public NetworkTopology build() {
+            String[] groups = new String[groupIndex.size()];
+            for (Map.Entry<String, Integer> entry : groupIndex.entrySet()) {
+                groups[entry.getValue()] = entry.getKey();
+            }
+            return new NetworkTopology(nodeCount,
+                    Arrays.copyOf(nodeX, nodeCount), Arrays.copyOf(nodeY, nodeCount),
+                    Arrays.copyOf(nodeZ, nodeCount),
+                    edgeCount, Arrays.copyOf(edgeA, edgeCount), Arrays.copyOf(edgeB, edgeCount),
+                    Arrays.copyOf(edgeLen, edgeCount), (BitSet) edgeFlags.clone(),
+                    Arrays.copyOf(edgeGroup, edgeCount), groups,
+                    Arrays.copyOf(curveOffset, edgeCount + 1),
+                    Arrays.copyOf(curveXZ, curveOffset[edgeCount]));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.apocscode.logiclink.peripheral;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Station name lookups for schedule validation in {@link TrainNetworkDataReader}.
+ * <ul>
+ *   <li>Exact names: hash set.</li>
+ *   <li>Create's {@code *} wildcards: trigram index over the names. Only names
+ *       containing every trigram of the pattern's literal parts are tested
+ *       against the pattern.</li>
+ *   <li>"Did you mean" suggestions: BK-tree over lower-cased names with a
+ *       bounded Levenshtein distance, so most of the tree is pruned by the
+ *       triangle inequality.</li>
+ * </ul>
+ * Indexes are cached by station set via {@link #forStations} and only rebuilt
+ * when the set of station names changes.
+ */
+public final class StationNameIndex {
+
+    private static final int CACHE_SIZE = 8;
+
+    /** Recently built indexes by station set (one per dimension in practice). */
+    private static final Map<Set<String>, StationNameIndex> CACHE =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Set<String>, StationNameIndex> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    private final Set<String> names;
+    private final String[] byIndex;
+    private final String[] lowerByIndex;
+    private final Map<String, IntList> trigrams = new Object2ObjectOpenHashMap<>();
+    @Nullable
+    private final BkNode root;
+
+    private StationNameIndex(Set<String> stationNames) {
+        names = Set.copyOf(stationNames);
+        byIndex = names.toArray(new String[0]);
+        lowerByIndex = new String[byIndex.length];
+
+        BkNode tree = null;
+        for (int i = 0; i < byIndex.length; i++) {
+            String name = byIndex[i];
+            lowerByIndex[i] = name.toLowerCase();
+            for (int t = 0; t + 3 <= name.length(); t++) {
+                IntList postings = trigrams.computeIfAbsent(name.substring(t, t + 3), k -> new IntArrayList());
+                // Names are indexed in order, so a repeat trigram is always the last posting
+                if (postings.isEmpty() || postings.getInt(postings.size() - 1) != i) postings.add(i);
+            }
+            if (tree == null) tree = new BkNode(i);
+            else tree.insert(i, lowerByIndex);
+        }
+        root = tree;
+    }
+
+    /** Index for the given station names, reusing a cached one if the set is unchanged. */
+    public static StationNameIndex forStations(Set<String> stationNames) {
+        synchronized (CACHE) {
+            StationNameIndex index = CACHE.get(stationNames);
+            if (index == null) {
+                index = new StationNameIndex(stationNames);
+                CACHE.put(index.names, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Check if a schedule destination pattern matches any known station name.
+     * Supports Create's wildcard matching (e.g., "Station *" matches "Station 1").
+     */
+    public boolean matchesAny(String pattern) {
+        if (names.contains(pattern)) return true;
+        if (!pattern.contains("*")) return false;
+
+        // Create uses * as glob wildcard
+        String[] parts = pattern.split("\\*", -1);
+        StringBuilder regex = new StringBuilder("^");
+        for (int p = 0; p < parts.length; p++) {
+            if (p > 0) regex.append(".*");
+            if (!parts[p].isEmpty()) regex.append(Pattern.quote(parts[p]));
+        }
+        Pattern compiled = Pattern.compile(regex.append('$').toString());
+
+        IntList candidates = candidates(parts);
+        if (candidates == null) {
+            for (String name : byIndex) {
+                if (compiled.matcher(name).matches()) return true;
+            }
+            return false;
+        }
+        for (int c = 0; c < candidates.size(); c++) {
+            if (compiled.matcher(byIndex[candidates.getInt(c)]).matches()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Names containing every trigram of the literal parts, or null if the parts
+     * are too short to have trigrams (caller scans all names).
+     */
+    @Nullable
+    private IntList candidates(String[] parts) {
+        IntList result = null;
+        for (String part : parts) {
+            for (int t = 0; t + 3 <= part.length(); t++) {
+                IntList postings = trigrams.get(part.substring(t, t + 3));
+                if (postings == null) return IntList.of();
+                result = result == null ? postings : intersect(result, postings);
+                if (result.isEmpty()) return result;
+            }
+        }
+        return result;
+    }
+
+    private static IntList intersect(IntList a, IntList b) {
+        IntList out = new IntArrayList(Math.min(a.size(), b.size()));
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            int x = a.getInt(i), y = b.getInt(j);
+            if (x == y) { out.add(x); i++; j++; }
+            else if (x < y) i++;
+            else j++;
+        }
+        return out;
+    }
+
+    /**
+     * Find the closest matching station name using Levenshtein distance.
+     * Returns null if no station is reasonably close (within 40% of target length).
+     */
+    @Nullable
+    public String findClosest(String target) {
+        if (root == null) return null;
+
+        int limit = (int) Math.max(3, target.length() * 0.4);
+        Search search = new Search(target.toLowerCase(), limit);
+        root.search(search, lowerByIndex);
+        return search.best >= 0 ? byIndex[search.best] : null;
+    }
+
+    // ==================== BK-tree ====================
+
+    private static final class Search {
+        final String target;
+        int radius;
+        int best = -1;
+        int[] prev;
+        int[] cur;
+
+        Search(String target, int radius) {
+            this.target = target;
+            this.radius = radius;
+        }
+    }
+
+    private static final class BkNode {
+        final int name;
+        int[] childDist = new int[0];
+        BkNode[] children = new BkNode[0];
+
+        BkNode(int name) {
+            this.name = name;
+        }
+
+        void insert(int newName, String[] lower) {
+            BkNode node = this;
+            while (true) {
+                int d = levenshteinDistance(lower[newName], lower[node.name], Integer.MAX_VALUE, null);
+                if (d == 0) return; // same name in different case; the first one wins
+                BkNode next = node.child(d);
+                if (next == null) {
+                    int n = node.children.length;
+                    node.childDist = Arrays.copyOf(node.childDist, n + 1);
+                    node.children = Arrays.copyOf(node.children, n + 1);
+                    node.childDist[n] = d;
+                    node.children[n] = new BkNode(newName);
+                    return;
+                }
+                node = next;
+            }
+        }
+
+        @Nullable
+        BkNode child(int dist) {
+            for (int c = 0; c < childDist.length; c++) {
+                if (childDist[c] == dist) return children[c];
+            }
+            return null;
+        }
+
+        void search(Search search, String[] lower) {
+            // Distances above radius + 1 are only needed to prune children, so cap the DP there
+            int d = levenshteinDistance(search.target, lower[name], search.radius + childSpan(), search);
+            if (d <= search.radius && (search.best < 0 || d < search.radius)) {
+                search.best = name;
+                search.radius = d;
+            }
+            for (int c = 0; c < children.length; c++) {
+                if (Math.abs(childDist[c] - d) <= search.radius) {
+                    children[c].search(search, lower);
+                }
+            }
+        }
+
+        private int childSpan() {
+            int max = 0;
+            for (int dist : childDist) max = Math.max(max, dist);
+            return max;
+        }
+    }
+
+    /**
+     * Levenshtein edit distance with two reusable rows. Stops early once every
+     * cell of a row exceeds {@code cap} and returns {@code cap + 1}.
+     */
+    private static int levenshteinDistance(String a, String b, int cap, @Nullable Search buffers) {
+        int n = b.length();
+        int[] prev = buffers != null && buffers.prev != null && buffers.prev.length > n ? buffers.prev : new int[n + 1];
+        int[] cur = buffers != null && buffers.cur != null && buffers.cur.length > n ? buffers.cur : new int[n + 1];
+        if (buffers != null) {
+            buffers.prev = prev;
+            buffers.cur = cur;
+        }
+
+        for (int j = 0; j <= n; j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(prev[j] + 1, Math.min(cur[j - 1] + 1, prev[j - 1] + cost));
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > cap) return cap + 1;
+            int[] t = prev; prev = cur; cur = t;
+        }
+        return prev[n];
+    }
+}
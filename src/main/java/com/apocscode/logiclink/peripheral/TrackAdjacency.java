@@ -0,0 +1,135 @@
+package com.apocscode.logiclink.peripheral;
+
+import java.util.BitSet;
+
+/**
+ * Compressed-sparse-row adjacency over a {@link NetworkTopology}, shared by the
+ * diagnostics passes in {@link TrainNetworkDataReader}.
+ * <p>
+ * The neighbours of node {@code n} are {@code neighbors[offsets[n]]} up to (not
+ * including) {@code neighbors[offsets[n + 1]]}; the connecting edge index sits in
+ * the same slot of {@code edgeIds}. Edge indices are the topology's own, so
+ * per-edge marks (signaled, suggested, ...) are plain {@link BitSet}s indexed by
+ * edge and visited sets are {@link BitSet}s indexed by node.
+ * </p>
+ * <p>
+ * Parallel edges, several edges joining the same two nodes, all appear under
+ * the last of them in topology order. A mark on one is then a mark on the
+ * node pair, as with the "min:max" pair keys the diagnostics used before, and
+ * {@link #edgeBetween} resolves the pair to that same last edge.
+ * </p>
+ */
+final class TrackAdjacency {
+
+    final int nodeCount;
+    final int[] offsets;
+    final int[] neighbors;
+    final int[] edgeIds;
+
+    TrackAdjacency(NetworkTopology topology) {
+        nodeCount = topology.nodeCount;
+        int edgeCount = topology.edgeCount;
+        offsets = new int[nodeCount + 1];
+        neighbors = new int[edgeCount * 2];
+        edgeIds = new int[edgeCount * 2];
+
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[topology.edgeA[e] + 1]++;
+            offsets[topology.edgeB[e] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+
+        // Fill in edge order so each node's neighbours keep the topology's edge order
+        int[] fill = new int[nodeCount];
+        System.arraycopy(offsets, 0, fill, 0, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int a = topology.edgeA[e];
+            int b = topology.edgeB[e];
+            int sa = fill[a]++;
+            neighbors[sa] = b;
+            edgeIds[sa] = e;
+            int sb = fill[b]++;
+            neighbors[sb] = a;
+            edgeIds[sb] = e;
+        }
+
+        // Parallel edges share the id of the last one (slots are in edge order)
+        for (int n = 0; n < nodeCount; n++) {
+            for (int s = offsets[n], end = offsets[n + 1]; s < end; s++) {
+                for (int t = s + 1; t < end; t++) {
+                    if (neighbors[t] == neighbors[s]) edgeIds[s] = Math.max(edgeIds[s], edgeIds[t]);
+                }
+            }
+        }
+    }
+
+    /** Number of edges at a node; 0 for ids outside the topology. */
+    int degree(int node) {
+        if (node < 0 || node >= nodeCount) return 0;
+        return offsets[node + 1] - offsets[node];
+    }
+
+    boolean isJunction(int node) {
+        return degree(node) >= 3;
+    }
+
+    int junctionCount() {
+        int count = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            if (isJunction(n)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Index of the edge joining two nodes, or -1 if they are not adjacent. For
+     * parallel edges this is the last of them in topology order.
+     */
+    int edgeBetween(int a, int b) {
+        if (degree(a) > degree(b)) {
+            int t = a; a = b; b = t;
+        }
+        if (a < 0 || a >= nodeCount) return -1;
+        for (int s = offsets[a], end = offsets[a + 1]; s < end; s++) {
+            if (neighbors[s] == b) return edgeIds[s];
+        }
+        return -1;
+    }
+
+    /**
+     * Slot of the first neighbour of {@code node} other than {@code prev}, i.e. the
+     * way onward when walking along a branch; -1 at a dead end.
+     */
+    int nextSlot(int node, int prev) {
+        if (node < 0 || node >= nodeCount) return -1;
+        for (int s = offsets[node], end = offsets[node + 1]; s < end; s++) {
+            if (neighbors[s] != prev) return s;
+        }
+        return -1;
+    }
+
+    /** All nodes reachable from {@code start} (breadth-first), as a node bitset. */
+    BitSet reachableFrom(int start) {
+        BitSet visited = new BitSet(nodeCount);
+        if (start < 0 || start >= nodeCount) return visited;
+
+        int[] queue = new int[nodeCount];
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        visited.set(start);
+
+        while (head < tail) {
+            int current = queue[head++];
+            for (int s = offsets[current], end = offsets[current + 1]; s < end; s++) {
+                int neighbor = neighbors[s];
+                if (!visited.get(neighbor)) {
+                    visited.set(neighbor);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,108 @@
+package com.apocscode.logiclink.peripheral;
+
+import com.apocscode.logiclink.LogicLink;
+
+import net.neoforged.fml.util.thread.EffectiveSide;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change stamps for Create's track graphs, fed by {@code TrackGraphMixin}.
+ * <p>
+ * Every node/edge add or remove, graph merge/split and edge point add/remove
+ * draws a new stamp from a global counter and records it against the affected
+ * graph and the dimensions that graph has nodes in. Snapshots remember their
+ * dimension's stamp, so {@link TrainNetworkSnapshotService} rebuilds as soon as
+ * the track in that dimension changes instead of waiting for the next poll, and
+ * {@link TrainNetworkDataReader} re-walks exactly the graphs that changed.
+ * The time-based refresh stays in place as a slow fallback in case a hook is
+ * missing on some Create version.
+ * </p>
+ * <p>
+ * Graph dimensions are learned from the reader's graph walks. A change to a
+ * graph that has not been walked yet counts for every dimension, and a
+ * dimension a graph spreads into picks up the graph's stamp once a walk sees
+ * it there. Changes on the logical client are ignored: in singleplayer the
+ * client's own copies of the track graphs run the same hooks.
+ * </p>
+ */
+public class TrackChangeTracker {
+
+    private static final AtomicLong STAMP = new AtomicLong();
+
+    /** Stamp of the last change per graph id. */
+    private static final Map<UUID, Long> GRAPH_STAMPS = new ConcurrentHashMap<>();
+
+    /** Stamp of the last change per dimension id. */
+    private static final Map<String, Long> DIMENSION_STAMPS = new ConcurrentHashMap<>();
+
+    /** Dimension ids each graph had nodes in at its last walk. */
+    private static final Map<UUID, Set<String>> GRAPH_DIMENSIONS = new ConcurrentHashMap<>();
+
+    /** Stamp of the last change to a graph with no known dimensions; applies to all dimensions. */
+    private static final AtomicLong UNMAPPED_STAMP = new AtomicLong();
+
+    private static volatile boolean hooked = false;
+
+    /** Record a change to the given graph. Called from the mixin; client-side calls are ignored. */
+    public static void markDirty(UUID graphId) {
+        if (EffectiveSide.get().isClient()) return;
+        long stamp = STAMP.incrementAndGet();
+        GRAPH_STAMPS.put(graphId, stamp);
+
+        Set<String> dimensions = GRAPH_DIMENSIONS.get(graphId);
+        if (dimensions == null) {
+            UNMAPPED_STAMP.accumulateAndGet(stamp, Math::max);
+        } else {
+            for (String dimension : dimensions) DIMENSION_STAMPS.merge(dimension, stamp, Math::max);
+        }
+        if (!hooked) {
+            hooked = true;
+            LogicLink.LOGGER.info("TrackChangeTracker: Receiving Create track graph change events");
+        }
+    }
+
+    /**
+     * Remember which dimensions a graph has nodes in. Called by the reader after
+     * walking the graph; a dimension new to the graph takes over its last stamp.
+     */
+    static void recordDimensions(UUID graphId, Set<String> dimensions) {
+        Set<String> previous = GRAPH_DIMENSIONS.put(graphId, Set.copyOf(dimensions));
+        long stamp = graphStamp(graphId);
+        if (stamp == 0) return;
+        for (String dimension : dimensions) {
+            if (previous == null || !previous.contains(dimension)) {
+                DIMENSION_STAMPS.merge(dimension, stamp, Math::max);
+            }
+        }
+    }
+
+    /** Change stamp of a dimension; increases on every recorded track change there. */
+    public static long stamp(String dimension) {
+        return Math.max(DIMENSION_STAMPS.getOrDefault(dimension, 0L), UNMAPPED_STAMP.get());
+    }
+
+    /** Stamp of the last change to a graph, or 0 if none was recorded. */
+    public static long graphStamp(UUID graphId) {
+        return GRAPH_STAMPS.getOrDefault(graphId, 0L);
+    }
+
+    /** True once at least one change event has arrived (hooks are live). */
+    public static boolean isHooked() {
+        return hooked;
+    }
+
+    /**
+     * Forget per-graph and per-dimension state. Called on server shutdown; the
+     * global counter keeps counting so stamps never repeat.
+     */
+    public static void clear() {
+        GRAPH_STAMPS.clear();
+        GRAPH_DIMENSIONS.clear();
+        DIMENSION_STAMPS.clear();
+    }
+}
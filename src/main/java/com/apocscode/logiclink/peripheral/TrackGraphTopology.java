@@ -0,0 +1,92 @@
+package com.apocscode.logiclink.peripheral;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cached static topology of one Create TrackGraph, restricted to one dimension.
+ * <p>
+ * Holds everything {@link TrainNetworkDataReader} used to re-walk on every map
+ * refresh: node positions, edges (by graph-local node index), edge length and
+ * flags, and sampled bezier points for curved edges. Node indices are local to
+ * the graph and are remapped to global map IDs when the snapshot is assembled.
+ * </p>
+ * <p>
+ * The live Create edge objects are kept so per-refresh state that can change
+ * without touching the layout (signal group, occupancy) is still read fresh.
+ * A topology is reused as long as the graph's {@link #matches fingerprint}
+ * (node count, connection count, checksum) is unchanged and
+ * {@link TrackChangeTracker} has not reported a change to the graph.
+ * </p>
+ */
+public class TrackGraphTopology {
+
+    // ==================== Fingerprint ====================
+    private final int nodeCount;
+    private final int connectionCount;
+    private final int checksum;
+    /** {@link TrackChangeTracker#graphStamp} of the graph when this topology was captured. */
+    private final long changeStamp;
+
+    // ==================== Nodes ====================
+    /** Packed dedup key per local node (same key as the global node index). */
+    final long[] nodeKeys;
+    final float[] nodeX;
+    final float[] nodeY;
+    final float[] nodeZ;
+
+    // ==================== Edges ====================
+    final int edgeCount;
+    final int[] edgeA;
+    final int[] edgeB;
+    final float[] edgeLen;
+    final boolean[] edgeCurved;
+    final boolean[] edgeInterDim;
+    /** Live Create TrackEdge per edge, for fresh signal group reads. */
+    final Object[] edgeRefs;
+    /** Packed x,z bezier samples per curved edge, or null for straight edges. */
+    final float[][] curvePoints;
+
+    TrackGraphTopology(int nodeCount, int connectionCount, int checksum, long changeStamp,
+                       long[] nodeKeys, float[] nodeX, float[] nodeY, float[] nodeZ,
+                       int edgeCount, int[] edgeA, int[] edgeB, float[] edgeLen,
+                       boolean[] edgeCurved, boolean[] edgeInterDim,
+                       Object[] edgeRefs, float[][] curvePoints) {
+        this.nodeCount = nodeCount;
+        this.connectionCount = connectionCount;
+        this.checksum = checksum;
+        this.changeStamp = changeStamp;
+        this.nodeKeys = nodeKeys;
+        this.nodeX = nodeX;
+        this.nodeY = nodeY;
+        this.nodeZ = nodeZ;
+        this.edgeCount = edgeCount;
+        this.edgeA = edgeA;
+        this.edgeB = edgeB;
+        this.edgeLen = edgeLen;
+        this.edgeCurved = edgeCurved;
+        this.edgeInterDim = edgeInterDim;
+        this.edgeRefs = edgeRefs;
+        this.curvePoints = curvePoints;
+    }
+
+    /**
+     * True if the graph still has the fingerprint this topology was captured with
+     * and no change was reported for it since.
+     */
+    public boolean matches(int nodeCount, int connectionCount, int checksum, long changeStamp) {
+        return this.changeStamp == changeStamp
+                && this.nodeCount == nodeCount
+                && this.connectionCount == connectionCount
+                && this.checksum == checksum;
+    }
+
+    /** Number of dimension-local nodes captured. */
+    public int localNodeCount() {
+        return nodeKeys.length;
+    }
+
+    @Nullable
+    float[] curve(int edge) {
+        return curvePoints[edge];
+    }
+}
@@ -0,0 +1,147 @@
+package com.apocscode.logiclink.peripheral;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-game microbenchmark comparing the old {@code java.lang.reflect} read path
+ * against {@link CreateTrainAccess} on the live track network.
+ * <p>
+ * Measures the cost of the per-edge reads done by a map scan (length, turn,
+ * inter-dimensional flag, edge data) and the per-train reads done by the train
+ * list (id, name, speed, derailed, navigation). Each side is warmed up before
+ * timing so the JIT has compiled both paths. Run via {@code /logiclink bench accessors}.
+ * </p>
+ */
+public class TrainAccessBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int TIMED_ROUNDS = 50;
+
+    /** Keeps results observable so the JIT cannot drop the measured reads. */
+    private static volatile double sink;
+
+    /**
+     * Run the benchmark against the current railway manager.
+     *
+     * @return Human-readable result lines.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> run() {
+        List<String> out = new ArrayList<>();
+        if (!CreateTrainAccess.isAvailable()) {
+            out.add("Create train accessors are not available");
+            return out;
+        }
+        Object manager = CreateTrainAccess.railways();
+        if (manager == null) {
+            out.add("Create railway manager not loaded");
+            return out;
+        }
+
+        List<Object> edges = new ArrayList<>();
+        Map<?, Object> graphs = (Map<?, Object>) CreateTrainAccess.trackNetworks(manager);
+        if (graphs != null) {
+            for (Object graph : graphs.values()) {
+                Map<?, ?> connections = (Map<?, ?>) CreateTrainAccess.graphConnections(graph);
+                if (connections == null) continue;
+                for (Object toMap : connections.values()) {
+                    if (toMap instanceof Map<?, ?> m) edges.addAll(m.values());
+                }
+            }
+        }
+        Map<?, Object> trainMap = (Map<?, Object>) CreateTrainAccess.trains(manager);
+        List<Object> trains = trainMap != null ? new ArrayList<>(trainMap.values()) : new ArrayList<>();
+
+        out.add("Edges: " + edges.size() + ", trains: " + trains.size()
+                + " (" + TIMED_ROUNDS + " timed rounds)");
+
+        try {
+            if (!edges.isEmpty()) {
+                Class<?> edgeClass = edges.get(0).getClass();
+                Method getLength = edgeClass.getMethod("getLength");
+                Method isTurn = edgeClass.getMethod("isTurn");
+                Field interDim = edgeClass.getDeclaredField("interDimensional");
+                interDim.setAccessible(true);
+                Field edgeData = edgeClass.getDeclaredField("edgeData");
+                edgeData.setAccessible(true);
+
+                double reflect = time(() -> {
+                    double acc = 0;
+                    for (Object e : edges) {
+                        acc += (double) getLength.invoke(e);
+                        if ((boolean) isTurn.invoke(e)) acc++;
+                        if (interDim.getBoolean(e)) acc++;
+                        if (edgeData.get(e) != null) acc++;
+                    }
+                    return acc;
+                }) / edges.size();
+                double handles = time(() -> {
+                    double acc = 0;
+                    for (Object e : edges) {
+                        acc += CreateTrainAccess.edgeLength(e);
+                        if (CreateTrainAccess.edgeIsTurn(e)) acc++;
+                        if (CreateTrainAccess.edgeInterDimensional(e)) acc++;
+                        if (CreateTrainAccess.edgeData(e) != null) acc++;
+                    }
+                    return acc;
+                }) / edges.size();
+                out.add(String.format("Per edge:  reflection %.1f ns, handles %.1f ns (%.1fx)",
+                        reflect, handles, reflect / Math.max(handles, 0.001)));
+            }
+
+            if (!trains.isEmpty()) {
+                Class<?> trainClass = trains.get(0).getClass();
+                Field id = trainClass.getField("id");
+                Field name = trainClass.getField("name");
+                Field speed = trainClass.getField("speed");
+                Field derailed = trainClass.getField("derailed");
+                Field navigation = trainClass.getField("navigation");
+
+                double reflect = time(() -> {
+                    double acc = 0;
+                    for (Object t : trains) {
+                        if (id.get(t) != null) acc++;
+                        if (name.get(t) != null) acc++;
+                        acc += speed.getDouble(t);
+                        if (derailed.getBoolean(t)) acc++;
+                        if (navigation.get(t) != null) acc++;
+                    }
+                    return acc;
+                }) / trains.size();
+                double handles = time(() -> {
+                    double acc = 0;
+                    for (Object t : trains) {
+                        if (CreateTrainAccess.trainId(t) != null) acc++;
+                        if (CreateTrainAccess.trainName(t) != null) acc++;
+                        acc += CreateTrainAccess.trainSpeed(t);
+                        if (CreateTrainAccess.trainDerailed(t)) acc++;
+                        if (CreateTrainAccess.trainNavigation(t) != null) acc++;
+                    }
+                    return acc;
+                }) / trains.size();
+                out.add(String.format("Per train: reflection %.1f ns, handles %.1f ns (%.1fx)",
+                        reflect, handles, reflect / Math.max(handles, 0.001)));
+            }
+        } catch (Exception e) {
+            out.add("Benchmark failed: " + e.getMessage());
+        }
+        return out;
+    }
+
+    @FunctionalInterface
+    private interface Pass {
+        double run() throws Exception;
+    }
+
+    /** Average nanoseconds for one timed pass after warmup. */
+    private static double time(Pass pass) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) sink += pass.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) sink += pass.run();
+        return (double) (System.nanoTime() - start) / TIMED_ROUNDS;
+    }
+}
@@ -0,0 +1,522 @@
+package com.apocscode.logiclink.peripheral;
+
+import com.apocscode.logiclink.LogicLink;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Lua-ready listing of the train network for the Train Controller peripheral:
+ * trains, stations, signals, observers and an overview, read from Create's
+ * global railway state.
+ * <p>
+ * Captured by {@link TrainNetworkSnapshotService#getControllerView} on its own
+ * cadence, independent of the map snapshot: a controller asking for a listing
+ * older than its refresh interval triggers one capture, at most once per tick,
+ * and every controller shares the result. Like the snapshot it is immutable:
+ * every list and map, including the nested position tables, is unmodifiable.
+ * </p>
+ *
+ * @param gameTime  Game time the listing was read at.
+ * @param trains    One map per train, sorted by name.
+ * @param stations  One map per station, sorted by name.
+ * @param signals   One map per signal boundary.
+ * @param observers One map per track observer.
+ * @param overview  Counts, as returned by the {@code getNetworkOverview} Lua function.
+ */
+public record TrainControllerView(long gameTime,
+                                  List<Map<String, Object>> trains,
+                                  List<Map<String, Object>> stations,
+                                  List<Map<String, Object>> signals,
+                                  List<Map<String, Object>> observers,
+                                  Map<String, Object> overview) {
+
+    static TrainControllerView empty(long gameTime) {
+        return new TrainControllerView(gameTime, List.of(), List.of(), List.of(), List.of(), Map.of());
+    }
+
+    /** Ticks since capture; negative if captured in another (earlier-clocked) world. */
+    public long ageTicks(long now) {
+        return now - gameTime;
+    }
+
+    /**
+     * First train whose name contains {@code name}, ignoring case.
+     *
+     * @return The train's data map, or null if none matches.
+     */
+    @Nullable
+    public Map<String, Object> findTrain(String name) {
+        String searchLower = name.toLowerCase();
+        for (Map<String, Object> train : trains) {
+            if (String.valueOf(train.getOrDefault("name", "")).toLowerCase().contains(searchLower)) {
+                return train;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read the listing from Create's live railway state. Server thread only.
+     *
+     * @param gameTime Current game time, stamped on the listing.
+     */
+    static TrainControllerView capture(long gameTime) {
+        Object manager;
+        try {
+            manager = CreateTrainAccess.railways();
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("TrainControllerView: Failed to get GlobalRailwayManager: {}", e.getMessage());
+            return empty(gameTime);
+        }
+        if (manager == null) return empty(gameTime);
+
+        List<Map<String, Object>> trains = new ArrayList<>();
+        List<Map<String, Object>> stations = new ArrayList<>();
+        List<Map<String, Object>> signals = new ArrayList<>();
+        List<Map<String, Object>> observers = new ArrayList<>();
+        Map<String, Object> overview = new HashMap<>();
+
+        try {
+            @SuppressWarnings("unchecked")
+            Map<UUID, Object> liveTrains = (Map<UUID, Object>) CreateTrainAccess.trains(manager);
+            if (liveTrains != null) {
+                for (Object train : liveTrains.values()) {
+                    trains.add(readTrainData(train));
+                }
+                // Sort by name for stable ordering
+                trains.sort(BY_NAME);
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.warn("TrainControllerView: Failed to get trains: {}", e.getMessage());
+        }
+
+        try {
+            for (Object station : getAllEdgePoints(manager, CreateTrainAccess.POINT_STATION)) {
+                stations.add(readStationData(station));
+            }
+            stations.sort(BY_NAME);
+        } catch (Exception e) {
+            LogicLink.LOGGER.warn("TrainControllerView: Failed to get stations: {}", e.getMessage());
+        }
+
+        try {
+            for (Object signal : getAllEdgePoints(manager, CreateTrainAccess.POINT_SIGNAL)) {
+                signals.add(readSignalData(signal));
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.warn("TrainControllerView: Failed to get signals: {}", e.getMessage());
+        }
+
+        try {
+            for (Object observer : getAllEdgePoints(manager, CreateTrainAccess.POINT_OBSERVER)) {
+                observers.add(readObserverData(observer));
+            }
+        } catch (Exception e) {
+            LogicLink.LOGGER.warn("TrainControllerView: Failed to get observers: {}", e.getMessage());
+        }
+
+        try {
+            @SuppressWarnings("unchecked")
+            Map<UUID, Object> graphs = (Map<UUID, Object>) CreateTrainAccess.trackNetworks(manager);
+            @SuppressWarnings("unchecked")
+            Map<UUID, Object> signalGroups = (Map<UUID, Object>) CreateTrainAccess.signalEdgeGroups(manager);
+            overview.put("graphCount", graphs != null ? graphs.size() : 0);
+            overview.put("signalGroupCount", signalGroups != null ? signalGroups.size() : 0);
+        } catch (Exception e) {
+            LogicLink.LOGGER.warn("TrainControllerView: Failed to get network overview: {}", e.getMessage());
+        }
+        overview.put("trainCount", trains.size());
+        overview.put("stationCount", stations.size());
+        overview.put("signalCount", signals.size());
+        overview.put("observerCount", observers.size());
+
+        // Train status summary
+        int moving = 0, stopped = 0, derailed = 0;
+        for (Map<String, Object> train : trains) {
+            if (!(train.get("speed") instanceof Number speed)) continue;
+            if (Boolean.TRUE.equals(train.get("derailed"))) derailed++;
+            else if (Math.abs(speed.doubleValue()) > 0.01) moving++;
+            else stopped++;
+        }
+        overview.put("trainsMoving", moving);
+        overview.put("trainsStopped", stopped);
+        overview.put("trainsDerailed", derailed);
+
+        return new TrainControllerView(gameTime, freezeList(trains), freezeList(stations),
+                freezeList(signals), freezeList(observers), freezeMap(overview));
+    }
+
+    private static final Comparator<Map<String, Object>> BY_NAME = (a, b) -> {
+        String na = String.valueOf(a.getOrDefault("name", ""));
+        String nb = String.valueOf(b.getOrDefault("name", ""));
+        return na.compareToIgnoreCase(nb);
+    };
+
+    // ================================================================
+    // Data Reading
+    // ================================================================
+
+    private static Map<String, Object> readTrainData(Object train) {
+        Map<String, Object> data = new HashMap<>();
+
+        try {
+            // Basic info
+            data.put("name", getTrainName(train));
+            data.put("id", CreateTrainAccess.trainId(train).toString());
+            data.put("speed", CreateTrainAccess.trainSpeed(train));
+            data.put("targetSpeed", CreateTrainAccess.trainTargetSpeed(train));
+            data.put("throttle", CreateTrainAccess.trainThrottle(train));
+            data.put("derailed", CreateTrainAccess.trainDerailed(train));
+            data.put("fuelTicks", CreateTrainAccess.trainFuelTicks(train));
+
+            if (CreateTrainAccess.hasMaxSpeed()) {
+                data.put("maxSpeed", CreateTrainAccess.trainMaxSpeed(train));
+            }
+
+            // Carriages
+            List<?> carriages = (List<?>) CreateTrainAccess.trainCarriages(train);
+            data.put("carriageCount", carriages != null ? carriages.size() : 0);
+
+            // Current station
+            Object currentStation = CreateTrainAccess.trainStation(train);
+            if (currentStation != null) {
+                String stationName = CreateTrainAccess.stationName(currentStation);
+                data.put("currentStation", stationName);
+            }
+
+            // Owner
+            UUID owner = (UUID) CreateTrainAccess.trainOwner(train);
+            if (owner != null) data.put("owner", owner.toString());
+
+            // Dimensions and position
+            @SuppressWarnings("unchecked")
+            List<ResourceKey<Level>> dims = (List<ResourceKey<Level>>) CreateTrainAccess.trainPresentDimensions(train);
+            if (dims != null && !dims.isEmpty()) {
+                List<String> dimNames = new ArrayList<>();
+                for (ResourceKey<Level> dim : dims) {
+                    dimNames.add(dim.location().toString());
+
+                    // Try to get position in this dimension
+                    if (CreateTrainAccess.canLocateTrains()) {
+                        try {
+                            @SuppressWarnings("unchecked")
+                            Optional<BlockPos> posOpt = (Optional<BlockPos>) CreateTrainAccess.trainPositionInDimension(train, dim);
+                            if (posOpt != null && posOpt.isPresent()) {
+                                BlockPos pos = posOpt.get();
+                                Map<String, Object> position = new HashMap<>();
+                                position.put("x", pos.getX());
+                                position.put("y", pos.getY());
+                                position.put("z", pos.getZ());
+                                position.put("dimension", dim.location().toString());
+                                data.put("position", position);
+                            }
+                        } catch (Exception ignored) {}
+                    }
+                }
+                data.put("dimensions", dimNames);
+            }
+
+            // Navigation info
+            readNavigationData(train, data);
+
+            // Schedule info
+            readScheduleData(train, data);
+
+        } catch (Exception e) {
+            data.put("error", e.getMessage());
+        }
+
+        return data;
+    }
+
+    private static void readNavigationData(Object train, Map<String, Object> data) {
+        try {
+            Object nav = CreateTrainAccess.trainNavigation(train);
+            if (nav == null) return;
+
+            boolean active = CreateTrainAccess.navIsActive(nav);
+            data.put("navigating", active);
+
+            if (active) {
+                Object dest = CreateTrainAccess.navDestination(nav);
+                if (dest != null) {
+                    String destName = CreateTrainAccess.stationName(dest);
+                    data.put("destination", destName);
+                }
+                double dist = CreateTrainAccess.navDistance(nav);
+                data.put("distanceToDestination", Math.round(dist * 10.0) / 10.0);
+            }
+        } catch (Exception ignored) {}
+    }
+
+    private static void readScheduleData(Object train, Map<String, Object> data) {
+        try {
+            Object runtime = CreateTrainAccess.trainRuntime(train);
+            if (runtime == null) return;
+
+            Object schedule = CreateTrainAccess.runtimeSchedule(runtime);
+            boolean hasSchedule = schedule != null;
+            data.put("hasSchedule", hasSchedule);
+
+            if (hasSchedule) {
+                data.put("schedulePaused", CreateTrainAccess.runtimePaused(runtime));
+                data.put("scheduleCompleted", CreateTrainAccess.runtimeCompleted(runtime));
+                data.put("scheduleEntry", CreateTrainAccess.runtimeCurrentEntry(runtime));
+
+                String title = CreateTrainAccess.runtimeCurrentTitle(runtime);
+                if (title != null && !title.isEmpty()) {
+                    data.put("scheduleTitle", title);
+                }
+
+                Object state = CreateTrainAccess.runtimeState(runtime);
+                if (state != null) {
+                    data.put("scheduleState", state.toString().toLowerCase());
+                }
+
+                // Count schedule entries
+                List<?> entries = (List<?>) CreateTrainAccess.scheduleEntries(schedule);
+                if (entries != null) {
+                    data.put("scheduleEntryCount", entries.size());
+                }
+                data.put("scheduleCyclic", CreateTrainAccess.scheduleCyclic(schedule));
+            }
+        } catch (Exception ignored) {}
+    }
+
+    private static Map<String, Object> readStationData(Object station) {
+        Map<String, Object> data = new HashMap<>();
+
+        try {
+            data.put("name", CreateTrainAccess.stationName(station));
+            data.put("assembling", CreateTrainAccess.stationAssembling(station));
+
+            // Position and dimension
+            BlockPos pos = (BlockPos) CreateTrainAccess.blockEntityPos(station);
+            if (pos != null) {
+                Map<String, Integer> position = new HashMap<>();
+                position.put("x", pos.getX());
+                position.put("y", pos.getY());
+                position.put("z", pos.getZ());
+                data.put("position", position);
+            }
+
+            @SuppressWarnings("unchecked")
+            ResourceKey<Level> dim = (ResourceKey<Level>) CreateTrainAccess.blockEntityDimension(station);
+            if (dim != null) {
+                data.put("dimension", dim.location().toString());
+            }
+
+            // Present train
+            Object presentTrain = CreateTrainAccess.stationPresentTrain(station);
+            if (presentTrain != null) {
+                data.put("trainPresent", true);
+                data.put("presentTrainName", getTrainName(presentTrain));
+                data.put("presentTrainId", ((UUID) CreateTrainAccess.trainId(presentTrain)).toString());
+            } else {
+                data.put("trainPresent", false);
+            }
+
+            // Imminent train
+            Object imminentTrain = CreateTrainAccess.stationImminentTrain(station);
+            if (imminentTrain != null) {
+                data.put("trainImminent", true);
+                data.put("imminentTrainName", getTrainName(imminentTrain));
+                data.put("imminentTrainId", ((UUID) CreateTrainAccess.trainId(imminentTrain)).toString());
+            } else {
+                data.put("trainImminent", false);
+            }
+
+        } catch (Exception e) {
+            data.put("error", e.getMessage());
+        }
+
+        return data;
+    }
+
+    private static Map<String, Object> readSignalData(Object signal) {
+        Map<String, Object> data = new HashMap<>();
+
+        try {
+            // Signal ID
+            UUID id = (UUID) CreateTrainAccess.pointId(signal);
+            data.put("id", id.toString());
+
+            // Cached states (Couple<SignalState>)
+            Object statesCouple = CreateTrainAccess.signalCachedStates(signal);
+            if (statesCouple != null) {
+                Object first = CreateTrainAccess.first(statesCouple);
+                Object second = CreateTrainAccess.second(statesCouple);
+                data.put("stateForward", first != null ? first.toString().toLowerCase() : "unknown");
+                data.put("stateBackward", second != null ? second.toString().toLowerCase() : "unknown");
+            }
+
+            // Signal types (Couple<SignalType>)
+            Object typesCouple = CreateTrainAccess.signalTypes(signal);
+            if (typesCouple != null) {
+                Object first = CreateTrainAccess.first(typesCouple);
+                Object second = CreateTrainAccess.second(typesCouple);
+                data.put("typeForward", first != null ? first.toString().toLowerCase() : "unknown");
+                data.put("typeBackward", second != null ? second.toString().toLowerCase() : "unknown");
+            }
+
+            // Block entity positions (Couple<Map<BlockPos, Boolean>>)
+            Object beCouple = CreateTrainAccess.signalBlockEntities(signal);
+            if (beCouple != null) {
+                List<Map<String, Integer>> positions = new ArrayList<>();
+                for (int side = 0; side < 2; side++) {
+                    Object sideMap = side == 0
+                            ? CreateTrainAccess.first(beCouple)
+                            : CreateTrainAccess.second(beCouple);
+                    if (sideMap instanceof Map<?, ?> posMap) {
+                        for (Object key : posMap.keySet()) {
+                            if (key instanceof BlockPos bp) {
+                                Map<String, Integer> pos = new HashMap<>();
+                                pos.put("x", bp.getX());
+                                pos.put("y", bp.getY());
+                                pos.put("z", bp.getZ());
+                                positions.add(pos);
+                            }
+                        }
+                    }
+                }
+                if (!positions.isEmpty()) {
+                    data.put("positions", positions);
+                }
+            }
+
+        } catch (Exception e) {
+            data.put("error", e.getMessage());
+        }
+
+        return data;
+    }
+
+    private static Map<String, Object> readObserverData(Object observer) {
+        Map<String, Object> data = new HashMap<>();
+
+        try {
+            // ID
+            UUID id = (UUID) CreateTrainAccess.pointId(observer);
+            data.put("id", id.toString());
+
+            // Activated
+            data.put("activated", CreateTrainAccess.observerActivated(observer));
+
+            // Current train
+            UUID trainId = (UUID) CreateTrainAccess.observerCurrentTrain(observer);
+            if (trainId != null) {
+                data.put("currentTrainId", trainId.toString());
+            }
+
+            // Position & Dimension
+            BlockPos pos = (BlockPos) CreateTrainAccess.blockEntityPos(observer);
+            if (pos != null) {
+                Map<String, Integer> position = new HashMap<>();
+                position.put("x", pos.getX());
+                position.put("y", pos.getY());
+                position.put("z", pos.getZ());
+                data.put("position", position);
+            }
+
+            @SuppressWarnings("unchecked")
+            ResourceKey<Level> dim = (ResourceKey<Level>) CreateTrainAccess.blockEntityDimension(observer);
+            if (dim != null) {
+                data.put("dimension", dim.location().toString());
+            }
+
+            // Filter
+            Object filter = CreateTrainAccess.observerFilter(observer);
+            if (filter != null) {
+                data.put("filter", filter.toString());
+            }
+
+        } catch (Exception e) {
+            data.put("error", e.getMessage());
+        }
+
+        return data;
+    }
+
+    // ================================================================
+    // Create API Access
+    // ================================================================
+
+    private static String getTrainName(Object train) {
+        try {
+            Object nameComponent = CreateTrainAccess.trainName(train);
+            if (nameComponent != null) {
+                return ((Component) nameComponent).getString();
+            }
+        } catch (Exception ignored) {}
+        return "Unknown";
+    }
+
+    /**
+     * Every edge point of the given type across all graphs. A null type (a point
+     * kind this Create version lacks) yields nothing; missing Create internals
+     * throw, so the caller reports the failure instead of an empty network.
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> getAllEdgePoints(Object manager, @Nullable Object edgePointType) {
+        List<Object> allPoints = new ArrayList<>();
+        if (edgePointType == null) return allPoints;
+        if (!CreateTrainAccess.isAvailable()) {
+            throw new IllegalStateException("Create train internals unavailable");
+        }
+
+        Map<UUID, Object> graphs = (Map<UUID, Object>) CreateTrainAccess.trackNetworks(manager);
+        if (graphs == null) return allPoints;
+
+        for (Object graph : graphs.values()) {
+            try {
+                Collection<?> points = (Collection<?>) CreateTrainAccess.graphPoints(graph, edgePointType);
+                if (points != null) {
+                    allPoints.addAll(points);
+                }
+            } catch (Exception e) {
+                LogicLink.LOGGER.debug("TrainControllerView: Failed to get edge points of a graph: {}", e.getMessage());
+            }
+        }
+
+        return allPoints;
+    }
+
+    // ================================================================
+    // Immutability
+    // ================================================================
+
+    private static List<Map<String, Object>> freezeList(List<Map<String, Object>> list) {
+        List<Map<String, Object>> frozen = new ArrayList<>(list.size());
+        for (Map<String, Object> map : list) frozen.add(freezeMap(map));
+        return Collections.unmodifiableList(frozen);
+    }
+
+    private static Map<String, Object> freezeMap(Map<String, Object> map) {
+        Map<String, Object> frozen = new HashMap<>(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            frozen.put(entry.getKey(), freeze(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> frozen = new HashMap<>(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) frozen.put(entry.getKey(), freeze(entry.getValue()));
+            return Collections.unmodifiableMap(frozen);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> frozen = new ArrayList<>(list.size());
+            for (Object element : list) frozen.add(freeze(element));
+            return Collections.unmodifiableList(frozen);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,193 @@
+package com.apocscode.logiclink.peripheral;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Train deadlock detection over a wait-for graph.
+ * <p>
+ * Vertices are trains and signal groups. A train points at the group it is
+ * waiting on ({@code Navigation.waitingForSignal}); a group points at every train
+ * occupying it ({@code Train.occupiedSignalBlocks}). Trains that share a
+ * strongly connected component are waiting on each other in a cycle — of any
+ * length — and none of them can move without intervention.
+ * </p>
+ * <p>
+ * Components are found with Tarjan's algorithm, iteratively so long cycles
+ * cannot overflow the stack. Every train waits on at most one group, so the
+ * graph has O(trains + occupied groups) edges and a pass is linear in that —
+ * cheap enough to run on every train list refresh, not just on map scans.
+ * </p>
+ * <pre>
+ * TrainDeadlockDetector detector = new TrainDeadlockDetector();
+ * detector.addTrain(id, waitingGroup, occupiedGroups);
+ * for (List&lt;String&gt; cycle : detector.findDeadlocks()) { ... }
+ * </pre>
+ */
+public class TrainDeadlockDetector {
+
+    private final List<String> trainIds = new ArrayList<>();
+    private final IntList trainWaits = new IntArrayList();
+    private final Object2IntOpenHashMap<String> groupIndex = new Object2IntOpenHashMap<>();
+    /** Occupying train per entry, grouped by group index once {@link #findDeadlocks} runs. */
+    private final IntList occupyGroup = new IntArrayList();
+    private final IntList occupyTrain = new IntArrayList();
+
+    public TrainDeadlockDetector() {
+        groupIndex.defaultReturnValue(-1);
+    }
+
+    /**
+     * Add one train to the graph.
+     *
+     * @param trainId        unique id of the train (reported back in cycles)
+     * @param waitingGroup   signal group the train is held at, or null if not waiting
+     * @param occupiedGroups signal groups the train currently occupies
+     */
+    public void addTrain(String trainId, @Nullable String waitingGroup, Iterable<String> occupiedGroups) {
+        int train = trainIds.size();
+        trainIds.add(trainId);
+        trainWaits.add(waitingGroup != null && !waitingGroup.isEmpty() ? group(waitingGroup) : -1);
+        for (String g : occupiedGroups) {
+            occupyGroup.add(group(g));
+            occupyTrain.add(train);
+        }
+    }
+
+    private int group(String groupId) {
+        int index = groupIndex.getInt(groupId);
+        if (index < 0) {
+            index = groupIndex.size();
+            groupIndex.put(groupId, index);
+        }
+        return index;
+    }
+
+    public int trainCount() {
+        return trainIds.size();
+    }
+
+    /**
+     * Build a detector from the {@code Trains} list of scanned map data
+     * ({@code id}, {@code waitingForSignal} and {@code occupiedGroups} fields).
+     */
+    public static TrainDeadlockDetector fromTrainTags(ListTag trains) {
+        TrainDeadlockDetector detector = new TrainDeadlockDetector();
+        List<String> occupied = new ArrayList<>();
+        for (int i = 0; i < trains.size(); i++) {
+            CompoundTag train = trains.getCompound(i);
+            String trainId = train.contains("id") ? train.getString("id") : "";
+            if (trainId.isEmpty()) continue;
+
+            occupied.clear();
+            if (train.contains("occupiedGroups")) {
+                ListTag groups = train.getList("occupiedGroups", 10);
+                for (int g = 0; g < groups.size(); g++) {
+                    occupied.add(groups.getCompound(g).getString("g"));
+                }
+            }
+            detector.addTrain(trainId,
+                    train.contains("waitingForSignal") ? train.getString("waitingForSignal") : null,
+                    occupied);
+        }
+        return detector;
+    }
+
+    /**
+     * Every deadlock cycle in the graph, as the ids of the trains involved.
+     * A train waiting on a group it occupies itself is not reported.
+     */
+    public List<List<String>> findDeadlocks() {
+        int trains = trainIds.size();
+        int groups = groupIndex.size();
+        int vertices = trains + groups;
+        if (trains < 2) return List.of();
+
+        // CSR adjacency: vertex v < trains is a train, trains + g is group g
+        int[] offsets = new int[vertices + 1];
+        for (int t = 0; t < trains; t++) {
+            if (trainWaits.getInt(t) >= 0) offsets[t + 1]++;
+        }
+        for (int i = 0; i < occupyGroup.size(); i++) {
+            offsets[trains + occupyGroup.getInt(i) + 1]++;
+        }
+        for (int v = 0; v < vertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[vertices]];
+        int[] fill = Arrays.copyOf(offsets, vertices);
+        for (int t = 0; t < trains; t++) {
+            int g = trainWaits.getInt(t);
+            if (g >= 0) targets[fill[t]++] = trains + g;
+        }
+        for (int i = 0; i < occupyGroup.size(); i++) {
+            targets[fill[trains + occupyGroup.getInt(i)]++] = occupyTrain.getInt(i);
+        }
+
+        // Iterative Tarjan
+        int[] index = new int[vertices];
+        int[] low = new int[vertices];
+        int[] edgeCursor = new int[vertices];
+        boolean[] onStack = new boolean[vertices];
+        Arrays.fill(index, -1);
+        int[] stack = new int[vertices];
+        int stackSize = 0;
+        int[] callStack = new int[vertices];
+        int nextIndex = 0;
+        List<List<String>> cycles = new ArrayList<>();
+
+        for (int root = 0; root < trains; root++) {
+            if (index[root] >= 0 || trainWaits.getInt(root) < 0) continue;
+
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = low[root] = nextIndex++;
+            edgeCursor[root] = offsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                if (edgeCursor[v] < offsets[v + 1]) {
+                    int w = targets[edgeCursor[v]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = nextIndex++;
+                        edgeCursor[w] = offsets[w];
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // All edges of v done: pop it and close its component if v is the root
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] != index[v]) continue;
+
+                List<String> cycle = new ArrayList<>();
+                int w;
+                do {
+                    w = stack[--stackSize];
+                    onStack[w] = false;
+                    if (w < trains) cycle.add(trainIds.get(w));
+                } while (w != v);
+                if (cycle.size() >= 2) cycles.add(cycle);
+            }
+        }
+        return cycles;
+    }
+}
@@ -12,21 +12,26 @@ import net.minecraft.world.level.Level;
 import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Server-side reader that extracts full train network topology from Create's
- * GlobalRailwayManager via reflection. Produces compact NBT data for syncing
+ * GlobalRailwayManager via {@link CreateTrainAccess}. Produces compact NBT data for syncing
  * to the client for CTC-style map rendering.
  *
  * Data extracted:
@@ -43,6 +48,12 @@ public class TrainNetworkDataReader {
 
     private static final DateTimeFormatter REPORT_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
+    /**
+     * Oldest shared snapshot (ticks) a diagnostics scan will reuse. Kept short so a
+     * tablet re-scan right after placing signals still sees the repair.
+     */
+    public static final int DIAGNOSTICS_MAX_AGE = 20;
+
     // ==================== Limits ====================
     public static final int MAX_NODES = 16384;
     public static final int MAX_EDGES = 16384;
@@ -52,150 +63,59 @@ public class TrainNetworkDataReader {
     public static final int MAX_TRAINS = 256;
     public static final int MAX_OBSERVERS = 256;
 
-    // ==================== Rescan Change Detection ====================
-    // Snapshot of previous scan for detecting network changes between scans.
-    // When trains/stations/layout change, Check 10 alerts to re-evaluate signals.
-    private static int prevScanTrainCount = -1;
-    private static float prevScanMaxTrainLength = -1;
-    private static int prevScanStationCount = -1;
-    private static int prevScanJunctionCount = -1;
-
-    // ==================== Reflection State ====================
-    private static boolean reflectionInit = false;
-    private static boolean reflectionOK = false;
-
-    // Create.RAILWAYS → GlobalRailwayManager
-    private static Field railwaysField;
-
-    // GlobalRailwayManager
-    private static Field gmTrainsField;           // Map<UUID, Train>
-    private static Field gmTrackNetworksField;    // Map<UUID, TrackGraph>
-    private static Field gmSignalGroupsField;     // Map<UUID, SignalEdgeGroup>
-
-    // TrackGraph
-    private static Field graphNodesField;         // Map<TrackNodeLocation, TrackNode>
-    private static Field graphConnectionsField;   // Map<TrackNode, Map<TrackNode, TrackEdge>>
-    private static Method graphGetPointsMethod;   // getPoints(EdgePointType) → Collection
-
-    // TrackNode
-    private static Method nodeGetLocationMethod;  // getLocation() → TrackNodeLocation
-    private static Method nodeGetNetIdMethod;     // getNetId() → int
-
-    // TrackNodeLocation
-    private static Method nodeLocGetLocationMethod;  // getLocation() → Vec3 (world coords)
-    private static Method nodeLocGetDimensionMethod; // getDimension() → ResourceKey<Level>
-
-    // TrackEdge
-    private static Method edgeGetLengthMethod;    // getLength() → double
-    private static Method edgeIsTurnMethod;       // isTurn() → boolean
-    private static Field edgeTurnField;           // BezierConnection turn
-    private static Field edgeInterDimField;       // boolean interDimensional
-    private static Method edgeGetPositionMethod;  // getPosition(TrackGraph, double t) → Vec3
-    private static Field edgeEdgeDataField;       // EdgeData edgeData
-
-    // EdgeData
-    private static Field edgeDataSignalGroupField;  // UUID singleSignalGroup
-
-    // EdgePointType constants
-    private static Object epTypeStation;
-    private static Object epTypeSignal;
-    private static Object epTypeObserver;
-    private static Class<?> edgePointTypeClass;
-
-    // GlobalStation
-    private static Field stationNameField;
-    private static Method stationGetBlockEntityPosMethod;
-    private static Method stationGetPresentTrainMethod;
-    private static Method stationGetImminentTrainMethod;
-
-    // TrackEdgePoint (base class for station/signal/observer)
-    private static Field edgePointEdgeLocationField;  // Couple<TrackNodeLocation>
-    private static Field edgePointPositionField;      // double position
-
-    // SignalBoundary
-    private static Field signalCachedStatesField;  // Couple<SignalState>
-    private static Field signalTypesField;         // Couple<SignalType>
-    private static Field signalBlockEntitiesField; // Couple<Map<BlockPos, Boolean>>
-
-    // SignalEdgeGroup
-    private static Field segTrainsField;     // Set<Train> trains
-    private static Field segColorField;      // EdgeGroupColor color
-
-    // Train
-    private static Field trainNameField;
-    private static Field trainIdField;
-    private static Field trainSpeedField;
-    private static Field trainDerailedField;
-    private static Field trainCarriagesField;
-    private static Field trainNavigationField;
-    private static Field trainCurrentStationField;
-    private static Field trainOccupiedSignalBlocksField;
-    private static Field trainGraphField;
-    private static Method trainGetPositionInDimMethod;
-    private static Field trainRuntimeField;
-
-    // Carriage (for actual train length measurement)
-    private static Field carriageBogeySpacingField;  // int bogeySpacing
-    private static Method runtimeGetScheduleMethod;
-    private static Field runtimePausedField;
-    private static Field runtimeCompletedField;
-    private static Field runtimeCurrentEntryField;
-    private static Field runtimeCurrentTitleField;
-    private static Field runtimeStateField;
-    private static Field scheduleEntriesField;
-    private static Field scheduleCyclicField;
-
-    // Navigation
-    private static Field navDestinationField;
-    private static Field navDistanceField;
-    private static Field navCurrentPathField;  // List<Couple<TrackNode>>
-    private static Method navIsActiveMethod;
-    private static Field navWaitingForSignalField;  // Couple<UUID> — signal group train is waiting on
-    private static Field navTicksWaitingField;      // int — ticks spent waiting at signal
-
-    // ScheduleEntry — for iterating full schedule destinations
-    private static Field scheduleEntryInstructionField;  // ScheduleInstruction instruction
-    private static Field instructionDataField;           // CompoundTag data (contains "Text" = destination)
-
-    // SignalBoundary — per-side signal group linkage
-    private static Field signalBoundaryGroupsField;  // Couple<UUID> groups
-
-    // TrackObserver
-    private static Method observerIsActivatedMethod;
-    private static Method observerGetBlockEntityPosMethod;
-    private static Method observerGetFilterMethod;
-
-    // Couple
-    private static Method coupleGetFirstMethod;
-    private static Method coupleGetSecondMethod;
-
-    // Component
-    private static Method componentGetStringMethod;
-
     // ==================== Public API ====================
 
     /**
-     * Read the full network topology and return it as a CompoundTag
-     * suitable for syncing to the client. Only reads data for the given
-     * dimension (typically the dimension the monitor is in).
+     * Result of one network scan: the wire-ready map data and the columnar
+     * track layout it was built from (also encoded in the map data under
+     * {@link NetworkTopology#TAG}).
+     */
+    public record NetworkScan(CompoundTag mapData, NetworkTopology topology) {}
+
+    /**
+     * Network size seen by one analysis. Check 10 compares it with the previous
+     * analysis of the same dimension and alerts to re-evaluate signals when
+     * trains, stations or the layout changed.
+     */
+    public record NetworkCounts(int trainCount, float maxTrainLength, int stationCount, int junctionCount) {}
+
+    /**
+     * Result of {@link #analyzeNetwork}.
+     *
+     * @param diagnostics Tag holding the {@link #DIAGNOSTIC_KEYS}
+     * @param counts      Network size to pass to the next analysis, or null if there was no network
+     */
+    public record Analysis(CompoundTag diagnostics, @Nullable NetworkCounts counts) {}
+
+    /** Map data keys written by {@link #analyzeNetwork}. */
+    public static final String[] DIAGNOSTIC_KEYS = {"Diagnostics", "MaxTrainLength", "MaxCarriages", "MaxTrainName"};
+
+    /** Path segment keys holding the graph node IDs a navigating train passes through. */
+    private static final String[] ROUTE_NODE_KEYS = {"aId", "bId"};
+
+    /**
+     * Capture the network without diagnostics: topology, stations, signals,
+     * observers and trains. This is the part that must run on the server thread;
+     * the result is not modified afterwards and can be handed to
+     * {@link #analyzeNetwork} on another thread.
      *
      * @param level The server level (used for dimension filtering)
-     * @return CompoundTag with all map data, or empty tag on failure
+     * @return The scan; empty map data and {@link NetworkTopology#EMPTY} on failure
      */
-    public static CompoundTag readNetworkMap(@Nullable Level level) {
+    public static NetworkScan scanNetwork(@Nullable Level level) {
         CompoundTag mapData = new CompoundTag();
+        NetworkTopology topology = NetworkTopology.EMPTY;
 
-        if (!ensureReflection()) {
-            LogicLink.LOGGER.warn("TrainNetworkDataReader: Reflection not ready (init={}, ok={})",
-                    reflectionInit, reflectionOK);
-            return mapData;
+        if (!CreateTrainAccess.isAvailable()) {
+            LogicLink.LOGGER.warn("TrainNetworkDataReader: Create train accessors not available");
+            return new NetworkScan(mapData, topology);
         }
 
         try {
-            Object manager = railwaysField.get(null);
+            Object manager = CreateTrainAccess.railways();
             if (manager == null) {
                 LogicLink.LOGGER.warn("TrainNetworkDataReader: Create.RAILWAYS is null");
-                return mapData;
+                return new NetworkScan(mapData, topology);
             }
 
             // We need to know which dimension to filter to
@@ -206,95 +126,59 @@ public class TrainNetworkDataReader {
 
             // Read all graphs — build unified node index + edge list
             @SuppressWarnings("unchecked")
-            Map<UUID, Object> graphs = (Map<UUID, Object>) gmTrackNetworksField.get(manager);
+            Map<UUID, Object> graphs = (Map<UUID, Object>) CreateTrainAccess.trackNetworks(manager);
             if (graphs == null || graphs.isEmpty()) {
                 LogicLink.LOGGER.warn("TrainNetworkDataReader: No track graphs found (graphs={})",
                         graphs == null ? "null" : "empty");
-                return mapData;
+                return new NetworkScan(mapData, topology);
             }
             LogicLink.LOGGER.info("TrainNetworkDataReader: Found {} track graphs, dimFilter={}",
                     graphs.size(), dimFilter);
 
-            // Node map: world Vec3 → sequential int ID (for compact edge references)
-            Map<String, Integer> nodeIdMap = new LinkedHashMap<>();
-            ListTag nodeList = new ListTag();
-            ListTag edgeList = new ListTag();
-            ListTag curveList = new ListTag();
+            // Node map: packed node key → sequential int ID (for compact edge references)
+            Long2IntOpenHashMap nodeIdMap = newNodeIdMap();
+            NetworkTopology.Builder layout = new NetworkTopology.Builder();
 
             // Signal group occupancy: groupUUID → occupied?
             Map<String, Boolean> signalGroupOccupied = new HashMap<>();
             readSignalGroupOccupancy(manager, signalGroupOccupied);
 
-            for (Object graph : graphs.values()) {
-                readGraph(graph, dimFilter, nodeIdMap, nodeList, edgeList,
-                        curveList, signalGroupOccupied);
-            }
-
-            mapData.put("Nodes", nodeList);
-            mapData.put("Edges", edgeList);
-            mapData.put("Curves", curveList);
-
-            // Compute bounds from nodes
-            if (!nodeList.isEmpty()) {
-                float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE;
-                float minZ = Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
-                for (int i = 0; i < nodeList.size(); i++) {
-                    CompoundTag n = nodeList.getCompound(i);
-                    float nx = n.getFloat("x");
-                    float nz = n.getFloat("z");
-                    if (nx < minX) minX = nx;
-                    if (nx > maxX) maxX = nx;
-                    if (nz < minZ) minZ = nz;
-                    if (nz > maxZ) maxZ = nz;
+            int rescanned = 0;
+            for (Map.Entry<UUID, Object> graphEntry : graphs.entrySet()) {
+                if (readGraph(graphEntry.getKey(), graphEntry.getValue(), dimFilter, nodeIdMap,
+                        layout, signalGroupOccupied)) {
+                    rescanned++;
                 }
-                CompoundTag bounds = new CompoundTag();
-                bounds.putFloat("minX", minX);
-                bounds.putFloat("maxX", maxX);
-                bounds.putFloat("minZ", minZ);
-                bounds.putFloat("maxZ", maxZ);
-                mapData.put("Bounds", bounds);
             }
+            // Forget graphs that were removed or merged away
+            TOPOLOGY_CACHE.keySet().removeIf(key -> key.endsWith("|" + dimFilter)
+                    && !graphs.containsKey(UUID.fromString(key.substring(0, key.indexOf('|')))));
+            LogicLink.LOGGER.debug("TrainNetworkDataReader: {} of {} graphs re-walked, rest from topology cache",
+                    rescanned, graphs.size());
+
+            topology = layout.build();
+            topology.writeTo(mapData);
 
             // Read stations, signals, observers, trains
             readAllStations(graphs, dimFilter, nodeIdMap, mapData);
-            readAllSignals(graphs, dimFilter, nodeIdMap, mapData);
+            readAllSignals(graphs, dimFilter, nodeIdMap, topology, mapData);
             readAllObservers(graphs, dimFilter, nodeIdMap, mapData);
             readAllTrains(manager, dimFilter, nodeIdMap, mapData);
 
-            // Analyze signal coverage at junctions and detect stuck trains
-            analyzeDiagnostics(mapData);
-
-            int diagCount = mapData.contains("Diagnostics") ? mapData.getList("Diagnostics", 10).size() : 0;
             int sigCount = mapData.contains("Signals") ? mapData.getList("Signals", 10).size() : 0;
             int staCount = mapData.contains("Stations") ? mapData.getList("Stations", 10).size() : 0;
             int trnCount = mapData.contains("Trains") ? mapData.getList("Trains", 10).size() : 0;
             int obsCount = mapData.contains("Observers") ? mapData.getList("Observers", 10).size() : 0;
-            LogicLink.LOGGER.info("TrainNetworkDataReader: Result -- {} nodes, {} edges, {} curves, {} stations, {} signals, {} trains, {} observers, {} diagnostics",
-                    nodeList.size(), edgeList.size(), curveList.size(),
-                    staCount, sigCount, trnCount, obsCount, diagCount);
-
-            // Log each diagnostic detail at INFO level for debugging
-            if (diagCount > 0) {
-                ListTag diagList = mapData.getList("Diagnostics", 10);
-                for (int di = 0; di < diagList.size(); di++) {
-                    CompoundTag d = diagList.getCompound(di);
-                    LogicLink.LOGGER.info("  Diagnostic #{}: type={}, severity={}, pos=({},{},{}), desc={}",
-                            di + 1,
-                            d.getString("type"),
-                            d.getString("severity"),
-                            String.format("%.1f", d.getFloat("x")),
-                            String.format("%.1f", d.getFloat("y")),
-                            String.format("%.1f", d.getFloat("z")),
-                            d.getString("desc"));
-                }
-            }
+            LogicLink.LOGGER.info("TrainNetworkDataReader: Result -- {} nodes, {} edges, {} curves, {} stations, {} signals, {} trains, {} observers",
+                    topology.nodeCount, topology.edgeCount, curveCount(topology),
+                    staCount, sigCount, trnCount, obsCount);
 
             // Cap warnings
-            if (nodeList.size() >= MAX_NODES) {
-                LogicLink.LOGGER.warn("TrainNetworkDataReader: Node cap hit! {} nodes, max is {}. Track topology may be incomplete.", nodeList.size(), MAX_NODES);
+            if (topology.nodeCount >= MAX_NODES) {
+                LogicLink.LOGGER.warn("TrainNetworkDataReader: Node cap hit! {} nodes, max is {}. Track topology may be incomplete.", topology.nodeCount, MAX_NODES);
             }
-            if (edgeList.size() >= MAX_EDGES) {
-                LogicLink.LOGGER.warn("TrainNetworkDataReader: Edge cap hit! {} edges, max is {}. Track topology may be incomplete.", edgeList.size(), MAX_EDGES);
+            if (topology.edgeCount >= MAX_EDGES) {
+                LogicLink.LOGGER.warn("TrainNetworkDataReader: Edge cap hit! {} edges, max is {}. Track topology may be incomplete.", topology.edgeCount, MAX_EDGES);
             }
             if (staCount >= MAX_STATIONS) {
                 LogicLink.LOGGER.warn("TrainNetworkDataReader: Station cap hit! {} stations, max is {}. Some stations may be missing.", staCount, MAX_STATIONS);
@@ -313,19 +197,69 @@ public class TrainNetworkDataReader {
             LogicLink.LOGGER.warn("TrainNetworkDataReader: Failed to read map data: {}", e.getMessage(), e);
         }
 
-        return mapData;
+        return new NetworkScan(mapData, topology);
+    }
+
+    private static int curveCount(NetworkTopology topology) {
+        int curves = 0;
+        for (int e = 0; e < topology.edgeCount; e++) {
+            if (topology.curvePointCount(e) > 0) curves++;
+        }
+        return curves;
     }
 
     /**
-     * Lightweight scan that returns only diagnostic information for the Signal Tablet.
-     * Performs a full network scan but packages only the diagnostics + summary into
-     * a CompoundTag suitable for storing in item NBT.
+     * Analyze a captured network for signal, routing and schedule issues.
+     * Safe to call off the server thread: it only reads {@code mapData} and
+     * returns a new tag holding the {@link #DIAGNOSTIC_KEYS}. Keeps no state
+     * between runs; the caller carries the network counts from one analysis of a
+     * dimension to the next.
      *
-     * @param level The server level
-     * @return CompoundTag with diagnostics, or null if no network found
+     * @param mapData  Map data from {@link #scanNetwork} (not modified)
+     * @param topology Columnar layout from the same scan
+     * @param previous Counts returned by the previous analysis of this dimension, or null
+     * @return Diagnostics, max train length summary and this analysis's counts
      */
-    public static CompoundTag scanDiagnosticsOnly(@Nullable Level level) {
-        CompoundTag fullMap = readNetworkMap(level);
+    public static Analysis analyzeNetwork(CompoundTag mapData, NetworkTopology topology,
+                                          @Nullable NetworkCounts previous) {
+        CompoundTag out = new CompoundTag();
+        NetworkCounts counts = analyzeDiagnostics(mapData, topology, previous, out);
+
+        // Log each diagnostic detail at INFO level for debugging
+        ListTag diagList = out.getList("Diagnostics", 10);
+        LogicLink.LOGGER.info("TrainNetworkDataReader: Analysis -- {} diagnostics", diagList.size());
+        for (int di = 0; di < diagList.size(); di++) {
+            CompoundTag d = diagList.getCompound(di);
+            LogicLink.LOGGER.info("  Diagnostic #{}: type={}, severity={}, pos=({},{},{}), desc={}",
+                    di + 1,
+                    d.getString("type"),
+                    d.getString("severity"),
+                    String.format("%.1f", d.getFloat("x")),
+                    String.format("%.1f", d.getFloat("y")),
+                    String.format("%.1f", d.getFloat("z")),
+                    d.getString("desc"));
+        }
+        return new Analysis(out, counts);
+    }
+
+    /**
+     * Diagnostics-only scan for the Signal Tablet. Uses the shared per-dimension
+     * snapshot (rescanning only if it is older than {@link #DIAGNOSTICS_MAX_AGE}
+     * ticks), waits for its off-thread analysis, then packages the diagnostics +
+     * summary into a CompoundTag suitable for storing in item NBT.
+     *
+     * @param level   The server level
+     * @param onReady Called on the server thread with the summary, or null if no network was found
+     */
+    public static void scanDiagnostics(Level level, Consumer<@Nullable CompoundTag> onReady) {
+        TrainNetworkSnapshotService.whenAnalyzed(level, DIAGNOSTICS_MAX_AGE,
+                snapshot -> onReady.accept(snapshot != null ? summarizeDiagnostics(level, snapshot) : null));
+    }
+
+    @Nullable
+    private static CompoundTag summarizeDiagnostics(Level level, TrainNetworkSnapshot snapshot) {
+        NetworkScan scan = new NetworkScan(snapshot.mapData(), snapshot.topology());
+        CompoundTag fullMap = scan.mapData();
         if (fullMap == null || fullMap.isEmpty()) return null;
 
         CompoundTag result = new CompoundTag();
@@ -391,10 +325,8 @@ public class TrainNetworkDataReader {
             result.putInt("trainCount", fullMap.getList("Trains", 10).size());
         }
 
-        int nodeCount = fullMap.contains("Nodes") ? fullMap.getList("Nodes", 10).size() : 0;
-        int edgeCount = fullMap.contains("Edges") ? fullMap.getList("Edges", 10).size() : 0;
-        result.putInt("nodeCount", nodeCount);
-        result.putInt("edgeCount", edgeCount);
+        result.putInt("nodeCount", scan.topology().nodeCount);
+        result.putInt("edgeCount", scan.topology().edgeCount);
 
         writeDiagnosticsReport(level, result);
 
@@ -505,154 +437,230 @@ public class TrainNetworkDataReader {
 
     // ==================== Graph Topology ====================
 
-    @SuppressWarnings("unchecked")
-    private static void readGraph(Object graph, String dimFilter,
-                                   Map<String, Integer> nodeIdMap,
-                                   ListTag nodeList, ListTag edgeList,
-                                   ListTag curveList,
-                                   Map<String, Boolean> signalGroupOccupied) {
+    /**
+     * Per-graph topology cache, keyed by "graphUUID|dimension". Entries are reused
+     * while the graph's fingerprint is unchanged, so a refresh where only trains
+     * moved skips the node/edge walk and bezier sampling entirely.
+     */
+    private static final Map<String, TrackGraphTopology> TOPOLOGY_CACHE = new ConcurrentHashMap<>();
+
+    /** Drop all cached graph topologies. Called on server shutdown. */
+    public static void clearTopologyCache() {
+        TOPOLOGY_CACHE.clear();
+    }
+
+    /**
+     * Append one graph's nodes, edges and curves to the map layout. The static layout
+     * comes from the topology cache; signal group and occupancy are read fresh.
+     *
+     * @return true if the graph's topology was re-walked, false if the cache was reused
+     */
+    private static boolean readGraph(UUID graphId, Object graph, String dimFilter,
+                                     Long2IntOpenHashMap nodeIdMap,
+                                     NetworkTopology.Builder layout,
+                                     Map<String, Boolean> signalGroupOccupied) {
         try {
-            Map<?, ?> connections = (Map<?, ?>) graphConnectionsField.get(graph);
-            if (connections == null) return;
-
-            // First pass: collect all nodes that are in our dimension
-            Set<Object> dimNodes = new HashSet<>();
-            Map<?, ?> nodeMap = (Map<?, ?>) graphNodesField.get(graph);
-            if (nodeMap == null) return;
-
-            for (Object node : nodeMap.values()) {
-                Vec3 worldPos = getNodeWorldPos(node);
-                String dim = getNodeDimension(node);
-                if (worldPos == null || dim == null) continue;
-                if (!dim.equals(dimFilter)) continue;
-
-                dimNodes.add(node);
-                String key = nodeKey(worldPos);
-                if (!nodeIdMap.containsKey(key) && nodeIdMap.size() < MAX_NODES) {
-                    int id = nodeIdMap.size();
+            Map<?, ?> connections = (Map<?, ?>) CreateTrainAccess.graphConnections(graph);
+            Map<?, ?> nodeMap = (Map<?, ?>) CreateTrainAccess.graphNodes(graph);
+            if (connections == null || nodeMap == null) return false;
+
+            // Fingerprint: node count, connection count, checksum
+            int connectionCount = 0;
+            for (Object toMap : connections.values()) {
+                if (toMap instanceof Map<?, ?> m) connectionCount += m.size();
+            }
+            int checksum = CreateTrainAccess.graphChecksum(graph);
+            long changeStamp = TrackChangeTracker.graphStamp(graphId);
+
+            String cacheKey = graphId + "|" + dimFilter;
+            TrackGraphTopology topo = TOPOLOGY_CACHE.get(cacheKey);
+            boolean rescanned = false;
+            if (topo == null || !topo.matches(nodeMap.size(), connectionCount, checksum, changeStamp)) {
+                topo = captureGraph(graphId, graph, dimFilter, nodeMap, connections, connectionCount, checksum,
+                        changeStamp);
+                TOPOLOGY_CACHE.put(cacheKey, topo);
+                rescanned = true;
+            }
+
+            // Remap graph-local node indices into the global node index
+            int[] globalIds = new int[topo.localNodeCount()];
+            for (int i = 0; i < globalIds.length; i++) {
+                long key = topo.nodeKeys[i];
+                int id = nodeIdMap.get(key);
+                if (id < 0) {
+                    if (nodeIdMap.size() >= MAX_NODES) {
+                        globalIds[i] = -1;
+                        continue;
+                    }
+                    id = layout.addNode(topo.nodeX[i], topo.nodeY[i], topo.nodeZ[i]);
                     nodeIdMap.put(key, id);
-
-                    CompoundTag nodeTag = new CompoundTag();
-                    nodeTag.putInt("id", id);
-                    nodeTag.putFloat("x", (float) worldPos.x);
-                    nodeTag.putFloat("y", (float) worldPos.y);
-                    nodeTag.putFloat("z", (float) worldPos.z);
-                    nodeList.add(nodeTag);
                 }
+                globalIds[i] = id;
             }
 
-            // Second pass: edges between dimension-local nodes
-            Set<String> edgesSeen = new HashSet<>();
-            boolean edgeLimitHit = false;
-
-            for (Map.Entry<?, ?> entry : ((Map<Object, Object>) connections).entrySet()) {
-                Object fromNode = entry.getKey();
-                if (edgeLimitHit) break;
-                if (!dimNodes.contains(fromNode)) continue;
-
-                Vec3 fromPos = getNodeWorldPos(fromNode);
-                if (fromPos == null) continue;
-                String fromKey = nodeKey(fromPos);
-                Integer fromId = nodeIdMap.get(fromKey);
-                if (fromId == null) continue;
-
-                Map<?, ?> toMap = (Map<?, ?>) entry.getValue();
-                if (toMap == null) continue;
-
-                for (Map.Entry<?, ?> toEntry : ((Map<Object, Object>) toMap).entrySet()) {
-                    Object toNode = toEntry.getKey();
-                    Object edge = toEntry.getValue();
-                    if (!dimNodes.contains(toNode)) continue;
-
-                    Vec3 toPos = getNodeWorldPos(toNode);
-                    if (toPos == null) continue;
-                    String toKey = nodeKey(toPos);
-                    Integer toId = nodeIdMap.get(toKey);
-                    if (toId == null) continue;
-
-                    // Deduplicate (A→B same as B→A)
-                    String edgeKey = Math.min(fromId, toId) + ":" + Math.max(fromId, toId);
-                    if (edgesSeen.contains(edgeKey)) continue;
-                    edgesSeen.add(edgeKey);
-
-                    if (edgeList.size() >= MAX_EDGES) {
-                        edgeLimitHit = true;
-                        break;
+            for (int e = 0; e < topo.edgeCount; e++) {
+                int fromId = globalIds[topo.edgeA[e]];
+                int toId = globalIds[topo.edgeB[e]];
+                if (fromId < 0 || toId < 0) continue;
+                if (layout.edgeCount() >= MAX_EDGES) break;
+
+                // Signal group on this edge → occupied? (changes without layout edits)
+                String groupId = null;
+                boolean occupied = false;
+                try {
+                    Object edgeData = CreateTrainAccess.edgeData(topo.edgeRefs[e]);
+                    if (edgeData != null) {
+                        Object groupUUID = CreateTrainAccess.edgeDataSignalGroup(edgeData);
+                        if (groupUUID != null) {
+                            groupId = groupUUID.toString();
+                            occupied = signalGroupOccupied.getOrDefault(groupId, false);
+                        }
                     }
+                } catch (Exception ignored) {}
 
-                    CompoundTag edgeTag = new CompoundTag();
-                    edgeTag.putInt("a", fromId);
-                    edgeTag.putInt("b", toId);
+                layout.addEdge(fromId, toId, topo.edgeLen[e], topo.edgeCurved[e],
+                        topo.edgeInterDim[e], occupied, groupId, topo.curve(e));
+            }
+            return rescanned;
 
-                    // Length
-                    double length = (double) edgeGetLengthMethod.invoke(edge);
-                    edgeTag.putFloat("len", (float) length);
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("TrainNetworkDataReader: Failed to read graph: {}", e.getMessage());
+            return false;
+        }
+    }
 
-                    // Curved?
-                    boolean curved = (boolean) edgeIsTurnMethod.invoke(edge);
-                    edgeTag.putBoolean("curved", curved);
+    /**
+     * Walk a graph's nodes and connections once and capture its dimension-local
+     * layout (positions, edge lengths/flags, bezier samples). Also reports the
+     * dimensions the graph has nodes in to {@link TrackChangeTracker}.
+     */
+    @SuppressWarnings("unchecked")
+    private static TrackGraphTopology captureGraph(UUID graphId, Object graph, String dimFilter,
+                                                   Map<?, ?> nodeMap, Map<?, ?> connections,
+                                                   int connectionCount, int checksum, long changeStamp) {
+        // First pass: collect all nodes that are in our dimension
+        Map<Object, Integer> localIndex = new HashMap<>();
+        Long2IntOpenHashMap localByKey = newNodeIdMap();
+        List<Vec3> positions = new ArrayList<>();
+        Set<String> graphDimensions = new HashSet<>();
+
+        for (Object node : nodeMap.values()) {
+            Vec3 worldPos = getNodeWorldPos(node);
+            String dim = getNodeDimension(node);
+            if (worldPos == null || dim == null) continue;
+            graphDimensions.add(dim);
+            if (!dim.equals(dimFilter)) continue;
+            if (!hasNodeKey(worldPos)) {
+                // Would alias a node inside the key range; leave it (and its edges) off the map
+                if (!warnedKeyRange) {
+                    warnedKeyRange = true;
+                    LogicLink.LOGGER.warn("TrainNetworkDataReader: Skipping track nodes beyond the mappable range, e.g. at {}",
+                            worldPos);
+                }
+                continue;
+            }
 
-                    // Inter-dimensional?
-                    boolean interDim = edgeInterDimField.getBoolean(edge);
-                    edgeTag.putBoolean("interDim", interDim);
+            long key = nodeKey(worldPos);
+            int idx = localByKey.get(key);
+            if (idx < 0) {
+                idx = positions.size();
+                localByKey.put(key, idx);
+                positions.add(worldPos);
+            }
+            localIndex.put(node, idx);
+        }
+        TrackChangeTracker.recordDimensions(graphId, graphDimensions);
 
-                    // Signal group on this edge → occupied?
-                    boolean occupied = false;
-                    try {
-                        Object edgeData = edgeEdgeDataField.get(edge);
-                        if (edgeData != null) {
-                            Object groupUUID = edgeDataSignalGroupField.get(edgeData);
-                            if (groupUUID != null) {
-                                String groupId = groupUUID.toString();
-                                edgeTag.putString("signalGroup", groupId);
-                                occupied = signalGroupOccupied.getOrDefault(groupId, false);
-                            }
-                        }
-                    } catch (Exception ignored) {}
-                    edgeTag.putBoolean("occupied", occupied);
+        // Second pass: edges between dimension-local nodes
+        LongOpenHashSet edgesSeen = new LongOpenHashSet();
+        List<int[]> edgeEnds = new ArrayList<>();
+        List<Object> edgeRefs = new ArrayList<>();
 
-                    edgeList.add(edgeTag);
+        for (Map.Entry<?, ?> entry : ((Map<Object, Object>) connections).entrySet()) {
+            Integer fromIdx = localIndex.get(entry.getKey());
+            if (fromIdx == null) continue;
+            Map<?, ?> toMap = (Map<?, ?>) entry.getValue();
+            if (toMap == null) continue;
 
-                    // If curved, sample bezier points for smooth rendering
-                    if (curved && curveList.size() < MAX_EDGES) {
-                        try {
-                            CompoundTag curveSamples = new CompoundTag();
-                            curveSamples.putInt("edge", edgeList.size() - 1);
-                            ListTag points = new ListTag();
-
-                            for (int s = 1; s < MAX_CURVE_SAMPLES; s++) {
-                                double t = (double) s / MAX_CURVE_SAMPLES;
-                                Vec3 pos = (Vec3) edgeGetPositionMethod.invoke(edge, graph, t);
-                                if (pos != null) {
-                                    CompoundTag pt = new CompoundTag();
-                                    pt.putFloat("x", (float) pos.x);
-                                    pt.putFloat("z", (float) pos.z);
-                                    points.add(pt);
-                                }
-                            }
-                            curveSamples.put("pts", points);
-                            curveList.add(curveSamples);
-                        } catch (Exception ignored) {}
-                    }
-                }
+            for (Map.Entry<?, ?> toEntry : ((Map<Object, Object>) toMap).entrySet()) {
+                Integer toIdx = localIndex.get(toEntry.getKey());
+                if (toIdx == null) continue;
+
+                // Deduplicate (A→B same as B→A)
+                long pair = ((long) Math.min(fromIdx, toIdx) << 32) | Math.max(fromIdx, toIdx);
+                if (!edgesSeen.add(pair)) continue;
+
+                edgeEnds.add(new int[]{fromIdx, toIdx});
+                edgeRefs.add(toEntry.getValue());
             }
+        }
 
-        } catch (Exception e) {
-            LogicLink.LOGGER.debug("TrainNetworkDataReader: Failed to read graph: {}", e.getMessage());
+        int nodeCount = positions.size();
+        long[] keys = new long[nodeCount];
+        float[] nx = new float[nodeCount], ny = new float[nodeCount], nz = new float[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            Vec3 p = positions.get(i);
+            keys[i] = nodeKey(p);
+            nx[i] = (float) p.x;
+            ny[i] = (float) p.y;
+            nz[i] = (float) p.z;
         }
+
+        int edgeCount = edgeEnds.size();
+        int[] ea = new int[edgeCount], eb = new int[edgeCount];
+        float[] len = new float[edgeCount];
+        boolean[] curved = new boolean[edgeCount], interDim = new boolean[edgeCount];
+        float[][] curves = new float[edgeCount][];
+        int kept = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            Object edge = edgeRefs.get(e);
+            try {
+                len[kept] = (float) CreateTrainAccess.edgeLength(edge);
+                curved[kept] = CreateTrainAccess.edgeIsTurn(edge);
+                interDim[kept] = CreateTrainAccess.edgeInterDimensional(edge);
+            } catch (Exception ex) {
+                continue; // unreadable edge — skip like the per-refresh walk did
+            }
+            ea[kept] = edgeEnds.get(e)[0];
+            eb[kept] = edgeEnds.get(e)[1];
+            edgeRefs.set(kept, edge);
+
+            // If curved, sample bezier points for smooth rendering
+            if (curved[kept] && CreateTrainAccess.canSampleEdges()) {
+                try {
+                    float[] pts = new float[(MAX_CURVE_SAMPLES - 1) * 2];
+                    int n = 0;
+                    for (int s = 1; s < MAX_CURVE_SAMPLES; s++) {
+                        double t = (double) s / MAX_CURVE_SAMPLES;
+                        Vec3 pos = CreateTrainAccess.edgePosition(edge, graph, t);
+                        if (pos != null) {
+                            pts[n++] = (float) pos.x;
+                            pts[n++] = (float) pos.z;
+                        }
+                    }
+                    curves[kept] = n == pts.length ? pts : Arrays.copyOf(pts, n);
+                } catch (Exception ignored) {}
+            }
+            kept++;
+        }
+
+        return new TrackGraphTopology(nodeMap.size(), connectionCount, checksum, changeStamp,
+                keys, nx, ny, nz,
+                kept, ea, eb, len, curved, interDim,
+                edgeRefs.subList(0, kept).toArray(), curves);
     }
 
     // ==================== Station Data ====================
 
     @SuppressWarnings("unchecked")
     private static void readAllStations(Map<UUID, Object> graphs, String dimFilter,
-                                         Map<String, Integer> nodeIdMap,
+                                         Long2IntOpenHashMap nodeIdMap,
                                          CompoundTag mapData) {
         ListTag stationList = new ListTag();
 
         try {
             for (Object graph : graphs.values()) {
-                Collection<?> stations = (Collection<?>) graphGetPointsMethod.invoke(graph, epTypeStation);
+                Collection<?> stations = (Collection<?>) CreateTrainAccess.graphPoints(graph, CreateTrainAccess.POINT_STATION);
                 if (stations == null) continue;
 
                 for (Object station : stations) {
@@ -660,11 +668,12 @@ public class TrainNetworkDataReader {
 
                     try {
                         // Check dimension
-                        BlockPos pos = (BlockPos) stationGetBlockEntityPosMethod.invoke(station);
+                        BlockPos pos = (BlockPos) CreateTrainAccess.blockEntityPos(station);
                         // We include all stations — position check is best-effort
 
                         CompoundTag tag = new CompoundTag();
-                        String name = (String) stationNameField.get(station);
+                        putPointId(tag, station);
+                        String name = CreateTrainAccess.stationName(station);
                         tag.putString("name", name != null ? name : "Unknown");
 
                         if (pos != null) {
@@ -675,15 +684,15 @@ public class TrainNetworkDataReader {
 
                         // Edge location for precise map placement
                         try {
-                            Object edgeLoc = edgePointEdgeLocationField.get(station);
-                            double edgePos = edgePointPositionField.getDouble(station);
+                            Object edgeLoc = CreateTrainAccess.pointEdgeLocation(station);
+                            double edgePos = CreateTrainAccess.pointPosition(station);
                             tag.putFloat("edgePos", (float) edgePos);
                             if (edgeLoc != null) {
-                                Object locA = coupleGetFirstMethod.invoke(edgeLoc);
-                                Object locB = coupleGetSecondMethod.invoke(edgeLoc);
+                                Object locA = CreateTrainAccess.first(edgeLoc);
+                                Object locB = CreateTrainAccess.second(edgeLoc);
                                 if (locA != null && locB != null) {
-                                    Vec3 posA = (Vec3) nodeLocGetLocationMethod.invoke(locA);
-                                    Vec3 posB = (Vec3) nodeLocGetLocationMethod.invoke(locB);
+                                    Vec3 posA = CreateTrainAccess.locationPosition(locA);
+                                    Vec3 posB = CreateTrainAccess.locationPosition(locB);
                                     if (posA != null && posB != null) {
                                         // Interpolate exact position on edge
                                         // edgePos is absolute distance, need to normalize
@@ -701,11 +710,11 @@ public class TrainNetworkDataReader {
                         } catch (Exception ignored) {}
 
                         // Present/imminent train
-                        Object present = stationGetPresentTrainMethod.invoke(station);
+                        Object present = CreateTrainAccess.stationPresentTrain(station);
                         if (present != null) {
                             tag.putString("trainPresent", getTrainNameStr(present));
                         }
-                        Object imminent = stationGetImminentTrainMethod.invoke(station);
+                        Object imminent = CreateTrainAccess.stationImminentTrain(station);
                         if (imminent != null) {
                             tag.putString("trainImminent", getTrainNameStr(imminent));
                         }
@@ -725,13 +734,14 @@ public class TrainNetworkDataReader {
 
     @SuppressWarnings("unchecked")
     private static void readAllSignals(Map<UUID, Object> graphs, String dimFilter,
-                                        Map<String, Integer> nodeIdMap,
+                                        Long2IntOpenHashMap nodeIdMap,
+                                        NetworkTopology topology,
                                         CompoundTag mapData) {
         ListTag signalList = new ListTag();
 
         try {
             for (Object graph : graphs.values()) {
-                Collection<?> signals = (Collection<?>) graphGetPointsMethod.invoke(graph, epTypeSignal);
+                Collection<?> signals = (Collection<?>) CreateTrainAccess.graphPoints(graph, CreateTrainAccess.POINT_SIGNAL);
                 if (signals == null) continue;
 
                 for (Object signal : signals) {
@@ -739,29 +749,30 @@ public class TrainNetworkDataReader {
 
                     try {
                         CompoundTag tag = new CompoundTag();
+                        putPointId(tag, signal);
 
                         // States (Couple<SignalState>)
-                        Object statesCouple = signalCachedStatesField.get(signal);
+                        Object statesCouple = CreateTrainAccess.signalCachedStates(signal);
                         if (statesCouple != null) {
-                            Object sf = coupleGetFirstMethod.invoke(statesCouple);
-                            Object sb = coupleGetSecondMethod.invoke(statesCouple);
+                            Object sf = CreateTrainAccess.first(statesCouple);
+                            Object sb = CreateTrainAccess.second(statesCouple);
                             tag.putString("stateF", sf != null ? sf.toString().toLowerCase() : "unknown");
                             tag.putString("stateB", sb != null ? sb.toString().toLowerCase() : "unknown");
                         }
 
                         // Types
-                        Object typesCouple = signalTypesField.get(signal);
+                        Object typesCouple = CreateTrainAccess.signalTypes(signal);
                         if (typesCouple != null) {
-                            Object tf = coupleGetFirstMethod.invoke(typesCouple);
-                            Object tb = coupleGetSecondMethod.invoke(typesCouple);
+                            Object tf = CreateTrainAccess.first(typesCouple);
+                            Object tb = CreateTrainAccess.second(typesCouple);
                             tag.putString("typeF", tf != null ? tf.toString().toLowerCase() : "entry_signal");
                             tag.putString("typeB", tb != null ? tb.toString().toLowerCase() : "entry_signal");
                         }
 
                         // Block entity positions (for map placement)
-                        Object beCouple = signalBlockEntitiesField.get(signal);
+                        Object beCouple = CreateTrainAccess.signalBlockEntities(signal);
                         if (beCouple != null) {
-                            Object first = coupleGetFirstMethod.invoke(beCouple);
+                            Object first = CreateTrainAccess.first(beCouple);
                             if (first instanceof Map<?, ?> posMap && !posMap.isEmpty()) {
                                 BlockPos bp = (BlockPos) posMap.keySet().iterator().next();
                                 tag.putFloat("x", bp.getX());
@@ -772,14 +783,14 @@ public class TrainNetworkDataReader {
 
                         // Edge location for precise placement
                         try {
-                            Object edgeLoc = edgePointEdgeLocationField.get(signal);
+                            Object edgeLoc = CreateTrainAccess.pointEdgeLocation(signal);
                             if (edgeLoc != null) {
-                                Object locA = coupleGetFirstMethod.invoke(edgeLoc);
-                                Object locB = coupleGetSecondMethod.invoke(edgeLoc);
-                                double edgePos = edgePointPositionField.getDouble(signal);
+                                Object locA = CreateTrainAccess.first(edgeLoc);
+                                Object locB = CreateTrainAccess.second(edgeLoc);
+                                double edgePos = CreateTrainAccess.pointPosition(signal);
                                 if (locA != null && locB != null) {
-                                    Vec3 posA = (Vec3) nodeLocGetLocationMethod.invoke(locA);
-                                    Vec3 posB = (Vec3) nodeLocGetLocationMethod.invoke(locB);
+                                    Vec3 posA = CreateTrainAccess.locationPosition(locA);
+                                    Vec3 posB = CreateTrainAccess.locationPosition(locB);
                                     if (posA != null && posB != null) {
                                         double dx = posB.x - posA.x;
                                         double dz = posB.z - posA.z;
@@ -793,9 +804,9 @@ public class TrainNetworkDataReader {
                                             tag.putFloat("dirZ", (float)(dz / edgeLen));
                                         }
                                         // Map signal to edge node IDs for junction diagnostics
-                                        Integer idA = nodeIdMap.get(nodeKey(posA));
-                                        Integer idB = nodeIdMap.get(nodeKey(posB));
-                                        if (idA != null && idB != null) {
+                                        int idA = nodeId(nodeIdMap, posA);
+                                        int idB = nodeId(nodeIdMap, posB);
+                                        if (idA >= 0 && idB >= 0) {
                                             tag.putInt("edgeA", idA);
                                             tag.putInt("edgeB", idB);
                                         }
@@ -813,15 +824,10 @@ public class TrainNetworkDataReader {
                             tag.putFloat("z", tag.getFloat("mapZ"));
                             // Y is not available from edge interpolation, estimate from edge nodes
                             if (tag.contains("edgeA") && tag.contains("edgeB")) {
-                                ListTag nodesList = mapData.contains("Nodes") ? mapData.getList("Nodes", 10) : null;
-                                if (nodesList != null) {
-                                    int eA = tag.getInt("edgeA");
-                                    int eB = tag.getInt("edgeB");
-                                    if (eA < nodesList.size() && eB < nodesList.size()) {
-                                        float yA = nodesList.getCompound(eA).getFloat("y");
-                                        float yB = nodesList.getCompound(eB).getFloat("y");
-                                        tag.putFloat("y", (yA + yB) / 2.0f);
-                                    }
+                                int eA = tag.getInt("edgeA");
+                                int eB = tag.getInt("edgeB");
+                                if (eA < topology.nodeCount && eB < topology.nodeCount) {
+                                    tag.putFloat("y", (topology.nodeY[eA] + topology.nodeY[eB]) / 2.0f);
                                 }
                             }
                         }
@@ -852,18 +858,18 @@ public class TrainNetworkDataReader {
 
     @SuppressWarnings("unchecked")
     private static void readAllObservers(Map<UUID, Object> graphs, String dimFilter,
-                                          Map<String, Integer> nodeIdMap,
+                                          Long2IntOpenHashMap nodeIdMap,
                                           CompoundTag mapData) {
         ListTag observerList = new ListTag();
 
         try {
-            if (epTypeObserver == null) {
+            if (CreateTrainAccess.POINT_OBSERVER == null) {
                 mapData.put("Observers", observerList);
                 return;
             }
 
             for (Object graph : graphs.values()) {
-                Collection<?> observers = (Collection<?>) graphGetPointsMethod.invoke(graph, epTypeObserver);
+                Collection<?> observers = (Collection<?>) CreateTrainAccess.graphPoints(graph, CreateTrainAccess.POINT_OBSERVER);
                 if (observers == null) continue;
 
                 for (Object observer : observers) {
@@ -871,10 +877,11 @@ public class TrainNetworkDataReader {
 
                     try {
                         CompoundTag tag = new CompoundTag();
-                        boolean activated = (boolean) observerIsActivatedMethod.invoke(observer);
+                        putPointId(tag, observer);
+                        boolean activated = CreateTrainAccess.observerActivated(observer);
                         tag.putBoolean("activated", activated);
 
-                        BlockPos pos = (BlockPos) observerGetBlockEntityPosMethod.invoke(observer);
+                        BlockPos pos = (BlockPos) CreateTrainAccess.blockEntityPos(observer);
                         if (pos != null) {
                             tag.putFloat("x", pos.getX());
                             tag.putFloat("z", pos.getZ());
@@ -891,18 +898,170 @@ public class TrainNetworkDataReader {
         mapData.put("Observers", observerList);
     }
 
+    /** Stable key of an edge point for {@link MapEntityHashes}: its UUID prefix, like train ids. */
+    private static void putPointId(CompoundTag tag, Object point) {
+        Object id = CreateTrainAccess.pointId(point);
+        if (id != null) tag.putString("id", id.toString().substring(0, 8));
+    }
+
     // ==================== Train Position Data ====================
 
+    /**
+     * Lightweight per-tick train scan for the live map channel: position,
+     * speed, heading, the topology edge under the leading bogey, derailed flag
+     * and the signal group each train is held at, packed into a
+     * {@link TrainStates}. Reads nothing else (no schedules, paths or carriage
+     * spacing), so it is cheap enough to run every few ticks.
+     *
+     * @param level    The server level; only trains present in its dimension are read
+     * @param topology The dimension's current layout, used to resolve edges;
+     *                 may be {@link NetworkTopology#EMPTY}
+     * @return The states; {@link TrainStates#EMPTY} if Create is unavailable
+     */
+    @SuppressWarnings("unchecked")
+    public static TrainStates readTrainStates(Level level, NetworkTopology topology) {
+        if (!CreateTrainAccess.isAvailable()) return TrainStates.EMPTY;
+
+        try {
+            Object manager = CreateTrainAccess.railways();
+            Map<UUID, Object> trains = manager != null
+                    ? (Map<UUID, Object>) CreateTrainAccess.trains(manager) : null;
+            if (trains == null) return TrainStates.EMPTY;
+
+            ResourceKey<Level> dimension = level.dimension();
+            boolean canLocate = CreateTrainAccess.canLocateTrains();
+            boolean canTrack = CreateTrainAccess.canTrackLeadingPoints();
+            int count = Math.min(trains.size(), MAX_TRAINS);
+            String[] ids = new String[count];
+            int[] data = new int[count * TrainStates.STRIDE];
+            List<String> groups = new ArrayList<>();
+            Map<String, Integer> groupIndex = new HashMap<>();
+
+            int n = 0;
+            for (Object train : trains.values()) {
+                if (n >= count) break;
+                try {
+                    UUID id = (UUID) CreateTrainAccess.trainId(train);
+                    if (id == null) continue;
+
+                    // Trains elsewhere belong to their own dimension's states
+                    List<?> dims = canLocate ? (List<?>) CreateTrainAccess.trainPresentDimensions(train) : null;
+                    if (canLocate && (dims == null || !dims.contains(dimension))) continue;
+
+                    int base = n * TrainStates.STRIDE;
+                    double speed = CreateTrainAccess.trainSpeed(train);
+                    // Sub-block position and heading from the leading bogey when it is here
+                    int located = canTrack ? readLeadingPoint(train, speed, dimension, topology, data, base) : 0;
+                    boolean hasPos = (located & TrainStates.FLAG_HAS_POS) != 0;
+                    boolean hasHeading;
+                    if (!hasPos && canLocate) {
+                        // Fallback: Create's block position of the train in this dimension
+                        Optional<BlockPos> posOpt =
+                                (Optional<BlockPos>) CreateTrainAccess.trainPositionInDimension(train, dimension);
+                        if (posOpt != null && posOpt.isPresent()) {
+                            BlockPos pos = posOpt.get();
+                            data[base + TrainStates.X] = pos.getX() * TrainStates.POS_SCALE;
+                            data[base + TrainStates.Y] = pos.getY() * TrainStates.POS_SCALE;
+                            data[base + TrainStates.Z] = pos.getZ() * TrainStates.POS_SCALE;
+                            hasPos = true;
+                        }
+                    }
+                    hasHeading = hasPos && (located & TrainStates.FLAG_HAS_HEADING) != 0;
+                    data[base + TrainStates.SPEED] = Float.floatToIntBits((float) speed);
+
+                    int group = -1;
+                    Object nav = CreateTrainAccess.trainNavigation(train);
+                    Object waitingCouple = nav != null ? CreateTrainAccess.navWaitingForSignal(nav) : null;
+                    Object waitGroup = waitingCouple != null ? CreateTrainAccess.first(waitingCouple) : null;
+                    if (waitGroup != null) {
+                        group = groupIndex.computeIfAbsent(waitGroup.toString(), g -> {
+                            groups.add(g);
+                            return groups.size() - 1;
+                        });
+                    }
+                    data[base + TrainStates.FLAGS] =
+                            TrainStates.packFlags(CreateTrainAccess.trainDerailed(train), hasPos, hasHeading, group);
+                    ids[n++] = id.toString().substring(0, 8);
+                } catch (Exception ignored) {}
+            }
+
+            if (n < count) {
+                ids = Arrays.copyOf(ids, n);
+                data = Arrays.copyOf(data, n * TrainStates.STRIDE);
+            }
+            return new TrainStates(level.getGameTime(), ids, groups.toArray(new String[0]), data);
+        } catch (Exception e) {
+            LogicLink.LOGGER.debug("TrainNetworkDataReader: Failed to read train states: {}", e.getMessage());
+            return TrainStates.EMPTY;
+        }
+    }
+
+    /**
+     * Read a train state from its leading bogey: exact position, heading along
+     * the edge it is on, and that edge's topology index and direction. Nothing
+     * is written unless the bogey's edge lies in {@code dimension}.
+     *
+     * @return {@link TrainStates#FLAG_HAS_POS} and/or {@link TrainStates#FLAG_HAS_HEADING}
+     *         for what was written.
+     */
+    private static int readLeadingPoint(Object train, double speed, ResourceKey<Level> dimension,
+                                        NetworkTopology topology, int[] data, int base) {
+        List<?> carriages = (List<?>) CreateTrainAccess.trainCarriages(train);
+        if (carriages == null || carriages.isEmpty()) return 0;
+        Object point = CreateTrainAccess.carriageLeadingPoint(carriages.get(0));
+        if (point == null) return 0;
+        Object node1 = CreateTrainAccess.travellingNode1(point);
+        Object node2 = CreateTrainAccess.travellingNode2(point);
+        if (node1 == null || node2 == null) return 0;
+
+        Object loc1 = CreateTrainAccess.nodeLocation(node1);
+        Object loc2 = CreateTrainAccess.nodeLocation(node2);
+        if (!dimension.equals(CreateTrainAccess.locationDimension(loc1))
+                || !dimension.equals(CreateTrainAccess.locationDimension(loc2))) {
+            return 0;
+        }
+        Vec3 p1 = CreateTrainAccess.locationPosition(loc1);
+        Vec3 p2 = CreateTrainAccess.locationPosition(loc2);
+
+        int located = 0;
+        Object graph = CreateTrainAccess.trainGraph(train);
+        Vec3 exact = graph != null ? CreateTrainAccess.travellingPosition(point, graph) : null;
+        if (exact != null) {
+            data[base + TrainStates.X] = (int) Math.round(exact.x * TrainStates.POS_SCALE);
+            data[base + TrainStates.Y] = (int) Math.round(exact.y * TrainStates.POS_SCALE);
+            data[base + TrainStates.Z] = (int) Math.round(exact.z * TrainStates.POS_SCALE);
+            located = TrainStates.FLAG_HAS_POS;
+        }
+
+        // Positive speed moves the point from node1 towards node2
+        boolean towards2 = speed >= 0;
+        double dx = (p2.x - p1.x) * (towards2 ? 1 : -1);
+        double dz = (p2.z - p1.z) * (towards2 ? 1 : -1);
+        if (dx * dx + dz * dz < 1e-6) return located;
+        data[base + TrainStates.HEADING] = TrainStates.packHeading(dx, dz);
+
+        if (!topology.isEmpty()) {
+            int a = topology.nodeAt(p1);
+            int b = topology.nodeAt(p2);
+            int edge = a >= 0 && b >= 0 ? topology.edgeBetween(a, b) : -1;
+            if (edge >= 0) {
+                int target = towards2 ? b : a;
+                data[base + TrainStates.EDGE] = TrainStates.packEdge(edge, topology.edgeB[edge] == target);
+            }
+        }
+        return located | TrainStates.FLAG_HAS_HEADING;
+    }
+
     @SuppressWarnings("unchecked")
     private static void readAllTrains(Object manager, String dimFilter,
-                                       Map<String, Integer> nodeIdMap,
+                                       Long2IntOpenHashMap nodeIdMap,
                                        CompoundTag mapData) {
         ListTag trainList = new ListTag();
 
         try {
-            Map<UUID, Object> trains = (Map<UUID, Object>) gmTrainsField.get(manager);
+            Map<UUID, Object> trains = (Map<UUID, Object>) CreateTrainAccess.trains(manager);
             if (trains == null) {
-                LogicLink.LOGGER.info("[LogicLink] readAllTrains: gmTrainsField returned null");
+                LogicLink.LOGGER.info("[LogicLink] readAllTrains: train map is null");
                 mapData.put("Trains", trainList);
                 return;
             }
@@ -919,29 +1078,29 @@ public class TrainNetworkDataReader {
                     tag.putString("name", getTrainNameStr(train));
 
                     // ID
-                    UUID id = (UUID) trainIdField.get(train);
+                    UUID id = (UUID) CreateTrainAccess.trainId(train);
                     if (id != null) tag.putString("id", id.toString().substring(0, 8));
 
                     // Speed
-                    double speed = trainSpeedField.getDouble(train);
+                    double speed = CreateTrainAccess.trainSpeed(train);
                     tag.putDouble("speed", speed);
 
                     // Derailed
-                    boolean derailed = trainDerailedField.getBoolean(train);
+                    boolean derailed = CreateTrainAccess.trainDerailed(train);
                     tag.putBoolean("derailed", derailed);
 
                     // Carriages — compute actual train length from bogey spacing
-                    List<?> carriages = (List<?>) trainCarriagesField.get(train);
+                    List<?> carriages = (List<?>) CreateTrainAccess.trainCarriages(train);
                     int carriageCount = carriages != null ? carriages.size() : 0;
                     tag.putInt("carriages", carriageCount);
 
                     // Measure actual train length from Carriage.bogeySpacing
                     float trainLength = 0;
                     StringBuilder spacingDebug = new StringBuilder();
-                    if (carriages != null && carriageBogeySpacingField != null) {
+                    if (carriages != null && CreateTrainAccess.hasBogeySpacing()) {
                         for (Object carriage : carriages) {
                             try {
-                                int spacing = carriageBogeySpacingField.getInt(carriage);
+                                int spacing = CreateTrainAccess.carriageBogeySpacing(carriage);
                                 if (spacingDebug.length() > 0) spacingDebug.append("+");
                                 spacingDebug.append(spacing);
                                 // Single-bogey carriages have spacing=0, occupy ~3 blocks
@@ -964,14 +1123,14 @@ public class TrainNetworkDataReader {
 
                     // Current station — may be a GlobalStation object or a UUID reference
                     try {
-                        Object curStation = trainCurrentStationField.get(train);
+                        Object curStation = CreateTrainAccess.trainCurrentStation(train);
                         if (curStation != null) {
                             if (curStation instanceof UUID) {
                                 // Create 1.21.1 stores UUID reference; use toString for now
                                 tag.putString("currentStationId", curStation.toString().substring(0, 8));
                             } else {
                                 // Direct GlobalStation object
-                                String stName = (String) stationNameField.get(curStation);
+                                String stName = CreateTrainAccess.stationName(curStation);
                                 if (stName != null) tag.putString("currentStation", stName);
                             }
                         }
@@ -982,11 +1141,10 @@ public class TrainNetworkDataReader {
                     // World position — try to get for the target dimension
                     boolean posFound = false;
                     String trainName = getTrainNameStr(train);
-                    if (trainGetPositionInDimMethod != null) {
+                    if (CreateTrainAccess.canLocateTrains()) {
                         try {
                             // Direct approach: iterate known dimension keys
-                            Method getPresentDims = train.getClass().getMethod("getPresentDimensions");
-                            List<?> dims = (List<?>) getPresentDims.invoke(train);
+                            List<?> dims = (List<?>) CreateTrainAccess.trainPresentDimensions(train);
                             if (dims != null) {
                                 LogicLink.LOGGER.info("[LogicLink] Train '{}': presentDimensions={}", trainName, dims);
                                 for (Object dim : dims) {
@@ -994,7 +1152,7 @@ public class TrainNetworkDataReader {
                                     ResourceKey<Level> dimKey = (ResourceKey<Level>) dim;
                                     if (dimKey.location().toString().equals(dimFilter)) {
                                         Optional<BlockPos> posOpt =
-                                                (Optional<BlockPos>) trainGetPositionInDimMethod.invoke(train, dimKey);
+                                                (Optional<BlockPos>) CreateTrainAccess.trainPositionInDimension(train, dimKey);
                                         if (posOpt != null && posOpt.isPresent()) {
                                             BlockPos pos = posOpt.get();
                                             tag.putFloat("x", pos.getX());
@@ -1013,13 +1171,11 @@ public class TrainNetworkDataReader {
                             } else {
                                 LogicLink.LOGGER.info("[LogicLink] Train '{}': getPresentDimensions returned null", trainName);
                             }
-                        } catch (NoSuchMethodException e) {
-                            LogicLink.LOGGER.warn("[LogicLink] Train '{}': getPresentDimensions method not found: {}", trainName, e.getMessage());
                         } catch (Exception e) {
                             LogicLink.LOGGER.warn("[LogicLink] Train '{}': position lookup failed: {}", trainName, e.getMessage());
                         }
                     } else {
-                        LogicLink.LOGGER.info("[LogicLink] Train '{}': trainGetPositionInDimMethod is null, skipping position lookup", trainName);
+                        LogicLink.LOGGER.info("[LogicLink] Train '{}': no position-in-dimension accessor, skipping position lookup", trainName);
                     }
 
                     if (!posFound) {
@@ -1027,37 +1183,37 @@ public class TrainNetworkDataReader {
                     }
 
                     // Navigation info
-                    Object nav = trainNavigationField.get(train);
+                    Object nav = CreateTrainAccess.trainNavigation(train);
                     if (nav != null) {
-                        boolean active = (boolean) navIsActiveMethod.invoke(nav);
+                        boolean active = CreateTrainAccess.navIsActive(nav);
                         tag.putBoolean("navigating", active);
                         if (active) {
                             try {
-                                Object dest = navDestinationField.get(nav);
+                                Object dest = CreateTrainAccess.navDestination(nav);
                                 if (dest != null) {
                                     if (dest instanceof UUID) {
                                         tag.putString("destinationId", dest.toString().substring(0, 8));
                                     } else {
-                                        String destName = (String) stationNameField.get(dest);
+                                        String destName = CreateTrainAccess.stationName(dest);
                                         if (destName != null) tag.putString("destination", destName);
                                     }
                                 }
                             } catch (Exception e) {
                                 LogicLink.LOGGER.debug("[LogicLink] Nav destination lookup failed: {}", e.getMessage());
                             }
-                            double dist = navDistanceField.getDouble(nav);
+                            double dist = CreateTrainAccess.navDistance(nav);
                             tag.putDouble("distance", dist);
 
                             // Navigation path (sequence of node positions for route overlay)
                             try {
-                                List<?> path = (List<?>) navCurrentPathField.get(nav);
+                                List<?> path = (List<?>) CreateTrainAccess.navCurrentPath(nav);
                                 if (path != null && !path.isEmpty()) {
                                     ListTag pathNodes = new ListTag();
                                     int pathLimit = Math.min(path.size(), 64);
                                     for (int i = 0; i < pathLimit; i++) {
                                         Object couple = path.get(i);
-                                        Object nodeA = coupleGetFirstMethod.invoke(couple);
-                                        Object nodeB = coupleGetSecondMethod.invoke(couple);
+                                        Object nodeA = CreateTrainAccess.first(couple);
+                                        Object nodeB = CreateTrainAccess.second(couple);
                                         Vec3 posA = getNodeWorldPos(nodeA);
                                         Vec3 posB = getNodeWorldPos(nodeB);
                                         if (posA != null && posB != null) {
@@ -1067,10 +1223,10 @@ public class TrainNetworkDataReader {
                                             seg.putFloat("bx", (float) posB.x);
                                             seg.putFloat("bz", (float) posB.z);
                                             // Include node IDs for route analysis
-                                            Integer aId = nodeIdMap.get(nodeKey(posA));
-                                            Integer bId = nodeIdMap.get(nodeKey(posB));
-                                            if (aId != null) seg.putInt("aId", aId);
-                                            if (bId != null) seg.putInt("bId", bId);
+                                            int aId = nodeId(nodeIdMap, posA);
+                                            int bId = nodeId(nodeIdMap, posB);
+                                            if (aId >= 0) seg.putInt("aId", aId);
+                                            if (bId >= 0) seg.putInt("bId", bId);
                                             pathNodes.add(seg);
                                         }
                                     }
@@ -1084,7 +1240,7 @@ public class TrainNetworkDataReader {
 
                     // Occupied signal blocks
                     try {
-                        Map<?, ?> occupied = (Map<?, ?>) trainOccupiedSignalBlocksField.get(train);
+                        Map<?, ?> occupied = (Map<?, ?>) CreateTrainAccess.trainOccupiedSignalBlocks(train);
                         if (occupied != null && !occupied.isEmpty()) {
                             ListTag groups = new ListTag();
                             for (Object key : occupied.keySet()) {
@@ -1098,19 +1254,17 @@ public class TrainNetworkDataReader {
 
                     // Signal blocking info — which signal group is this train waiting on?
                     try {
-                        Object nav2 = trainNavigationField.get(train);
-                        if (nav2 != null && navWaitingForSignalField != null) {
-                            Object waitingCouple = navWaitingForSignalField.get(nav2);
+                        Object nav2 = CreateTrainAccess.trainNavigation(train);
+                        if (nav2 != null) {
+                            Object waitingCouple = CreateTrainAccess.navWaitingForSignal(nav2);
                             if (waitingCouple != null) {
-                                Object waitGroup = coupleGetFirstMethod.invoke(waitingCouple);
+                                Object waitGroup = CreateTrainAccess.first(waitingCouple);
                                 if (waitGroup != null) {
                                     tag.putString("waitingForSignal", waitGroup.toString());
                                 }
-                                if (navTicksWaitingField != null) {
-                                    int ticks = navTicksWaitingField.getInt(nav2);
-                                    if (ticks > 0) {
-                                        tag.putInt("ticksWaitingForSignal", ticks);
-                                    }
+                                int ticks = CreateTrainAccess.navTicksWaiting(nav2);
+                                if (ticks > 0) {
+                                    tag.putInt("ticksWaitingForSignal", ticks);
                                 }
                             }
                         }
@@ -1118,41 +1272,41 @@ public class TrainNetworkDataReader {
 
                     // Schedule info (for detailed diagnostics)
                     try {
-                        Object runtime = trainRuntimeField.get(train);
+                        Object runtime = CreateTrainAccess.trainRuntime(train);
                         if (runtime != null) {
-                            Object schedule = runtimeGetScheduleMethod.invoke(runtime);
+                            Object schedule = CreateTrainAccess.runtimeSchedule(runtime);
                             tag.putBoolean("hasSchedule", schedule != null);
 
                             if (schedule != null) {
                                 try {
-                                    tag.putBoolean("schedulePaused", runtimePausedField.getBoolean(runtime));
-                                    tag.putBoolean("scheduleCompleted", runtimeCompletedField.getBoolean(runtime));
-                                    tag.putInt("scheduleEntry", runtimeCurrentEntryField.getInt(runtime));
+                                    tag.putBoolean("schedulePaused", CreateTrainAccess.runtimePaused(runtime));
+                                    tag.putBoolean("scheduleCompleted", CreateTrainAccess.runtimeCompleted(runtime));
+                                    tag.putInt("scheduleEntry", CreateTrainAccess.runtimeCurrentEntry(runtime));
 
-                                    Object state = runtimeStateField.get(runtime);
+                                    Object state = CreateTrainAccess.runtimeState(runtime);
                                     if (state != null) tag.putString("scheduleState", state.toString().toLowerCase());
 
-                                    String title = (String) runtimeCurrentTitleField.get(runtime);
+                                    String title = CreateTrainAccess.runtimeCurrentTitle(runtime);
                                     if (title != null && !title.isEmpty()) tag.putString("scheduleTitle", title);
 
-                                    List<?> entries = (List<?>) scheduleEntriesField.get(schedule);
+                                    List<?> entries = (List<?>) CreateTrainAccess.scheduleEntries(schedule);
                                     if (entries != null) {
                                         tag.putInt("scheduleEntryCount", entries.size());
-                                        tag.putBoolean("scheduleCyclic", scheduleCyclicField.getBoolean(schedule));
+                                        tag.putBoolean("scheduleCyclic", CreateTrainAccess.scheduleCyclic(schedule));
                                     }
                                 } catch (Exception ignored2) {}
 
                                 // Extract ALL schedule entry destinations for validation
                                 try {
-                                    if (scheduleEntryInstructionField != null && instructionDataField != null) {
-                                        List<?> allEntries = (List<?>) scheduleEntriesField.get(schedule);
+                                    if (CreateTrainAccess.canReadInstructions()) {
+                                        List<?> allEntries = (List<?>) CreateTrainAccess.scheduleEntries(schedule);
                                         if (allEntries != null) {
                                             ListTag schedDests = new ListTag();
                                             for (int ei = 0; ei < allEntries.size(); ei++) {
                                                 Object entry = allEntries.get(ei);
-                                                Object instr = scheduleEntryInstructionField.get(entry);
+                                                Object instr = CreateTrainAccess.entryInstruction(entry);
                                                 if (instr == null) continue;
-                                                CompoundTag instrData = (CompoundTag) instructionDataField.get(instr);
+                                                CompoundTag instrData = (CompoundTag) CreateTrainAccess.instructionData(instr);
                                                 if (instrData != null && instrData.contains("Text")) {
                                                     CompoundTag destTag = new CompoundTag();
                                                     destTag.putInt("step", ei);
@@ -1191,12 +1345,12 @@ public class TrainNetworkDataReader {
     private static void readSignalGroupOccupancy(Object manager,
                                                   Map<String, Boolean> result) {
         try {
-            Map<UUID, Object> groups = (Map<UUID, Object>) gmSignalGroupsField.get(manager);
+            Map<UUID, Object> groups = (Map<UUID, Object>) CreateTrainAccess.signalEdgeGroups(manager);
             if (groups == null) return;
 
             for (Map.Entry<UUID, Object> entry : groups.entrySet()) {
                 try {
-                    Set<?> trains = (Set<?>) segTrainsField.get(entry.getValue());
+                    Set<?> trains = (Set<?>) CreateTrainAccess.signalGroupTrains(entry.getValue());
                     result.put(entry.getKey().toString(), trains != null && !trains.isEmpty());
                 } catch (Exception ignored) {}
             }
@@ -1207,9 +1361,9 @@ public class TrainNetworkDataReader {
 
     private static Vec3 getNodeWorldPos(Object node) {
         try {
-            Object location = nodeGetLocationMethod.invoke(node);
+            Object location = CreateTrainAccess.nodeLocation(node);
             if (location == null) return null;
-            return (Vec3) nodeLocGetLocationMethod.invoke(location);
+            return CreateTrainAccess.locationPosition(location);
         } catch (Exception e) {
             return null;
         }
@@ -1217,19 +1371,58 @@ public class TrainNetworkDataReader {
 
     private static String getNodeDimension(Object node) {
         try {
-            Object location = nodeGetLocationMethod.invoke(node);
+            Object location = CreateTrainAccess.nodeLocation(node);
             if (location == null) return null;
             @SuppressWarnings("unchecked")
-            ResourceKey<Level> dim = (ResourceKey<Level>) nodeLocGetDimensionMethod.invoke(location);
+            ResourceKey<Level> dim = (ResourceKey<Level>) CreateTrainAccess.locationDimension(location);
             return dim != null ? dim.location().toString() : null;
         } catch (Exception e) {
             return null;
         }
     }
 
-    private static String nodeKey(Vec3 pos) {
-        // Use 2-decimal precision for dedup (half-block positions)
-        return String.format("%.2f:%.2f:%.2f", pos.x, pos.y, pos.z);
+    /** Half-block limits of {@link #nodeKey}: signed 26-bit X/Z and 12-bit Y. */
+    private static final long KEY_XZ_LIMIT = 1L << 25;
+    private static final long KEY_Y_LIMIT = 1L << 11;
+
+    private static volatile boolean warnedKeyRange = false;
+
+    /**
+     * True if {@link #nodeKey} is exact for this position: X and Z within
+     * [-16,777,216, 16,777,215.5] and Y within [-1024, 1023.5] blocks. That is
+     * less than the 30M world border and the 2032-block build limit, so
+     * positions outside it must be checked before keying or they would alias
+     * nodes inside the range.
+     */
+    static boolean hasNodeKey(Vec3 pos) {
+        long x = Math.round(pos.x * 2), z = Math.round(pos.z * 2), y = Math.round(pos.y * 2);
+        return x >= -KEY_XZ_LIMIT && x < KEY_XZ_LIMIT && z >= -KEY_XZ_LIMIT && z < KEY_XZ_LIMIT
+                && y >= -KEY_Y_LIMIT && y < KEY_Y_LIMIT;
+    }
+
+    /**
+     * Dedup key for a node position, quantized to Create's half-block track grid
+     * (TrackNodeLocation stores round(pos * 2)) and packed into one long:
+     * 26 bits X, 26 bits Z, 12 bits Y. Only collision-free for positions that
+     * pass {@link #hasNodeKey}; the bits wrap beyond it.
+     */
+    static long nodeKey(Vec3 pos) {
+        long x = Math.round(pos.x * 2) & 0x3FFFFFFL;
+        long z = Math.round(pos.z * 2) & 0x3FFFFFFL;
+        long y = Math.round(pos.y * 2) & 0xFFFL;
+        return (x << 38) | (z << 12) | y;
+    }
+
+    /** ID of the node at a position, or -1 if absent or outside the key range. */
+    private static int nodeId(Long2IntOpenHashMap nodeIdMap, Vec3 pos) {
+        return hasNodeKey(pos) ? nodeIdMap.get(nodeKey(pos)) : -1;
+    }
+
+    /** Node key → ID map returning -1 for absent keys. */
+    private static Long2IntOpenHashMap newNodeIdMap() {
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+        map.defaultReturnValue(-1);
+        return map;
     }
 
     // ==================== Signal & Routing Diagnostics ====================
@@ -1242,7 +1435,7 @@ public class TrainNetworkDataReader {
      * 3. Wrong-type signals at junctions (regular vs chain)
      * 4. Full schedule validation (ALL destinations checked against known stations)
      * 5. Signal-blocked train detection (using Navigation.waitingForSignal)
-     * 6. Deadlock detection (mutual signal group blocking)
+     * 6. Deadlock detection (wait-for graph cycles of any length)
      * 7. Route signal coverage (unsignaled junctions along active navigation path)
      * 8. Network connectivity (BFS reachability between all stations)
      * Produces suggested signal placement coordinates for each issue.
@@ -1253,17 +1446,21 @@ public class TrainNetworkDataReader {
      * - REGULAR SIGNAL: placed on junction EXIT (marks section boundary after junction)
      * - Distance from junction based on max train length so the longest train
      *   fits between signal and junction node without blocking.
+     *
+     * @return Network counts for the next analysis' change detection, or null without a network
      */
-    private static void analyzeDiagnostics(CompoundTag mapData) {
+    @Nullable
+    private static NetworkCounts analyzeDiagnostics(CompoundTag mapData, NetworkTopology topology,
+                                                    @Nullable NetworkCounts previous, CompoundTag out) {
         ListTag diagnostics = new ListTag();
 
-        if (!mapData.contains("Nodes") || !mapData.contains("Edges")) {
-            mapData.put("Diagnostics", diagnostics);
-            return;
+        if (topology.isEmpty()) {
+            out.put("Diagnostics", diagnostics);
+            return null;
         }
 
-        ListTag nodes = mapData.getList("Nodes", 10);
-        ListTag edges = mapData.getList("Edges", 10);
+        int nodeCount = topology.nodeCount;
+        float[] nodeX = topology.nodeX, nodeY = topology.nodeY, nodeZ = topology.nodeZ;
         ListTag signals = mapData.contains("Signals") ? mapData.getList("Signals", 10) : new ListTag();
         ListTag trains = mapData.contains("Trains") ? mapData.getList("Trains", 10) : new ListTag();
 
@@ -1281,31 +1478,33 @@ public class TrainNetworkDataReader {
                 maxTrainName = t.contains("name") ? t.getString("name") : "";
             }
         }
-        mapData.putFloat("MaxTrainLength", maxTrainLength);
-        mapData.putInt("MaxCarriages", maxCarriages);
+        out.putFloat("MaxTrainLength", maxTrainLength);
+        out.putInt("MaxCarriages", maxCarriages);
         if (!maxTrainName.isEmpty()) {
-            mapData.putString("MaxTrainName", maxTrainName);
+            out.putString("MaxTrainName", maxTrainName);
         }
 
-        // Build adjacency: nodeId -> list of {neighborId, edgeIndex}
-        Map<Integer, List<int[]>> adjacency = new HashMap<>();
-        for (int i = 0; i < edges.size(); i++) {
-            CompoundTag edge = edges.getCompound(i);
-            int a = edge.getInt("a");
-            int b = edge.getInt("b");
-            adjacency.computeIfAbsent(a, k -> new ArrayList<>()).add(new int[]{b, i});
-            adjacency.computeIfAbsent(b, k -> new ArrayList<>()).add(new int[]{a, i});
-        }
+        // CSR adjacency shared by every pass; per-edge marks are bitsets by edge index
+        TrackAdjacency adjacency = new TrackAdjacency(topology);
+        int[] offsets = adjacency.offsets, neighbors = adjacency.neighbors, edgeIds = adjacency.edgeIds;
 
-        // Build set of edges that have signals on them (by "min:max" node ID key)
-        Set<String> signaledEdges = new HashSet<>();
+        // Mark edges that have signals on them, and which signal types face along them
+        BitSet signaledEdges = new BitSet(topology.edgeCount);
+        BitSet regularSignaledEdges = new BitSet(topology.edgeCount);
+        BitSet chainSignaledEdges = new BitSet(topology.edgeCount);
         for (int i = 0; i < signals.size(); i++) {
             CompoundTag sig = signals.getCompound(i);
-            if (sig.contains("edgeA") && sig.contains("edgeB")) {
-                int a = sig.getInt("edgeA");
-                int b = sig.getInt("edgeB");
-                String ek = Math.min(a, b) + ":" + Math.max(a, b);
-                signaledEdges.add(ek);
+            if (!sig.contains("edgeA") || !sig.contains("edgeB")) continue;
+            int e = adjacency.edgeBetween(sig.getInt("edgeA"), sig.getInt("edgeB"));
+            if (e < 0) continue;
+            signaledEdges.set(e);
+            String typeF = sig.contains("typeF") ? sig.getString("typeF") : "entry_signal";
+            String typeB = sig.contains("typeB") ? sig.getString("typeB") : "entry_signal";
+            if (typeF.equals("entry_signal") || typeB.equals("entry_signal")) {
+                regularSignaledEdges.set(e);
+            }
+            if (typeF.equals("cross_signal") || typeB.equals("cross_signal")) {
+                chainSignaledEdges.set(e);
             }
         }
         LogicLink.LOGGER.info("Signaled edges set (direct): {}", signaledEdges);
@@ -1313,57 +1512,45 @@ public class TrainNetworkDataReader {
         // Build extended set: for each junction, walk outward along each branch up to 3 hops.
         // If any edge along that path has a signal, mark the junction branch as "signaled".
         // This handles Create's intermediate graph nodes between junctions and signal blocks.
-        // Key format: "junctionId:neighborId" — same as what Check 1 looks for.
-        Set<String> junctionBranchSignaled = new HashSet<>();
-        for (Map.Entry<Integer, List<int[]>> entry : adjacency.entrySet()) {
-            List<int[]> branches = entry.getValue();
-            if (branches.size() < 3) continue; // only junctions
+        // Marks the junction's own branch edge — same as what Check 1 looks for.
+        BitSet junctionBranchSignaled = new BitSet(topology.edgeCount);
+        for (int jId = 0; jId < nodeCount; jId++) {
+            if (!adjacency.isJunction(jId)) continue;
 
-            int jId = entry.getKey();
-
-            for (int[] branch : branches) {
-                int neighborId = branch[0];
-                String branchKey = Math.min(jId, neighborId) + ":" + Math.max(jId, neighborId);
+            for (int slot = offsets[jId]; slot < offsets[jId + 1]; slot++) {
+                int branchEdge = edgeIds[slot];
 
                 // Check direct edge first
-                if (signaledEdges.contains(branchKey)) {
-                    junctionBranchSignaled.add(branchKey);
+                if (signaledEdges.get(branchEdge)) {
+                    junctionBranchSignaled.set(branchEdge);
                     continue;
                 }
 
                 // Walk outward from junction along this branch: prev -> current -> next
                 // Stop at other junctions or after 3 hops
                 int prev = jId;
-                int current = neighborId;
+                int current = neighbors[slot];
+                int edge = branchEdge;
                 boolean found = false;
                 for (int hop = 0; hop < 3; hop++) {
-                    List<int[]> currentBranches = adjacency.get(current);
-                    if (currentBranches == null) break;
-
                     // If current node IS a junction, stop — that's a different junction's domain
-                    if (hop > 0 && currentBranches.size() >= 3) break;
+                    if (hop > 0 && adjacency.isJunction(current)) break;
 
                     // Check if the edge from prev to current has a signal
-                    String ek = Math.min(prev, current) + ":" + Math.max(prev, current);
-                    if (signaledEdges.contains(ek)) {
+                    if (signaledEdges.get(edge)) {
                         found = true;
                         break;
                     }
 
                     // Walk to the next node (skip back to prev)
-                    int next = -1;
-                    for (int[] nb : currentBranches) {
-                        if (nb[0] != prev) {
-                            next = nb[0];
-                            break;
-                        }
-                    }
+                    int next = adjacency.nextSlot(current, prev);
                     if (next < 0) break;
                     prev = current;
-                    current = next;
+                    current = neighbors[next];
+                    edge = edgeIds[next];
                 }
                 if (found) {
-                    junctionBranchSignaled.add(branchKey);
+                    junctionBranchSignaled.set(branchEdge);
                 }
             }
         }
@@ -1379,17 +1566,14 @@ public class TrainNetworkDataReader {
         // create the next block section (handled by Check 9 below).
         // Uses suggestedEdges to prevent two adjacent junctions from both
         // suggesting signals on the same shared edge.
-        Set<String> suggestedEdges = new HashSet<>();
-        for (Map.Entry<Integer, List<int[]>> entry : adjacency.entrySet()) {
-            List<int[]> branches = entry.getValue();
-            if (branches.size() < 3) continue; // not a junction
-
-            int jId = entry.getKey();
-            if (jId >= nodes.size()) continue;
-            CompoundTag jNode = nodes.getCompound(jId);
-            float jx = jNode.getFloat("x");
-            float jy = jNode.getFloat("y");
-            float jz = jNode.getFloat("z");
+        BitSet suggestedEdges = new BitSet(topology.edgeCount);
+        for (int jId = 0; jId < nodeCount; jId++) {
+            int branchCount = adjacency.degree(jId);
+            if (branchCount < 3) continue; // not a junction
+
+            float jx = nodeX[jId];
+            float jy = nodeY[jId];
+            float jz = nodeZ[jId];
 
             CompoundTag diag = new CompoundTag();
             diag.putString("type", "JUNCTION_UNSIGNALED");
@@ -1397,26 +1581,24 @@ public class TrainNetworkDataReader {
             diag.putFloat("x", jx);
             diag.putFloat("y", jy);
             diag.putFloat("z", jz);
-            diag.putInt("branches", branches.size());
-            diag.putInt("unsignaled", branches.size());
+            diag.putInt("branches", branchCount);
+            diag.putInt("unsignaled", branchCount);
 
             // Compute normalized direction for each branch (toward junction = entry direction)
             List<float[]> branchDirs = new ArrayList<>(); // [ndx, ndz, dist, nx, ny, nz] per branch
-            List<Integer> branchNeighborIds = new ArrayList<>(); // parallel list: neighbor node ID per branch
-            for (int[] branch : branches) {
-                int neighborId = branch[0];
-                if (neighborId >= nodes.size()) continue;
-                CompoundTag neighborNode = nodes.getCompound(neighborId);
-                float nx = neighborNode.getFloat("x");
-                float ny = neighborNode.getFloat("y");
-                float nz = neighborNode.getFloat("z");
+            IntList branchSlots = new IntArrayList(); // parallel list: adjacency slot per branch
+            for (int slot = offsets[jId]; slot < offsets[jId + 1]; slot++) {
+                int neighborId = neighbors[slot];
+                float nx = nodeX[neighborId];
+                float ny = nodeY[neighborId];
+                float nz = nodeZ[neighborId];
                 float ddx = jx - nx;
                 float ddy = jy - ny;
                 float ddz = jz - nz;
                 float dist = (float) Math.sqrt(ddx * ddx + ddy * ddy + ddz * ddz);
                 if (dist < 0.01f) continue;
                 branchDirs.add(new float[]{ ddx / dist, ddz / dist, dist, nx, ny, nz });
-                branchNeighborIds.add(neighborId);
+                branchSlots.add(slot);
             }
 
                 // Each unprotected junction approach should get a chain signal.
@@ -1432,7 +1614,9 @@ public class TrainNetworkDataReader {
                 float[] bd = branchDirs.get(bi);
                 float ndx = bd[0], ndz = bd[1], dist = bd[2];
                 float nx = bd[3], ny = bd[4], nz = bd[5];
-                int neighborId2 = branchNeighborIds.get(bi);
+                int branchSlot = branchSlots.getInt(bi);
+                int neighborId2 = neighbors[branchSlot];
+                int branchEdge = edgeIds[branchSlot];
 
                 // --- Short-edge walk: if edge < 3 blocks and neighbor is a 2-way
                 // intermediate node, walk outward to find the real approach edge.
@@ -1440,21 +1624,20 @@ public class TrainNetworkDataReader {
                 float effectiveDist = dist;
                 float effNx = nx, effNy = ny, effNz = nz;
                 int effNeighborId = neighborId2;
+                int effEdge = branchEdge;
                 boolean shortEdgeWalked = false;
                 if (dist < 3.0f) {
-                    List<int[]> neighborBranches = adjacency.get(neighborId2);
-                    if (neighborBranches != null && neighborBranches.size() == 2) {
-                        for (int[] nb : neighborBranches) {
-                            if (nb[0] == jId) continue;
-                            int contId = nb[0];
-                            if (contId >= nodes.size()) continue;
-                            CompoundTag contNode = nodes.getCompound(contId);
-                            float cnx = contNode.getFloat("x"), cny = contNode.getFloat("y"), cnz = contNode.getFloat("z");
+                    if (adjacency.degree(neighborId2) == 2) {
+                        for (int nb = offsets[neighborId2]; nb < offsets[neighborId2 + 1]; nb++) {
+                            if (neighbors[nb] == jId) continue;
+                            int contId = neighbors[nb];
+                            float cnx = nodeX[contId], cny = nodeY[contId], cnz = nodeZ[contId];
                             float cdx2 = cnx - nx, cdy2 = cny - ny, cdz2 = cnz - nz;
                             float contDist = (float) Math.sqrt(cdx2 * cdx2 + cdy2 * cdy2 + cdz2 * cdz2);
                             effectiveDist = dist + contDist;
                             effNx = cnx; effNy = cny; effNz = cnz;
                             effNeighborId = contId;
+                            effEdge = edgeIds[nb];
                             shortEdgeWalked = true;
                             LogicLink.LOGGER.info("[LogicLink]     Short edge {}b — walked through node {} to node {}, effective dist={}b",
                                     String.format("%.1f", dist), neighborId2, contId, String.format("%.1f", effectiveDist));
@@ -1495,17 +1678,13 @@ public class TrainNetworkDataReader {
                         bi, neighborId2, (int)nx, (int)ny, (int)nz, String.format("%.1f", dist));
 
                 // Skip branches that already have ANY signal (within 3 hops)
-                String branchEdgeKey = Math.min(jId, neighborId2) + ":" + Math.max(jId, neighborId2);
                 // Use the REAL intermediate edge (neighborId2→effNeighborId) not phantom jId→effNeighborId
-                String effEdgeKey = (effNeighborId != neighborId2)
-                        ? Math.min(neighborId2, effNeighborId) + ":" + Math.max(neighborId2, effNeighborId)
-                        : branchEdgeKey;
-                boolean alreadySignaled = junctionBranchSignaled.contains(branchEdgeKey)
-                        || junctionBranchSignaled.contains(effEdgeKey);
+                boolean alreadySignaled = junctionBranchSignaled.get(branchEdge)
+                        || junctionBranchSignaled.get(effEdge);
                 if (alreadySignaled) continue;
 
                 // Skip if another junction already suggested a signal on this edge
-                if (suggestedEdges.contains(branchEdgeKey) || suggestedEdges.contains(effEdgeKey)) continue;
+                if (suggestedEdges.get(branchEdge) || suggestedEdges.get(effEdge)) continue;
 
                 int bsx = Mth.floor(sugX), bsy = Mth.floor(sugY), bsz = Mth.floor(sugZ);
 
@@ -1531,8 +1710,8 @@ public class TrainNetworkDataReader {
 
                 if (!isDuplicateSuggestion(suggestions, bsx, bsy, bsz, sigType, edx, edz)) {
                     suggestions.add(branchSug);
-                    suggestedEdges.add(branchEdgeKey);
-                    suggestedEdges.add(effEdgeKey);
+                    suggestedEdges.set(branchEdge);
+                    suggestedEdges.set(effEdge);
                 }
             }
             diag.put("suggestions", suggestions);
@@ -1562,6 +1741,8 @@ public class TrainNetworkDataReader {
             String sn = stationsList.getCompound(i).getString("name");
             if (sn != null && !sn.isEmpty()) knownStationNames.add(sn);
         }
+        // Indexed exact/wildcard/fuzzy lookups, rebuilt only when the station set changes
+        StationNameIndex stationIndex = StationNameIndex.forStations(knownStationNames);
 
         for (int i = 0; i < trains.size(); i++) {
             CompoundTag train = trains.getCompound(i);
@@ -1661,13 +1842,10 @@ public class TrainNetworkDataReader {
                     float tz = train.getFloat("z");
                     float bestDist = Float.MAX_VALUE;
                     int bestJunction = -1;
-                    for (Map.Entry<Integer, List<int[]>> jEntry : adjacency.entrySet()) {
-                        if (jEntry.getValue().size() < 3) continue;
-                        int jId = jEntry.getKey();
-                        if (jId >= nodes.size()) continue;
-                        CompoundTag jNode = nodes.getCompound(jId);
-                        float ddx = jNode.getFloat("x") - tx;
-                        float ddz = jNode.getFloat("z") - tz;
+                    for (int jId = 0; jId < nodeCount; jId++) {
+                        if (!adjacency.isJunction(jId)) continue;
+                        float ddx = nodeX[jId] - tx;
+                        float ddz = nodeZ[jId] - tz;
                         float d = ddx * ddx + ddz * ddz;
                         if (d < bestDist) {
                             bestDist = d;
@@ -1675,18 +1853,15 @@ public class TrainNetworkDataReader {
                         }
                     }
                     if (bestJunction >= 0 && bestDist < 10000) { // within ~100 blocks
-                        CompoundTag jNode = nodes.getCompound(bestJunction);
-                        float jjx = jNode.getFloat("x");
-                        float jjy = jNode.getFloat("y");
-                        float jjz = jNode.getFloat("z");
-                        int jBranchCount = adjacency.get(bestJunction).size();
+                        float jjx = nodeX[bestJunction];
+                        float jjy = nodeY[bestJunction];
+                        float jjz = nodeZ[bestJunction];
+                        int jBranchCount = adjacency.degree(bestJunction);
 
                         // Check if this junction has signals
-                        int jId2 = bestJunction;
                         int jSigCount = 0;
-                        for (int[] br : adjacency.get(jId2)) {
-                            String ek = Math.min(jId2, br[0]) + ":" + Math.max(jId2, br[0]);
-                            if (signaledEdges.contains(ek)) jSigCount++;
+                        for (int slot = offsets[bestJunction]; slot < offsets[bestJunction + 1]; slot++) {
+                            if (signaledEdges.get(edgeIds[slot])) jSigCount++;
                         }
 
                         if (jSigCount == 0) {
@@ -1791,7 +1966,7 @@ public class TrainNetworkDataReader {
                 if (dest.isEmpty()) continue;
 
                 // Check if destination matches any known station (supports * wildcard)
-                boolean found = matchesAnyStation(dest, knownStationNames);
+                boolean found = stationIndex.matchesAny(dest);
 
                 if (!found) {
                     CompoundTag diag2 = new CompoundTag();
@@ -1805,7 +1980,7 @@ public class TrainNetworkDataReader {
                     }
 
                     // Find closest matching station name for suggestion
-                    String closest = findClosestStation(dest, knownStationNames);
+                    String closest = stationIndex.findClosest(dest);
                     String suggestion = closest != null
                             ? " — did you mean '" + closest + "'?"
                             : " — no similar station found";
@@ -1861,71 +2036,46 @@ public class TrainNetworkDataReader {
         }
 
         // === Check 6: Deadlock Detection ===
-        // Detect mutual signal blocking: train A waits on group G1 (occupied by B),
-        // train B waits on group G2 (occupied by A) → deadlock.
-        Map<String, String> trainWaitsOnGroup = new HashMap<>();  // trainId → groupId
-        Map<String, Set<String>> groupOccupiedByTrains = new HashMap<>();  // groupId → trainIds
-
-        for (int i = 0; i < trains.size(); i++) {
-            CompoundTag train = trains.getCompound(i);
-            String trainId = train.contains("id") ? train.getString("id") : "";
-            if (trainId.isEmpty()) continue;
-
-            if (train.contains("waitingForSignal")) {
-                trainWaitsOnGroup.put(trainId, train.getString("waitingForSignal"));
+        // Build the wait-for graph (train -> signal group it waits on -> trains
+        // occupying that group) and report every cycle, of any length.
+        List<List<String>> deadlocks = TrainDeadlockDetector.fromTrainTags(trains).findDeadlocks();
+        if (!deadlocks.isEmpty()) {
+            Map<String, CompoundTag> trainsById = new HashMap<>();
+            for (int i = 0; i < trains.size(); i++) {
+                CompoundTag train = trains.getCompound(i);
+                if (train.contains("id")) trainsById.put(train.getString("id"), train);
             }
 
-            if (train.contains("occupiedGroups")) {
-                ListTag groups = train.getList("occupiedGroups", 10);
-                for (int g = 0; g < groups.size(); g++) {
-                    String gId = groups.getCompound(g).getString("g");
-                    groupOccupiedByTrains.computeIfAbsent(gId, k -> new HashSet<>()).add(trainId);
+            for (List<String> cycle : deadlocks) {
+                List<String> names = new ArrayList<>(cycle.size());
+                for (String trainId : cycle) {
+                    CompoundTag train = trainsById.get(trainId);
+                    names.add(train != null ? train.getString("name") : trainId);
                 }
-            }
-        }
-
-        // Detect cycles
-        Set<String> deadlockedTrains = new HashSet<>();
-        for (Map.Entry<String, String> waiting : trainWaitsOnGroup.entrySet()) {
-            String trainA = waiting.getKey();
-            String groupWaited = waiting.getValue();
+                LogicLink.LOGGER.warn("[LogicLink] Deadlock cycle of {} trains: {}", cycle.size(), names);
 
-            Set<String> occupiers = groupOccupiedByTrains.getOrDefault(groupWaited, Collections.emptySet());
-            for (String trainB : occupiers) {
-                if (trainB.equals(trainA)) continue;
+                for (String trainId : cycle) {
+                    CompoundTag train = trainsById.get(trainId);
+                    if (train == null) continue;
 
-                String groupBWaits = trainWaitsOnGroup.get(trainB);
-                if (groupBWaits == null) continue;
-
-                Set<String> groupBOccupiers = groupOccupiedByTrains.getOrDefault(
-                        groupBWaits, Collections.emptySet());
-                if (groupBOccupiers.contains(trainA)) {
-                    deadlockedTrains.add(trainA);
-                    deadlockedTrains.add(trainB);
-                }
-            }
-        }
-
-        if (!deadlockedTrains.isEmpty()) {
-            for (int i = 0; i < trains.size(); i++) {
-                CompoundTag train = trains.getCompound(i);
-                String trainId = train.contains("id") ? train.getString("id") : "";
-                if (!deadlockedTrains.contains(trainId)) continue;
+                    CompoundTag diag2 = new CompoundTag();
+                    diag2.putString("type", "DEADLOCK");
+                    diag2.putString("severity", "CRIT");
+                    diag2.putString("trainName", train.getString("name"));
+                    if (train.contains("x")) {
+                        diag2.putFloat("x", train.getFloat("x"));
+                        diag2.putFloat("y", train.contains("y") ? train.getFloat("y") : 0);
+                        diag2.putFloat("z", train.getFloat("z"));
+                    }
+                    diag2.putString("desc", cycle.size() == 2
+                            ? "Deadlock: mutually blocked with another train"
+                            : "Deadlock: blocked in a cycle of " + cycle.size() + " trains");
+                    diag2.putString("detail", "Trains " + String.join(", ", names)
+                            + " are each waiting on a signal group occupied by the next"
+                            + " — manual intervention required");
 
-                CompoundTag diag2 = new CompoundTag();
-                diag2.putString("type", "DEADLOCK");
-                diag2.putString("severity", "CRIT");
-                diag2.putString("trainName", train.getString("name"));
-                if (train.contains("x")) {
-                    diag2.putFloat("x", train.getFloat("x"));
-                    diag2.putFloat("y", train.contains("y") ? train.getFloat("y") : 0);
-                    diag2.putFloat("z", train.getFloat("z"));
+                    diagnostics.add(diag2);
                 }
-                diag2.putString("desc", "Deadlock: mutually blocked with another train");
-                diag2.putString("detail", "Two or more trains are each waiting on signal groups "
-                        + "occupied by the other — manual intervention required");
-
-                diagnostics.add(diag2);
             }
         }
 
@@ -1939,37 +2089,37 @@ public class TrainNetworkDataReader {
             ListTag path = train.getList("path", 10);
             String trainName = train.getString("name");
 
-            // Collect node IDs along the route from path segment aId/bId fields
-            Set<Integer> routeNodeIds = new LinkedHashSet<>();
+            // Collect junction node IDs along the route from path segment aId/bId fields
+            IntList routeJunctions = new IntArrayList();
+            BitSet routeSeen = new BitSet(nodeCount);
             for (int p = 0; p < path.size(); p++) {
                 CompoundTag seg = path.getCompound(p);
-                if (seg.contains("aId")) routeNodeIds.add(seg.getInt("aId"));
-                if (seg.contains("bId")) routeNodeIds.add(seg.getInt("bId"));
+                for (String key : ROUTE_NODE_KEYS) {
+                    if (!seg.contains(key)) continue;
+                    int nodeId = seg.getInt(key);
+                    if (!adjacency.isJunction(nodeId) || routeSeen.get(nodeId)) continue;
+                    routeSeen.set(nodeId);
+                    routeJunctions.add(nodeId);
+                }
             }
 
             // Check each junction along the route for missing signals
-            for (int nodeId : routeNodeIds) {
-                List<int[]> nodeBranches = adjacency.get(nodeId);
-                if (nodeBranches == null || nodeBranches.size() < 3) continue; // not a junction
-
-                int totalBranches = nodeBranches.size();
+            for (int r = 0; r < routeJunctions.size(); r++) {
+                int nodeId = routeJunctions.getInt(r);
+                int totalBranches = adjacency.degree(nodeId);
                 int signaledCount = 0;
-                for (int[] br : nodeBranches) {
-                    String ek = Math.min(nodeId, br[0]) + ":" + Math.max(nodeId, br[0]);
-                    if (signaledEdges.contains(ek)) signaledCount++;
+                for (int slot = offsets[nodeId]; slot < offsets[nodeId + 1]; slot++) {
+                    if (signaledEdges.get(edgeIds[slot])) signaledCount++;
                 }
 
                 if (signaledCount < totalBranches) {
-                    if (nodeId >= nodes.size()) continue;
-                    CompoundTag jNode = nodes.getCompound(nodeId);
-
                     CompoundTag diag2 = new CompoundTag();
                     diag2.putString("type", "ROUTE_UNSIGNALED");
                     diag2.putString("severity", "WARN");
                     diag2.putString("trainName", trainName);
-                    diag2.putFloat("x", jNode.getFloat("x"));
-                    diag2.putFloat("y", jNode.getFloat("y"));
-                    diag2.putFloat("z", jNode.getFloat("z"));
+                    diag2.putFloat("x", nodeX[nodeId]);
+                    diag2.putFloat("y", nodeY[nodeId]);
+                    diag2.putFloat("z", nodeZ[nodeId]);
                     diag2.putString("desc", "Junction on route of '" + trainName + "' has "
                             + signaledCount + "/" + totalBranches + " signaled branches");
                     diag2.putString("detail", "This junction is along the active navigation path"
@@ -1995,10 +2145,9 @@ public class TrainNetworkDataReader {
             // Find nearest node to this station
             int bestNode = -1;
             float bestDist = Float.MAX_VALUE;
-            for (int n = 0; n < nodes.size(); n++) {
-                CompoundTag node = nodes.getCompound(n);
-                float ddx = node.getFloat("x") - sx;
-                float ddz = node.getFloat("z") - sz;
+            for (int n = 0; n < nodeCount; n++) {
+                float ddx = nodeX[n] - sx;
+                float ddz = nodeZ[n] - sz;
                 float d2 = ddx * ddx + ddz * ddz;
                 if (d2 < bestDist) {
                     bestDist = d2;
@@ -2015,12 +2164,12 @@ public class TrainNetworkDataReader {
             Iterator<Map.Entry<String, Integer>> stIt = stationToNode.entrySet().iterator();
             Map.Entry<String, Integer> rootEntry = stIt.next();
             String rootStation = rootEntry.getKey();
-            Set<Integer> reachable = bfsReachable(rootEntry.getValue(), adjacency);
+            BitSet reachable = adjacency.reachableFrom(rootEntry.getValue());
 
             while (stIt.hasNext()) {
                 Map.Entry<String, Integer> entry = stIt.next();
                 int nodeId = entry.getValue();
-                if (reachable.contains(nodeId)) continue;
+                if (reachable.get(nodeId)) continue;
 
                 CompoundTag diag2 = new CompoundTag();
                 diag2.putString("type", "STATION_UNREACHABLE");
@@ -2060,87 +2209,52 @@ public class TrainNetworkDataReader {
         // Also suggest regular signals on straight (non-junction) segments that have
         // no signals at all and are longer than a threshold.
 
-        // First: build a set of edges that have regular (entry_signal) signals
-        Set<String> regularSignaledEdges = new HashSet<>();
-        Set<String> chainSignaledEdges = new HashSet<>();
-        for (int i = 0; i < signals.size(); i++) {
-            CompoundTag sig = signals.getCompound(i);
-            if (!sig.contains("edgeA") || !sig.contains("edgeB")) continue;
-            int a = sig.getInt("edgeA");
-            int b = sig.getInt("edgeB");
-            String ek = Math.min(a, b) + ":" + Math.max(a, b);
-            String typeF = sig.contains("typeF") ? sig.getString("typeF") : "entry_signal";
-            String typeB = sig.contains("typeB") ? sig.getString("typeB") : "entry_signal";
-            if (typeF.equals("entry_signal") || typeB.equals("entry_signal")) {
-                regularSignaledEdges.add(ek);
-            }
-            if (typeF.equals("cross_signal") || typeB.equals("cross_signal")) {
-                chainSignaledEdges.add(ek);
-            }
-        }
+        // Regular/chain signaled edge marks were built alongside signaledEdges above
 
         // For each junction, check exit sides of branches for regular signals
-        for (Map.Entry<Integer, List<int[]>> entry : adjacency.entrySet()) {
-            List<int[]> branches = entry.getValue();
-            if (branches.size() < 3) continue; // junctions only
+        for (int jId = 0; jId < nodeCount; jId++) {
+            if (!adjacency.isJunction(jId)) continue; // junctions only
 
-            int jId = entry.getKey();
-            if (jId >= nodes.size()) continue;
-            CompoundTag jNode = nodes.getCompound(jId);
-            float jx = jNode.getFloat("x");
-            float jy = jNode.getFloat("y");
-            float jz = jNode.getFloat("z");
+            float jx = nodeX[jId];
+            float jy = nodeY[jId];
+            float jz = nodeZ[jId];
 
             // For each branch, walk outward past the chain signal zone.
             // If there's a chain signal but no regular signal between this junction
             // and the next junction (or end of track), suggest placing one.
-            for (int[] branch : branches) {
-                int neighborId = branch[0];
-                if (neighborId >= nodes.size()) continue;
-                CompoundTag neighborNode = nodes.getCompound(neighborId);
+            for (int slot = offsets[jId]; slot < offsets[jId + 1]; slot++) {
+                int neighborId = neighbors[slot];
 
                 // Walk outward from junction along this branch
                 int prev = jId;
                 int current = neighborId;
+                int edge = edgeIds[slot];
                 boolean foundChain = false;
                 boolean foundRegular = false;
                 float walkDist = 0;
                 int lastNodeBeforeNextJunction = neighborId;
 
                 for (int hop = 0; hop < 5; hop++) {
-                    String ek = Math.min(prev, current) + ":" + Math.max(prev, current);
-                    if (chainSignaledEdges.contains(ek)) foundChain = true;
-                    if (regularSignaledEdges.contains(ek)) foundRegular = true;
+                    if (chainSignaledEdges.get(edge)) foundChain = true;
+                    if (regularSignaledEdges.get(edge)) foundRegular = true;
 
                     // Accumulate distance
-                    if (prev < nodes.size() && current < nodes.size()) {
-                        CompoundTag pn = nodes.getCompound(prev);
-                        CompoundTag cn = nodes.getCompound(current);
-                        float ddx = cn.getFloat("x") - pn.getFloat("x");
-                        float ddy = cn.getFloat("y") - pn.getFloat("y");
-                        float ddz = cn.getFloat("z") - pn.getFloat("z");
-                        walkDist += (float) Math.sqrt(ddx * ddx + ddy * ddy + ddz * ddz);
-                    }
-
-                    List<int[]> currentBranches = adjacency.get(current);
-                    if (currentBranches == null) break;
+                    float ddx = nodeX[current] - nodeX[prev];
+                    float ddy = nodeY[current] - nodeY[prev];
+                    float ddz = nodeZ[current] - nodeZ[prev];
+                    walkDist += (float) Math.sqrt(ddx * ddx + ddy * ddy + ddz * ddz);
 
                     // Stop at next junction
-                    if (currentBranches.size() >= 3) break;
+                    if (adjacency.isJunction(current)) break;
 
                     lastNodeBeforeNextJunction = current;
 
                     // Find next node (not going back)
-                    int next = -1;
-                    for (int[] nb : currentBranches) {
-                        if (nb[0] != prev) {
-                            next = nb[0];
-                            break;
-                        }
-                    }
+                    int next = adjacency.nextSlot(current, prev);
                     if (next < 0) break;
                     prev = current;
-                    current = next;
+                    current = neighbors[next];
+                    edge = edgeIds[next];
                 }
 
                 // If there's a chain signal on this branch but no regular signal,
@@ -2148,9 +2262,9 @@ public class TrainNetworkDataReader {
                 // (further from junction, to create a block section boundary)
                 if (foundChain && !foundRegular && walkDist > 6.0f) {
                     // Suggest placement: past the chain signal, closer to the far end
-                    float ndx = neighborNode.getFloat("x") - jx;
-                    float ndy = neighborNode.getFloat("y") - jy;
-                    float ndz = neighborNode.getFloat("z") - jz;
+                    float ndx = nodeX[neighborId] - jx;
+                    float ndy = nodeY[neighborId] - jy;
+                    float ndz = nodeZ[neighborId] - jz;
                     float dist = (float) Math.sqrt(ndx * ndx + ndy * ndy + ndz * ndz);
                     if (dist < 0.01f) continue;
 
@@ -2197,65 +2311,57 @@ public class TrainNetworkDataReader {
         // === Check 10: Network Change Detection (Rescan Alerts) ===
         // Compare current scan with previous snapshot to detect changes that
         // may require signal re-evaluation (train length, station, layout changes).
-        {
-            int currentTrainCount = trains.size();
-            float currentMaxLen = maxTrainLength;
-            int currentStationCount = mapData.contains("Stations") ? mapData.getList("Stations", 10).size() : 0;
-            int currentJunctionCount = 0;
-            for (Map.Entry<Integer, List<int[]>> adjEntry : adjacency.entrySet()) {
-                if (adjEntry.getValue().size() >= 3) currentJunctionCount++;
-            }
-
-            if (prevScanTrainCount >= 0) { // not first scan
-                List<String> changes = new ArrayList<>();
-                if (currentTrainCount != prevScanTrainCount) {
-                    changes.add("Trains: " + prevScanTrainCount + " -> " + currentTrainCount);
-                }
-                if (Math.abs(currentMaxLen - prevScanMaxTrainLength) > 0.5f) {
-                    changes.add("Max train length: " + (int) prevScanMaxTrainLength + "b -> " + (int) currentMaxLen + "b");
-                }
-                if (currentStationCount != prevScanStationCount) {
-                    changes.add("Stations: " + prevScanStationCount + " -> " + currentStationCount);
+        int currentTrainCount = trains.size();
+        float currentMaxLen = maxTrainLength;
+        int currentStationCount = mapData.contains("Stations") ? mapData.getList("Stations", 10).size() : 0;
+        int currentJunctionCount = adjacency.junctionCount();
+        if (previous != null) { // not first scan
+            int prevScanTrainCount = previous.trainCount();
+            float prevScanMaxTrainLength = previous.maxTrainLength();
+            int prevScanStationCount = previous.stationCount();
+            int prevScanJunctionCount = previous.junctionCount();
+            List<String> changes = new ArrayList<>();
+            if (currentTrainCount != prevScanTrainCount) {
+                changes.add("Trains: " + prevScanTrainCount + " -> " + currentTrainCount);
+            }
+            if (Math.abs(currentMaxLen - prevScanMaxTrainLength) > 0.5f) {
+                changes.add("Max train length: " + (int) prevScanMaxTrainLength + "b -> " + (int) currentMaxLen + "b");
+            }
+            if (currentStationCount != prevScanStationCount) {
+                changes.add("Stations: " + prevScanStationCount + " -> " + currentStationCount);
+            }
+            if (currentJunctionCount != prevScanJunctionCount) {
+                changes.add("Junctions: " + prevScanJunctionCount + " -> " + currentJunctionCount);
+            }
+
+            if (!changes.isEmpty()) {
+                CompoundTag changeDiag = new CompoundTag();
+                changeDiag.putString("type", "NETWORK_CHANGED");
+                // Determine severity based on what changed
+                String severity = "INFO";
+                String desc = "Network changes detected — review signal placement";
+                if (currentMaxLen > prevScanMaxTrainLength + 0.5f) {
+                    severity = "WARN";
+                    desc = "Longer train detected — signal spacing may need updating";
+                } else if (currentJunctionCount > prevScanJunctionCount) {
+                    severity = "WARN";
+                    desc = "New junctions detected — check signal coverage";
+                } else if (currentTrainCount > 0 && prevScanTrainCount == 0) {
+                    severity = "WARN";
+                    desc = "Trains added to network — verify signal placement";
                 }
-                if (currentJunctionCount != prevScanJunctionCount) {
-                    changes.add("Junctions: " + prevScanJunctionCount + " -> " + currentJunctionCount);
-                }
-
-                if (!changes.isEmpty()) {
-                    CompoundTag changeDiag = new CompoundTag();
-                    changeDiag.putString("type", "NETWORK_CHANGED");
-                    // Determine severity based on what changed
-                    String severity = "INFO";
-                    String desc = "Network changes detected — review signal placement";
-                    if (currentMaxLen > prevScanMaxTrainLength + 0.5f) {
-                        severity = "WARN";
-                        desc = "Longer train detected — signal spacing may need updating";
-                    } else if (currentJunctionCount > prevScanJunctionCount) {
-                        severity = "WARN";
-                        desc = "New junctions detected — check signal coverage";
-                    } else if (currentTrainCount > 0 && prevScanTrainCount == 0) {
-                        severity = "WARN";
-                        desc = "Trains added to network — verify signal placement";
-                    }
-                    changeDiag.putString("severity", severity);
-                    changeDiag.putString("desc", desc);
+                changeDiag.putString("severity", severity);
+                changeDiag.putString("desc", desc);
 
-                    StringBuilder detail = new StringBuilder();
-                    for (int ci = 0; ci < changes.size(); ci++) {
-                        if (ci > 0) detail.append("; ");
-                        detail.append(changes.get(ci));
-                    }
-                    changeDiag.putString("detail", detail.toString());
-
-                    diagnostics.add(changeDiag);
+                StringBuilder detail = new StringBuilder();
+                for (int ci = 0; ci < changes.size(); ci++) {
+                    if (ci > 0) detail.append("; ");
+                    detail.append(changes.get(ci));
                 }
-            }
+                changeDiag.putString("detail", detail.toString());
 
-            // Update snapshot for next scan
-            prevScanTrainCount = currentTrainCount;
-            prevScanMaxTrainLength = currentMaxLen;
-            prevScanStationCount = currentStationCount;
-            prevScanJunctionCount = currentJunctionCount;
+                diagnostics.add(changeDiag);
+            }
         }
 
         // === Check 11: Chain-Only Corridor Detection ===
@@ -2265,36 +2371,31 @@ public class TrainNetworkDataReader {
         // Chain signals look ahead to the next REGULAR signal as a stopping point.
         // Without a regular signal somewhere in the chain, they loop infinitely.
         {
-            Set<String> checkedPairs = new HashSet<>();
-            for (Map.Entry<Integer, List<int[]>> adj1 : adjacency.entrySet()) {
-                if (adj1.getValue().size() < 3) continue; // junction A
-                int jA = adj1.getKey();
+            LongOpenHashSet checkedPairs = new LongOpenHashSet();
+            for (int jA = 0; jA < nodeCount; jA++) {
+                if (!adjacency.isJunction(jA)) continue; // junction A
 
-                for (int[] branch : adj1.getValue()) {
+                for (int slot = offsets[jA]; slot < offsets[jA + 1]; slot++) {
                     // Walk from junction A along this branch to find junction B or dead-end
                     int prev = jA;
-                    int cur = branch[0];
+                    int cur = neighbors[slot];
+                    int edge = edgeIds[slot];
                     boolean hasChain = false;
                     boolean hasRegular = false;
                     boolean reachedJunction = false;
-                    List<String> pathEdges = new ArrayList<>();
+                    int pathEdgeCount = 0;
 
                     for (int hop = 0; hop < 10; hop++) {
-                        String ek = Math.min(prev, cur) + ":" + Math.max(prev, cur);
-                        pathEdges.add(ek);
-                        if (chainSignaledEdges.contains(ek)) hasChain = true;
-                        if (regularSignaledEdges.contains(ek)) hasRegular = true;
-
-                        List<int[]> curBranches = adjacency.get(cur);
-                        if (curBranches == null) break;
+                        pathEdgeCount++;
+                        if (chainSignaledEdges.get(edge)) hasChain = true;
+                        if (regularSignaledEdges.get(edge)) hasRegular = true;
 
                         // Reached another junction?
-                        if (curBranches.size() >= 3) {
+                        if (adjacency.isJunction(cur)) {
                             reachedJunction = true;
                             int jB = cur;
-                            String pairKey = Math.min(jA, jB) + ":" + Math.max(jA, jB);
-                            if (!checkedPairs.contains(pairKey) && hasChain && !hasRegular) {
-                                checkedPairs.add(pairKey);
+                            long pairKey = ((long) Math.min(jA, jB) << 32) | Math.max(jA, jB);
+                            if (hasChain && !hasRegular && checkedPairs.add(pairKey)) {
 
                                 // Chain-only corridor found!
                                 CompoundTag corDiag = new CompoundTag();
@@ -2302,13 +2403,9 @@ public class TrainNetworkDataReader {
                                 corDiag.putString("severity", "CRIT");
 
                                 // Position at midpoint
-                                if (jA < nodes.size() && jB < nodes.size()) {
-                                    CompoundTag nA = nodes.getCompound(jA);
-                                    CompoundTag nB = nodes.getCompound(jB);
-                                    corDiag.putFloat("x", (nA.getFloat("x") + nB.getFloat("x")) / 2);
-                                    corDiag.putFloat("y", (nA.getFloat("y") + nB.getFloat("y")) / 2);
-                                    corDiag.putFloat("z", (nA.getFloat("z") + nB.getFloat("z")) / 2);
-                                }
+                                corDiag.putFloat("x", (nodeX[jA] + nodeX[jB]) / 2);
+                                corDiag.putFloat("y", (nodeY[jA] + nodeY[jB]) / 2);
+                                corDiag.putFloat("z", (nodeZ[jA] + nodeZ[jB]) / 2);
 
                                 corDiag.putString("desc", "Chain-only corridor between two junctions — "
                                         + "no regular signal terminator. Trains will report NO_PATH.");
@@ -2321,36 +2418,31 @@ public class TrainNetworkDataReader {
 
                                 LogicLink.LOGGER.warn("[LogicLink] CHAIN_ONLY_CORRIDOR between "
                                         + "junctions {} and {} ({} edges, all chain, no regular)",
-                                        jA, jB, pathEdges.size());
+                                        jA, jB, pathEdgeCount);
                             }
                             break;
                         }
 
                         // Continue walk (straight through 2-way node)
-                        int next = -1;
-                        for (int[] nb : curBranches) {
-                            if (nb[0] != prev) { next = nb[0]; break; }
-                        }
+                        int next = adjacency.nextSlot(cur, prev);
                         if (next < 0) break;
                         prev = cur;
-                        cur = next;
+                        cur = neighbors[next];
+                        edge = edgeIds[next];
                     }
 
                     // Dead-end chain corridor: walk ended without reaching another
                     // junction (hit a dead-end, station terminus, or end of track).
                     // Chain signals without a regular terminator downstream = NO_PATH.
-                    if (!reachedJunction && hasChain && !hasRegular && !pathEdges.isEmpty()) {
+                    if (!reachedJunction && hasChain && !hasRegular && pathEdgeCount > 0) {
                         CompoundTag deadEndDiag = new CompoundTag();
                         deadEndDiag.putString("type", "CHAIN_ONLY_CORRIDOR");
                         deadEndDiag.putString("severity", "CRIT");
 
                         // Position at the dead-end node
-                        if (cur < nodes.size()) {
-                            CompoundTag nEnd = nodes.getCompound(cur);
-                            deadEndDiag.putFloat("x", nEnd.getFloat("x"));
-                            deadEndDiag.putFloat("y", nEnd.getFloat("y"));
-                            deadEndDiag.putFloat("z", nEnd.getFloat("z"));
-                        }
+                        deadEndDiag.putFloat("x", nodeX[cur]);
+                        deadEndDiag.putFloat("y", nodeY[cur]);
+                        deadEndDiag.putFloat("z", nodeZ[cur]);
 
                         deadEndDiag.putString("desc", "Chain signal(s) with no regular terminator — "
                                 + "path ends without a stopping point. Trains will report NO_PATH.");
@@ -2361,7 +2453,7 @@ public class TrainNetworkDataReader {
                         diagnostics.add(deadEndDiag);
 
                         LogicLink.LOGGER.warn("[LogicLink] CHAIN_ONLY dead-end from junction {} "
-                                + "({} edges, chain but no regular terminator)", jA, pathEdges.size());
+                                + "({} edges, chain but no regular terminator)", jA, pathEdgeCount);
                     }
                 }
             }
@@ -2395,7 +2487,8 @@ public class TrainNetworkDataReader {
         }
         LogicLink.LOGGER.debug("[LogicLink] ===== END DIAGNOSTICS DUMP =====");
 
-        mapData.put("Diagnostics", diagnostics);
+        out.put("Diagnostics", diagnostics);
+        return new NetworkCounts(currentTrainCount, currentMaxLen, currentStationCount, currentJunctionCount);
     }
 
     private static String getCardinalDir(float dx, float dz) {
@@ -2434,356 +2527,11 @@ public class TrainNetworkDataReader {
 
     private static String getTrainNameStr(Object train) {
         try {
-            Object nameComp = trainNameField.get(train);
+            Object nameComp = CreateTrainAccess.trainName(train);
             if (nameComp != null) {
-                return (String) componentGetStringMethod.invoke(nameComp);
+                return ((Component) nameComp).getString();
             }
         } catch (Exception ignored) {}
         return "Unknown";
     }
-
-    // ==================== Schedule & Route Analysis Helpers ====================
-
-    /**
-     * Check if a schedule destination pattern matches any known station name.
-     * Supports Create's wildcard matching (e.g., "Station *" matches "Station 1").
-     */
-    private static boolean matchesAnyStation(String pattern, Set<String> stationNames) {
-        if (stationNames.contains(pattern)) return true;
-
-        // Create uses * as glob wildcard
-        if (pattern.contains("*")) {
-            String regex = "^" + pattern.replace(".", "\\.").replace("*", ".*") + "$";
-            try {
-                for (String name : stationNames) {
-                    if (name.matches(regex)) return true;
-                }
-            } catch (Exception ignored) {}
-        }
-
-        return false;
-    }
-
-    /**
-     * Find the closest matching station name using Levenshtein distance.
-     * Returns null if no station is reasonably close (within 40% of target length).
-     */
-    private static String findClosestStation(String target, Set<String> stationNames) {
-        if (stationNames.isEmpty()) return null;
-
-        String closest = null;
-        int bestDist = Integer.MAX_VALUE;
-        String targetLower = target.toLowerCase();
-
-        for (String name : stationNames) {
-            int dist = levenshteinDistance(targetLower, name.toLowerCase());
-            if (dist < bestDist) {
-                bestDist = dist;
-                closest = name;
-            }
-        }
-
-        // Only suggest if reasonably close
-        return bestDist <= Math.max(3, target.length() * 0.4) ? closest : null;
-    }
-
-    /**
-     * Compute Levenshtein edit distance between two strings.
-     */
-    private static int levenshteinDistance(String a, String b) {
-        int[][] dp = new int[a.length() + 1][b.length() + 1];
-        for (int i = 0; i <= a.length(); i++) dp[i][0] = i;
-        for (int j = 0; j <= b.length(); j++) dp[0][j] = j;
-        for (int i = 1; i <= a.length(); i++) {
-            for (int j = 1; j <= b.length(); j++) {
-                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(dp[i - 1][j] + 1,
-                        Math.min(dp[i][j - 1] + 1, dp[i - 1][j - 1] + cost));
-            }
-        }
-        return dp[a.length()][b.length()];
-    }
-
-    /**
-     * BFS to find all nodes reachable from a starting node via the adjacency graph.
-     */
-    private static Set<Integer> bfsReachable(int startNode,
-                                              Map<Integer, List<int[]>> adjacency) {
-        Set<Integer> visited = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(startNode);
-        visited.add(startNode);
-
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-            List<int[]> neighbors = adjacency.get(current);
-            if (neighbors == null) continue;
-            for (int[] neighbor : neighbors) {
-                if (visited.add(neighbor[0])) {
-                    queue.add(neighbor[0]);
-                }
-            }
-        }
-
-        return visited;
-    }
-
-    // ==================== Reflection Initialization ====================
-
-    private static boolean ensureReflection() {
-        if (!reflectionInit) initReflection();
-        return reflectionOK;
-    }
-
-    private static synchronized void initReflection() {
-        if (reflectionInit) return;
-        reflectionInit = true;
-
-        try {
-            // === Create.RAILWAYS ===
-            Class<?> createClass = Class.forName("com.simibubi.create.Create");
-            railwaysField = createClass.getField("RAILWAYS");
-
-            Object testManager = railwaysField.get(null);
-            if (testManager == null) {
-                LogicLink.LOGGER.warn("TrainNetworkDataReader: Create.RAILWAYS is null, will retry");
-                reflectionInit = false;
-                return;
-            }
-
-            // === GlobalRailwayManager ===
-            Class<?> gmClass = testManager.getClass();
-            gmTrainsField = gmClass.getField("trains");
-            gmTrackNetworksField = gmClass.getField("trackNetworks");
-            gmSignalGroupsField = gmClass.getField("signalEdgeGroups");
-
-            // === TrackGraph ===
-            Class<?> graphClass = Class.forName("com.simibubi.create.content.trains.graph.TrackGraph");
-            graphNodesField = graphClass.getDeclaredField("nodes");
-            graphNodesField.setAccessible(true);
-            graphConnectionsField = graphClass.getDeclaredField("connectionsByNode");
-            graphConnectionsField.setAccessible(true);
-
-            edgePointTypeClass = Class.forName("com.simibubi.create.content.trains.graph.EdgePointType");
-            graphGetPointsMethod = graphClass.getMethod("getPoints", edgePointTypeClass);
-
-            // EdgePointType constants
-            epTypeStation = edgePointTypeClass.getField("STATION").get(null);
-            epTypeSignal = edgePointTypeClass.getField("SIGNAL").get(null);
-            try {
-                epTypeObserver = edgePointTypeClass.getField("OBSERVER").get(null);
-            } catch (Exception ignored) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: OBSERVER edge point type not found");
-            }
-
-            // === TrackNode ===
-            Class<?> nodeClass = Class.forName("com.simibubi.create.content.trains.graph.TrackNode");
-            nodeGetLocationMethod = nodeClass.getMethod("getLocation");
-            nodeGetNetIdMethod = nodeClass.getMethod("getNetId");
-
-            // === TrackNodeLocation ===
-            Class<?> nodeLocClass = Class.forName("com.simibubi.create.content.trains.graph.TrackNodeLocation");
-            nodeLocGetLocationMethod = nodeLocClass.getMethod("getLocation");
-            nodeLocGetDimensionMethod = nodeLocClass.getMethod("getDimension");
-
-            // === TrackEdge ===
-            Class<?> edgeClass = Class.forName("com.simibubi.create.content.trains.graph.TrackEdge");
-            edgeGetLengthMethod = edgeClass.getMethod("getLength");
-            edgeIsTurnMethod = edgeClass.getMethod("isTurn");
-            edgeTurnField = edgeClass.getDeclaredField("turn");
-            edgeTurnField.setAccessible(true);
-            edgeInterDimField = edgeClass.getDeclaredField("interDimensional");
-            edgeInterDimField.setAccessible(true);
-            edgeEdgeDataField = edgeClass.getDeclaredField("edgeData");
-            edgeEdgeDataField.setAccessible(true);
-
-            // Edge getPosition(TrackGraph, double) — for bezier sampling
-            try {
-                edgeGetPositionMethod = edgeClass.getMethod("getPosition", graphClass, double.class);
-            } catch (NoSuchMethodException ignored) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: edge.getPosition not found, curves won't sample");
-            }
-
-            // === EdgeData ===
-            Class<?> edgeDataClass = Class.forName("com.simibubi.create.content.trains.graph.EdgeData");
-            edgeDataSignalGroupField = edgeDataClass.getDeclaredField("singleSignalGroup");
-            edgeDataSignalGroupField.setAccessible(true);
-
-            // === TrackEdgePoint (base class) ===
-            Class<?> edgePointClass = Class.forName("com.simibubi.create.content.trains.signal.TrackEdgePoint");
-            edgePointEdgeLocationField = edgePointClass.getDeclaredField("edgeLocation");
-            edgePointEdgeLocationField.setAccessible(true);
-            edgePointPositionField = edgePointClass.getDeclaredField("position");
-            edgePointPositionField.setAccessible(true);
-
-            // === GlobalStation ===
-            Class<?> stationClass = Class.forName("com.simibubi.create.content.trains.station.GlobalStation");
-            stationNameField = stationClass.getField("name");
-            stationGetBlockEntityPosMethod = stationClass.getMethod("getBlockEntityPos");
-            stationGetPresentTrainMethod = stationClass.getMethod("getPresentTrain");
-            stationGetImminentTrainMethod = stationClass.getMethod("getImminentTrain");
-
-            // === SignalBoundary ===
-            Class<?> signalClass = Class.forName("com.simibubi.create.content.trains.signal.SignalBoundary");
-            signalCachedStatesField = signalClass.getField("cachedStates");
-            signalTypesField = signalClass.getField("types");
-            signalBlockEntitiesField = signalClass.getField("blockEntities");
-
-            // === SignalEdgeGroup ===
-            Class<?> segClass = Class.forName("com.simibubi.create.content.trains.signal.SignalEdgeGroup");
-            segTrainsField = segClass.getDeclaredField("trains");
-            segTrainsField.setAccessible(true);
-            try {
-                segColorField = segClass.getDeclaredField("color");
-                segColorField.setAccessible(true);
-            } catch (Exception ignored) {}
-
-            // === Couple ===
-            Class<?> coupleClass = Class.forName("net.createmod.catnip.data.Couple");
-            coupleGetFirstMethod = coupleClass.getMethod("getFirst");
-            coupleGetSecondMethod = coupleClass.getMethod("getSecond");
-
-            // === Train ===
-            Class<?> trainClass = Class.forName("com.simibubi.create.content.trains.entity.Train");
-            trainNameField = trainClass.getField("name");
-            trainIdField = trainClass.getField("id");
-            trainSpeedField = trainClass.getField("speed");
-            trainDerailedField = trainClass.getField("derailed");
-            trainCarriagesField = trainClass.getField("carriages");
-            trainNavigationField = trainClass.getField("navigation");
-            trainCurrentStationField = trainClass.getField("currentStation");
-            trainGraphField = trainClass.getDeclaredField("graph");
-            trainGraphField.setAccessible(true);
-
-            // === Carriage (for actual train length from bogey spacing) ===
-            try {
-                Class<?> carriageClass = Class.forName("com.simibubi.create.content.trains.entity.Carriage");
-                carriageBogeySpacingField = carriageClass.getField("bogeySpacing");
-            } catch (Exception e) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: Carriage.bogeySpacing not found, using heuristic");
-            }
-
-            // ScheduleRuntime — for detailed train status diagnostics
-            trainRuntimeField = trainClass.getField("runtime");
-            Class<?> runtimeClass = Class.forName("com.simibubi.create.content.trains.schedule.ScheduleRuntime");
-            runtimeGetScheduleMethod = runtimeClass.getMethod("getSchedule");
-            runtimePausedField = runtimeClass.getField("paused");
-            runtimeCompletedField = runtimeClass.getField("completed");
-            runtimeCurrentEntryField = runtimeClass.getField("currentEntry");
-            runtimeCurrentTitleField = runtimeClass.getField("currentTitle");
-            runtimeStateField = runtimeClass.getField("state");
-
-            Class<?> scheduleClass = Class.forName(
-                    "com.simibubi.create.content.trains.schedule.Schedule");
-            scheduleEntriesField = scheduleClass.getField("entries");
-            scheduleCyclicField = scheduleClass.getField("cyclic");
-
-            try {
-                trainOccupiedSignalBlocksField = trainClass.getField("occupiedSignalBlocks");
-            } catch (Exception ignored) {
-                try {
-                    trainOccupiedSignalBlocksField = trainClass.getDeclaredField("occupiedSignalBlocks");
-                    trainOccupiedSignalBlocksField.setAccessible(true);
-                } catch (Exception ignored2) {}
-            }
-
-            try {
-                trainGetPositionInDimMethod = trainClass.getMethod("getPositionInDimension",
-                        ResourceKey.class);
-                LogicLink.LOGGER.info("[LogicLink] Reflection: Train.getPositionInDimension resolved OK");
-            } catch (Exception e) {
-                LogicLink.LOGGER.warn("[LogicLink] Reflection: Train.getPositionInDimension NOT found: {}", e.getMessage());
-                // Try alternative method names that Create might use
-                try {
-                    trainGetPositionInDimMethod = trainClass.getMethod("getBlockPosInDimension",
-                            ResourceKey.class);
-                    LogicLink.LOGGER.info("[LogicLink] Reflection: Train.getBlockPosInDimension resolved as fallback");
-                } catch (Exception e2) {
-                    LogicLink.LOGGER.warn("[LogicLink] Reflection: No position-in-dimension method found at all");
-                    // Log all available methods for debugging
-                    StringBuilder methods = new StringBuilder();
-                    for (Method m : trainClass.getMethods()) {
-                        if (m.getName().toLowerCase().contains("pos") || m.getName().toLowerCase().contains("dim")) {
-                            methods.append(m.getName()).append("(");
-                            for (Class<?> p : m.getParameterTypes()) methods.append(p.getSimpleName()).append(",");
-                            methods.append(") ");
-                        }
-                    }
-                    LogicLink.LOGGER.info("[LogicLink] Train class position/dim methods: {}", methods);
-                }
-            }
-
-            // === Navigation ===
-            Class<?> navClass = Class.forName("com.simibubi.create.content.trains.entity.Navigation");
-            navDestinationField = navClass.getField("destination");
-            navDistanceField = navClass.getField("distanceToDestination");
-            navIsActiveMethod = navClass.getMethod("isActive");
-            navCurrentPathField = navClass.getDeclaredField("currentPath");
-            navCurrentPathField.setAccessible(true);
-
-            // Navigation — signal blocking detection
-            try {
-                navWaitingForSignalField = navClass.getDeclaredField("waitingForSignal");
-                navWaitingForSignalField.setAccessible(true);
-            } catch (Exception e) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: Navigation.waitingForSignal not found");
-            }
-            try {
-                navTicksWaitingField = navClass.getDeclaredField("ticksWaitingForSignal");
-                navTicksWaitingField.setAccessible(true);
-            } catch (Exception e) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: Navigation.ticksWaitingForSignal not found");
-            }
-
-            // === ScheduleEntry — for full schedule iteration ===
-            try {
-                Class<?> entryClass = Class.forName(
-                        "com.simibubi.create.content.trains.schedule.ScheduleEntry");
-                scheduleEntryInstructionField = entryClass.getField("instruction");
-
-                Class<?> instrClass = Class.forName(
-                        "com.simibubi.create.content.trains.schedule.ScheduleInstruction");
-                instructionDataField = instrClass.getDeclaredField("data");
-                instructionDataField.setAccessible(true);
-            } catch (Exception e) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: ScheduleEntry/Instruction reflection failed: {}",
-                        e.getMessage());
-            }
-
-            // === SignalBoundary per-side groups ===
-            try {
-                signalBoundaryGroupsField = Class.forName(
-                        "com.simibubi.create.content.trains.signal.SignalBoundary")
-                        .getField("groups");
-            } catch (Exception e) {
-                LogicLink.LOGGER.debug("TrainNetworkDataReader: SignalBoundary.groups not found");
-            }
-
-            // === TrackObserver ===
-            Class<?> observerClass = Class.forName("com.simibubi.create.content.trains.observer.TrackObserver");
-            observerIsActivatedMethod = observerClass.getMethod("isActivated");
-
-            // SingleBlockEntityEdgePoint — parent of station and observer
-            Class<?> singleBEEPClass = Class.forName(
-                    "com.simibubi.create.content.trains.signal.SingleBlockEntityEdgePoint");
-            observerGetBlockEntityPosMethod = singleBEEPClass.getMethod("getBlockEntityPos");
-
-            try {
-                observerGetFilterMethod = observerClass.getMethod("getFilter");
-            } catch (Exception ignored) {}
-
-            // === Component ===
-            componentGetStringMethod = Component.class.getMethod("getString");
-
-            reflectionOK = true;
-            LogicLink.LOGGER.info("TrainNetworkDataReader: Reflection initialized — full topology access OK");
-
-        } catch (ClassNotFoundException e) {
-            LogicLink.LOGGER.warn("TrainNetworkDataReader: Create classes not found — {}", e.getMessage());
-            reflectionOK = false;
-        } catch (Exception e) {
-            LogicLink.LOGGER.error("TrainNetworkDataReader: Reflection init failed", e);
-            reflectionOK = false;
-        }
-    }
 }
@@ -0,0 +1,52 @@
+package com.apocscode.logiclink.peripheral;
+
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * Immutable result of one full train network scan for a single dimension.
+ * <p>
+ * Snapshots are produced by {@link TrainNetworkSnapshotService} and shared by
+ * every consumer in that dimension (Train Monitors, Signal Tablets, Train
+ * Controllers). The wrapped {@link CompoundTag} is handed out without copying,
+ * so callers must treat it as read-only and copy it before modifying: the
+ * service only ever publishes new tags, Train Monitors copy on their first
+ * in-place patch, and clients receive their own copy. Train Controllers never
+ * see the tag; they read the unmodifiable {@link TrainControllerView} instead.
+ * </p>
+ *
+ * @param dimension Dimension id the snapshot was filtered to (e.g. "minecraft:overworld").
+ * @param epoch     Per-dimension build counter; increases by one for every rebuild.
+ * @param gameTime  Level game time at which the snapshot was captured.
+ * @param trackStamp {@link TrackChangeTracker#stamp} of the dimension at capture time.
+ * @param mapData   Full map data as produced by {@link TrainNetworkDataReader#scanNetwork}, plus
+ *                  the diagnostics keys of the latest finished analysis.
+ * @param topology  Columnar track layout of the same scan (also encoded inside {@code mapData}).
+ * @param diagnosticsEpoch Epoch of the capture the diagnostics in {@code mapData} were computed
+ *                  from, or -1 if none have been computed yet.
+ * @param hashes    Per-entity and per-key content hashes of {@code mapData}, for change
+ *                  detection and deltas.
+ */
+public record TrainNetworkSnapshot(String dimension, int epoch, long gameTime, long trackStamp,
+                                   CompoundTag mapData, NetworkTopology topology,
+                                   int diagnosticsEpoch, MapEntityHashes hashes) {
+
+    /** True if the scan found no track network (or Create was not ready). */
+    public boolean isEmpty() {
+        return mapData.isEmpty();
+    }
+
+    /** True once diagnostics computed from this very capture have been published. */
+    public boolean isAnalyzed() {
+        return diagnosticsEpoch == epoch;
+    }
+
+    /** True if Create reported a track change after this snapshot was captured. */
+    public boolean isTrackStale() {
+        return trackStamp != TrackChangeTracker.stamp(dimension);
+    }
+
+    /** Number of ticks since this snapshot was captured. */
+    public long ageTicks(long now) {
+        return now - gameTime;
+    }
+}
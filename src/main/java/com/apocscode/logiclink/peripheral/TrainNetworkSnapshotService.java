@@ -0,0 +1,267 @@
+package com.apocscode.logiclink.peripheral;
+
+import com.apocscode.logiclink.LogicLink;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.level.Level;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Server-wide cache of train network snapshots, one per dimension.
+ * <p>
+ * Every Train Monitor, Signal Tablet and Train Controller used to run its own
+ * full reflective walk of Create's track graphs. This service builds at most one
+ * {@link TrainNetworkSnapshot} per dimension per refresh epoch and hands the same
+ * immutable snapshot to every consumer, so scan cost stays flat no matter how many
+ * monitors or tablets are in use. Train Controllers share a separate
+ * {@link TrainControllerView} with its own capture cadence; they never rebuild
+ * the snapshot.
+ * </p>
+ * <p>
+ * Consumers pass the maximum snapshot age they can tolerate. The first caller that
+ * finds the cached snapshot too old triggers a rebuild; everyone else in the same
+ * epoch reuses the result. A snapshot is also rebuilt as soon as
+ * {@link TrackChangeTracker} reports a track change, at most once every
+ * {@link #CHANGE_DEBOUNCE_TICKS} ticks so a player laying track does not cause a
+ * scan per placed block.
+ * </p>
+ * <p>
+ * Only the capture runs on the server thread. Diagnostics are analyzed by
+ * {@link NetworkDiagnosticsWorker}; until its result is published a new snapshot
+ * carries the previous snapshot's diagnostics, and the published result replaces
+ * the snapshot with one whose {@link TrainNetworkSnapshot#diagnosticsEpoch} is
+ * current.
+ * </p>
+ * <p>
+ * Live train positions travel on a separate, much faster channel:
+ * {@link #getTrainStates} scans only position, speed, heading, derailed flag and waiting
+ * signal group, at most once per tick per dimension.
+ * </p>
+ */
+public class TrainNetworkSnapshotService {
+
+    /** Minimum snapshot age before a track change forces a rebuild. */
+    public static final int CHANGE_DEBOUNCE_TICKS = 10;
+
+    /** Latest snapshot per dimension id. */
+    private static final Map<String, TrainNetworkSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+    /** Per-dimension epoch counters (survive snapshot eviction so epochs never repeat). */
+    private static final Map<String, Integer> EPOCHS = new ConcurrentHashMap<>();
+
+    /** Callbacks waiting for the analysis of a given capture epoch, per dimension. */
+    private static final Map<String, List<AnalysisWaiter>> WAITERS = new ConcurrentHashMap<>();
+
+    private record AnalysisWaiter(int epoch, Consumer<@Nullable TrainNetworkSnapshot> callback) {}
+
+    /** Latest live train states per dimension id. */
+    private static final Map<String, TrainStates> TRAIN_STATES = new ConcurrentHashMap<>();
+
+    /**
+     * Latest Train Controller listing. Create's railway state is global, so one
+     * listing serves the controllers of every dimension.
+     */
+    @Nullable private static volatile TrainControllerView controllerView;
+
+    /**
+     * Get the snapshot for the given level's dimension, rebuilding it if the cached
+     * one is older than {@code maxAgeTicks} or the track changed since it was built.
+     *
+     * @param level       The server level to read.
+     * @param maxAgeTicks Oldest snapshot the caller accepts, in ticks.
+     * @return The current snapshot (never null; may be empty if no network exists).
+     */
+    public static TrainNetworkSnapshot getSnapshot(Level level, int maxAgeTicks) {
+        String dim = level.dimension().location().toString();
+        long now = level.getGameTime();
+
+        TrainNetworkSnapshot cached = SNAPSHOTS.get(dim);
+        if (cached != null && cached.ageTicks(now) >= 0) {
+            boolean fresh = cached.ageTicks(now) < maxAgeTicks
+                    && (!cached.isTrackStale() || cached.ageTicks(now) < CHANGE_DEBOUNCE_TICKS);
+            if (fresh) return cached;
+        }
+        return rebuild(level, dim, now);
+    }
+
+    /**
+     * Run {@code callback} on the server thread once a snapshot no older than
+     * {@code maxAgeTicks} has its diagnostics analyzed. Runs immediately if the
+     * current snapshot already is; otherwise after the worker publishes. Gets
+     * null if the snapshot was invalidated before its analysis came back.
+     */
+    public static void whenAnalyzed(Level level, int maxAgeTicks, Consumer<@Nullable TrainNetworkSnapshot> callback) {
+        TrainNetworkSnapshot snapshot = getSnapshot(level, maxAgeTicks);
+        if (snapshot.isAnalyzed() || snapshot.topology().isEmpty()) {
+            callback.accept(snapshot);
+            return;
+        }
+        WAITERS.computeIfAbsent(snapshot.dimension(), d -> new ArrayList<>())
+                .add(new AnalysisWaiter(snapshot.epoch(), callback));
+    }
+
+    /**
+     * Merge a finished analysis into the current snapshot of its dimension.
+     * Results older than the diagnostics already shown are dropped, but still
+     * release their waiters with the current snapshot. Called on the server
+     * thread by {@link NetworkDiagnosticsWorker#drain}.
+     */
+    static void publishDiagnostics(NetworkDiagnosticsWorker.Result result) {
+        String dim = result.dimension();
+        TrainNetworkSnapshot current = SNAPSHOTS.get(dim);
+        if (current == null) {
+            // Invalidated meanwhile: nothing to merge into
+            releaseWaiters(dim, result.epoch(), null);
+            return;
+        }
+        if (result.epoch() <= current.diagnosticsEpoch()) {
+            // Stale: the current diagnostics are at least as new as this analysis
+            releaseWaiters(dim, current.diagnosticsEpoch(), current);
+            return;
+        }
+
+        // Shallow copy: published tags are never mutated, so children are shared
+        CompoundTag merged = new CompoundTag();
+        for (String key : current.mapData().getAllKeys()) {
+            merged.put(key, current.mapData().get(key));
+        }
+        for (String key : TrainNetworkDataReader.DIAGNOSTIC_KEYS) merged.remove(key);
+        merged.merge(result.diagnostics());
+
+        TrainNetworkSnapshot published = new TrainNetworkSnapshot(dim, current.epoch(), current.gameTime(),
+                current.trackStamp(), merged, current.topology(), result.epoch(),
+                MapEntityHashes.of(merged, current.topology()));
+        SNAPSHOTS.put(dim, published);
+        releaseWaiters(dim, result.epoch(), published);
+    }
+
+    /** Run and remove the callbacks waiting for captures up to {@code epoch}. */
+    private static void releaseWaiters(String dim, int epoch, @Nullable TrainNetworkSnapshot snapshot) {
+        List<AnalysisWaiter> waiters = WAITERS.get(dim);
+        if (waiters == null) return;
+        List<AnalysisWaiter> ready = new ArrayList<>();
+        waiters.removeIf(w -> w.epoch() <= epoch && ready.add(w));
+        for (AnalysisWaiter waiter : ready) {
+            try {
+                waiter.callback().accept(snapshot);
+            } catch (Exception e) {
+                LogicLink.LOGGER.warn("TrainNetworkSnapshotService: Diagnostics callback failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get the live train states for the given level's dimension, scanning them
+     * if the cached states are from an earlier tick. Independent of the
+     * topology snapshot and its refresh cadence; the last snapshot's topology,
+     * if any, is only used to tag trains with the edge they are on.
+     */
+    public static TrainStates getTrainStates(Level level) {
+        String dim = level.dimension().location().toString();
+        long now = level.getGameTime();
+
+        TrainStates cached = TRAIN_STATES.get(dim);
+        if (cached != null && cached.gameTime() == now) return cached;
+
+        TrainNetworkSnapshot snapshot = peek(level);
+        TrainStates states = TrainNetworkDataReader.readTrainStates(level,
+                snapshot != null ? snapshot.topology() : NetworkTopology.EMPTY);
+        TRAIN_STATES.put(dim, states);
+        return states;
+    }
+
+    /**
+     * Get the Train Controller listing, reading it from Create if the cached one
+     * is older than {@code maxAgeTicks}. The listing has its own capture cadence:
+     * it never rebuilds the map snapshot or queues diagnostics, and it is read at
+     * most once per tick however many controllers ask.
+     *
+     * @param level       The server level asking (its clock stamps the listing).
+     * @param maxAgeTicks Oldest listing the caller accepts, in ticks; 0 forces a
+     *                    fresh read unless one already happened this tick.
+     */
+    public static TrainControllerView getControllerView(Level level, int maxAgeTicks) {
+        long now = level.getGameTime();
+        TrainControllerView view = controllerView;
+        if (view != null) {
+            long age = view.ageTicks(now);
+            if (age == 0 || (age > 0 && age < maxAgeTicks)) return view;
+        }
+        view = TrainControllerView.capture(now);
+        controllerView = view;
+        return view;
+    }
+
+    /**
+     * Get the cached snapshot for a dimension without triggering a scan.
+     *
+     * @return The last built snapshot, or null if none exists yet.
+     */
+    @Nullable
+    public static TrainNetworkSnapshot peek(Level level) {
+        return SNAPSHOTS.get(level.dimension().location().toString());
+    }
+
+    /**
+     * Mark a dimension's snapshot as stale so the next request rebuilds it.
+     */
+    public static void invalidate(Level level) {
+        SNAPSHOTS.remove(level.dimension().location().toString());
+    }
+
+    /**
+     * Drop all snapshots and cached graph topologies. Called on server shutdown.
+     */
+    public static void clear() {
+        SNAPSHOTS.clear();
+        TRAIN_STATES.clear();
+        controllerView = null;
+        EPOCHS.clear();
+        WAITERS.clear();
+        NetworkDiagnosticsWorker.clear();
+        TrainNetworkDataReader.clearTopologyCache();
+        TrackChangeTracker.clear();
+    }
+
+    private static synchronized TrainNetworkSnapshot rebuild(Level level, String dim, long now) {
+        // Another consumer may have rebuilt while we waited for the lock
+        TrainNetworkSnapshot cached = SNAPSHOTS.get(dim);
+        if (cached != null && cached.gameTime() == now) {
+            return cached;
+        }
+
+        // Read the stamp first: a change that lands mid-scan leaves the snapshot stale
+        long trackStamp = TrackChangeTracker.stamp(dim);
+        TrainNetworkDataReader.NetworkScan scan = TrainNetworkDataReader.scanNetwork(level);
+        int epoch = EPOCHS.merge(dim, 1, Integer::sum);
+
+        // Keep showing the last diagnostics until this capture has been analyzed
+        CompoundTag mapData = scan.mapData();
+        int diagnosticsEpoch = -1;
+        if (cached != null && !mapData.isEmpty()) {
+            for (String key : TrainNetworkDataReader.DIAGNOSTIC_KEYS) {
+                Tag previous = cached.mapData().get(key);
+                if (previous != null) mapData.put(key, previous);
+            }
+            diagnosticsEpoch = cached.diagnosticsEpoch();
+        }
+        TrainNetworkSnapshot snapshot = new TrainNetworkSnapshot(dim, epoch, now, trackStamp,
+                mapData, scan.topology(), diagnosticsEpoch, MapEntityHashes.of(mapData, scan.topology()));
+        SNAPSHOTS.put(dim, snapshot);
+        if (!scan.topology().isEmpty()) {
+            NetworkDiagnosticsWorker.submit(snapshot);
+        }
+
+        LogicLink.LOGGER.debug("TrainNetworkSnapshotService: Rebuilt {} snapshot epoch {} at tick {}",
+                dim, epoch, now);
+        return snapshot;
+    }
+}
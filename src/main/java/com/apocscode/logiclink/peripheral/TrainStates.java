@@ -0,0 +1,183 @@
+package com.apocscode.logiclink.peripheral;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Live state of every train in a dimension, packed into one fixed-stride int
+ * array. This is the high-frequency channel of the CTC map: it is scanned every
+ * few ticks by {@link TrainNetworkDataReader#readTrainStates} and synced on its
+ * own, independent of the topology snapshot, so trains move on the map without
+ * a full network scan.
+ * <p>
+ * Train {@code i} occupies {@code data[i * STRIDE .. i * STRIDE + STRIDE)}:
+ * </p>
+ * <ul>
+ *   <li>{@link #X}, {@link #Y}, {@link #Z}: position in 1/{@link #POS_SCALE} blocks</li>
+ *   <li>{@link #SPEED}: speed as {@link Float#floatToIntBits float bits}</li>
+ *   <li>{@link #FLAGS}: {@link #FLAG_DERAILED}, {@link #FLAG_HAS_POS},
+ *       {@link #FLAG_HAS_HEADING}, and in the upper bits the index + 1 into
+ *       {@link #groups()} of the signal group the train is held at (0 = not waiting)</li>
+ *   <li>{@link #HEADING}: direction of travel, in 1/{@link #HEADING_STEPS} turns</li>
+ *   <li>{@link #EDGE}: index + 1 of the {@link NetworkTopology} edge under the
+ *       leading bogey, negated if the train travels from the edge's B node
+ *       towards A (0 = unknown)</li>
+ * </ul>
+ * <p>
+ * Heading, speed and edge let clients dead-reckon trains along the track
+ * between updates ({@code TrainDeadReckoning}), so states only need to be
+ * resent when a train {@link #divergesFrom diverges} from that prediction.
+ * </p>
+ *
+ * @param gameTime Game time of the scan.
+ * @param ids      Truncated train ids, as in the map data {@code Trains} list.
+ * @param groups   Signal group ids referenced from {@link #FLAGS}.
+ * @param data     Packed per-train state.
+ */
+public record TrainStates(long gameTime, String[] ids, String[] groups, int[] data) {
+
+    public static final int STRIDE = 7;
+    public static final int X = 0, Y = 1, Z = 2, SPEED = 3, FLAGS = 4, HEADING = 5, EDGE = 6;
+
+    public static final int POS_SCALE = 16;
+    public static final int HEADING_STEPS = 1 << 16;
+    public static final int FLAG_DERAILED = 1;
+    public static final int FLAG_HAS_POS = 1 << 1;
+    public static final int FLAG_HAS_HEADING = 1 << 2;
+    private static final int GROUP_SHIFT = 8;
+
+    /** Resend at least this often while any train moves, to bound clock drift. */
+    private static final int MAX_SILENT_TICKS = 100;
+    /** Resend when a predicted position is off by more than this (blocks). */
+    private static final float POS_TOLERANCE = 1.5f;
+    /** Resend when a speed changed by more than this (blocks per tick). */
+    private static final float SPEED_TOLERANCE = 0.05f;
+
+    public static final TrainStates EMPTY = new TrainStates(0, new String[0], new String[0], new int[0]);
+
+    public int count() {
+        return ids.length;
+    }
+
+    public float x(int train) { return data[train * STRIDE + X] / (float) POS_SCALE; }
+    public float y(int train) { return data[train * STRIDE + Y] / (float) POS_SCALE; }
+    public float z(int train) { return data[train * STRIDE + Z] / (float) POS_SCALE; }
+    public float speed(int train) { return Float.intBitsToFloat(data[train * STRIDE + SPEED]); }
+    public boolean isDerailed(int train) { return (data[train * STRIDE + FLAGS] & FLAG_DERAILED) != 0; }
+    public boolean hasPosition(int train) { return (data[train * STRIDE + FLAGS] & FLAG_HAS_POS) != 0; }
+    public boolean hasHeading(int train) { return (data[train * STRIDE + FLAGS] & FLAG_HAS_HEADING) != 0; }
+
+    /** Direction of travel in radians (atan2 of Z over X). */
+    public double heading(int train) {
+        return data[train * STRIDE + HEADING] * (Math.PI * 2 / HEADING_STEPS);
+    }
+
+    /** Topology edge under the leading bogey, or -1. */
+    public int edge(int train) {
+        int e = data[train * STRIDE + EDGE];
+        return e == 0 ? -1 : Math.abs(e) - 1;
+    }
+
+    /** True if the train travels from the edge's A node towards B. */
+    public boolean edgeForward(int train) {
+        return data[train * STRIDE + EDGE] > 0;
+    }
+
+    static int packHeading(double dx, double dz) {
+        int steps = (int) Math.round(Math.atan2(dz, dx) / (Math.PI * 2) * HEADING_STEPS);
+        return Math.floorMod(steps, HEADING_STEPS);
+    }
+
+    static int packEdge(int edge, boolean forward) {
+        return edge < 0 ? 0 : forward ? edge + 1 : -(edge + 1);
+    }
+
+    /** Signal group the train is held at, or null. */
+    public String waitingGroup(int train) {
+        int g = data[train * STRIDE + FLAGS] >>> GROUP_SHIFT;
+        return g > 0 ? groups[g - 1] : null;
+    }
+
+    static int packFlags(boolean derailed, boolean hasPos, boolean hasHeading, int groupIndex) {
+        return (derailed ? FLAG_DERAILED : 0) | (hasPos ? FLAG_HAS_POS : 0)
+                | (hasHeading ? FLAG_HAS_HEADING : 0) | ((groupIndex + 1) << GROUP_SHIFT);
+    }
+
+    /** Same trains in the same state (game time is ignored). */
+    public boolean sameStateAs(TrainStates other) {
+        return Arrays.equals(data, other.data) && Arrays.equals(ids, other.ids)
+                && Arrays.equals(groups, other.groups);
+    }
+
+    /**
+     * True if clients extrapolating from {@code sent} would now be visibly wrong:
+     * different trains, changed flags or waiting group, a speed change, or a
+     * predicted position more than {@value #POS_TOLERANCE} blocks off.
+     * <p>
+     * Prediction here is a straight line along the sent heading, while clients
+     * follow the track and stop extrapolating after a few seconds. The two agree
+     * on straight track; on curves and past junctions a client can drift further
+     * than this check sees, and only the resend after at most
+     * {@value #MAX_SILENT_TICKS} silent ticks bounds that error.
+     * </p>
+     */
+    public boolean divergesFrom(TrainStates sent) {
+        if (sameStateAs(sent)) return false;
+        if (!Arrays.equals(ids, sent.ids) || !Arrays.equals(groups, sent.groups)) return true;
+        long elapsed = gameTime - sent.gameTime;
+        if (elapsed < 0 || elapsed >= MAX_SILENT_TICKS) return true;
+
+        for (int t = 0; t < ids.length; t++) {
+            int base = t * STRIDE;
+            if (data[base + FLAGS] != sent.data[base + FLAGS]) return true;
+            if (Math.abs(speed(t) - sent.speed(t)) > SPEED_TOLERANCE) return true;
+            if (!hasPosition(t)) continue;
+
+            float px = sent.x(t), pz = sent.z(t);
+            if (sent.hasHeading(t)) {
+                double dist = Math.abs(sent.speed(t)) * elapsed;
+                px += (float) (Math.cos(sent.heading(t)) * dist);
+                pz += (float) (Math.sin(sent.heading(t)) * dist);
+            }
+            float dx = x(t) - px, dz = z(t) - pz;
+            if (dx * dx + dz * dz > POS_TOLERANCE * POS_TOLERANCE) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Write these states over the matching entries of a map data {@code Trains}
+     * list (position, speed, derailed flag, waiting signal group). Trains not in
+     * the list are skipped; they appear with the next full map update.
+     */
+    public void applyTo(CompoundTag mapData) {
+        if (ids.length == 0 || !mapData.contains("Trains")) return;
+        ListTag trains = mapData.getList("Trains", 10);
+
+        Object2IntOpenHashMap<String> byId = new Object2IntOpenHashMap<>(trains.size());
+        byId.defaultReturnValue(-1);
+        for (int i = 0; i < trains.size(); i++) {
+            byId.put(trains.getCompound(i).getString("id"), i);
+        }
+
+        for (int t = 0; t < ids.length; t++) {
+            int index = byId.getInt(ids[t]);
+            if (index < 0) continue;
+            CompoundTag train = trains.getCompound(index);
+            if (hasPosition(t)) {
+                train.putFloat("x", x(t));
+                train.putFloat("y", y(t));
+                train.putFloat("z", z(t));
+            }
+            train.putDouble("speed", speed(t));
+            train.putBoolean("derailed", isDerailed(t));
+            String group = waitingGroup(t);
+            if (group != null) train.putString("waitingForSignal", group);
+            else train.remove("waitingForSignal");
+        }
+    }
+}